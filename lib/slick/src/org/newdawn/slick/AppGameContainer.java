@@ -22,6 +22,7 @@ import org.newdawn.slick.opengl.ImageIOImageData;
 import org.newdawn.slick.opengl.InternalTextureLoader;
 import org.newdawn.slick.opengl.LoadableImageData;
 import org.newdawn.slick.opengl.TGAImageData;
+import org.newdawn.slick.util.FrameProfiler;
 import org.newdawn.slick.util.Log;
 import org.newdawn.slick.util.ResourceLoader;
 
@@ -418,7 +419,13 @@ public class AppGameContainer extends GameContainer {
 
 		updateFPS();
 
+		if (profiler != null) {
+			profiler.begin(FrameProfiler.DISPLAY);
+		}
 		Display.update();
+		if (profiler != null) {
+			profiler.end(FrameProfiler.DISPLAY);
+		}
 		
 		if (Display.isCloseRequested()) {
 			if (game.closeRequested()) {
@@ -16,6 +16,7 @@ import org.newdawn.slick.opengl.CursorLoader;
 import org.newdawn.slick.opengl.ImageData;
 import org.newdawn.slick.opengl.renderer.Renderer;
 import org.newdawn.slick.opengl.renderer.SGL;
+import org.newdawn.slick.util.FrameProfiler;
 import org.newdawn.slick.util.Log;
 import org.newdawn.slick.util.ResourceLoader;
 
@@ -60,6 +61,10 @@ public abstract class GameContainer implements GUIContext {
 	protected int targetFPS = -1;
 	/** True if we should show the fps */
 	private boolean showFPS = true;
+	/** The profiler timing the phases of each frame, null if profiling is off */
+	protected FrameProfiler profiler;
+	/** True if we should show the profiler overlay */
+	private boolean showProfiler;
 	/** The minimum logic update interval */
 	protected long minimumLogicInterval = 1;
 	/** The stored delta */
@@ -632,15 +637,31 @@ public abstract class GameContainer implements GUIContext {
 	 * @throws SlickException Indicates an internal fault to the game.
 	 */
 	protected void updateAndRender(int delta) throws SlickException {
+		FrameProfiler profiler = this.profiler;
+		if (profiler != null) {
+			profiler.beginFrame();
+		}
+		
 		if (smoothDeltas) {
 			if (getFPS() != 0) {
 				delta = 1000 / getFPS();
 			}
 		}
 		
+		if (profiler != null) {
+			profiler.begin(FrameProfiler.INPUT);
+		}
 		input.poll(width, height);
+		if (profiler != null) {
+			profiler.end(FrameProfiler.INPUT);
+			profiler.begin(FrameProfiler.MUSIC);
+		}
 	
 		Music.poll(delta);
+		if (profiler != null) {
+			profiler.end(FrameProfiler.MUSIC);
+			profiler.begin(FrameProfiler.UPDATE);
+		}
 		if (!paused) {
 			storedDelta += delta;
 			
@@ -672,8 +693,14 @@ public abstract class GameContainer implements GUIContext {
 		} else {
 			game.update(this, 0);
 		}
+		if (profiler != null) {
+			profiler.end(FrameProfiler.UPDATE);
+		}
 		
 		if (hasFocus() || getAlwaysRender()) {
+			if (profiler != null) {
+				profiler.begin(FrameProfiler.RENDER);
+			}
 			if (clearEachFrame) {
 				GL.glClear(SGL.GL_COLOR_BUFFER_BIT | SGL.GL_DEPTH_BUFFER_BIT);
 			} 
@@ -695,12 +722,28 @@ public abstract class GameContainer implements GUIContext {
 			if (showFPS) {
 				defaultFont.drawString(10, 10, "FPS: "+recordedFPS);
 			}
+			if (showProfiler && (profiler != null)) {
+				profiler.render(graphics, 10, 30);
+			}
 			
+			if (profiler != null) {
+				profiler.end(FrameProfiler.RENDER);
+				profiler.begin(FrameProfiler.FLUSH);
+			}
 			GL.flush();
+			if (profiler != null) {
+				profiler.end(FrameProfiler.FLUSH);
+			}
 		}
 		
 		if (targetFPS != -1) {
+			if (profiler != null) {
+				profiler.begin(FrameProfiler.SYNC);
+			}
 			Display.sync(targetFPS);
+			if (profiler != null) {
+				profiler.end(FrameProfiler.SYNC);
+			}
 		}
 	}
 	
@@ -785,6 +828,47 @@ public abstract class GameContainer implements GUIContext {
 		return showFPS;
 	}
 	
+	/**
+	 * Indicate whether the container should time the phases of each frame
+	 * 
+	 * @param profiling True if the container should time the phases of each frame
+	 */
+	public void setProfiling(boolean profiling) {
+		if (!profiling) {
+			profiler = null;
+		} else if (profiler == null) {
+			profiler = new FrameProfiler();
+		}
+	}
+	
+	/**
+	 * Get the profiler timing the phases of each frame
+	 * 
+	 * @return The profiler, or null if profiling is off
+	 */
+	public FrameProfiler getProfiler() {
+		return profiler;
+	}
+	
+	/**
+	 * Indicate whether the container should show the profiler overlay, only
+	 * shown while profiling
+	 * 
+	 * @param show True if the container should show the profiler overlay
+	 */
+	public void setShowProfiler(boolean show) {
+		showProfiler = show;
+	}
+	
+	/**
+	 * Check if the profiler overlay is currently showing
+	 * 
+	 * @return True if the profiler overlay is showing
+	 */
+	public boolean isShowingProfiler() {
+		return showProfiler && (profiler != null);
+	}
+	
 	/**
 	 * Set the target fps we're hoping to get
 	 * 
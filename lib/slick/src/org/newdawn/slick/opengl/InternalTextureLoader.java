@@ -50,6 +50,8 @@ public class InternalTextureLoader {
     private boolean deferred;
     /** True if we should hold texture data */
     private boolean holdTextureData;
+    /** True if textures are created at the size of their image instead of the next power of two */
+    private boolean nonPowerOfTwo;
     
     /** 
      * Create a new texture loader based on the game panel
@@ -67,6 +69,27 @@ public class InternalTextureLoader {
     	this.holdTextureData = holdTextureData;
     }
     
+    /**
+     * Indicate whether textures may have sizes that aren't a power of two. When set textures
+     * are created at the size of their image, saving the memory of the padding. Should only be
+     * set when the renderer supports it.
+     * 
+     * @see SGL#canTextureNonPowerOfTwo()
+     * @param nonPowerOfTwo True if textures may have any size
+     */
+    public void setNonPowerOfTwo(boolean nonPowerOfTwo) {
+    	this.nonPowerOfTwo = nonPowerOfTwo;
+    }
+    
+    /**
+     * Check if textures are created at the size of their image
+     * 
+     * @return True if textures may have sizes that aren't a power of two
+     */
+    public boolean isNonPowerOfTwo() {
+    	return nonPowerOfTwo;
+    }
+    
     /**
      * True if we should only record the request to load in the intention
      * of loading the texture later
@@ -313,13 +336,6 @@ public class InternalTextureLoader {
         texWidth = texture.getTextureWidth();
         texHeight = texture.getTextureHeight();
 
-        IntBuffer temp = BufferUtils.createIntBuffer(16);
-        GL.glGetInteger(SGL.GL_MAX_TEXTURE_SIZE, temp);
-        int max = temp.get(0);
-        if ((texWidth > max) || (texHeight > max)) {
-        	throw new IOException("Attempt to allocate a texture to big for the current hardware");
-        }
-        
         int srcPixelFormat = hasAlpha ? SGL.GL_RGBA : SGL.GL_RGB;
         int componentCount = hasAlpha ? 4 : 3;
         
@@ -327,6 +343,21 @@ public class InternalTextureLoader {
         texture.setHeight(height);
         texture.setAlpha(hasAlpha);
 
+        if (nonPowerOfTwo && ((texWidth != width) || (texHeight != height))) {
+        	textureBuffer = trim(textureBuffer, texWidth, width, height, componentCount);
+        	texWidth = width;
+        	texHeight = height;
+        	texture.setTextureWidth(texWidth);
+        	texture.setTextureHeight(texHeight);
+        }
+        
+        IntBuffer temp = BufferUtils.createIntBuffer(16);
+        GL.glGetInteger(SGL.GL_MAX_TEXTURE_SIZE, temp);
+        int max = temp.get(0);
+        if ((texWidth > max) || (texHeight > max)) {
+        	throw new IOException("Attempt to allocate a texture to big for the current hardware");
+        }
+
         if (holdTextureData) {
         	texture.setTextureData(srcPixelFormat, componentCount, minFilter, magFilter, textureBuffer);
         }
@@ -338,8 +369,8 @@ public class InternalTextureLoader {
         GL.glTexImage2D(target, 
                       0, 
                       dstPixelFormat, 
-                      get2Fold(width), 
-                      get2Fold(height), 
+                      texWidth, 
+                      texHeight, 
                       0, 
                       srcPixelFormat, 
                       SGL.GL_UNSIGNED_BYTE, 
@@ -424,6 +455,14 @@ public class InternalTextureLoader {
         texture.setHeight(height);
         texture.setAlpha(hasAlpha);
         
+        if (nonPowerOfTwo && ((texWidth != width) || (texHeight != height))) {
+        	textureBuffer = trim(textureBuffer, texWidth, width, height, componentCount);
+        	texWidth = width;
+        	texHeight = height;
+        	texture.setTextureWidth(texWidth);
+        	texture.setTextureHeight(texHeight);
+        }
+        
         IntBuffer temp = BufferUtils.createIntBuffer(16);
         GL.glGetInteger(SGL.GL_MAX_TEXTURE_SIZE, temp);
         int max = temp.get(0);
@@ -442,8 +481,8 @@ public class InternalTextureLoader {
         GL.glTexImage2D(target, 
                       0, 
                       dstPixelFormat, 
-                      get2Fold(width), 
-                      get2Fold(height), 
+                      texWidth, 
+                      texHeight, 
                       0, 
                       srcPixelFormat, 
                       SGL.GL_UNSIGNED_BYTE, 
@@ -452,6 +491,35 @@ public class InternalTextureLoader {
         return texture; 
     } 
     
+    /**
+     * Copy an image out of a buffer padded to a power of two. The rows are kept aligned
+     * to 4 bytes, which is what OpenGL expects when unpacking by default.
+     * 
+     * @param padded The padded image data
+     * @param paddedWidth The width the image data is padded to
+     * @param width The width of the image
+     * @param height The height of the image
+     * @param componentCount The number of bytes per pixel
+     * @return The image data without padding
+     */
+    private ByteBuffer trim(ByteBuffer padded, int paddedWidth, int width, int height, int componentCount) {
+    	int rowLength = width * componentCount;
+    	int stride = (rowLength + 3) & ~3;
+    	ByteBuffer source = padded.duplicate();
+    	ByteBuffer trimmed = BufferUtils.createByteBuffer(stride * height);
+    	
+    	for (int y=0;y<height;y++) {
+    		int start = y * paddedWidth * componentCount;
+    		source.limit(start + rowLength);
+    		source.position(start);
+    		trimmed.position(y * stride);
+    		trimmed.put(source);
+    	}
+    	
+    	trimmed.clear();
+    	return trimmed;
+    }
+    
     /**
      * Get the closest greater power of 2 to the fold number
      * 
@@ -408,6 +408,14 @@ public class ImmediateModeOGLRenderer implements SGL {
 		return GLContext.getCapabilities().GL_EXT_texture_mirror_clamp;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see org.newdawn.slick.opengl.renderer.SGL#canTextureNonPowerOfTwo()
+	 */
+	public boolean canTextureNonPowerOfTwo() {
+		return GLContext.getCapabilities().GL_ARB_texture_non_power_of_two || GLContext.getCapabilities().OpenGL20;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see org.newdawn.slick.opengl.renderer.SGL#canSecondaryColor()
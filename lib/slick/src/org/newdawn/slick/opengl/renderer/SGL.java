@@ -529,6 +529,13 @@ public interface SGL {
 	 */
 	public boolean canTextureMirrorClamp();
 
+	/**
+	 * Check if textures may have sizes that aren't a power of two
+	 * 
+	 * @return True if non power of two textures are available
+	 */
+	public boolean canTextureNonPowerOfTwo();
+
 	public boolean canSecondaryColor();
 
 	public void glSecondaryColor3ubEXT(byte b, byte c, byte d);
@@ -0,0 +1,346 @@
+package org.newdawn.slick.util;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Arrays;
+
+import org.newdawn.slick.Color;
+import org.newdawn.slick.Graphics;
+
+/**
+ * Times the phases of each frame of a game container with the high resolution
+ * timer. The times of the most recent frames are kept, so percentiles can be
+ * shown in an overlay or the frames can be written to a CSV file to find out
+ * where hitches come from.
+ *
+ * The allocation rate is sampled from the growth of the used heap between
+ * frames. Collections make the heap shrink, which isn't counted, so the rate
+ * is an estimate that is close as long as collections are rare.
+ *
+ * @author Kevin Glass
+ */
+public class FrameProfiler {
+	/** The phase polling the input */
+	public static final int INPUT = 0;
+	/** The phase streaming the music */
+	public static final int MUSIC = 1;
+	/** The phase updating the game, all update cycles of a frame together */
+	public static final int UPDATE = 2;
+	/** The phase rendering the game */
+	public static final int RENDER = 3;
+	/** The phase flushing the GL commands */
+	public static final int FLUSH = 4;
+	/** The phase waiting for the target frame rate */
+	public static final int SYNC = 5;
+	/** The phase swapping the buffers of the display */
+	public static final int DISPLAY = 6;
+	/** The complete frame, from the start of a frame to the start of the next */
+	public static final int FRAME = 7;
+
+	/** The number of phases */
+	private static final int PHASES = 8;
+	/** The names of the phases */
+	private static final String[] NAMES = new String[] {"input", "music", "update", "render", "flush", "sync", "display", "frame"};
+	/** The number of frames between updates of the overlay */
+	private static final int OVERLAY_INTERVAL = 30;
+	/** The interval of the allocation rate samples in nanoseconds */
+	private static final long ALLOCATION_INTERVAL = 1000000000L;
+	/** The background of the overlay */
+	private static final Color BACKGROUND = new Color(0, 0, 0, 0.6f);
+
+	/** The number of frames kept */
+	private int capacity;
+	/** The times of the phases of the kept frames in nanoseconds, by phase */
+	private long[][] samples;
+	/** The times of the phases of the current frame in nanoseconds */
+	private long[] current;
+	/** The time each phase was last started */
+	private long[] started;
+	/** The number of frames recorded */
+	private int frames;
+	/** The time the current frame started, 0 before the first frame */
+	private long frameStart;
+	/** The kept times of a phase sorted, used to find percentiles */
+	private long[] sorted;
+
+	/** The used heap at the last sample */
+	private long lastHeap;
+	/** The bytes allocated since the allocation rate was last sampled */
+	private long allocated;
+	/** The time the allocation rate was last sampled */
+	private long allocationStart;
+	/** The last sampled allocation rate in bytes per second */
+	private long allocationRate;
+
+	/** The lines of the overlay */
+	private String[] lines = new String[PHASES + 2];
+
+	/**
+	 * Create a new profiler keeping the last 600 frames
+	 */
+	public FrameProfiler() {
+		this(600);
+	}
+
+	/**
+	 * Create a new profiler
+	 *
+	 * @param capacity The number of frames to keep
+	 */
+	public FrameProfiler(int capacity) {
+		this.capacity = capacity;
+
+		samples = new long[PHASES][capacity];
+		current = new long[PHASES];
+		started = new long[PHASES];
+		sorted = new long[capacity];
+
+		Arrays.fill(lines, "");
+	}
+
+	/**
+	 * Get the name of a phase
+	 *
+	 * @param phase The phase
+	 * @return The name of the phase
+	 */
+	public static String getName(int phase) {
+		return NAMES[phase];
+	}
+
+	/**
+	 * Start timing a phase of the current frame
+	 *
+	 * @param phase The phase to time
+	 */
+	public void begin(int phase) {
+		started[phase] = System.nanoTime();
+	}
+
+	/**
+	 * Stop timing a phase of the current frame. A phase that runs more than
+	 * once in a frame is timed in total.
+	 *
+	 * @param phase The phase to stop timing
+	 */
+	public void end(int phase) {
+		current[phase] += System.nanoTime() - started[phase];
+	}
+
+	/**
+	 * Notification that a new frame starts, records the frame before it
+	 */
+	public void beginFrame() {
+		long now = System.nanoTime();
+
+		if (frameStart != 0) {
+			current[FRAME] = now - frameStart;
+
+			int index = frames % capacity;
+			for (int i=0;i<PHASES;i++) {
+				samples[i][index] = current[i];
+				current[i] = 0;
+			}
+			frames++;
+
+			sampleAllocation(now);
+		} else {
+			allocationStart = now;
+		}
+
+		frameStart = now;
+	}
+
+	/**
+	 * Get the number of frames recorded
+	 *
+	 * @return The number of frames recorded since the profiler was created
+	 */
+	public int getFrameCount() {
+		return frames;
+	}
+
+	/**
+	 * Get the estimated allocation rate
+	 *
+	 * @return The bytes allocated per second, sampled every second
+	 */
+	public long getAllocationRate() {
+		return allocationRate;
+	}
+
+	/**
+	 * Get a percentile of the times of a phase over the kept frames
+	 *
+	 * @param phase The phase
+	 * @param percentile The percentile, between 0 and 100
+	 * @return The time in nanoseconds, 0 if no frames have been recorded
+	 */
+	public long getPercentile(int phase, float percentile) {
+		int count = Math.min(frames, capacity);
+		if (count == 0) {
+			return 0;
+		}
+
+		System.arraycopy(samples[phase], 0, sorted, 0, count);
+		Arrays.sort(sorted, 0, count);
+
+		int index = (int) Math.ceil((percentile / 100) * count) - 1;
+		return sorted[Math.max(0, Math.min(count - 1, index))];
+	}
+
+	/**
+	 * Get the longest time of a phase over the kept frames
+	 *
+	 * @param phase The phase
+	 * @return The time in nanoseconds, 0 if no frames have been recorded
+	 */
+	public long getMax(int phase) {
+		int count = Math.min(frames, capacity);
+		long max = 0;
+
+		for (int i=0;i<count;i++) {
+			max = Math.max(max, samples[phase][i]);
+		}
+
+		return max;
+	}
+
+	/**
+	 * Render the percentiles of the phases and the allocation rate. The
+	 * numbers are refreshed every 30 frames so they can be read.
+	 *
+	 * @param g The graphics context to render to
+	 * @param x The x position of the overlay
+	 * @param y The y position of the overlay
+	 */
+	public void render(Graphics g, int x, int y) {
+		if (frames % OVERLAY_INTERVAL == 0 || lines[0].length() == 0) {
+			updateLines();
+		}
+
+		int lineHeight = g.getFont().getLineHeight();
+		int width = 0;
+		for (int i=0;i<lines.length;i++) {
+			width = Math.max(width, g.getFont().getWidth(lines[i]));
+		}
+
+		Color color = g.getColor();
+
+		g.setColor(BACKGROUND);
+		g.fillRect(x, y, width + 10, (lineHeight * lines.length) + 10);
+		g.setColor(Color.white);
+		for (int i=0;i<lines.length;i++) {
+			g.drawString(lines[i], x + 5, y + 5 + (i * lineHeight));
+		}
+
+		g.setColor(color);
+	}
+
+	/**
+	 * Write the times of the kept frames to a CSV file, oldest frame first,
+	 * one column per phase in microseconds
+	 *
+	 * @param filename The name of the file to write
+	 * @throws IOException Indicates a failure to write the file
+	 */
+	public void writeCSV(String filename) throws IOException {
+		Writer out = new OutputStreamWriter(new FileOutputStream(filename), "UTF-8");
+
+		try {
+			out.write("frame");
+			for (int i=0;i<PHASES;i++) {
+				out.write("," + NAMES[i] + "_us");
+			}
+			out.write("\n");
+
+			int count = Math.min(frames, capacity);
+			int first = frames - count;
+
+			for (int frame=first;frame<frames;frame++) {
+				int index = frame % capacity;
+
+				out.write(Integer.toString(frame));
+				for (int i=0;i<PHASES;i++) {
+					out.write("," + (samples[i][index] / 1000));
+				}
+				out.write("\n");
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	/**
+	 * Add the growth of the used heap to the allocated bytes, and sample the
+	 * allocation rate once a second
+	 *
+	 * @param now The current time in nanoseconds
+	 */
+	private void sampleAllocation(long now) {
+		Runtime runtime = Runtime.getRuntime();
+		long heap = runtime.totalMemory() - runtime.freeMemory();
+
+		if (heap > lastHeap) {
+			allocated += heap - lastHeap;
+		}
+		lastHeap = heap;
+
+		if (now - allocationStart >= ALLOCATION_INTERVAL) {
+			allocationRate = (allocated * 1000000000L) / (now - allocationStart);
+			allocated = 0;
+			allocationStart = now;
+		}
+	}
+
+	/**
+	 * Update the lines of the overlay with the current percentiles
+	 */
+	private void updateLines() {
+		lines[0] = pad("phase", 7) + pad("p50", 8) + pad("p99", 8) + pad("max", 8) + " ms";
+
+		for (int i=0;i<PHASES;i++) {
+			lines[i + 1] = pad(NAMES[i], 7) + pad(toMillis(getPercentile(i, 50)), 8)
+						+ pad(toMillis(getPercentile(i, 99)), 8) + pad(toMillis(getMax(i)), 8);
+		}
+
+		lines[PHASES + 1] = "alloc " + (allocationRate / 1024) + " KB/s";
+	}
+
+	/**
+	 * Format a time as milliseconds with two decimals
+	 *
+	 * @param nanos The time in nanoseconds
+	 * @return The formatted time
+	 */
+	private static String toMillis(long nanos) {
+		long hundredths = nanos / 10000;
+		String decimals = Long.toString(hundredths % 100);
+
+		if (decimals.length() < 2) {
+			decimals = "0" + decimals;
+		}
+
+		return (hundredths / 100) + "." + decimals;
+	}
+
+	/**
+	 * Pad a text to a minimum width with spaces on the left
+	 *
+	 * @param text The text to pad
+	 * @param width The minimum width
+	 * @return The padded text
+	 */
+	private static String pad(String text, int width) {
+		StringBuffer buffer = new StringBuffer();
+
+		for (int i=text.length();i<width;i++) {
+			buffer.append(' ');
+		}
+		buffer.append(text);
+
+		return buffer.toString();
+	}
+}
@@ -1,8 +1,6 @@
 package org.newdawn.slick.util.pathfinding;
 
-import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Arrays;
 
 import org.newdawn.slick.util.pathfinding.heuristics.ClosestHeuristic;
 
@@ -10,27 +8,51 @@ import org.newdawn.slick.util.pathfinding.heuristics.ClosestHeuristic;
  * A path finder implementation that uses the AStar heuristic based algorithm
  * to determine a path. 
  * 
+ * The state of the search is kept in flat arrays indexed by y * width + x instead
+ * of a node object per tile. The open list is a binary heap of node indices that 
+ * supports decrease-key, and the node state is stamped with the generation of the 
+ * search that wrote it, so starting a new search doesn't have to reset the map.
+ * 
  * @author Kevin Glass
  */
 public class AStarPathFinder implements PathFinder, PathFindingContext {
-	/** The set of nodes that have been searched through */
-	private ArrayList closed = new ArrayList();
-	/** The set of nodes that we do not yet consider fully searched */
-	private PriorityList open = new PriorityList();
+	/** The node hasn't been reached in the current search */
+	private static final byte UNVISITED = 0;
+	/** The node is in the open list */
+	private static final byte OPEN = 1;
+	/** The node has been searched through */
+	private static final byte CLOSED = 2;
 	
 	/** The map being searched */
 	private TileBasedMap map;
 	/** The maximum depth of search we're willing to accept before giving up */
 	private int maxSearchDistance;
+	/** The width of the map in tiles */
+	private int width;
+	
+	/** The path cost of each node */
+	private float[] cost;
+	/** The heuristic cost of each node */
+	private float[] heuristicCost;
+	/** The node each node was reached from, -1 if it has no parent */
+	private int[] parent;
+	/** The search depth of each node */
+	private int[] depth;
+	/** The open/closed state of each node */
+	private byte[] state;
+	/** The search generation that last wrote the state of each node */
+	private int[] generation;
+	/** The open list, ordered on cost + heuristic */
+	private NodeHeap open;
+	/** The generation of the current search */
+	private int currentGeneration;
 	
-	/** The complete set of nodes across the map */
-	private Node[][] nodes;
 	/** True if we allow diaganol movement */
 	private boolean allowDiagMovement;
 	/** The heuristic we're applying to determine which nodes to search first */
 	private AStarHeuristic heuristic;
-	/** The node we're currently searching from */
-	private Node current;
+	/** The node we're currently searching from, -1 if there isn't one */
+	private int current;
 	
 	/** The mover going through the path */
 	private Mover mover;
@@ -66,20 +88,25 @@ public class AStarPathFinder implements PathFinder, PathFindingContext {
 		this.map = map;
 		this.maxSearchDistance = maxSearchDistance;
 		this.allowDiagMovement = allowDiagMovement;
+		this.current = -1;
 		
-		nodes = new Node[map.getWidthInTiles()][map.getHeightInTiles()];
-		for (int x=0;x<map.getWidthInTiles();x++) {
-			for (int y=0;y<map.getHeightInTiles();y++) {
-				nodes[x][y] = new Node(x,y);
-			}
-		}
+		width = map.getWidthInTiles();
+		int size = width * map.getHeightInTiles();
+		
+		cost = new float[size];
+		heuristicCost = new float[size];
+		parent = new int[size];
+		depth = new int[size];
+		state = new byte[size];
+		generation = new int[size];
+		open = new NodeHeap(size);
 	}
 	
 	/**
 	 * @see PathFinder#findPath(Mover, int, int, int, int)
 	 */
 	public Path findPath(Mover mover, int sx, int sy, int tx, int ty) {
-		current = null;
+		current = -1;
 		
 		// easy first check, if the destination is blocked, we can't get there
 		this.mover = mover;
@@ -91,45 +118,43 @@ public class AStarPathFinder implements PathFinder, PathFindingContext {
 			return null;
 		}
 
-		for (int x=0;x<map.getWidthInTiles();x++) {
-			for (int y=0;y<map.getHeightInTiles();y++) {
-				nodes[x][y].reset();
-			}
-		}
+		startSearch();
 		
 		// initial state for A*. The closed group is empty. Only the starting
 		// tile is in the open list and it's cost is zero, i.e. we're already there
-		nodes[sx][sy].cost = 0;
-		nodes[sx][sy].depth = 0;
-		closed.clear();
-		open.clear();
-		addToOpen(nodes[sx][sy]);
+		int source = sy * width + sx;
+		int target = ty * width + tx;
 		
-		nodes[tx][ty].parent = null;
+		touch(source);
+		touch(target);
+		addToOpen(source);
 		
 		// while we haven't found the goal and haven't exceeded our max search depth
 		int maxDepth = 0;
-		while ((maxDepth < maxSearchDistance) && (open.size() != 0)) {
+		while ((maxDepth < maxSearchDistance) && (!open.isEmpty())) {
 			// pull out the first node in our open list, this is determined to 
 			// be the most likely to be the next step based on our heuristic
 			int lx = sx;
 			int ly = sy;
-			if (current != null) {
-				lx = current.x;
-				ly = current.y;
+			if (current != -1) {
+				lx = current % width;
+				ly = current / width;
 			}
 			
-			current = getFirstInOpen();
-			distance = current.depth;
+			current = open.peek();
+			distance = depth[current];
 			
-			if (current == nodes[tx][ty]) {
+			if (current == target) {
 				if (isValidLocation(mover,lx,ly,tx,ty)) {
 					break;
 				}
 			}
 			
-			removeFromOpen(current);
-			addToClosed(current);
+			open.removeFirst();
+			state[current] = CLOSED;
+			
+			int cx = current % width;
+			int cy = current / width;
 			
 			// search through all the neighbours of the current node evaluating
 			// them as next steps
@@ -149,37 +174,40 @@ public class AStarPathFinder implements PathFinder, PathFindingContext {
 					}
 					
 					// determine the location of the neighbour and evaluate it
-					int xp = x + current.x;
-					int yp = y + current.y;
+					int xp = x + cx;
+					int yp = y + cy;
 					
-					if (isValidLocation(mover,current.x,current.y,xp,yp)) {
+					if (isValidLocation(mover,cx,cy,xp,yp)) {
 						// the cost to get to this node is cost the current plus the movement
 						// cost to reach this node. Note that the heursitic value is only used
-						// in the sorted open list
-						float nextStepCost = current.cost + getMovementCost(mover, current.x, current.y, xp, yp);
-						Node neighbour = nodes[xp][yp];
+						// in the open heap
+						float nextStepCost = cost[current] + getMovementCost(mover, cx, cy, xp, yp);
+						int neighbour = yp * width + xp;
+						touch(neighbour);
 						map.pathFinderVisited(xp, yp);
 						
 						// if the new cost we've determined for this node is lower than 
 						// it has been previously makes sure the node hasn't been discarded. We've
 						// determined that there might have been a better path to get to
 						// this node so it needs to be re-evaluated
-						if (nextStepCost < neighbour.cost) {
-							if (inOpenList(neighbour)) {
-								removeFromOpen(neighbour);
+						if (nextStepCost < cost[neighbour]) {
+							if (state[neighbour] == OPEN) {
+								updateInOpen(neighbour, nextStepCost);
+								maxDepth = Math.max(maxDepth, depth[neighbour]);
+								continue;
 							}
-							if (inClosedList(neighbour)) {
-								removeFromClosed(neighbour);
+							if (state[neighbour] == CLOSED) {
+								state[neighbour] = UNVISITED;
 							}
 						}
 						
 						// if the node hasn't already been processed and discarded then
 						// reset it's cost to our current cost and add it as a next possible
 						// step (i.e. to the open list)
-						if (!inOpenList(neighbour) && !(inClosedList(neighbour))) {
-							neighbour.cost = nextStepCost;
-							neighbour.heuristic = getHeuristicCost(mover, xp, yp, tx, ty);
-							maxDepth = Math.max(maxDepth, neighbour.setParent(current));
+						if (state[neighbour] == UNVISITED) {
+							cost[neighbour] = nextStepCost;
+							heuristicCost[neighbour] = getHeuristicCost(mover, xp, yp, tx, ty);
+							maxDepth = Math.max(maxDepth, setParent(neighbour, current));
 							addToOpen(neighbour);
 						} 
 					}
@@ -189,7 +217,7 @@ public class AStarPathFinder implements PathFinder, PathFindingContext {
 
 		// since we've got an empty open list or we've run out of search 
 		// there was no path. Just return null
-		if (nodes[tx][ty].parent == null) {
+		if (parent[target] == -1) {
 			return null;
 		}
 		
@@ -197,10 +225,10 @@ public class AStarPathFinder implements PathFinder, PathFindingContext {
 		// references of the nodes to find out way from the target location back
 		// to the start recording the nodes on the way.
 		Path path = new Path();
-		Node target = nodes[tx][ty];
-		while (target != nodes[sx][sy]) {
-			path.prependStep(target.x, target.y);
-			target = target.parent;
+		int step = target;
+		while (step != source) {
+			path.prependStep(step % width, step / width);
+			step = parent[step];
 		}
 		path.prependStep(sx,sy);
 		
@@ -214,11 +242,11 @@ public class AStarPathFinder implements PathFinder, PathFindingContext {
 	 * @return The X coordinate of the node currently being evaluated
 	 */
 	public int getCurrentX() {
-		if (current == null) {
+		if (current == -1) {
 			return -1;
 		}
 		
-		return current.x;
+		return current % width;
 	}
 
 	/**
@@ -227,81 +255,79 @@ public class AStarPathFinder implements PathFinder, PathFindingContext {
 	 * @return The Y coordinate of the node currently being evaluated
 	 */
 	public int getCurrentY() {
-		if (current == null) {
+		if (current == -1) {
 			return -1;
 		}
 		
-		return current.y;
-	}
-	
-	/**
-	 * Get the first element from the open list. This is the next
-	 * one to be searched.
-	 * 
-	 * @return The first element in the open list
-	 */
-	protected Node getFirstInOpen() {
-		return (Node) open.first();
+		return current / width;
 	}
 	
 	/**
-	 * Add a node to the open list
-	 * 
-	 * @param node The node to be added to the open list
+	 * Start a new search generation, which invalidates the state of every node 
+	 * without touching the node arrays
 	 */
-	protected void addToOpen(Node node) {
-		node.setOpen(true);
-		open.add(node);
-	}
-	
-	/**
-	 * Check if a node is in the open list
-	 * 
-	 * @param node The node to check for
-	 * @return True if the node given is in the open list
-	 */
-	protected boolean inOpenList(Node node) {
-		return node.isOpen();
+	private void startSearch() {
+		currentGeneration++;
+		
+		// the generation wrapped around, old stamps could match again
+		if (currentGeneration == 0) {
+			Arrays.fill(generation, 0);
+			currentGeneration = 1;
+		}
+		
+		open.clear();
 	}
 	
 	/**
-	 * Remove a node from the open list
+	 * Reset the state of a node if it hasn't been reached yet in the current search
 	 * 
-	 * @param node The node to remove from the open list
+	 * @param node The index of the node
 	 */
-	protected void removeFromOpen(Node node) {
-		node.setOpen(false);
-		open.remove(node);
+	private void touch(int node) {
+		if (generation[node] != currentGeneration) {
+			generation[node] = currentGeneration;
+			state[node] = UNVISITED;
+			cost[node] = 0;
+			depth[node] = 0;
+			parent[node] = -1;
+		}
 	}
 	
 	/**
-	 * Add a node to the closed list
+	 * Set the parent of a node
 	 * 
-	 * @param node The node to add to the closed list
+	 * @param node The index of the node
+	 * @param parentNode The index of the parent node which lead us to this node
+	 * @return The depth we have no reached in searching
 	 */
-	protected void addToClosed(Node node) {
-		node.setClosed(true);
-		closed.add(node);
+	private int setParent(int node, int parentNode) {
+		depth[node] = depth[parentNode] + 1;
+		parent[node] = parentNode;
+		
+		return depth[node];
 	}
 	
 	/**
-	 * Check if the node supplied is in the closed list
+	 * Add a node to the open list
 	 * 
-	 * @param node The node to search for
-	 * @return True if the node specified is in the closed list
+	 * @param node The index of the node to be added to the open list
 	 */
-	protected boolean inClosedList(Node node) {
-		return node.isClosed();
+	private void addToOpen(int node) {
+		state[node] = OPEN;
+		open.add(node, cost[node] + heuristicCost[node]);
 	}
 	
 	/**
-	 * Remove a node from the closed list
+	 * Lower the cost of a node in the open list, it moves behind the nodes 
+	 * with the same total cost like a newly added node
 	 * 
-	 * @param node The node to remove from the closed list
+	 * @param node The index of the node in the open list
+	 * @param newCost The new, lower, path cost of the node
 	 */
-	protected void removeFromClosed(Node node) {
-		node.setClosed(false);
-		closed.remove(node);
+	private void updateInOpen(int node, float newCost) {
+		cost[node] = newCost;
+		setParent(node, current);
+		open.add(node, cost[node] + heuristicCost[node]);
 	}
 	
 	/**
@@ -360,206 +386,6 @@ public class AStarPathFinder implements PathFinder, PathFindingContext {
 		return heuristic.getCost(map, mover, x, y, tx, ty);
 	}
 	
-	/**
-	 * A list that sorts any element provided into the list
-	 *
-	 * @author kevin
-	 */
-	private class PriorityList {
-		/** The list of elements */
-		private List list = new LinkedList();
-		
-		/**
-		 * Retrieve the first element from the list
-		 *  
-		 * @return The first element from the list
-		 */
-		public Object first() {
-			return list.get(0);
-		}
-		
-		/**
-		 * Empty the list
-		 */
-		public void clear() {
-			list.clear();
-		}
-		
-		/**
-		 * Add an element to the list - causes sorting
-		 * 
-		 * @param o The element to add
-		 */
-		public void add(Object o) {
-			// float the new entry 
-			for (int i=0;i<list.size();i++) {
-				if (((Comparable) list.get(i)).compareTo(o) > 0) {
-					list.add(i, o);
-					break;
-				}
-			}
-			if (!list.contains(o)) {
-				list.add(o);
-			}
-			//Collections.sort(list);
-		}
-		
-		/**
-		 * Remove an element from the list
-		 * 
-		 * @param o The element to remove
-		 */
-		public void remove(Object o) {
-			list.remove(o);
-		}
-	
-		/**
-		 * Get the number of elements in the list
-		 * 
-		 * @return The number of element in the list
- 		 */
-		public int size() {
-			return list.size();
-		}
-		
-		/**
-		 * Check if an element is in the list
-		 * 
-		 * @param o The element to search for
-		 * @return True if the element is in the list
-		 */
-		public boolean contains(Object o) {
-			return list.contains(o);
-		}
-		
-		public String toString() {
-			String temp = "{";
-			for (int i=0;i<size();i++) {
-				temp += list.get(i).toString()+",";
-			}
-			temp += "}";
-			
-			return temp;
-		}
-	}
-	
-	/**
-	 * A single node in the search graph
-	 */
-	private class Node implements Comparable {
-		/** The x coordinate of the node */
-		private int x;
-		/** The y coordinate of the node */
-		private int y;
-		/** The path cost for this node */
-		private float cost;
-		/** The parent of this node, how we reached it in the search */
-		private Node parent;
-		/** The heuristic cost of this node */
-		private float heuristic;
-		/** The search depth of this node */
-		private int depth;
-		/** In the open list */
-		private boolean open;
-		/** In the closed list */
-		private boolean closed;
-		
-		/**
-		 * Create a new node
-		 * 
-		 * @param x The x coordinate of the node
-		 * @param y The y coordinate of the node
-		 */
-		public Node(int x, int y) {
-			this.x = x;
-			this.y = y;
-		}
-		
-		/**
-		 * Set the parent of this node
-		 * 
-		 * @param parent The parent node which lead us to this node
-		 * @return The depth we have no reached in searching
-		 */
-		public int setParent(Node parent) {
-			depth = parent.depth + 1;
-			this.parent = parent;
-			
-			return depth;
-		}
-		
-		/**
-		 * @see Comparable#compareTo(Object)
-		 */
-		public int compareTo(Object other) {
-			Node o = (Node) other;
-			
-			float f = heuristic + cost;
-			float of = o.heuristic + o.cost;
-			
-			if (f < of) {
-				return -1;
-			} else if (f > of) {
-				return 1;
-			} else {
-				return 0;
-			}
-		}
-		
-		/**
-		 * Indicate whether the node is in the open list
-		 * 
-		 * @param open True if the node is in the open list
-		 */
-		public void setOpen(boolean open) {
-			this.open = open;
-		}
-		
-		/**
-		 * Check if the node is in the open list
-		 * 
-		 * @return True if the node is in the open list
-		 */
-		public boolean isOpen() {
-			return open;
-		}
-		
-		/**
-		 * Indicate whether the node is in the closed list
-		 * 
-		 * @param closed True if the node is in the closed list
-		 */
-		public void setClosed(boolean closed) {
-			this.closed = closed;
-		}
-		
-		/**
-		 * Check if the node is in the closed list
-		 * 
-		 * @return True if the node is in the closed list
-		 */
-		public boolean isClosed() {
-			return closed;
-		}
-
-		/**
-		 * Reset the state of this node
-		 */
-		public void reset() {
-			closed = false;
-			open = false;
-			cost = 0;
-			depth = 0;
-		}
-		
-		/**
-		 * @see java.lang.Object#toString()
-		 */
-		public String toString() {
-			return "[Node "+x+","+y+"]";
-		}
-	}
-
 	/**
 	 * @see org.newdawn.slick.util.pathfinding.PathFindingContext#getMover()
 	 */
@@ -0,0 +1,943 @@
+package org.newdawn.slick.util.pathfinding;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A path finder that searches an abstract graph over the map instead of the
+ * tiles themselves, hierarchical path finding (HPA*). The map is split in
+ * square clusters. Where the tiles on both sides of a cluster border are
+ * open there is an entrance, and the entrances of a cluster are linked with
+ * the cost of the shortest path between them inside the cluster. A search
+ * only looks at the tiles of the start and target clusters, the rest of the
+ * path follows the precomputed links. The paths found are close to, but not
+ * always exactly, the shortest path.
+ *
+ * The cost given by the map is ignored. Straight steps cost 1 and diaganol
+ * steps cost the square root of 2. The abstract graph is built without a mover,
+ * so maps that block tiles for some movers only should use AStarPathFinder.
+ * When tiles are blocked or unblocked the map should call tileChanged(), the
+ * clusters around the tile are repaired before the next search.
+ *
+ * @author Kevin Glass
+ */
+public class HierarchicalPathFinder implements PathFinder, PathFindingContext {
+	/** The cost of a diaganol step */
+	private static final float DIAGONAL_COST = (float) Math.sqrt(2);
+	/** Entrances at least this wide get a link at both ends instead of one in the middle */
+	private static final int WIDE_ENTRANCE = 6;
+	
+	/** The map being searched */
+	private TileBasedMap map;
+	/** The width of the map in tiles */
+	private int width;
+	/** The height of the map in tiles */
+	private int height;
+	/** The width and height of a cluster in tiles */
+	private int clusterSize;
+	/** The number of clusters across the map */
+	private int clustersAcross;
+	/** The number of clusters down the map */
+	private int clustersDown;
+	/** True if we allow diaganol movement */
+	private boolean allowDiagMovement;
+	
+	/** The list of entrances of each cluster */
+	private ArrayList[] entrances;
+	/** True for each cluster that has to be repaired before the next search */
+	private boolean[] dirty;
+	/** True if any cluster has to be repaired */
+	private boolean anyDirty;
+	/** The entrances by identifier, null for identifiers that aren't used */
+	private ArrayList entrancesById = new ArrayList();
+	/** The identifiers that can be reused */
+	private ArrayList freeIds = new ArrayList();
+	/** The open list of the search over the entrances */
+	private NodeHeap entranceOpen;
+	/** The generation of the current search over the entrances */
+	private int entranceSearch;
+	
+	/** The path cost of each tile in the current tile search */
+	private float[] tileCost;
+	/** The tile each tile was reached from, -1 if it has no parent */
+	private int[] tileParent;
+	/** The number of steps to reach each tile */
+	private int[] tileDepth;
+	/** The tile search generation that last wrote the state of each tile */
+	private int[] tileGeneration;
+	/** The open list of the tile search */
+	private NodeHeap tileOpen;
+	/** The generation of the current tile search */
+	private int tileSearch;
+	
+	/** The mover going through the path */
+	private Mover mover;
+	/** The x coordinate of the source tile we're moving from */
+	private int sourceX;
+	/** The y coordinate of the source tile we're moving from */
+	private int sourceY;
+	/** The distance searched so far */
+	private int distance;
+	
+	/**
+	 * Create a path finder and build the abstract graph of the map
+	 *
+	 * @param map The map to be searched
+	 * @param clusterSize The width and height of a cluster in tiles
+	 * @param allowDiagMovement True if the search should try diaganol movement
+	 */
+	public HierarchicalPathFinder(TileBasedMap map, int clusterSize, boolean allowDiagMovement) {
+		this.map = map;
+		this.clusterSize = clusterSize;
+		this.allowDiagMovement = allowDiagMovement;
+		
+		width = map.getWidthInTiles();
+		height = map.getHeightInTiles();
+		clustersAcross = (width + clusterSize - 1) / clusterSize;
+		clustersDown = (height + clusterSize - 1) / clusterSize;
+		
+		int size = width * height;
+		tileCost = new float[size];
+		tileParent = new int[size];
+		tileDepth = new int[size];
+		tileGeneration = new int[size];
+		tileOpen = new NodeHeap(size);
+		entranceOpen = new NodeHeap(64);
+		
+		entrances = new ArrayList[clustersAcross * clustersDown];
+		dirty = new boolean[entrances.length];
+		for (int i=0;i<entrances.length;i++) {
+			entrances[i] = new ArrayList();
+		}
+		
+		build();
+	}
+	
+	/**
+	 * Notification that a tile has been blocked or unblocked. The clusters
+	 * around the tile are repaired before the next search.
+	 *
+	 * @param x The x coordinate of the tile that changed
+	 * @param y The y coordinate of the tile that changed
+	 */
+	public void tileChanged(int x, int y) {
+		dirty[getCluster(x, y)] = true;
+		anyDirty = true;
+	}
+	
+	/**
+	 * @see PathFinder#findPath(Mover, int, int, int, int)
+	 */
+	public Path findPath(Mover mover, int sx, int sy, int tx, int ty) {
+		repair();
+		
+		this.mover = mover;
+		this.sourceX = tx;
+		this.sourceY = ty;
+		this.distance = 0;
+		
+		// easy first check, if the destination is blocked, we can't get there
+		if (map.blocked(this, tx, ty)) {
+			return null;
+		}
+		if ((sx == tx) && (sy == ty)) {
+			return null;
+		}
+		
+		int startCluster = getCluster(sx, sy);
+		int targetCluster = getCluster(tx, ty);
+		int target = ty * width + tx;
+		
+		// the start cluster has to be searched anyway, if the target is in
+		// there too that search finds the path without the abstract graph
+		searchTiles(sx, sy, startCluster);
+		if ((startCluster == targetCluster) && isReached(target)) {
+			Path path = new Path();
+			path.appendStep(sx, sy);
+			appendSteps(path, getTilePath(target, false));
+			return path;
+		}
+		
+		// link the start and target into the abstract graph for this search
+		Entrance start = createEntrance(sx, sy, startCluster);
+		ArrayList list = entrances[startCluster];
+		for (int i=0;i<list.size();i++) {
+			Entrance entrance = (Entrance) list.get(i);
+			int tile = entrance.y * width + entrance.x;
+			
+			if (isReached(tile)) {
+				start.edges.add(new Edge(entrance, tileCost[tile], getTilePath(tile, false)));
+			}
+		}
+		
+		Entrance goal = createEntrance(tx, ty, targetCluster);
+		ArrayList goalEdges = new ArrayList();
+		searchTiles(tx, ty, targetCluster);
+		list = entrances[targetCluster];
+		for (int i=0;i<list.size();i++) {
+			Entrance entrance = (Entrance) list.get(i);
+			int tile = entrance.y * width + entrance.x;
+			
+			if (isReached(tile)) {
+				Edge edge = new Edge(goal, tileCost[tile], getTilePath(tile, true));
+				entrance.edges.add(edge);
+				goalEdges.add(edge);
+			}
+		}
+		
+		boolean found = searchEntrances(start, goal);
+		
+		Path path = null;
+		if (found) {
+			// the links hold the steps between the entrances
+			ArrayList edges = new ArrayList();
+			for (Entrance entrance = goal;entrance != start;entrance = entrance.parent) {
+				edges.add(entrance.parentEdge);
+			}
+			
+			path = new Path();
+			path.appendStep(sx, sy);
+			for (int i=edges.size()-1;i>=0;i--) {
+				appendSteps(path, ((Edge) edges.get(i)).steps);
+			}
+		}
+		
+		// take the start and target out of the abstract graph again
+		for (int i=0;i<list.size();i++) {
+			((Entrance) list.get(i)).edges.removeAll(goalEdges);
+		}
+		releaseId(start);
+		releaseId(goal);
+		
+		return path;
+	}
+	
+	/**
+	 * Search the abstract graph from the start to the goal entrance with A*
+	 *
+	 * @param start The entrance to start from
+	 * @param goal The entrance to find
+	 * @return True if the goal was reached
+	 */
+	private boolean searchEntrances(Entrance start, Entrance goal) {
+		entranceSearch++;
+		entranceOpen.ensureCapacity(entrancesById.size());
+		entranceOpen.clear();
+		
+		touch(start);
+		start.cost = 0;
+		entranceOpen.add(start.id, getHeuristicCost(start.x, start.y, goal.x, goal.y));
+		
+		while (!entranceOpen.isEmpty()) {
+			Entrance current = (Entrance) entrancesById.get(entranceOpen.removeFirst());
+			if (current == goal) {
+				return true;
+			}
+			
+			current.closed = true;
+			
+			for (int i=0;i<current.edges.size();i++) {
+				Edge edge = (Edge) current.edges.get(i);
+				Entrance next = edge.target;
+				
+				touch(next);
+				if (next.closed) {
+					continue;
+				}
+				
+				float nextCost = current.cost + edge.cost;
+				if (nextCost < next.cost) {
+					next.cost = nextCost;
+					next.parent = current;
+					next.parentEdge = edge;
+					entranceOpen.add(next.id, nextCost + getHeuristicCost(next.x, next.y, goal.x, goal.y));
+				}
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Reset the search state of an entrance if it hasn't been reached yet in the current search
+	 *
+	 * @param entrance The entrance to reset
+	 */
+	private void touch(Entrance entrance) {
+		if (entrance.generation != entranceSearch) {
+			entrance.generation = entranceSearch;
+			entrance.cost = Float.MAX_VALUE;
+			entrance.parent = null;
+			entrance.parentEdge = null;
+			entrance.closed = false;
+		}
+	}
+	
+	/**
+	 * Build the entrances and links of the whole map
+	 */
+	private void build() {
+		mover = null;
+		
+		for (int cy=0;cy<clustersDown;cy++) {
+			for (int cx=0;cx<clustersAcross;cx++) {
+				int cluster = cy * clustersAcross + cx;
+				
+				if (cx + 1 < clustersAcross) {
+					connectClusters(cluster, cluster + 1);
+				}
+				if (cy + 1 < clustersDown) {
+					connectClusters(cluster, cluster + clustersAcross);
+				}
+				if ((cx + 1 < clustersAcross) && (cy + 1 < clustersDown)) {
+					connectClusters(cluster, cluster + clustersAcross + 1);
+					connectClusters(cluster + 1, cluster + clustersAcross);
+				}
+			}
+		}
+		
+		for (int i=0;i<entrances.length;i++) {
+			linkCluster(i);
+		}
+	}
+	
+	/**
+	 * Rebuild the entrances around the clusters that have changed since the
+	 * last search, and the links of every cluster whose entrances changed
+	 */
+	private void repair() {
+		if (!anyDirty) {
+			return;
+		}
+		
+		mover = null;
+		boolean[] relink = new boolean[entrances.length];
+		
+		for (int cluster=0;cluster<entrances.length;cluster++) {
+			if (!dirty[cluster]) {
+				continue;
+			}
+			
+			dirty[cluster] = false;
+			relink[cluster] = true;
+			
+			int cx = cluster % clustersAcross;
+			int cy = cluster / clustersAcross;
+			
+			for (int x=-1;x<2;x++) {
+				for (int y=-1;y<2;y++) {
+					if ((x == 0) && (y == 0)) {
+						continue;
+					}
+					
+					reconnectClusters(cluster, getCluster(cx + x, cy + y, -1), relink);
+					
+					// a diaganol link between the two clusters next to a corner
+					// depends on the corner tile of this cluster
+					if ((x != 0) && (y != 0)) {
+						reconnectClusters(getCluster(cx + x, cy, -1), getCluster(cx, cy + y, -1), relink);
+					}
+				}
+			}
+		}
+		
+		for (int cluster=0;cluster<entrances.length;cluster++) {
+			if (!relink[cluster]) {
+				continue;
+			}
+			
+			// entrances that don't lead out of the cluster anymore are removed
+			ArrayList list = entrances[cluster];
+			for (int i=list.size()-1;i>=0;i--) {
+				Entrance entrance = (Entrance) list.get(i);
+				boolean leadsOut = false;
+				
+				for (int j=0;j<entrance.edges.size();j++) {
+					if (((Edge) entrance.edges.get(j)).target.cluster != cluster) {
+						leadsOut = true;
+						break;
+					}
+				}
+				
+				if (!leadsOut) {
+					list.remove(i);
+					releaseId(entrance);
+				}
+			}
+		}
+		
+		for (int cluster=0;cluster<entrances.length;cluster++) {
+			if (relink[cluster]) {
+				linkCluster(cluster);
+			}
+		}
+		
+		anyDirty = false;
+	}
+	
+	/**
+	 * Remove the transitions between two clusters and build them again
+	 *
+	 * @param a The index of the first cluster, -1 if it's off the map
+	 * @param b The index of the second cluster, -1 if it's off the map
+	 * @param relink The clusters whose links have to be rebuilt
+	 */
+	private void reconnectClusters(int a, int b, boolean[] relink) {
+		if ((a == -1) || (b == -1)) {
+			return;
+		}
+		
+		removeTransitions(a, b);
+		removeTransitions(b, a);
+		connectClusters(Math.min(a, b), Math.max(a, b));
+		
+		relink[a] = true;
+		relink[b] = true;
+	}
+	
+	/**
+	 * Remove the transitions from the entrances of one cluster to another
+	 *
+	 * @param from The index of the cluster the transitions start in
+	 * @param to The index of the cluster the transitions lead to
+	 */
+	private void removeTransitions(int from, int to) {
+		ArrayList list = entrances[from];
+		
+		for (int i=0;i<list.size();i++) {
+			ArrayList edges = ((Entrance) list.get(i)).edges;
+			
+			for (int j=edges.size()-1;j>=0;j--) {
+				if (((Edge) edges.get(j)).target.cluster == to) {
+					edges.remove(j);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Build the transitions between two neighbouring clusters
+	 *
+	 * @param a The index of the first cluster
+	 * @param b The index of the cluster right, below or diaganolly below the first cluster
+	 */
+	private void connectClusters(int a, int b) {
+		int ax = a % clustersAcross;
+		int ay = a / clustersAcross;
+		int bx = b % clustersAcross;
+		int by = b / clustersAcross;
+		
+		if (ay == by) {
+			int x = (ax + 1) * clusterSize - 1;
+			int y = ay * clusterSize;
+			buildBorder(x, y, 0, 1, 1, 0, Math.min(clusterSize, height - y));
+		} else if (ax == bx) {
+			int x = ax * clusterSize;
+			int y = (ay + 1) * clusterSize - 1;
+			buildBorder(x, y, 1, 0, 0, 1, Math.min(clusterSize, width - x));
+		} else if (allowDiagMovement) {
+			// the clusters only touch in a corner, the tiles there are only
+			// worth a transition when the way around the corner is blocked
+			int dx = (bx > ax) ? 1 : -1;
+			int x = (dx == 1) ? ((ax + 1) * clusterSize - 1) : (ax * clusterSize);
+			int y = (ay + 1) * clusterSize - 1;
+			
+			if (isOpen(x, y, x, y) && isOpen(x, y, x + dx, y + 1) &&
+				!isOpen(x, y, x + dx, y) && !isOpen(x, y, x, y + 1)) {
+				addTransition(x, y, x + dx, y + 1, DIAGONAL_COST);
+			}
+		}
+	}
+	
+	/**
+	 * Build the transitions over a cluster border. Each run of tiles that are
+	 * open on both sides of the border is an entrance, a narrow entrance gets
+	 * one transition in the middle and a wide entrance one at both ends.
+	 *
+	 * @param x The x coordinate of the first border tile in the first cluster
+	 * @param y The y coordinate of the first border tile in the first cluster
+	 * @param stepX The x step along the border
+	 * @param stepY The y step along the border
+	 * @param crossX The x step over the border
+	 * @param crossY The y step over the border
+	 * @param length The number of tiles along the border
+	 */
+	private void buildBorder(int x, int y, int stepX, int stepY, int crossX, int crossY, int length) {
+		boolean[] passable = new boolean[length];
+		for (int i=0;i<length;i++) {
+			int ax = x + (i * stepX);
+			int ay = y + (i * stepY);
+			
+			passable[i] = isOpen(ax, ay, ax, ay) && isOpen(ax, ay, ax + crossX, ay + crossY);
+		}
+		
+		int runStart = -1;
+		for (int i=0;i<=length;i++) {
+			if ((i < length) && passable[i]) {
+				if (runStart == -1) {
+					runStart = i;
+				}
+				continue;
+			}
+			
+			if (runStart != -1) {
+				int runEnd = i - 1;
+				
+				if (runEnd - runStart + 1 >= WIDE_ENTRANCE) {
+					addBorderTransition(x, y, stepX, stepY, crossX, crossY, runStart, runStart);
+					addBorderTransition(x, y, stepX, stepY, crossX, crossY, runEnd, runEnd);
+				} else {
+					int middle = (runStart + runEnd) / 2;
+					addBorderTransition(x, y, stepX, stepY, crossX, crossY, middle, middle);
+				}
+				
+				runStart = -1;
+			}
+		}
+		
+		if (!allowDiagMovement) {
+			return;
+		}
+		
+		// diaganol steps over the border are only needed where no straight
+		// step is possible on either of the two rows they cross
+		for (int i=0;i<length-1;i++) {
+			if (passable[i] || passable[i + 1]) {
+				continue;
+			}
+			
+			int ax = x + (i * stepX);
+			int ay = y + (i * stepY);
+			int nextX = ax + stepX;
+			int nextY = ay + stepY;
+			
+			if (isOpen(ax, ay, ax, ay) && isOpen(ax, ay, nextX + crossX, nextY + crossY)) {
+				addBorderTransition(x, y, stepX, stepY, crossX, crossY, i, i + 1);
+			}
+			if (isOpen(nextX, nextY, nextX, nextY) && isOpen(nextX, nextY, ax + crossX, ay + crossY)) {
+				addBorderTransition(x, y, stepX, stepY, crossX, crossY, i + 1, i);
+			}
+		}
+	}
+	
+	/**
+	 * Add a transition over a cluster border
+	 *
+	 * @param x The x coordinate of the first border tile in the first cluster
+	 * @param y The y coordinate of the first border tile in the first cluster
+	 * @param stepX The x step along the border
+	 * @param stepY The y step along the border
+	 * @param crossX The x step over the border
+	 * @param crossY The y step over the border
+	 * @param from The position along the border in the first cluster
+	 * @param to The position along the border in the second cluster
+	 */
+	private void addBorderTransition(int x, int y, int stepX, int stepY, int crossX, int crossY, int from, int to) {
+		int fromX = x + (from * stepX);
+		int fromY = y + (from * stepY);
+		int toX = x + (to * stepX) + crossX;
+		int toY = y + (to * stepY) + crossY;
+		
+		addTransition(fromX, fromY, toX, toY, (from == to) ? 1 : DIAGONAL_COST);
+	}
+	
+	/**
+	 * Add a transition between two neighbouring tiles in different clusters,
+	 * creating the entrances on both tiles if they don't exist yet
+	 *
+	 * @param x1 The x coordinate of the first tile
+	 * @param y1 The y coordinate of the first tile
+	 * @param x2 The x coordinate of the second tile
+	 * @param y2 The y coordinate of the second tile
+	 * @param cost The cost of the step between the tiles
+	 */
+	private void addTransition(int x1, int y1, int x2, int y2, float cost) {
+		Entrance first = getEntrance(x1, y1);
+		Entrance second = getEntrance(x2, y2);
+		
+		first.edges.add(new Edge(second, cost, new int[] {(y2 * width) + x2}));
+		second.edges.add(new Edge(first, cost, new int[] {(y1 * width) + x1}));
+	}
+	
+	/**
+	 * Get the entrance on a tile, creating it if it doesn't exist yet
+	 *
+	 * @param x The x coordinate of the tile
+	 * @param y The y coordinate of the tile
+	 * @return The entrance on the tile
+	 */
+	private Entrance getEntrance(int x, int y) {
+		int cluster = getCluster(x, y);
+		ArrayList list = entrances[cluster];
+		
+		for (int i=0;i<list.size();i++) {
+			Entrance entrance = (Entrance) list.get(i);
+			if ((entrance.x == x) && (entrance.y == y)) {
+				return entrance;
+			}
+		}
+		
+		Entrance entrance = createEntrance(x, y, cluster);
+		list.add(entrance);
+		return entrance;
+	}
+	
+	/**
+	 * Rebuild the links between the entrances of a cluster, the shortest
+	 * paths between them that stay inside the cluster
+	 *
+	 * @param cluster The index of the cluster
+	 */
+	private void linkCluster(int cluster) {
+		ArrayList list = entrances[cluster];
+		
+		for (int i=0;i<list.size();i++) {
+			ArrayList edges = ((Entrance) list.get(i)).edges;
+			
+			for (int j=edges.size()-1;j>=0;j--) {
+				if (((Edge) edges.get(j)).target.cluster == cluster) {
+					edges.remove(j);
+				}
+			}
+		}
+		
+		for (int i=0;i<list.size();i++) {
+			Entrance from = (Entrance) list.get(i);
+			searchTiles(from.x, from.y, cluster);
+			
+			for (int j=0;j<list.size();j++) {
+				Entrance to = (Entrance) list.get(j);
+				int tile = (to.y * width) + to.x;
+				
+				if ((to != from) && isReached(tile)) {
+					from.edges.add(new Edge(to, tileCost[tile], getTilePath(tile, false)));
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Find the shortest paths from a tile to every tile of its cluster that
+	 * can be reached without leaving the cluster
+	 *
+	 * @param sx The x coordinate of the tile to start from
+	 * @param sy The y coordinate of the tile to start from
+	 * @param cluster The index of the cluster to search
+	 */
+	private void searchTiles(int sx, int sy, int cluster) {
+		tileSearch++;
+		
+		// the generation wrapped around, old stamps could match again
+		if (tileSearch == 0) {
+			Arrays.fill(tileGeneration, 0);
+			tileSearch = 1;
+		}
+		
+		int minX = (cluster % clustersAcross) * clusterSize;
+		int minY = (cluster / clustersAcross) * clusterSize;
+		int maxX = Math.min(width, minX + clusterSize) - 1;
+		int maxY = Math.min(height, minY + clusterSize) - 1;
+		
+		int start = (sy * width) + sx;
+		touchTile(start);
+		tileCost[start] = 0;
+		
+		tileOpen.clear();
+		tileOpen.add(start, 0);
+		
+		while (!tileOpen.isEmpty()) {
+			int current = tileOpen.removeFirst();
+			int cx = current % width;
+			int cy = current / width;
+			distance = tileDepth[current];
+			
+			for (int x=-1;x<2;x++) {
+				for (int y=-1;y<2;y++) {
+					if ((x == 0) && (y == 0)) {
+						continue;
+					}
+					if ((!allowDiagMovement) && (x != 0) && (y != 0)) {
+						continue;
+					}
+					
+					int xp = cx + x;
+					int yp = cy + y;
+					if ((xp < minX) || (yp < minY) || (xp > maxX) || (yp > maxY)) {
+						continue;
+					}
+					if (!isOpen(cx, cy, xp, yp)) {
+						continue;
+					}
+					
+					int neighbour = (yp * width) + xp;
+					float nextStepCost = tileCost[current] + (((x != 0) && (y != 0)) ? DIAGONAL_COST : 1);
+					
+					touchTile(neighbour);
+					map.pathFinderVisited(xp, yp);
+					
+					// the costs never get lower once a tile is searched through,
+					// so only tiles that are unreached or open get through here
+					if (nextStepCost < tileCost[neighbour]) {
+						tileCost[neighbour] = nextStepCost;
+						tileParent[neighbour] = current;
+						tileDepth[neighbour] = tileDepth[current] + 1;
+						tileOpen.add(neighbour, nextStepCost);
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Reset the state of a tile if it hasn't been reached yet in the current tile search
+	 *
+	 * @param tile The index of the tile
+	 */
+	private void touchTile(int tile) {
+		if (tileGeneration[tile] != tileSearch) {
+			tileGeneration[tile] = tileSearch;
+			tileCost[tile] = Float.MAX_VALUE;
+			tileParent[tile] = -1;
+			tileDepth[tile] = 0;
+		}
+	}
+	
+	/**
+	 * Check if a tile was reached in the last tile search
+	 *
+	 * @param tile The index of the tile
+	 * @return True if the tile was reached
+	 */
+	private boolean isReached(int tile) {
+		return (tileGeneration[tile] == tileSearch) && (tileCost[tile] != Float.MAX_VALUE);
+	}
+	
+	/**
+	 * Get the steps of the path to a tile found by the last tile search
+	 *
+	 * @param tile The index of the tile the path leads to
+	 * @param reverse True to get the steps from the tile back to the start instead
+	 * @return The tile indices of the steps, not including the tile the steps start from
+	 */
+	private int[] getTilePath(int tile, boolean reverse) {
+		int[] steps = new int[tileDepth[tile]];
+		
+		int step = tile;
+		for (int i=0;i<steps.length;i++) {
+			if (reverse) {
+				step = tileParent[step];
+				steps[i] = step;
+			} else {
+				steps[steps.length - 1 - i] = step;
+				step = tileParent[step];
+			}
+		}
+		
+		return steps;
+	}
+	
+	/**
+	 * Append steps to a path
+	 *
+	 * @param path The path to append to
+	 * @param steps The tile indices of the steps
+	 */
+	private void appendSteps(Path path, int[] steps) {
+		for (int i=0;i<steps.length;i++) {
+			path.appendStep(steps[i] % width, steps[i] / width);
+		}
+	}
+	
+	/**
+	 * Create a new entrance with a free identifier
+	 *
+	 * @param x The x coordinate of the tile of the entrance
+	 * @param y The y coordinate of the tile of the entrance
+	 * @param cluster The index of the cluster the entrance is in
+	 * @return The new entrance
+	 */
+	private Entrance createEntrance(int x, int y, int cluster) {
+		Entrance entrance = new Entrance(x, y, cluster);
+		
+		if (freeIds.isEmpty()) {
+			entrance.id = entrancesById.size();
+			entrancesById.add(entrance);
+		} else {
+			entrance.id = ((Integer) freeIds.remove(freeIds.size() - 1)).intValue();
+			entrancesById.set(entrance.id, entrance);
+		}
+		
+		return entrance;
+	}
+	
+	/**
+	 * Make the identifier of a removed entrance available again
+	 *
+	 * @param entrance The entrance that was removed
+	 */
+	private void releaseId(Entrance entrance) {
+		entrancesById.set(entrance.id, null);
+		freeIds.add(Integer.valueOf(entrance.id));
+	}
+	
+	/**
+	 * Get the index of the cluster a tile is in
+	 *
+	 * @param x The x coordinate of the tile
+	 * @param y The y coordinate of the tile
+	 * @return The index of the cluster
+	 */
+	private int getCluster(int x, int y) {
+		return ((y / clusterSize) * clustersAcross) + (x / clusterSize);
+	}
+	
+	/**
+	 * Get the index of a cluster by its position
+	 *
+	 * @param cx The x position of the cluster
+	 * @param cy The y position of the cluster
+	 * @param outside The value to return if the position is off the map
+	 * @return The index of the cluster
+	 */
+	private int getCluster(int cx, int cy, int outside) {
+		if ((cx < 0) || (cy < 0) || (cx >= clustersAcross) || (cy >= clustersDown)) {
+			return outside;
+		}
+		
+		return (cy * clustersAcross) + cx;
+	}
+	
+	/**
+	 * Check if a tile is on the map and not blocked
+	 *
+	 * @param sx The x coordinate of the tile we're moving from
+	 * @param sy The y coordinate of the tile we're moving from
+	 * @param x The x coordinate of the tile to check
+	 * @param y The y coordinate of the tile to check
+	 * @return True if the tile can be moved through
+	 */
+	private boolean isOpen(int sx, int sy, int x, int y) {
+		if ((x < 0) || (y < 0) || (x >= width) || (y >= height)) {
+			return false;
+		}
+		
+		this.sourceX = sx;
+		this.sourceY = sy;
+		return !map.blocked(this, x, y);
+	}
+	
+	/**
+	 * Get the heuristic cost for the given location, the cost of the shortest
+	 * path to the target if nothing was blocked
+	 *
+	 * @param x The x coordinate of the tile whose cost is being determined
+	 * @param y The y coordiante of the tile whose cost is being determined
+	 * @param tx The x coordinate of the target location
+	 * @param ty The y coordinate of the target location
+	 * @return The heuristic cost assigned to the tile
+	 */
+	private float getHeuristicCost(int x, int y, int tx, int ty) {
+		int dx = Math.abs(tx - x);
+		int dy = Math.abs(ty - y);
+		
+		if (!allowDiagMovement) {
+			return dx + dy;
+		}
+		
+		return Math.abs(dx - dy) + (Math.min(dx, dy) * DIAGONAL_COST);
+	}
+	
+	/**
+	 * @see org.newdawn.slick.util.pathfinding.PathFindingContext#getMover()
+	 */
+	public Mover getMover() {
+		return mover;
+	}
+	
+	/**
+	 * @see org.newdawn.slick.util.pathfinding.PathFindingContext#getSearchDistance()
+	 */
+	public int getSearchDistance() {
+		return distance;
+	}
+	
+	/**
+	 * @see org.newdawn.slick.util.pathfinding.PathFindingContext#getSourceX()
+	 */
+	public int getSourceX() {
+		return sourceX;
+	}
+	
+	/**
+	 * @see org.newdawn.slick.util.pathfinding.PathFindingContext#getSourceY()
+	 */
+	public int getSourceY() {
+		return sourceY;
+	}
+	
+	/**
+	 * A tile on a cluster border that leads into a neighbouring cluster
+	 */
+	private static class Entrance {
+		/** The identifier of the entrance, its index in the open list */
+		private int id;
+		/** The x coordinate of the tile */
+		private int x;
+		/** The y coordinate of the tile */
+		private int y;
+		/** The index of the cluster the entrance is in */
+		private int cluster;
+		/** The links and transitions leading away from this entrance */
+		private ArrayList edges = new ArrayList();
+		
+		/** The path cost in the current search */
+		private float cost;
+		/** The entrance this entrance was reached from in the current search */
+		private Entrance parent;
+		/** The edge this entrance was reached through in the current search */
+		private Edge parentEdge;
+		/** The search generation that last wrote the search state */
+		private int generation;
+		/** True if the entrance has been searched through */
+		private boolean closed;
+		
+		/**
+		 * Create a new entrance
+		 *
+		 * @param x The x coordinate of the tile
+		 * @param y The y coordinate of the tile
+		 * @param cluster The index of the cluster the entrance is in
+		 */
+		public Entrance(int x, int y, int cluster) {
+			this.x = x;
+			this.y = y;
+			this.cluster = cluster;
+		}
+	}
+	
+	/**
+	 * A way from one entrance to another, a link inside a cluster or a
+	 * transition over a cluster border
+	 */
+	private static class Edge {
+		/** The entrance the edge leads to */
+		private Entrance target;
+		/** The cost of following the edge */
+		private float cost;
+		/** The tile indices of the steps, not including the tile the edge starts on */
+		private int[] steps;
+		
+		/**
+		 * Create a new edge
+		 *
+		 * @param target The entrance the edge leads to
+		 * @param cost The cost of following the edge
+		 * @param steps The tile indices of the steps
+		 */
+		public Edge(Entrance target, float cost, int[] steps) {
+			this.target = target;
+			this.cost = cost;
+			this.steps = steps;
+		}
+	}
+}
@@ -0,0 +1,445 @@
+package org.newdawn.slick.util.pathfinding;
+
+import java.util.Arrays;
+
+/**
+ * A path finder that uses Jump Point Search. This is A* for maps where every
+ * unblocked tile costs the same to move through. Instead of adding every
+ * neighbour to the open list it scans along straight and diagonal lines and
+ * only stops at tiles where the shortest path could turn, so long distance
+ * searches over open areas expand a fraction of the nodes plain A* does.
+ *
+ * The cost given by the map is ignored. Straight steps cost 1 and diaganol
+ * steps cost the square root of 2. Like AStarPathFinder diaganol steps are
+ * allowed past blocked corners. The context handed to the map while scanning
+ * has the tile the scan started from as source.
+ *
+ * @author Kevin Glass
+ */
+public class JumpPointPathFinder implements PathFinder, PathFindingContext {
+	/** The cost of a diaganol step */
+	private static final float DIAGONAL_COST = (float) Math.sqrt(2);
+	/** The node has been searched through */
+	private static final byte CLOSED = 1;
+	
+	/** The map being searched */
+	private TileBasedMap map;
+	/** The maximum number of steps a path may have */
+	private int maxSearchDistance;
+	/** The width of the map in tiles */
+	private int width;
+	/** The height of the map in tiles */
+	private int height;
+	/** True if we allow diaganol movement */
+	private boolean allowDiagMovement;
+	
+	/** The path cost of each node */
+	private float[] cost;
+	/** The jump point each node was reached from, -1 if it has no parent */
+	private int[] parent;
+	/** The number of steps to reach each node */
+	private int[] depth;
+	/** The closed state of each node */
+	private byte[] state;
+	/** The search generation that last wrote the state of each node */
+	private int[] generation;
+	/** The open list, ordered on cost + heuristic */
+	private NodeHeap open;
+	/** The generation of the current search */
+	private int currentGeneration;
+	/** The node we're looking for */
+	private int target;
+	
+	/** The mover going through the path */
+	private Mover mover;
+	/** The x coordinate of the source tile we're moving from */
+	private int sourceX;
+	/** The y coordinate of the source tile we're moving from */
+	private int sourceY;
+	/** The distance searched so far */
+	private int distance;
+	
+	/**
+	 * Create a path finder
+	 *
+	 * @param map The map to be searched
+	 * @param maxSearchDistance The maximum number of steps of a path we'll accept
+	 * @param allowDiagMovement True if the search should try diaganol movement
+	 */
+	public JumpPointPathFinder(TileBasedMap map, int maxSearchDistance, boolean allowDiagMovement) {
+		this.map = map;
+		this.maxSearchDistance = maxSearchDistance;
+		this.allowDiagMovement = allowDiagMovement;
+		
+		width = map.getWidthInTiles();
+		height = map.getHeightInTiles();
+		int size = width * height;
+		
+		cost = new float[size];
+		parent = new int[size];
+		depth = new int[size];
+		state = new byte[size];
+		generation = new int[size];
+		open = new NodeHeap(size);
+	}
+	
+	/**
+	 * @see PathFinder#findPath(Mover, int, int, int, int)
+	 */
+	public Path findPath(Mover mover, int sx, int sy, int tx, int ty) {
+		this.mover = mover;
+		this.sourceX = tx;
+		this.sourceY = ty;
+		this.distance = 0;
+		
+		// easy first check, if the destination is blocked, we can't get there
+		if (map.blocked(this, tx, ty)) {
+			return null;
+		}
+		
+		startSearch();
+		
+		int source = sy * width + sx;
+		target = ty * width + tx;
+		
+		touch(source);
+		touch(target);
+		open.add(source, getHeuristicCost(sx, sy, tx, ty));
+		
+		while (!open.isEmpty()) {
+			int current = open.removeFirst();
+			if (current == target) {
+				break;
+			}
+			
+			state[current] = CLOSED;
+			distance = depth[current];
+			
+			int cx = current % width;
+			int cy = current / width;
+			
+			if (parent[current] == -1) {
+				// the start has no direction yet, every neighbour is a successor
+				for (int x=-1;x<2;x++) {
+					for (int y=-1;y<2;y++) {
+						if ((x == 0) && (y == 0)) {
+							continue;
+						}
+						if ((!allowDiagMovement) && (x != 0) && (y != 0)) {
+							continue;
+						}
+						
+						addSuccessor(current, x, y);
+					}
+				}
+			} else {
+				int dx = sign(cx - (parent[current] % width));
+				int dy = sign(cy - (parent[current] / width));
+				
+				addSuccessors(current, dx, dy);
+			}
+		}
+		
+		// the target was never reached
+		if ((parent[target] == -1) || (target == source)) {
+			return null;
+		}
+		
+		// walk back through the jump points, filling in the steps between them
+		Path path = new Path();
+		int step = target;
+		while (step != source) {
+			int from = parent[step];
+			int x = step % width;
+			int y = step / width;
+			int dx = sign((from % width) - x);
+			int dy = sign((from / width) - y);
+			
+			while (y * width + x != from) {
+				path.prependStep(x, y);
+				x += dx;
+				y += dy;
+			}
+			
+			step = from;
+		}
+		path.prependStep(sx,sy);
+		
+		return path;
+	}
+	
+	/**
+	 * Add the successors of a node that was reached moving in the given direction.
+	 * Only the neighbours that can't be reached shorter without going through
+	 * the node are searched, the natural neighbours and the forced neighbours
+	 * next to blocked tiles.
+	 *
+	 * @param node The index of the node being expanded
+	 * @param dx The x direction the node was reached in
+	 * @param dy The y direction the node was reached in
+	 */
+	private void addSuccessors(int node, int dx, int dy) {
+		int x = node % width;
+		int y = node / width;
+		
+		if (!allowDiagMovement) {
+			if (dx != 0) {
+				addSuccessor(node, dx, 0);
+				addSuccessor(node, 0, 1);
+				addSuccessor(node, 0, -1);
+			} else {
+				addSuccessor(node, 0, dy);
+				addSuccessor(node, 1, 0);
+				addSuccessor(node, -1, 0);
+			}
+			return;
+		}
+		
+		if ((dx != 0) && (dy != 0)) {
+			addSuccessor(node, 0, dy);
+			addSuccessor(node, dx, 0);
+			addSuccessor(node, dx, dy);
+			if (!isOpen(x, y, x - dx, y)) {
+				addSuccessor(node, -dx, dy);
+			}
+			if (!isOpen(x, y, x, y - dy)) {
+				addSuccessor(node, dx, -dy);
+			}
+		} else if (dx != 0) {
+			addSuccessor(node, dx, 0);
+			if (!isOpen(x, y, x, y + 1)) {
+				addSuccessor(node, dx, 1);
+			}
+			if (!isOpen(x, y, x, y - 1)) {
+				addSuccessor(node, dx, -1);
+			}
+		} else {
+			addSuccessor(node, 0, dy);
+			if (!isOpen(x, y, x + 1, y)) {
+				addSuccessor(node, 1, dy);
+			}
+			if (!isOpen(x, y, x - 1, y)) {
+				addSuccessor(node, -1, dy);
+			}
+		}
+	}
+	
+	/**
+	 * Jump from a node in the given direction and add the jump point found,
+	 * if any, to the open list
+	 *
+	 * @param node The index of the node being expanded
+	 * @param dx The x direction to jump in
+	 * @param dy The y direction to jump in
+	 */
+	private void addSuccessor(int node, int dx, int dy) {
+		int x = node % width;
+		int y = node / width;
+		
+		int jumpPoint = jump(x, y, dx, dy);
+		if (jumpPoint == -1) {
+			return;
+		}
+		
+		touch(jumpPoint);
+		if (state[jumpPoint] == CLOSED) {
+			return;
+		}
+		
+		int jx = jumpPoint % width;
+		int jy = jumpPoint / width;
+		int steps = Math.max(Math.abs(jx - x), Math.abs(jy - y));
+		float nextStepCost = cost[node] + (((dx != 0) && (dy != 0)) ? steps * DIAGONAL_COST : steps);
+		
+		if (depth[node] + steps > maxSearchDistance) {
+			return;
+		}
+		
+		if ((!open.contains(jumpPoint)) || (nextStepCost < cost[jumpPoint])) {
+			cost[jumpPoint] = nextStepCost;
+			parent[jumpPoint] = node;
+			depth[jumpPoint] = depth[node] + steps;
+			open.add(jumpPoint, nextStepCost + getHeuristicCost(jx, jy, target % width, target / width));
+		}
+	}
+	
+	/**
+	 * Scan from a tile in the given direction until a jump point is found.
+	 * A jump point is the target or a tile with a forced neighbour, a tile
+	 * next to a blocked tile where the shortest path could turn.
+	 *
+	 * @param x The x coordinate of the tile to scan from
+	 * @param y The y coordinate of the tile to scan from
+	 * @param dx The x direction to scan in
+	 * @param dy The y direction to scan in
+	 * @return The index of the jump point, -1 if the scan ran into a blocked tile
+	 */
+	private int jump(int x, int y, int dx, int dy) {
+		int fromX = x;
+		int fromY = y;
+		
+		while (true) {
+			x += dx;
+			y += dy;
+			
+			if (!isOpen(fromX, fromY, x, y)) {
+				return -1;
+			}
+			
+			int node = y * width + x;
+			map.pathFinderVisited(x, y);
+			
+			if (node == target) {
+				return node;
+			}
+			
+			if (!allowDiagMovement) {
+				if (dx != 0) {
+					if ((isOpen(fromX, fromY, x, y - 1) && !isOpen(fromX, fromY, x - dx, y - 1)) ||
+						(isOpen(fromX, fromY, x, y + 1) && !isOpen(fromX, fromY, x - dx, y + 1))) {
+						return node;
+					}
+				} else {
+					if ((isOpen(fromX, fromY, x - 1, y) && !isOpen(fromX, fromY, x - 1, y - dy)) ||
+						(isOpen(fromX, fromY, x + 1, y) && !isOpen(fromX, fromY, x + 1, y - dy))) {
+						return node;
+					}
+					
+					// moving vertically we have to stop where a horizontal scan finds something
+					if ((jump(x, y, 1, 0) != -1) || (jump(x, y, -1, 0) != -1)) {
+						return node;
+					}
+				}
+			} else if ((dx != 0) && (dy != 0)) {
+				if ((isOpen(fromX, fromY, x - dx, y + dy) && !isOpen(fromX, fromY, x - dx, y)) ||
+					(isOpen(fromX, fromY, x + dx, y - dy) && !isOpen(fromX, fromY, x, y - dy))) {
+					return node;
+				}
+				
+				// moving diaganolly we have to stop where a straight scan finds something
+				if ((jump(x, y, dx, 0) != -1) || (jump(x, y, 0, dy) != -1)) {
+					return node;
+				}
+			} else if (dx != 0) {
+				if ((isOpen(fromX, fromY, x + dx, y + 1) && !isOpen(fromX, fromY, x, y + 1)) ||
+					(isOpen(fromX, fromY, x + dx, y - 1) && !isOpen(fromX, fromY, x, y - 1))) {
+					return node;
+				}
+			} else {
+				if ((isOpen(fromX, fromY, x + 1, y + dy) && !isOpen(fromX, fromY, x + 1, y)) ||
+					(isOpen(fromX, fromY, x - 1, y + dy) && !isOpen(fromX, fromY, x - 1, y))) {
+					return node;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Start a new search generation, which invalidates the state of every node
+	 * without touching the node arrays
+	 */
+	private void startSearch() {
+		currentGeneration++;
+		
+		// the generation wrapped around, old stamps could match again
+		if (currentGeneration == 0) {
+			Arrays.fill(generation, 0);
+			currentGeneration = 1;
+		}
+		
+		open.clear();
+	}
+	
+	/**
+	 * Reset the state of a node if it hasn't been reached yet in the current search
+	 *
+	 * @param node The index of the node
+	 */
+	private void touch(int node) {
+		if (generation[node] != currentGeneration) {
+			generation[node] = currentGeneration;
+			state[node] = 0;
+			cost[node] = 0;
+			depth[node] = 0;
+			parent[node] = -1;
+		}
+	}
+	
+	/**
+	 * Check if a tile is on the map and not blocked
+	 *
+	 * @param sx The x coordinate of the tile we're scanning from
+	 * @param sy The y coordinate of the tile we're scanning from
+	 * @param x The x coordinate of the tile to check
+	 * @param y The y coordinate of the tile to check
+	 * @return True if the tile can be moved through
+	 */
+	private boolean isOpen(int sx, int sy, int x, int y) {
+		if ((x < 0) || (y < 0) || (x >= width) || (y >= height)) {
+			return false;
+		}
+		
+		this.sourceX = sx;
+		this.sourceY = sy;
+		return !map.blocked(this, x, y);
+	}
+	
+	/**
+	 * Get the heuristic cost for the given location, the cost of the shortest
+	 * path to the target if nothing was blocked
+	 *
+	 * @param x The x coordinate of the tile whose cost is being determined
+	 * @param y The y coordiante of the tile whose cost is being determined
+	 * @param tx The x coordinate of the target location
+	 * @param ty The y coordinate of the target location
+	 * @return The heuristic cost assigned to the tile
+	 */
+	private float getHeuristicCost(int x, int y, int tx, int ty) {
+		int dx = Math.abs(tx - x);
+		int dy = Math.abs(ty - y);
+		
+		if (!allowDiagMovement) {
+			return dx + dy;
+		}
+		
+		return Math.abs(dx - dy) + (Math.min(dx, dy) * DIAGONAL_COST);
+	}
+	
+	/**
+	 * Get the sign of a value
+	 *
+	 * @param value The value to check
+	 * @return -1, 0 or 1
+	 */
+	private static int sign(int value) {
+		return (value > 0) ? 1 : ((value < 0) ? -1 : 0);
+	}
+	
+	/**
+	 * @see org.newdawn.slick.util.pathfinding.PathFindingContext#getMover()
+	 */
+	public Mover getMover() {
+		return mover;
+	}
+	
+	/**
+	 * @see org.newdawn.slick.util.pathfinding.PathFindingContext#getSearchDistance()
+	 */
+	public int getSearchDistance() {
+		return distance;
+	}
+	
+	/**
+	 * @see org.newdawn.slick.util.pathfinding.PathFindingContext#getSourceX()
+	 */
+	public int getSourceX() {
+		return sourceX;
+	}
+	
+	/**
+	 * @see org.newdawn.slick.util.pathfinding.PathFindingContext#getSourceY()
+	 */
+	public int getSourceY() {
+		return sourceY;
+	}
+}
@@ -0,0 +1,224 @@
+package org.newdawn.slick.util.pathfinding;
+
+import java.util.Arrays;
+
+/**
+ * The open list of the path finders. A binary heap of integer node indices
+ * ordered on a float key, supporting decrease-key. Nodes with the same key
+ * are removed in the order they were added.
+ *
+ * @author Kevin Glass
+ */
+class NodeHeap {
+	/** The key of each node */
+	private float[] keys;
+	/** The order each node was added in, used to break ties */
+	private int[] order;
+	/** The position of each node in the heap, -1 if it isn't in the heap */
+	private int[] position;
+	/** The node indices in heap order */
+	private int[] heap;
+	/** The number of nodes in the heap */
+	private int size;
+	/** The number of nodes added since the heap was cleared */
+	private int nextOrder;
+	
+	/**
+	 * Create a new heap
+	 *
+	 * @param capacity The number of nodes that can be indexed
+	 */
+	public NodeHeap(int capacity) {
+		keys = new float[capacity];
+		order = new int[capacity];
+		position = new int[capacity];
+		heap = new int[capacity];
+		
+		Arrays.fill(position, -1);
+	}
+	
+	/**
+	 * Make sure nodes up to the given capacity can be indexed
+	 *
+	 * @param capacity The number of nodes that should be indexable
+	 */
+	public void ensureCapacity(int capacity) {
+		if (capacity <= keys.length) {
+			return;
+		}
+		
+		capacity = Math.max(capacity, keys.length * 2);
+		int oldCapacity = keys.length;
+		
+		float[] newKeys = new float[capacity];
+		System.arraycopy(keys, 0, newKeys, 0, oldCapacity);
+		keys = newKeys;
+		
+		int[] newOrder = new int[capacity];
+		System.arraycopy(order, 0, newOrder, 0, oldCapacity);
+		order = newOrder;
+		
+		int[] newPosition = new int[capacity];
+		System.arraycopy(position, 0, newPosition, 0, oldCapacity);
+		Arrays.fill(newPosition, oldCapacity, capacity, -1);
+		position = newPosition;
+		
+		int[] newHeap = new int[capacity];
+		System.arraycopy(heap, 0, newHeap, 0, size);
+		heap = newHeap;
+	}
+	
+	/**
+	 * Remove all nodes from the heap
+	 */
+	public void clear() {
+		for (int i=0;i<size;i++) {
+			position[heap[i]] = -1;
+		}
+		
+		size = 0;
+		nextOrder = 0;
+	}
+	
+	/**
+	 * Check if the heap is empty
+	 *
+	 * @return True if there are no nodes in the heap
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+	
+	/**
+	 * Check if a node is in the heap
+	 *
+	 * @param node The index of the node
+	 * @return True if the node is in the heap
+	 */
+	public boolean contains(int node) {
+		return position[node] != -1;
+	}
+	
+	/**
+	 * Get the node with the lowest key without removing it
+	 *
+	 * @return The index of the first node
+	 */
+	public int peek() {
+		return heap[0];
+	}
+	
+	/**
+	 * Add a node to the heap. If the node is already in the heap its key is
+	 * changed and it's ordered as if it was newly added.
+	 *
+	 * @param node The index of the node
+	 * @param key The key to order the node on
+	 */
+	public void add(int node, float key) {
+		keys[node] = key;
+		order[node] = nextOrder++;
+		
+		if (position[node] == -1) {
+			heap[size] = node;
+			position[node] = size;
+			size++;
+			
+			siftUp(size - 1);
+		} else {
+			siftUp(position[node]);
+			siftDown(position[node]);
+		}
+	}
+	
+	/**
+	 * Remove the node with the lowest key
+	 *
+	 * @return The index of the removed node
+	 */
+	public int removeFirst() {
+		int first = heap[0];
+		
+		size--;
+		if (size > 0) {
+			heap[0] = heap[size];
+			position[heap[0]] = 0;
+			siftDown(0);
+		}
+		
+		position[first] = -1;
+		return first;
+	}
+	
+	/**
+	 * Move the node at the given heap position up until its parent is before it
+	 *
+	 * @param at The position in the heap
+	 */
+	private void siftUp(int at) {
+		int node = heap[at];
+		
+		while (at > 0) {
+			int parentAt = (at - 1) / 2;
+			int parent = heap[parentAt];
+			
+			if (!isBefore(node, parent)) {
+				break;
+			}
+			
+			heap[at] = parent;
+			position[parent] = at;
+			at = parentAt;
+		}
+		
+		heap[at] = node;
+		position[node] = at;
+	}
+	
+	/**
+	 * Move the node at the given heap position down until its children are after it
+	 *
+	 * @param at The position in the heap
+	 */
+	private void siftDown(int at) {
+		int node = heap[at];
+		
+		while (true) {
+			int child = at * 2 + 1;
+			if (child >= size) {
+				break;
+			}
+			
+			if ((child + 1 < size) && isBefore(heap[child + 1], heap[child])) {
+				child++;
+			}
+			
+			int childNode = heap[child];
+			if (!isBefore(childNode, node)) {
+				break;
+			}
+			
+			heap[at] = childNode;
+			position[childNode] = at;
+			at = child;
+		}
+		
+		heap[at] = node;
+		position[node] = at;
+	}
+	
+	/**
+	 * Check if a node should be removed before another node
+	 *
+	 * @param node The index of the node to check
+	 * @param other The index of the node to compare with
+	 * @return True if the node comes first
+	 */
+	private boolean isBefore(int node, int other) {
+		if (keys[node] != keys[other]) {
+			return keys[node] < keys[other];
+		}
+		
+		return order[node] < order[other];
+	}
+}
@@ -0,0 +1,19 @@
+package org.newdawn.slick.util.pathfinding;
+
+/**
+ * The description of a class creating path finders. The path finding service
+ * uses it to give every worker thread a path finder of its own, since path 
+ * finders keep the state of their search between calls.
+ * 
+ * @author Kevin Glass
+ */
+public interface PathFinderFactory {
+	
+	/**
+	 * Create a new path finder for the given map
+	 * 
+	 * @param map The map the path finder will search
+	 * @return The new path finder
+	 */
+	public PathFinder createPathFinder(TileBasedMap map);
+}
@@ -0,0 +1,390 @@
+package org.newdawn.slick.util.pathfinding;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.newdawn.slick.util.Log;
+
+/**
+ * A service that finds paths on a pool of worker threads, so path finding
+ * doesn't have to happen on the game thread. Every worker thread has a path
+ * finder of its own, created by the factory the service is given.
+ *
+ * Requests return a future for the path, or notify a listener from update(),
+ * which should be called from the game loop. The results of recent requests
+ * are cached by start, target and map version. A request that matches a
+ * cached or running search shares its result, so paths handed out by the
+ * service shouldn't be modified.
+ *
+ * The cache doesn't look at the mover, so the map shouldn't block tiles for
+ * some movers only. The map is read from the worker threads, changes to it
+ * should be reported through tileChanged() or mapChanged() so cached paths
+ * over the old map aren't used anymore.
+ *
+ * @author Kevin Glass
+ */
+public class PathFindingService {
+	/** The map being searched */
+	private TileBasedMap map;
+	/** The factory creating the path finder of each worker thread */
+	private PathFinderFactory factory;
+	/** The worker threads */
+	private ExecutorService executor;
+	/** The worker state of the current worker thread */
+	private ThreadLocal workers = new ThreadLocal();
+	/** The worker state of every worker thread that has searched */
+	private ArrayList allWorkers = new ArrayList();
+	
+	/** The futures of recent requests by start, target and map version, least recently used first */
+	private LinkedHashMap cache;
+	/** The number of requests kept in the cache */
+	private int cacheSize;
+	/** The version of the map, increased every time it changes */
+	private volatile int mapVersion;
+	/** The requests whose listeners haven't been notified yet */
+	private ArrayList pending = new ArrayList();
+	
+	/**
+	 * Create a path finding service with a worker thread for every core but one
+	 *
+	 * @param map The map to be searched
+	 * @param factory The factory creating the path finder of each worker thread
+	 * @param cacheSize The number of recent requests to keep the result of
+	 */
+	public PathFindingService(TileBasedMap map, PathFinderFactory factory, int cacheSize) {
+		this(map, factory, Math.max(1, Runtime.getRuntime().availableProcessors() - 1), cacheSize);
+	}
+	
+	/**
+	 * Create a path finding service
+	 *
+	 * @param map The map to be searched
+	 * @param factory The factory creating the path finder of each worker thread
+	 * @param threads The number of worker threads
+	 * @param cacheSize The number of recent requests to keep the result of
+	 */
+	public PathFindingService(TileBasedMap map, PathFinderFactory factory, int threads, final int cacheSize) {
+		this.map = map;
+		this.factory = factory;
+		this.cacheSize = cacheSize;
+		
+		cache = new LinkedHashMap(16, 0.75f, true) {
+			protected boolean removeEldestEntry(Map.Entry eldest) {
+				return size() > cacheSize;
+			}
+		};
+		
+		executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			/** The number of threads created */
+			private int count;
+			
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "PathFinder-" + (++count));
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+	
+	/**
+	 * Request a path
+	 *
+	 * @param request The path to find
+	 * @return The future result of the search, the path found or null if no path can be found
+	 */
+	public Future findPath(PathRequest request) {
+		CacheKey key = new CacheKey(request, mapVersion);
+		
+		synchronized (cache) {
+			Future future = (Future) cache.get(key);
+			
+			if (future == null) {
+				future = executor.submit(new Search(request));
+				if (cacheSize > 0) {
+					cache.put(key, future);
+				}
+			}
+			
+			return future;
+		}
+	}
+	
+	/**
+	 * Request a path, notifying a listener from update() once it's found
+	 *
+	 * @param request The path to find
+	 * @param listener The listener to notify
+	 */
+	public void findPath(PathRequest request, PathListener listener) {
+		pending.add(new Notification(request, findPath(request), listener));
+	}
+	
+	/**
+	 * Request a batch of paths, the searches run in parallel
+	 *
+	 * @param requests The paths to find
+	 * @return The future result of each search, in the order of the requests
+	 */
+	public Future[] findPaths(PathRequest[] requests) {
+		Future[] futures = new Future[requests.length];
+		
+		for (int i=0;i<requests.length;i++) {
+			futures[i] = findPath(requests[i]);
+		}
+		
+		return futures;
+	}
+	
+	/**
+	 * Request a batch of paths, notifying a listener from update() once each is found
+	 *
+	 * @param requests The paths to find
+	 * @param listener The listener to notify
+	 */
+	public void findPaths(PathRequest[] requests, PathListener listener) {
+		for (int i=0;i<requests.length;i++) {
+			findPath(requests[i], listener);
+		}
+	}
+	
+	/**
+	 * Notify the listeners of the requests that have finished since the last
+	 * update. This should be called from the thread the listeners expect to
+	 * be notified on, normally the game loop.
+	 */
+	public void update() {
+		for (int i=0;i<pending.size();) {
+			Notification notification = (Notification) pending.get(i);
+			
+			if (notification.future.isDone()) {
+				pending.remove(i);
+				notification.listener.pathFound(notification.request, getPath(notification.future));
+			} else {
+				i++;
+			}
+		}
+	}
+	
+	/**
+	 * Notification that a tile of the map has been blocked or unblocked.
+	 * Cached paths aren't used anymore and the hierarchical path finders of
+	 * the workers repair their graphs before the next search.
+	 *
+	 * @param x The x coordinate of the tile that changed
+	 * @param y The y coordinate of the tile that changed
+	 */
+	public void tileChanged(int x, int y) {
+		mapVersion++;
+		
+		synchronized (allWorkers) {
+			for (int i=0;i<allWorkers.size();i++) {
+				Worker worker = (Worker) allWorkers.get(i);
+				
+				synchronized (worker) {
+					worker.changes.add(new int[] {x, y});
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Notification that the map has changed completely. Cached paths aren't
+	 * used anymore and the workers create new path finders before the next search.
+	 */
+	public void mapChanged() {
+		mapVersion++;
+		
+		synchronized (allWorkers) {
+			for (int i=0;i<allWorkers.size();i++) {
+				Worker worker = (Worker) allWorkers.get(i);
+				
+				synchronized (worker) {
+					worker.rebuild = true;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Stop the worker threads, searches that haven't started yet are cancelled
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+	
+	/**
+	 * Get the result of a finished search
+	 *
+	 * @param future The future of the search
+	 * @return The path found, or null if the search found no path or failed
+	 */
+	private Path getPath(Future future) {
+		try {
+			return (Path) future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e) {
+			Log.error("Path finding failed", e.getCause());
+			return null;
+		}
+	}
+	
+	/**
+	 * Get the worker state of the current thread, making sure its path finder
+	 * is up to date with the changes of the map
+	 *
+	 * @return The worker state of the current thread
+	 */
+	private Worker getWorker() {
+		Worker worker = (Worker) workers.get();
+		
+		if (worker == null) {
+			worker = new Worker();
+			workers.set(worker);
+			
+			synchronized (allWorkers) {
+				allWorkers.add(worker);
+			}
+		}
+		
+		synchronized (worker) {
+			if ((worker.finder == null) || (worker.rebuild)) {
+				worker.finder = factory.createPathFinder(map);
+				worker.rebuild = false;
+				worker.changes.clear();
+			}
+			
+			for (int i=0;i<worker.changes.size();i++) {
+				if (worker.finder instanceof HierarchicalPathFinder) {
+					int[] change = (int[]) worker.changes.get(i);
+					((HierarchicalPathFinder) worker.finder).tileChanged(change[0], change[1]);
+				}
+			}
+			worker.changes.clear();
+		}
+		
+		return worker;
+	}
+	
+	/**
+	 * The search for a single path, run on a worker thread
+	 */
+	private class Search implements Callable {
+		/** The path to find */
+		private PathRequest request;
+		
+		/**
+		 * Create a new search
+		 *
+		 * @param request The path to find
+		 */
+		public Search(PathRequest request) {
+			this.request = request;
+		}
+		
+		/**
+		 * @see java.util.concurrent.Callable#call()
+		 */
+		public Object call() {
+			Worker worker = getWorker();
+			
+			return worker.finder.findPath(request.getMover(), request.getStartX(), request.getStartY(),
+										  request.getTargetX(), request.getTargetY());
+		}
+	}
+	
+	/**
+	 * The state of a worker thread
+	 */
+	private static class Worker {
+		/** The path finder of the thread */
+		private PathFinder finder;
+		/** The tiles that changed since the last search, as x and y pairs */
+		private ArrayList changes = new ArrayList();
+		/** True if the path finder has to be created again before the next search */
+		private boolean rebuild;
+	}
+	
+	/**
+	 * A request waiting for its listener to be notified
+	 */
+	private static class Notification {
+		/** The request searched for */
+		private PathRequest request;
+		/** The future result of the search */
+		private Future future;
+		/** The listener to notify */
+		private PathListener listener;
+		
+		/**
+		 * Create a new notification
+		 *
+		 * @param request The request searched for
+		 * @param future The future result of the search
+		 * @param listener The listener to notify
+		 */
+		public Notification(PathRequest request, Future future, PathListener listener) {
+			this.request = request;
+			this.future = future;
+			this.listener = listener;
+		}
+	}
+	
+	/**
+	 * The key of a cached search, the start and target of the path and the
+	 * version of the map it was searched on
+	 */
+	private static class CacheKey {
+		/** The x coordinate of the start location */
+		private int sx;
+		/** The y coordinate of the start location */
+		private int sy;
+		/** The x coordinate of the target location */
+		private int tx;
+		/** The y coordinate of the target location */
+		private int ty;
+		/** The version of the map */
+		private int version;
+		
+		/**
+		 * Create a new key
+		 *
+		 * @param request The request searched for
+		 * @param version The version of the map
+		 */
+		public CacheKey(PathRequest request, int version) {
+			this.sx = request.getStartX();
+			this.sy = request.getStartY();
+			this.tx = request.getTargetX();
+			this.ty = request.getTargetY();
+			this.version = version;
+		}
+		
+		/**
+		 * @see java.lang.Object#hashCode()
+		 */
+		public int hashCode() {
+			return (((((sx * 31) + sy) * 31 + tx) * 31 + ty) * 31) + version;
+		}
+		
+		/**
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		public boolean equals(Object other) {
+			if (!(other instanceof CacheKey)) {
+				return false;
+			}
+			
+			CacheKey key = (CacheKey) other;
+			return (key.sx == sx) && (key.sy == sy) && (key.tx == tx) && (key.ty == ty) && (key.version == version);
+		}
+	}
+}
@@ -0,0 +1,18 @@
+package org.newdawn.slick.util.pathfinding;
+
+/**
+ * A description of a class responding to the results of path requests
+ * handed to a path finding service
+ * 
+ * @author Kevin Glass
+ */
+public interface PathListener {
+	
+	/**
+	 * Notification that the search for a requested path has finished
+	 * 
+	 * @param request The request that was searched for
+	 * @param path The path found, or null if no path could be found
+	 */
+	public void pathFound(PathRequest request, Path path);
+}
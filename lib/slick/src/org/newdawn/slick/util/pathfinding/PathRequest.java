@@ -0,0 +1,82 @@
+package org.newdawn.slick.util.pathfinding;
+
+/**
+ * A request for a path from one location on a tile map to another, 
+ * as handed to a path finding service
+ * 
+ * @author Kevin Glass
+ */
+public class PathRequest {
+	/** The entity that will be moving along the path */
+	private Mover mover;
+	/** The x coordinate of the start location */
+	private int sx;
+	/** The y coordinate of the start location */
+	private int sy;
+	/** The x coordinate of the target location */
+	private int tx;
+	/** The y coordinate of the target location */
+	private int ty;
+	
+	/**
+	 * Create a new request
+	 * 
+	 * @param mover The entity that will be moving along the path
+	 * @param sx The x coordinate of the start location
+	 * @param sy The y coordinate of the start location
+	 * @param tx The x coordinate of the target location
+	 * @param ty The y coordinate of the target location
+	 */
+	public PathRequest(Mover mover, int sx, int sy, int tx, int ty) {
+		this.mover = mover;
+		this.sx = sx;
+		this.sy = sy;
+		this.tx = tx;
+		this.ty = ty;
+	}
+	
+	/**
+	 * Get the entity that will be moving along the path
+	 * 
+	 * @return The entity that will be moving along the path
+	 */
+	public Mover getMover() {
+		return mover;
+	}
+	
+	/**
+	 * Get the x coordinate of the start location
+	 * 
+	 * @return The x coordinate of the start location
+	 */
+	public int getStartX() {
+		return sx;
+	}
+	
+	/**
+	 * Get the y coordinate of the start location
+	 * 
+	 * @return The y coordinate of the start location
+	 */
+	public int getStartY() {
+		return sy;
+	}
+	
+	/**
+	 * Get the x coordinate of the target location
+	 * 
+	 * @return The x coordinate of the target location
+	 */
+	public int getTargetX() {
+		return tx;
+	}
+	
+	/**
+	 * Get the y coordinate of the target location
+	 * 
+	 * @return The y coordinate of the target location
+	 */
+	public int getTargetY() {
+		return ty;
+	}
+}
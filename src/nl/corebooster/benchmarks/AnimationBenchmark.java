@@ -0,0 +1,48 @@
+package nl.corebooster.benchmarks;
+
+import nl.corebooster.setup.Assets;
+
+import org.newdawn.slick.Animation;
+import org.newdawn.slick.SlickException;
+
+/**
+ * Benchmarks advancing the walking animation of the player by one simulation step
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class AnimationBenchmark extends Benchmark {
+	
+	private static final int stepLength = 50;
+	
+	private Animation animation;
+	
+	/**
+	 * Initializes a new animation benchmark
+	 */
+	public AnimationBenchmark()
+	{
+		super("Animation.update");
+	}
+	
+	/**
+	 * Creates the animation from the sprite sheet of the player
+	 * @throws SlickException Indicates a failure to load the sprite sheet
+	 */
+	public void setUp() throws SlickException
+	{
+		animation = new Animation(Assets.getSpriteSheet("data/sprites/player_down.png", 64, 64), 100);
+		animation.setAutoUpdate(false);
+	}
+	
+	/**
+	 * Advances the animation by a simulation step
+	 * @return The current frame of the animation
+	 */
+	public int run()
+	{
+		animation.update(stepLength);
+		
+		return animation.getFrame();
+	}
+	
+}
@@ -0,0 +1,80 @@
+package nl.corebooster.benchmarks;
+
+import org.newdawn.slick.SlickException;
+
+/**
+ * Describes a benchmark of a single operation of the game. The runner calls setUp once and then runs the operation
+ * as often as fits in its measurement time. The operation returns a value depending on its work, which the runner
+ * consumes so the work can't be optimized away.
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public abstract class Benchmark {
+	
+	private String name;
+	private String parameterName;
+	private int parameter;
+	
+	/**
+	 * Initializes a new benchmark without a parameter
+	 * @param name The name of the benchmark
+	 */
+	public Benchmark(String name)
+	{
+		this(name, null, 0);
+	}
+	
+	/**
+	 * Initializes a new benchmark with a parameter, like the amount of entities
+	 * @param name The name of the benchmark
+	 * @param parameterName The name of the parameter
+	 * @param parameter The value of the parameter
+	 */
+	public Benchmark(String name, String parameterName, int parameter)
+	{
+		this.name = name;
+		this.parameterName = parameterName;
+		this.parameter = parameter;
+	}
+	
+	/**
+	 * Returns the name of the benchmark
+	 * @return The name
+	 */
+	public String getName()
+	{
+		return name;
+	}
+	
+	/**
+	 * Returns the name of the parameter
+	 * @return The name of the parameter, null if the benchmark has no parameter
+	 */
+	public String getParameterName()
+	{
+		return parameterName;
+	}
+	
+	/**
+	 * Returns the value of the parameter
+	 * @return The value of the parameter
+	 */
+	public int getParameter()
+	{
+		return parameter;
+	}
+	
+	/**
+	 * Prepares the benchmark, called once before the operation is run
+	 * @throws SlickException Indicates a failure to load the resources of the benchmark
+	 */
+	public abstract void setUp() throws SlickException;
+	
+	/**
+	 * Runs the operation once
+	 * @return A value depending on the work of the operation
+	 * @throws SlickException Indicates a failure in the operation
+	 */
+	public abstract int run() throws SlickException;
+	
+}
@@ -0,0 +1,249 @@
+package nl.corebooster.benchmarks;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Locale;
+
+import nl.corebooster.setup.Assets;
+
+import org.newdawn.slick.SlickException;
+
+/**
+ * Runs the benchmarks of the game headless and exports the results as JSON, in the format of JMH so the results
+ * can be tracked with the same tools. Every benchmark is warmed up first, after which the average time of an operation
+ * is measured over several iterations. Like JMH the error is the half-width of the 99.9% confidence interval of the score,
+ * from the Student's t-distribution of the iterations.
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class BenchmarkRunner {
+	
+	private static final int warmupIterations = 3;
+	private static final int measurementIterations = 5;
+	private static final long iterationTime = 500000000L;
+	private static final int batchSize = 64;
+	
+	// The 99.95th percentile of the Student's t-distribution for 1 to 30 degrees of freedom, the two-sided 99.9% interval
+	private static final double[] studentT = new double[] {
+			636.619, 31.599, 12.924, 8.610, 6.869, 5.959, 5.408, 5.041, 4.781, 4.587,
+			4.437, 4.318, 4.221, 4.140, 4.073, 4.015, 3.965, 3.922, 3.883, 3.850,
+			3.819, 3.792, 3.768, 3.745, 3.725, 3.707, 3.690, 3.674, 3.659, 3.646
+	};
+	private static final double normalQuantile = 3.291;
+	
+	private static final int[] entityCounts = new int[] {10, 100, 1000};
+	private static final int[] mapSizes = new int[] {32, 128};
+	
+	private ArrayList<Benchmark> benchmarks;
+	private ArrayList<String> results;
+	private int sink;
+	
+	/**
+	 * Initializes a new runner with all benchmarks of the game
+	 */
+	public BenchmarkRunner()
+	{
+		benchmarks = new ArrayList<Benchmark>();
+		results = new ArrayList<String>();
+		
+		for(int i = 0; i < entityCounts.length; i++) {
+			benchmarks.add(new CollisionBenchmark(entityCounts[i]));
+			benchmarks.add(new TriggerBoxBenchmark(entityCounts[i]));
+			benchmarks.add(new RectangleBenchmark(entityCounts[i]));
+		}
+		
+		benchmarks.add(new TriggerHandlerBenchmark());
+		benchmarks.add(new InventoryBenchmark());
+		
+		for(int i = 0; i < mapSizes.length; i++) {
+			benchmarks.add(new PathFinderBenchmark(mapSizes[i]));
+		}
+		
+		benchmarks.add(new AnimationBenchmark());
+	}
+	
+	/**
+	 * Runs the benchmarks whose name contains the filter
+	 * @param filter The part of the name to match, null to run all benchmarks
+	 * @throws SlickException Indicates a failure in a benchmark
+	 */
+	public void run(String filter) throws SlickException
+	{
+		for(int i = 0; i < benchmarks.size(); i++) {
+			Benchmark benchmark = benchmarks.get(i);
+			
+			if(filter == null || benchmark.getName().contains(filter)) {
+				run(benchmark);
+			}
+		}
+	}
+	
+	/**
+	 * Warms up a benchmark and measures the average time of its operation
+	 * @param benchmark The benchmark to run
+	 * @throws SlickException Indicates a failure in the benchmark
+	 */
+	private void run(Benchmark benchmark) throws SlickException
+	{
+		benchmark.setUp();
+		
+		for(int i = 0; i < warmupIterations; i++) {
+			measure(benchmark);
+		}
+		
+		double[] scores = new double[measurementIterations];
+		double mean = 0;
+		
+		for(int i = 0; i < measurementIterations; i++) {
+			scores[i] = measure(benchmark);
+			mean += scores[i] / measurementIterations;
+		}
+		
+		double variance = 0;
+		
+		for(int i = 0; i < measurementIterations; i++) {
+			variance += (scores[i] - mean) * (scores[i] - mean) / (measurementIterations - 1);
+		}
+		
+		double error = getStudentT(measurementIterations - 1) * Math.sqrt(variance / measurementIterations);
+		String parameter = "";
+		
+		if(benchmark.getParameterName() != null) {
+			parameter = " (" + benchmark.getParameterName() + " = " + benchmark.getParameter() + ")";
+		}
+		
+		System.out.println(String.format(Locale.ROOT, "%-40s %12.1f ns/op  +- %.1f", benchmark.getName() + parameter, mean, error));
+		
+		results.add(toJson(benchmark, mean, error));
+	}
+	
+	/**
+	 * Runs the operation of a benchmark in batches for the time of an iteration
+	 * @param benchmark The benchmark to run
+	 * @return The average time of an operation in nanoseconds
+	 * @throws SlickException Indicates a failure in the benchmark
+	 */
+	private double measure(Benchmark benchmark) throws SlickException
+	{
+		long operations = 0;
+		long start = System.nanoTime();
+		long elapsed;
+		
+		do {
+			for(int i = 0; i < batchSize; i++) {
+				sink += benchmark.run();
+			}
+			
+			operations += batchSize;
+			elapsed = System.nanoTime() - start;
+		} while(elapsed < iterationTime);
+		
+		return (double) elapsed / operations;
+	}
+	
+	/**
+	 * Returns the 99.95th percentile of the Student's t-distribution, with many degrees of freedom it's close to
+	 * the percentile of the normal distribution
+	 * @param degreesOfFreedom The degrees of freedom, the amount of iterations minus one
+	 * @return The percentile
+	 */
+	private static double getStudentT(int degreesOfFreedom)
+	{
+		if(degreesOfFreedom > studentT.length) {
+			return normalQuantile;
+		}
+		
+		return studentT[degreesOfFreedom - 1];
+	}
+	
+	/**
+	 * Returns the result of a benchmark as a JMH result object
+	 * @param benchmark The benchmark
+	 * @param score The average time of an operation in nanoseconds
+	 * @param error The half-width of the 99.9% confidence interval of the score
+	 * @return The JSON object
+	 */
+	private static String toJson(Benchmark benchmark, double score, double error)
+	{
+		StringBuilder json = new StringBuilder();
+		
+		json.append("\t{\n");
+		json.append("\t\t\"benchmark\" : \"").append(benchmark.getName()).append("\",\n");
+		json.append("\t\t\"mode\" : \"avgt\",\n");
+		json.append("\t\t\"warmupIterations\" : ").append(warmupIterations).append(",\n");
+		json.append("\t\t\"measurementIterations\" : ").append(measurementIterations).append(",\n");
+		
+		if(benchmark.getParameterName() != null) {
+			json.append("\t\t\"params\" : {\n");
+			json.append("\t\t\t\"").append(benchmark.getParameterName()).append("\" : \"").append(benchmark.getParameter()).append("\"\n");
+			json.append("\t\t},\n");
+		}
+		
+		json.append("\t\t\"primaryMetric\" : {\n");
+		json.append(String.format(Locale.ROOT, "\t\t\t\"score\" : %.3f,\n", score));
+		json.append(String.format(Locale.ROOT, "\t\t\t\"scoreError\" : %.3f,\n", error));
+		json.append(String.format(Locale.ROOT, "\t\t\t\"scoreConfidence\" : [%.3f, %.3f],\n", score - error, score + error));
+		json.append("\t\t\t\"scoreUnit\" : \"ns/op\"\n");
+		json.append("\t\t}\n");
+		json.append("\t}");
+		
+		return json.toString();
+	}
+	
+	/**
+	 * Writes the results of the benchmarks that have run to a JSON file
+	 * @param filename The name of the file
+	 * @throws IOException Indicates a failure to write the file
+	 */
+	public void writeResults(String filename) throws IOException
+	{
+		Writer out = new OutputStreamWriter(new FileOutputStream(filename), "UTF-8");
+		
+		try {
+			out.write("[\n");
+			
+			for(int i = 0; i < results.size(); i++) {
+				out.write(results.get(i));
+				out.write(i < results.size() - 1 ? ",\n" : "\n");
+			}
+			
+			out.write("]\n");
+		}
+		finally {
+			out.close();
+		}
+	}
+	
+	/**
+	 * Runs the benchmarks headless and writes the results to a JSON file
+	 * @param args The name of the JSON file and a filter on the benchmark names, both optional
+	 * @throws SlickException Indicates a failure in a benchmark
+	 * @throws IOException Indicates a failure to write the results
+	 */
+	public static void main(String[] args) throws SlickException, IOException
+	{
+		String filename = "benchmarks.json";
+		String filter = null;
+		
+		if(args.length > 0) {
+			filename = args[0];
+		}
+		
+		if(args.length > 1) {
+			filter = args[1];
+		}
+		
+		Assets.setHeadless();
+		
+		BenchmarkRunner runner = new BenchmarkRunner();
+		runner.run(filter);
+		runner.writeResults(filename);
+		
+		// Printing the sink keeps the results of the operations alive
+		System.out.println("Results written to " + filename + " (" + runner.sink + ")");
+	}
+	
+}
@@ -0,0 +1,92 @@
+package nl.corebooster.benchmarks;
+
+import java.util.Random;
+
+import nl.corebooster.setup.CollisionBox;
+import nl.corebooster.setup.Player;
+import nl.corebooster.setup.SpatialGrid;
+
+import org.newdawn.slick.SlickException;
+
+/**
+ * Benchmarks the collision check of the player against a scene with the given amount of collision boxes,
+ * the player is moved to another position for every check
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class CollisionBenchmark extends Benchmark {
+	
+	private static final int screenWidth = 960;
+	private static final int screenHeight = 540;
+	private static final int cellSize = 96;
+	private static final int positionCount = 256;
+	
+	private SpatialGrid<CollisionBox> collisionGrid;
+	private Player player;
+	private int[] positions;
+	private int index;
+	
+	/**
+	 * Initializes a new collision benchmark
+	 * @param boxes The amount of collision boxes in the scene
+	 */
+	public CollisionBenchmark(int boxes)
+	{
+		super("Player.isCollidingWith", "boxes", boxes);
+	}
+	
+	/**
+	 * Scatters the collision boxes over the scene and creates the player
+	 * @throws SlickException Indicates a failure to load the player
+	 */
+	public void setUp() throws SlickException
+	{
+		Random random = new Random(1);
+		
+		collisionGrid = new SpatialGrid<CollisionBox>(screenWidth, screenHeight, cellSize);
+		
+		for(int i = 0; i < getParameter(); i++) {
+			CollisionBox box = new CollisionBox(random.nextInt(screenWidth - 32), random.nextInt(screenHeight - 32), 16 + random.nextInt(48), 16 + random.nextInt(48));
+			collisionGrid.add(box, box.getShape());
+		}
+		
+		player = new Player(0, 0);
+		positions = randomPositions(random, positionCount, screenWidth - player.getPlayerSize(), screenHeight - player.getPlayerSize());
+		index = 0;
+	}
+	
+	/**
+	 * Moves the player and checks if it collides
+	 * @return 1 if the player collides, 0 if it doesn't
+	 */
+	public int run()
+	{
+		index = (index + 2) % positions.length;
+		
+		player.setX(positions[index]);
+		player.setY(positions[index + 1]);
+		
+		return player.isCollidingWith(collisionGrid) ? 1 : 0;
+	}
+	
+	/**
+	 * Returns random positions within the given area
+	 * @param random The random generator to use
+	 * @param count The amount of positions
+	 * @param width The width of the area
+	 * @param height The height of the area
+	 * @return The positions, as x and y pairs
+	 */
+	static int[] randomPositions(Random random, int count, int width, int height)
+	{
+		int[] positions = new int[count * 2];
+		
+		for(int i = 0; i < count; i++) {
+			positions[i * 2] = random.nextInt(width);
+			positions[i * 2 + 1] = random.nextInt(height);
+		}
+		
+		return positions;
+	}
+	
+}
@@ -0,0 +1,71 @@
+package nl.corebooster.benchmarks;
+
+import nl.corebooster.setup.Inventory;
+import nl.corebooster.setup.Item;
+import nl.corebooster.setup.Item.ItemType;
+
+import org.newdawn.slick.SlickException;
+
+/**
+ * Benchmarks the inventory operations of a pick up and use cycle: every operation fills the inventory,
+ * selects every slot, checks the selected item and removes the items again
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class InventoryBenchmark extends Benchmark {
+	
+	private static final int slotCount = 4;
+	
+	private Inventory inventory;
+	private Item[] items;
+	
+	/**
+	 * Initializes a new inventory benchmark
+	 */
+	public InventoryBenchmark()
+	{
+		super("Inventory");
+	}
+	
+	/**
+	 * Creates the inventory and the items
+	 * @throws SlickException Indicates a failure to load the images of the inventory or the items
+	 */
+	public void setUp() throws SlickException
+	{
+		inventory = new Inventory();
+		items = new Item[slotCount];
+		
+		for(int i = 0; i < slotCount; i++) {
+			items[i] = new Item("item" + i, "Item " + i, ItemType.SUPPLY, "key_hq_icon.png", "key_hq.png", 0, 0);
+		}
+	}
+	
+	/**
+	 * Fills the inventory, selects every slot and empties the inventory
+	 * @return The amount of slots that had the expected item selected
+	 */
+	public int run()
+	{
+		int selected = 0;
+		
+		for(int i = 0; i < slotCount; i++) {
+			inventory.addItem(items[i]);
+		}
+		
+		for(int i = 0; i < slotCount; i++) {
+			inventory.setSelectedSlot(i);
+			
+			if(inventory.hasItemSelected(items[i].getKeyValue()) && inventory.getSelectedItem() != null) {
+				selected++;
+			}
+		}
+		
+		for(int i = 0; i < slotCount; i++) {
+			inventory.deleteItem(items[i].getKeyValue());
+		}
+		
+		return selected;
+	}
+	
+}
@@ -0,0 +1,131 @@
+package nl.corebooster.benchmarks;
+
+import java.util.Random;
+
+import org.newdawn.slick.util.pathfinding.AStarPathFinder;
+import org.newdawn.slick.util.pathfinding.Path;
+import org.newdawn.slick.util.pathfinding.PathFindingContext;
+import org.newdawn.slick.util.pathfinding.TileBasedMap;
+
+/**
+ * Benchmarks finding a path from corner to corner of a square map with randomly blocked tiles
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class PathFinderBenchmark extends Benchmark {
+	
+	private static final float blockedChance = 0.25f;
+	
+	private AStarPathFinder pathFinder;
+	private int size;
+	
+	/**
+	 * Initializes a new path finder benchmark
+	 * @param size The width and height of the map in tiles
+	 */
+	public PathFinderBenchmark(int size)
+	{
+		super("AStarPathFinder.findPath", "size", size);
+		
+		this.size = size;
+	}
+	
+	/**
+	 * Creates the map and the path finder
+	 */
+	public void setUp()
+	{
+		pathFinder = new AStarPathFinder(new RandomMap(size, new Random(1)), size * size, true);
+	}
+	
+	/**
+	 * Finds a path from the top left to the bottom right corner
+	 * @return The length of the path, 0 if there is no path
+	 */
+	public int run()
+	{
+		Path path = pathFinder.findPath(null, 0, 0, size - 1, size - 1);
+		
+		return path != null ? path.getLength() : 0;
+	}
+	
+	/**
+	 * Describes a square map with randomly blocked tiles, the corners are never blocked
+	 */
+	private static class RandomMap implements TileBasedMap {
+		
+		private int size;
+		private boolean[] blocked;
+		
+		/**
+		 * Initializes a new random map
+		 * @param size The width and height of the map in tiles
+		 * @param random The random generator to block the tiles with
+		 */
+		public RandomMap(int size, Random random)
+		{
+			this.size = size;
+			this.blocked = new boolean[size * size];
+			
+			for(int i = 0; i < blocked.length; i++) {
+				blocked[i] = random.nextFloat() < blockedChance;
+			}
+			
+			blocked[0] = false;
+			blocked[blocked.length - 1] = false;
+		}
+		
+		/**
+		 * Returns the width of the map
+		 * @return The width in tiles
+		 */
+		public int getWidthInTiles()
+		{
+			return size;
+		}
+		
+		/**
+		 * Returns the height of the map
+		 * @return The height in tiles
+		 */
+		public int getHeightInTiles()
+		{
+			return size;
+		}
+		
+		/**
+		 * Called by the path finder for every tile it visits, not used
+		 * @param x The column of the visited tile
+		 * @param y The row of the visited tile
+		 */
+		public void pathFinderVisited(int x, int y)
+		{
+		}
+		
+		/**
+		 * Returns true if the tile is blocked
+		 * @param context The context of the path finder
+		 * @param tx The column of the tile
+		 * @param ty The row of the tile
+		 * @return Whether or not the tile is blocked, true/false
+		 */
+		public boolean blocked(PathFindingContext context, int tx, int ty)
+		{
+			return blocked[ty * size + tx];
+		}
+		
+		/**
+		 * Returns the cost of moving through a tile, all tiles cost the same
+		 * @param context The context of the path finder
+		 * @param tx The column of the tile
+		 * @param ty The row of the tile
+		 * @return The cost of the tile
+		 */
+		public float getCost(PathFindingContext context, int tx, int ty)
+		{
+			return 1;
+		}
+		
+	}
+	
+}
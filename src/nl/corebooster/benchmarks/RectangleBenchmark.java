@@ -0,0 +1,66 @@
+package nl.corebooster.benchmarks;
+
+import java.util.Random;
+
+import org.newdawn.slick.geom.Rectangle;
+
+/**
+ * Benchmarks the intersection test of Slick's rectangles, the test every collision and trigger check comes down to.
+ * Every operation tests one rectangle against all the other rectangles.
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class RectangleBenchmark extends Benchmark {
+	
+	private static final int screenWidth = 960;
+	private static final int screenHeight = 540;
+	
+	private Rectangle[] rectangles;
+	private int index;
+	
+	/**
+	 * Initializes a new rectangle benchmark
+	 * @param rectangles The amount of rectangles to test against
+	 */
+	public RectangleBenchmark(int rectangles)
+	{
+		super("Rectangle.intersects", "rectangles", rectangles);
+	}
+	
+	/**
+	 * Scatters the rectangles over the scene
+	 */
+	public void setUp()
+	{
+		Random random = new Random(1);
+		
+		rectangles = new Rectangle[getParameter()];
+		
+		for(int i = 0; i < rectangles.length; i++) {
+			rectangles[i] = new Rectangle(random.nextInt(screenWidth - 64), random.nextInt(screenHeight - 64), 16 + random.nextInt(48), 16 + random.nextInt(48));
+		}
+		
+		index = 0;
+	}
+	
+	/**
+	 * Tests the next rectangle against all rectangles
+	 * @return The amount of rectangles it intersects
+	 */
+	public int run()
+	{
+		Rectangle shape = rectangles[index];
+		int intersections = 0;
+		
+		index = (index + 1) % rectangles.length;
+		
+		for(int i = 0; i < rectangles.length; i++) {
+			if(shape.intersects(rectangles[i])) {
+				intersections++;
+			}
+		}
+		
+		return intersections;
+	}
+	
+}
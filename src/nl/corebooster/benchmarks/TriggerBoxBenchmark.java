@@ -0,0 +1,73 @@
+package nl.corebooster.benchmarks;
+
+import java.util.Random;
+
+import nl.corebooster.setup.Player;
+import nl.corebooster.setup.SpatialGrid;
+import nl.corebooster.setup.TriggerBox;
+import nl.corebooster.setup.TriggerBox.TriggerType;
+
+import org.newdawn.slick.SlickException;
+
+/**
+ * Benchmarks finding the trigger box the player touches in a scene with the given amount of trigger boxes,
+ * the player is moved to another position for every search
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class TriggerBoxBenchmark extends Benchmark {
+	
+	private static final int screenWidth = 960;
+	private static final int screenHeight = 540;
+	private static final int cellSize = 96;
+	private static final int positionCount = 256;
+	
+	private SpatialGrid<TriggerBox> triggerGrid;
+	private Player player;
+	private int[] positions;
+	private int index;
+	
+	/**
+	 * Initializes a new trigger box benchmark
+	 * @param boxes The amount of trigger boxes in the scene
+	 */
+	public TriggerBoxBenchmark(int boxes)
+	{
+		super("Player.getCurrentTriggerBox", "boxes", boxes);
+	}
+	
+	/**
+	 * Scatters the trigger boxes over the scene and creates the player
+	 * @throws SlickException Indicates a failure to load the player
+	 */
+	public void setUp() throws SlickException
+	{
+		Random random = new Random(1);
+		
+		triggerGrid = new SpatialGrid<TriggerBox>(screenWidth, screenHeight, cellSize);
+		
+		for(int i = 0; i < getParameter(); i++) {
+			TriggerBox box = new TriggerBox("trigger" + i, TriggerType.MESSAGE, -1, -1, -1, "", random.nextInt(screenWidth - 64), random.nextInt(screenHeight - 64), 16 + random.nextInt(48), 16 + random.nextInt(48), 10);
+			triggerGrid.add(box, box.getShape());
+		}
+		
+		player = new Player(0, 0);
+		positions = CollisionBenchmark.randomPositions(random, positionCount, screenWidth - player.getPlayerSize(), screenHeight - player.getPlayerSize());
+		index = 0;
+	}
+	
+	/**
+	 * Moves the player and searches the trigger box it touches
+	 * @return 1 if the player touches a trigger box, 0 if it doesn't
+	 */
+	public int run()
+	{
+		index = (index + 2) % positions.length;
+		
+		player.setX(positions[index]);
+		player.setY(positions[index + 1]);
+		
+		return player.getCurrentTriggerBox(triggerGrid) != null ? 1 : 0;
+	}
+	
+}
@@ -0,0 +1,68 @@
+package nl.corebooster.benchmarks;
+
+import java.util.Random;
+
+import nl.corebooster.scenes.GameScene;
+import nl.corebooster.setup.Player;
+
+import org.newdawn.slick.SlickException;
+
+/**
+ * Benchmarks the trigger handling of a game scene, the player is moved to another position in the scene for every operation.
+ * The headquarters scene is used, its triggers don't change the scene.
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class TriggerHandlerBenchmark extends Benchmark {
+	
+	private static final String sceneName = "headquarters";
+	private static final int screenWidth = 960;
+	private static final int screenHeight = 540;
+	private static final int positionCount = 256;
+	
+	private GameScene scene;
+	private Player player;
+	private int[] positions;
+	private int index;
+	
+	/**
+	 * Initializes a new trigger handler benchmark
+	 */
+	public TriggerHandlerBenchmark()
+	{
+		super("GameScene.triggerHandler");
+	}
+	
+	/**
+	 * Builds the scene
+	 * @throws SlickException Indicates a failure to load the scene
+	 */
+	public void setUp() throws SlickException
+	{
+		scene = new GameScene(sceneName, 75, 270, 1);
+		player = scene.getPlayer();
+		positions = CollisionBenchmark.randomPositions(new Random(1), positionCount, screenWidth - player.getPlayerSize(), screenHeight - player.getPlayerSize());
+		index = 0;
+	}
+	
+	/**
+	 * Moves the player and handles the triggers it touches
+	 * @return 1 if the scene wants to switch to another scene, 0 if it doesn't
+	 * @throws SlickException Indicates a failure in a trigger
+	 */
+	public int run() throws SlickException
+	{
+		index = (index + 2) % positions.length;
+		
+		player.setX(positions[index]);
+		player.setY(positions[index + 1]);
+		
+		scene.triggerHandler();
+		
+		int result = scene.getNextScene() != null ? 1 : 0;
+		scene.resetNextScene();
+		
+		return result;
+	}
+	
+}
@@ -1,14 +1,14 @@
 package nl.corebooster.scenes;
 
-import java.util.LinkedHashMap;
-import java.util.Random;
+import java.util.ArrayList;
 
-import nl.corebooster.setup.AnimatedSprite;
+import nl.corebooster.setup.GameRandom;
+import nl.corebooster.setup.SceneEntities;
+import nl.corebooster.setup.SceneEntity;
 import nl.corebooster.setup.Sprite;
 import nl.corebooster.setup.StarBackground;
 
 import org.newdawn.slick.Graphics;
-import org.newdawn.slick.Music;
 import org.newdawn.slick.SlickException;
 
 /**
@@ -18,12 +18,10 @@ import org.newdawn.slick.SlickException;
  */
 public class EndScene {
 	
-	private LinkedHashMap<String, Object> sprites;
+	private SceneEntities sprites;
 	
 	private Sprite background;
 	private StarBackground stars;
-	
-	private Music bgMusic;
 			
 	private static final int screenWidth = 960;
 	private static final int screenHeight = 540;
@@ -34,7 +32,7 @@ public class EndScene {
 	 */
 	public EndScene() throws SlickException
 	{
-		sprites = new LinkedHashMap<String, Object>();
+		sprites = new SceneEntities();
 		stars = new StarBackground(screenWidth, screenHeight);
 		
 		// Set background
@@ -43,26 +41,22 @@ public class EndScene {
 		// Set title and 'press space to start'
 		Sprite title = new Sprite("title", "img", "theend.png", false, 228, 150);
 		title.getImage().setAlpha(0);
-		sprites.put("title", title);
+		sprites.add("title", title);
 		
 		// Make sprite objects
 		Sprite spaceship = new Sprite("spaceship", "sprites", "spaceship.png", false, 416, 210);
-		sprites.put("spaceship", spaceship);
-		
-		// Stars playing background music
-		bgMusic = new Music("data/music/IntroSong.ogg");
-		bgMusic.loop(1f, 0.1f);
+		sprites.add("spaceship", spaceship);
 		
 	}
 	
 	/**
 	 * Gets a sprite from the sprites
 	 * @param key The key of the sprite to get
-	 * @return The Sprite objects from the sprites LinkedHashMap
+	 * @return The Sprite object from the scene entities
 	 */
 	private Sprite getSprite(String key)
 	{
-		return (Sprite) sprites.get(key);
+		return sprites.getSprite(key);
 	}
 	
 	/**
@@ -80,7 +74,7 @@ public class EndScene {
 		
 		// Move spaceship
 		getSprite("spaceship").animateDown(540);
-		getSprite("spaceship").animateLeftRight(randInt(50, 250));
+		getSprite("spaceship").animateLeftRight(GameRandom.randInt(50, 250));
 		
 		if(getSprite("spaceship").getY() >= screenHeight) {
 			getSprite("title").fadeIn(100);
@@ -96,40 +90,11 @@ public class EndScene {
 		background.drawSprite(g);
 		stars.drawStars(g);
 		
-		for(Object o : sprites.values()) {
-			if(o instanceof Sprite) {
-				Sprite s = (Sprite) o;
-				s.drawSprite(g);
-			}
-			else if(o instanceof AnimatedSprite) {
-				AnimatedSprite as = (AnimatedSprite) o;
-				as.drawSprite(g);
-			}
+		ArrayList<SceneEntity> entities = sprites.getEntities();
+		
+		for(int i = 0; i < entities.size(); i++) {
+			entities.get(i).drawSprite(g);
 		}
 	}
 	
-	/**
-	 * Returns a pseudo-random number between min and max, inclusive.
-	 * The difference between min and max can be at most
-	 * <code>Integer.MAX_VALUE - 1</code>.
-	 *
-	 * @param min Minimum value
-	 * @param max Maximum value.  Must be greater than min.
-	 * @return Integer between min and max, inclusive.
-	 * @see java.util.Random#nextInt(int)
-	 */
-	private static int randInt(int min, int max) 
-	{
-
-	    // NOTE: Usually this should be a field rather than a method
-	    // variable so that it is not re-seeded every call.
-	    Random rand = new Random();
-
-	    // nextInt is normally exclusive of the top value,
-	    // so add 1 to make it inclusive
-	    int randomNum = rand.nextInt((max - min) + 1) + min;
-
-	    return randomNum;
-	}
-	
 }
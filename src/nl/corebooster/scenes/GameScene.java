@@ -1,22 +1,47 @@
 package nl.corebooster.scenes;
 
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.Random;
+import java.util.Set;
 
+import nl.corebooster.setup.Agent;
+import nl.corebooster.setup.AgentManager;
+import nl.corebooster.setup.Assets;
+import nl.corebooster.setup.Camera;
 import nl.corebooster.setup.AnimatedSprite;
+import nl.corebooster.setup.CollisionBox;
+import nl.corebooster.setup.DebugOverlay;
+import nl.corebooster.setup.EntityDefinition;
+import nl.corebooster.setup.Game;
+import nl.corebooster.setup.InputState;
 import nl.corebooster.setup.Inventory;
 import nl.corebooster.setup.Item;
 import nl.corebooster.setup.Item.ItemType;
+import nl.corebooster.setup.LightMask;
+import nl.corebooster.setup.MusicManager;
 import nl.corebooster.setup.Player;
+import nl.corebooster.setup.RenderLayer;
+import nl.corebooster.setup.SceneDefinition;
+import nl.corebooster.setup.SceneEntities;
+import nl.corebooster.setup.SceneEntity;
+import nl.corebooster.setup.SceneLoader;
+import nl.corebooster.setup.SoundBank;
+import nl.corebooster.setup.SoundCue;
+import nl.corebooster.setup.SpatialGrid;
+import nl.corebooster.setup.SpriteBatch;
 import nl.corebooster.setup.Sprite;
+import nl.corebooster.setup.StaticLayer;
 import nl.corebooster.setup.TriggerBox;
 import nl.corebooster.setup.TriggerBox.TriggerType;
 
 import org.newdawn.slick.Graphics;
+import org.newdawn.slick.Image;
 import org.newdawn.slick.Input;
-import org.newdawn.slick.Music;
 import org.newdawn.slick.SlickException;
-import org.newdawn.slick.Sound;
+import org.newdawn.slick.SpriteSheet;
+import org.newdawn.slick.geom.Rectangle;
+import org.newdawn.slick.opengl.Texture;
 
 /**
  * Describes a game scene with the standard features
@@ -25,11 +50,33 @@ import org.newdawn.slick.Sound;
  */
 public class GameScene {
 	
-	private LinkedHashMap<String, Object> sprites;
+	private SceneEntities sprites;
 	private LinkedHashMap<String, Item> items;
+	private AgentManager agents;
+	
+	private SpatialGrid<CollisionBox> collisionGrid;
+	private SpatialGrid<TriggerBox> triggerGrid;
+	private SpatialGrid<TriggerBox> itemTriggerGrid;
 	
 	private static final int screenWidth = 960;
 	private static final int screenHeight = 540;
+	private static final int mazeCellSize = 96;
+	private static final int renderCellSize = 256;
+	private static final int spaceCakeDuration = 20 * 1000;
+	
+	// Scenes can be larger than the screen, the camera shows the part around the player
+	private int sceneWidth, sceneHeight;
+	private Camera camera;
+	private SpatialGrid<SceneEntity> renderGrid;
+	private ArrayList<SceneEntity> visibleEntities;
+	
+	// Maze objects
+	private static final String[] mazeSprites = new String[] {
+			"shelf.png",
+			"shelf_items.png",
+			"barrels.png",
+			"boxes.png"
+	};
 	
 	private Sprite background;
 	private Player player;
@@ -38,13 +85,25 @@ public class GameScene {
 	private boolean overlayFollowsPlayer;
 	private static AnimatedSprite secondOverlay;
 	
+	// Dark scenes are only visible around the player and the lights of the scene
+	private LightMask lightMask;
+	private int playerLightRadius;
+	private ArrayList<int[]> lights;
+	
 	private String sceneName;
-	private static long itemExpireTimestamp;
+	private static int itemExpireSteps;
 	private String nextScene;
 	private boolean preservePlayerCoordinates;
 	private boolean isActive, isRendered;
+	private boolean isModified;
+	
+	private SpriteBatch batch;
+	private StaticLayer staticLayer;
+	private static final DebugOverlay debugOverlay = new DebugOverlay();
+	
+	private Rectangle approachArea;
+	private ArrayList<TriggerBox> approachedTriggerBoxes;
 	
-	private Music bgMusic;
 	private String bgMusicName;
 	private float bgMusicVolume;
 	
@@ -53,25 +112,45 @@ public class GameScene {
 	 * @param sceneName The name of the scene
 	 * @param playerX The players initial x-position
 	 * @param playerY The players initial y-position
+	 * @param seed The seed of the random choices made while building the scene, a scene built again with the same seed looks the same
 	 * @throws SlickException Indicates a failure to initialize the display Indicates a failure to initialize the display
 	 */
-	public GameScene(String sceneName, int playerX, int playerY) throws SlickException
+	public GameScene(String sceneName, int playerX, int playerY, long seed) throws SlickException
 	{
+		SceneDefinition definition = SceneLoader.getDefinition(sceneName);
+		sceneWidth = definition.getWidth();
+		sceneHeight = definition.getHeight();
+		
 		// Initialize objects
-		sprites = new LinkedHashMap<String, Object>();
+		sprites = new SceneEntities();
 		items = new LinkedHashMap<String, Item>();
+		agents = new AgentManager();
+		collisionGrid = new SpatialGrid<CollisionBox>(sceneWidth, sceneHeight, mazeCellSize);
+		triggerGrid = new SpatialGrid<TriggerBox>(sceneWidth, sceneHeight, mazeCellSize);
+		itemTriggerGrid = new SpatialGrid<TriggerBox>(sceneWidth, sceneHeight, mazeCellSize);
+		renderGrid = new SpatialGrid<SceneEntity>(sceneWidth, sceneHeight, renderCellSize);
+		visibleEntities = new ArrayList<SceneEntity>();
+		camera = new Camera(screenWidth, screenHeight, sceneWidth, sceneHeight);
 		player = new Player(playerX, playerY);
-		inventory = new Inventory();
+		
+		// The inventory and rainbow overlay are shared by all scenes,
+		// scenes can be built while playing so they are only created once
+		if(inventory == null) {
+			inventory = new Inventory();
+		}
 		
 		// Rainbow overlay
-		secondOverlay = new AnimatedSprite("secondOverlay", "sprites", "spacecake_effect.png", false, 0, 0, 960, 540, 50);
-		secondOverlay.setAlpha(0);
-		secondOverlay.stopAnimation();
+		if(secondOverlay == null) {
+			secondOverlay = new AnimatedSprite("secondOverlay", "sprites", "spacecake_effect.png", false, 0, 0, 960, 540, 50);
+			secondOverlay.setAlpha(0);
+			secondOverlay.stopAnimation();
+			itemExpireSteps = 0;
+		}
+		
 		overlayFollowsPlayer = false;
 		
 		// Scene info
 		this.sceneName = sceneName;
-		itemExpireTimestamp = System.currentTimeMillis();
 		
 		// Next scene info
 		nextScene = null;
@@ -79,11 +158,34 @@ public class GameScene {
 		
 		isActive = false;
 		isRendered = false;
+		isModified = false;
+		
+		batch = new SpriteBatch(128);
+		staticLayer = new StaticLayer(screenWidth, screenHeight);
 		
-		bgMusic = null;
+		approachArea = new Rectangle(0, 0, 0, 0);
+		approachedTriggerBoxes = new ArrayList<TriggerBox>();
 		
 		// Initialize scene
-		initializeScene(sceneName);
+		initializeScene(sceneName, new Random(seed));
+	}
+	
+	/**
+	 * Returns the width of the scene
+	 * @return The width of the scene in pixels, at least the width of the screen
+	 */
+	public int getSceneWidth()
+	{
+		return sceneWidth;
+	}
+	
+	/**
+	 * Returns the height of the scene
+	 * @return The height of the scene in pixels, at least the height of the screen
+	 */
+	public int getSceneHeight()
+	{
+		return sceneHeight;
 	}
 	
 	/**
@@ -95,6 +197,15 @@ public class GameScene {
 		return player;
 	}
 	
+	/**
+	 * Returns the entities of the scene, the sprites and animated sprites in the order they were added
+	 * @return The entities
+	 */
+	public ArrayList<SceneEntity> getEntities()
+	{
+		return sprites.getEntities();
+	}
+	
 	/**
 	 * Returns the overlay
 	 * @return The sprite object of the overlay
@@ -107,11 +218,11 @@ public class GameScene {
 	/**
 	 * Gets a sprite from the sprites
 	 * @param key The key of the sprite to get
-	 * @return The Sprite objects from the sprites LinkedHashMap
+	 * @return The Sprite object from the scene entities
 	 */
 	public Sprite getSprite(String key)
 	{
-		return (Sprite) sprites.get(key);
+		return sprites.getSprite(key);
 	}
 	
 	/**
@@ -150,6 +261,15 @@ public class GameScene {
 		return isActive;
 	}
 	
+	/**
+	 * Returns true if the player has changed the scene, by picking up or dropping items or by triggering persistent triggers
+	 * @return Whether or not the scene has been changed, true/false
+	 */
+	public boolean isModified()
+	{
+		return isModified;
+	}
+	
 	/**
 	 * Sets the name of the scene
 	 * @param sceneName The new scene name
@@ -191,6 +311,9 @@ public class GameScene {
 	public void setInactive()
 	{
 		isActive = false;
+		
+		// Only the shown scene keeps its static layer
+		staticLayer.release();
 	}
 	
 	/**
@@ -218,365 +341,307 @@ public class GameScene {
 	}
 	
 	/**
-	 * Initialize a game scene based on the name, with a given music file and volume
-	 * @throws SlickException Indicates a failure to initialize the display Indicates a failure to initialize the display
+	 * Initialize a game scene from its scene definition in data/scenes
+	 * @param sceneName The name of the scene
+	 * @param sceneRandom The generator of the random choices, seeded with the seed of the scene
+	 * @throws SlickException Indicates a failure to initialize the display or an unknown scene
 	 */
-	private void initializeScene(String sceneName) throws SlickException
-	{	
-		// A switch for making different scenes
-		switch(sceneName) {
-			// "Ice"-scene: first scene after the intro
-			case "ice":
-	
-				background = new Sprite("background", "img", "background1.png", false, 0, 0);
+	private void initializeScene(String sceneName, Random sceneRandom) throws SlickException
+	{
+		SceneDefinition definition = SceneLoader.getDefinition(sceneName);
+		ArrayList<EntityDefinition> entities = definition.getEntities();
+		
+		background = new Sprite("background", "img", definition.getBackgroundFilename(), false, 0, 0);
+		
+		// Entities are added in the order of the scene file, which is the order they are drawn in
+		for(int i = 0; i < entities.size(); i++) {
+			EntityDefinition entity = entities.get(i);
+			
+			switch(entity.getEntityType()) {
+				case SPRITE:
+					if(entity.hasTrigger()) {
+						addSprite(entity.getKey(), new Sprite(entity.getSpriteName(), entity.getFolder(), entity.getFilename(), entity.isCollidable(), entity.getTriggerType(), entity.getTriggerDirection(), entity.getAlternateX(), entity.getAlternateY(), entity.getTriggerValue(), entity.getTriggerMargin(), entity.getX(), entity.getY()), entity.getLayer());
+					}
+					else {
+						addSprite(entity.getKey(), new Sprite(entity.getSpriteName(), entity.getFolder(), entity.getFilename(), entity.isCollidable(), entity.getX(), entity.getY()), entity.getLayer());
+					}
+				break;
 				
-				sprites.put("switch_right", new Sprite("switch_right", "img", "vertical_line_transparent.png", false, TriggerType.BORDER_SCENESWITCH, 90, 10, 238, "outside_headquarters", 0, 955, 0));
-	
-				sprites.put("ice_cliff", new Sprite("ice_cliff", "sprites", "ice_cliff.png", true, 0, 0));
-				sprites.put("landingpad", new AnimatedSprite("landingpad", "sprites", "landingpad.png", true, 50, 80, 384, 384, 1000));
-				sprites.put("spaceship", new Sprite("spaceship", "sprites", "spaceship_big.png", false, 104, 132));
+				case ANIMATED_SPRITE:
+					if(entity.hasTrigger()) {
+						addSprite(entity.getKey(), new AnimatedSprite(entity.getSpriteName(), entity.getFolder(), entity.getFilename(), entity.isCollidable(), entity.getTriggerType(), entity.getTriggerDirection(), entity.getAlternateX(), entity.getAlternateY(), entity.getTriggerValue(), entity.getTriggerMargin(), entity.getX(), entity.getY(), entity.getWidth(), entity.getHeight(), entity.getInterval()), entity.getLayer());
+					}
+					else {
+						addSprite(entity.getKey(), new AnimatedSprite(entity.getSpriteName(), entity.getFolder(), entity.getFilename(), entity.isCollidable(), entity.getX(), entity.getY(), entity.getWidth(), entity.getHeight(), entity.getInterval()), entity.getLayer());
+					}
+				break;
+				
+				case ITEM:
+					addItem(entity.getKey(), new Item(entity.getKey(), entity.getItemName(), entity.getItemType(), entity.getIconFilename(), entity.getFilename(), entity.getX(), entity.getY()));
+				break;
+				
+				case MAZE:
+					initializeMaze(entity.getCoordinates(), sceneRandom);
+				break;
 				
-				bgMusicName = "GameSong01.ogg";
-				bgMusicVolume = 0.05f;
+				case AGENT:
+					agents.add(new Agent(entity.getSpriteName(), entity.getFolder(), entity.getFilename(), entity.getX(), entity.getY(), entity.getSpeed(), entity.getRange()));
+				break;
+			}
+		}
+		
+		// The agents walk around the collision boxes of all entities
+		agents.buildGrid(collisionGrid, sceneWidth, sceneHeight);
+		
+		buildRenderGrid();
+		
+		EntityDefinition overlayDefinition = definition.getOverlay();
+		
+		if(overlayDefinition != null) {
+			overlay = new AnimatedSprite("overlay", overlayDefinition.getFolder(), overlayDefinition.getFilename(), false, 0, 0, overlayDefinition.getWidth(), overlayDefinition.getHeight(), overlayDefinition.getInterval());
+			overlay.setAlpha(255);
+			overlayFollowsPlayer = definition.overlayFollowsPlayer();
+		}
+		
+		if(definition.isDark()) {
+			lightMask = new LightMask();
+			playerLightRadius = definition.getLightRadius();
+			lights = definition.getLights();
+		}
+		
+		bgMusicName = definition.getMusicFilename();
+		bgMusicVolume = definition.getMusicVolume();
+	}
 	
-			break;
+	/**
+	 * Starts preloading the images of a scene, so building the scene doesn't have to decode them
+	 * @param sceneName The name of the scene
+	 * @throws SlickException Indicates an unknown scene
+	 */
+	public static void preloadScene(String sceneName) throws SlickException
+	{
+		ArrayList<String> imageRefs = getImageRefs(sceneName);
+		
+		for(int i = 0; i < imageRefs.size(); i++) {
+			Assets.preloadImage(imageRefs.get(i));
+		}
+	}
 	
-			// "Outside headquarters"-scene
-			case "outside_headquarters":
+	/**
+	 * Starts decoding the images of a scene on worker threads while the game runs, building the scene afterwards
+	 * only has to upload them
+	 * @param sceneName The name of the scene
+	 * @throws SlickException Indicates a failure to load the definition of the scene
+	 */
+	public static void streamScene(String sceneName) throws SlickException
+	{
+		ArrayList<String> imageRefs = getImageRefs(sceneName);
+		
+		for(int i = 0; i < imageRefs.size(); i++) {
+			Assets.streamImage(imageRefs.get(i));
+		}
+	}
 	
-				background = new Sprite("background", "img", "background2.png", false, 0, 0);
+	/**
+	 * Stops decoding the images of a streamed scene that isn't needed anymore, images that have already been
+	 * uploaded are kept
+	 * @param sceneName The name of the scene
+	 * @throws SlickException Indicates a failure to load the definition of the scene
+	 */
+	public static void cancelStream(String sceneName) throws SlickException
+	{
+		ArrayList<String> imageRefs = getImageRefs(sceneName);
+		
+		for(int i = 0; i < imageRefs.size(); i++) {
+			Assets.cancelStream(imageRefs.get(i));
+		}
+	}
 	
-				sprites.put("switch_left", new Sprite("switch_left", "img", "vertical_line_transparent.png", false, TriggerType.BORDER_SCENESWITCH, 270, 886, 238, "ice", 0, 0, 0));
-				sprites.put("switch_top", new Sprite("switch_top", "img", "horizontal_line_transparent.png", false, TriggerType.BORDER_SCENESWITCH, 0, 448, 466, "above_headquarters", 0, 0, 0));
-				sprites.put("switch_bottom", new Sprite("switch_bottom", "img", "horizontal_line_transparent.png", false, TriggerType.BORDER_SCENESWITCH, 180, 448, 10, "drill", 0, 0, 535));
-				
-				sprites.put("bush", new Sprite("bush", "sprites", "bush.png", true, 150, 75));
-				sprites.put("headquarters", new Sprite("headquarters", "sprites", "headquarters.png", true, 600, 0));
-				sprites.put("headquarters_entrance_light", new Sprite("headquarters_entrance_light", "sprites", "headquarters_entrance_light.png", false, 440, 160));
-				sprites.put("headquarters_entrance", new Sprite("headquarters_entrance", "sprites", "headquarters_entrance.png", true, TriggerType.LOCKEDSCENESWITCH, 90, 80, 238, "headquarters", 0, 500, 160));
-				sprites.put("npc_officer", new Sprite("npc_officer", "sprites", "npc_red_up.png", true, TriggerType.MESSAGE, -1, -1, -1, "Welcome! I'm glad you're here.\nWe have a problem at the construction site. Do you mind taking a look?", 10, 405, 405));
-				
-				items.put("cake", new Item("cake", "Very Tasty Spacecake", ItemType.SPACECAKE, "cake_icon.png", "cake.png", 200, 30));
-				
-				bgMusicName = "GameSong01.ogg";
-				bgMusicVolume = 0.05f;
+	/**
+	 * Returns true if all the images of a scene have been decoded, building the scene then doesn't wait for the disk
+	 * @param sceneName The name of the scene
+	 * @return Whether or not the images of the scene are decoded, true/false
+	 * @throws SlickException Indicates a failure to load the definition of the scene
+	 */
+	public static boolean isStreamed(String sceneName) throws SlickException
+	{
+		ArrayList<String> imageRefs = getImageRefs(sceneName);
+		
+		for(int i = 0; i < imageRefs.size(); i++) {
+			if(!Assets.isDecoded(imageRefs.get(i))) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
 	
-			break;
+	/**
+	 * Returns the locations of all the images a scene uses
+	 * @param sceneName The name of the scene
+	 * @return The locations of the images
+	 * @throws SlickException Indicates a failure to load the definition of the scene
+	 */
+	private static ArrayList<String> getImageRefs(String sceneName) throws SlickException
+	{
+		SceneDefinition definition = SceneLoader.getDefinition(sceneName);
+		ArrayList<EntityDefinition> entities = definition.getEntities();
+		ArrayList<String> imageRefs = new ArrayList<String>();
+		
+		imageRefs.add("data/img/" + definition.getBackgroundFilename());
+		
+		for(int i = 0; i < entities.size(); i++) {
+			EntityDefinition entity = entities.get(i);
 			
-			// "Above headquarters"-scene
-			case "above_headquarters":
-				
-				background = new Sprite("background", "img", "background1.png", false, 0, 0);
-				
-				sprites.put("switch_bottom", new Sprite("switch_bottom", "img", "horizontal_line_transparent.png", false, TriggerType.BORDER_SCENESWITCH, 180, 448, 10, "outside_headquarters", 0, 0, 535));
-				
-				sprites.put("bush1", new Sprite("bush1", "sprites", "bush.png", true, 30, 140));
-				sprites.put("bush2", new Sprite("bush2", "sprites", "bush.png", true, 110, 90));
-				sprites.put("bush3", new Sprite("bush3", "sprites", "bush.png", true, 300, 70));
-				sprites.put("bush4", new Sprite("bush4", "sprites", "bush.png", true, 200, 10));
-				sprites.put("bush5", new Sprite("bush5", "sprites", "bush.png", true, 110, 260));
-				sprites.put("bush6", new Sprite("bush6", "sprites", "bush.png", true, 50, 350));
-				sprites.put("bush7", new Sprite("bush7", "sprites", "bush.png", true, 400, 20));
-				sprites.put("bush8", new Sprite("bush8", "sprites", "bush.png", true, 530, 140));
-				sprites.put("bush9", new Sprite("bush9", "sprites", "bush.png", true, 650, 80));
-				sprites.put("bush10", new Sprite("bush10", "sprites", "bush.png", true, 810, 60));
-				sprites.put("bush11", new Sprite("bush11", "sprites", "bush.png", true, 10, 10));
+			switch(entity.getEntityType()) {
+				case ITEM:
+					imageRefs.add("data/items/" + entity.getFilename());
+					imageRefs.add("data/items/" + entity.getIconFilename());
+				break;
 				
-				items.put("drill_bit", new Item("drill_bit", "drill bit, the main part of the drill", ItemType.SUPPLY, "drill_bit_icon.png", "drill_bit.png", 200, 125));
+				case MAZE:
+					for(int j = 0; j < mazeSprites.length; j++) {
+						imageRefs.add("data/sprites/" + mazeSprites[j]);
+					}
+				break;
 				
-				bgMusicName = "GameSong01.ogg";
-				bgMusicVolume = 0.05f;
+				default:
+					imageRefs.add("data/" + entity.getFolder() + "/" + entity.getFilename());
+				break;
+			}
+		}
+		
+		if(definition.getOverlay() != null) {
+			imageRefs.add("data/" + definition.getOverlay().getFolder() + "/" + definition.getOverlay().getFilename());
+		}
+		
+		return imageRefs;
+	}
 	
-			break;
+	/**
+	 * Adds a sprite to the scene and registers its boxes in the spatial grids
+	 * @param key The key of the sprite
+	 * @param sprite The sprite to add
+	 * @param layer The layer to draw the sprite on
+	 */
+	private void addSprite(String key, Sprite sprite, RenderLayer layer)
+	{
+		unregisterBoxes(sprites.get(key));
+		sprites.add(key, sprite, layer);
+		registerBoxes(sprite);
+	}
 	
-			// "Inside headquarters"-scene
-			case "headquarters":
+	/**
+	 * Adds an animated sprite to the scene and registers its boxes in the spatial grids
+	 * @param key The key of the animated sprite
+	 * @param animatedSprite The animated sprite to add
+	 * @param layer The layer to draw the animated sprite on
+	 */
+	private void addSprite(String key, AnimatedSprite animatedSprite, RenderLayer layer)
+	{
+		unregisterBoxes(sprites.get(key));
+		sprites.add(key, animatedSprite, layer);
+		registerBoxes(animatedSprite);
+	}
 	
-				background = new Sprite("background", "img", "headquarters_background.png", false, 0, 0);
+	/**
+	 * Registers the bounds of all entities in the render grid, in draw order, so rendering only visits the visible entities.
+	 * The entities of a scene don't move, the player, the items and the agents are culled separately.
+	 */
+	private void buildRenderGrid()
+	{
+		ArrayList<SceneEntity> drawOrder = sprites.getDrawOrder();
+		
+		renderGrid.clear();
+		
+		for(int i = 0; i < drawOrder.size(); i++) {
+			SceneEntity entity = drawOrder.get(i);
+			
+			renderGrid.add(entity, new Rectangle(entity.getX(), entity.getY(), entity.getWidth(), entity.getHeight()));
+		}
+	}
 	
-				sprites.put("headquarters_exit", new Sprite("headquarters_exit", "sprites", "headquarters_exit.png", true, TriggerType.SCENESWITCH, 270, 420, 238, "outside_headquarters", 0, 0, 160));
-				sprites.put("cpanel", new AnimatedSprite("cpanel", "sprites", "cpanel.png", true, 50, 0, 685, 90, 200));
-				sprites.put("trapdoor", new AnimatedSprite("trapdoor", "sprites", "trapdoor.png", false, TriggerType.TRAPDOOR, 360, 880, 76, "basement_1", 5, 860, 10, 90, 90, 50));
-				sprites.put("liquid_transporter", new AnimatedSprite("liquid_transporter", "sprites", "liquid_transporter.png", true, 860, 210, 70, 210, 100));
-				sprites.put("radar", new AnimatedSprite("radar", "sprites", "radar.png", true, 425, 240, 95, 95, 150));
+	/**
+	 * Registers the collision box and trigger box of an entity (if they exist)
+	 * @param entity The entity to register the boxes of
+	 */
+	private void registerBoxes(SceneEntity entity)
+	{
+		CollisionBox collisionbox = entity.getCollisionBox();
+		TriggerBox triggerbox = entity.getTriggerBox();
+		
+		if(collisionbox != null) {
+			collisionGrid.add(collisionbox, collisionbox.getShape());
+		}
+		
+		if(triggerbox != null) {
+			triggerGrid.add(triggerbox, triggerbox.getShape());
+		}
+	}
 	
-				bgMusicName = "GameSong01.ogg";
-				bgMusicVolume = 0.05f;
+	/**
+	 * Removes the collision box and trigger box of an entity from the spatial grids
+	 * @param entity The entity to unregister the boxes of, can be null
+	 */
+	private void unregisterBoxes(SceneEntity entity)
+	{
+		if(entity != null) {
+			collisionGrid.remove(entity.getCollisionBox());
+			triggerGrid.remove(entity.getTriggerBox());
+		}
+	}
 	
-			break;
-			
-			// "Basement 1"-scene
-			case "basement_1":
-				
-				background = new Sprite("background", "img", "basement.png", false, 0, 0);
-				
-				int[][] coordinates = new int[][] {
-						
-						{96, 60},
-						{192, 60},
-						{384, 60},
-						{480, 60},
-						{672, 60},
-						{192, 156},
-						{480, 156},
-						{672, 156},
-						{864, 156},
-						{192, 252},
-						{288, 252},
-						{480, 252},
-						{672, 252},
-						{864, 252},
-						{864, 348},
-						{96, 444},
-						{192, 444},
-						{384, 444},
-						{480, 444},
-						{576, 444},
-						{672, 444},
-						{864, 444}
-						
-				};
-				
-				initializeMaze(coordinates);
-				
-				sprites.put("wall_top_left", new Sprite("wall_top_left", "sprites", "wall_top_left.png", true, 0, 0));
-				sprites.put("wall_left", new Sprite("wall_left", "sprites", "wall_left.png", true, 0, 60));
-				
-				sprites.put("trigger_1", new Sprite("trigger_1", "img", "maze_trigger_5x96.png", true, TriggerType.BORDER_SCENESWITCH, 90, 16, 76, "basement_2", 0, 955, 60));
-				sprites.put("trigger_2", new Sprite("trigger_2", "img", "maze_trigger_96x5.png", true, TriggerType.BORDER_SCENESWITCH, 180, 304, 16, "basement_3", 0, 288, 535));
-				sprites.put("trigger_3", new Sprite("trigger_3", "img", "maze_trigger_96x5.png", true, TriggerType.BORDER_SCENESWITCH, 180, 784, 16, "basement_3", 0, 768, 535));
-				
-				bgMusicName = "GameSong02.ogg";
-				bgMusicVolume = 0.1f;
-				
-				// Maze overlay
-				overlay = new AnimatedSprite("overlay", "img", "overlay_maze.png", false, 0, 0, 2880, 1620, 1000);
-				overlay.setAlpha(255);
-				overlayFollowsPlayer = true;
-				
-			break;
-			
-			// "Basement 2"-scene
-			case "basement_2":
-
-				background = new Sprite("background", "img", "basement.png", false, 0, 0);
-
-				coordinates = new int[][] {
-
-						{288, 60},
-						{480, 60},
-						{768, 60},
-						{0, 156},
-						{96, 156},
-						{288, 156},
-						{672, 156},
-						{0, 252},
-						{480, 252},
-						{576, 252},
-						{672, 252},
-						{0, 348},
-						{96, 348},
-						{288, 348},
-						{576, 348},
-						{0, 444},
-						{96, 444},
-						{288, 444},
-						{384, 444},
-						{480, 444},
-						{576, 444},
-						{768, 444}
-
-				};
-
-				initializeMaze(coordinates);
-				
-				sprites.put("wall_top_right", new Sprite("wall_top_right", "sprites", "wall_top_right.png", true, 0, 0));
-				sprites.put("wall_right", new Sprite("wall_right", "sprites", "wall_right.png", true, 864, 60));
-				
-				sprites.put("trigger_1", new Sprite("trigger_1", "img", "maze_trigger_5x96.png", true, TriggerType.BORDER_SCENESWITCH, 270, 880, 76, "basement_1", 0, 0, 60));
-				sprites.put("trigger_2", new Sprite("trigger_2", "img", "maze_trigger_96x5.png", true, TriggerType.BORDER_SCENESWITCH, 180, 208, 16, "basement_4", 0, 192, 535));
-				sprites.put("trigger_3", new Sprite("trigger_3", "img", "maze_trigger_96x5.png", true, TriggerType.BORDER_SCENESWITCH, 180, 688, 16, "basement_4", 0, 672, 535));
-
-				sprites.put("teleporter", new AnimatedSprite("teleporter", "sprites", "teleporter.png", true, TriggerType.SCENESWITCH, 360, 420, 238, "outside_headquarters", 0, 768, 156, 96, 96, 100));
-				
-				items.put("wrench", new Item("wrench", "wrench, needed to fix the drill", ItemType.SUPPLY, "wrench_icon.png", "wrench.png", 736, 60));
-				
-				bgMusicName = "GameSong02.ogg";
-				bgMusicVolume = 0.1f;
-
-				// Maze overlay
-				overlay = new AnimatedSprite("overlay", "img", "overlay_maze.png", false, 0, 0, 2880, 1620, 1000);
-				overlay.setAlpha(255);
-				overlayFollowsPlayer = true;
-
-			break;
-			
-			// "Basement 3"-scene
-			case "basement_3":
-
-				background = new Sprite("background", "img", "basement.png", false, 0, 0);
-
-				coordinates = new int[][] {
-
-						{96, 0},
-						{192, 0},
-						{384, 0},
-						{480, 0},
-						{576, 0},
-						{672, 0},
-						{864, 0},
-						{480, 96},
-						{672, 96},
-						{864, 96},
-						{96, 192},
-						{288, 192},
-						{672, 192},
-						{864, 192},
-						{96, 288},
-						{288, 288},
-						{480, 288},
-						{672, 288},
-						{288, 384},
-						{576, 384},
-						{864, 384}
-
-				};
-
-				initializeMaze(coordinates);
-
-				sprites.put("wall_bottom_left", new Sprite("wall_bottom_left", "sprites", "wall_bottom_left.png", true, 0, 480));
-				sprites.put("wall_left", new Sprite("wall_left", "sprites", "wall_left.png", true, 0, 0));
-				
-				sprites.put("trigger_1", new Sprite("trigger_1", "img", "maze_trigger_96x5.png", true, TriggerType.BORDER_SCENESWITCH, 0, 304, 460, "basement_1", 0, 288, 0));
-				sprites.put("trigger_2", new Sprite("trigger_2", "img", "maze_trigger_96x5.png", true, TriggerType.BORDER_SCENESWITCH, 0, 784, 460, "basement_1", 0, 768, 0));
-				sprites.put("trigger_3", new Sprite("trigger_3", "img", "maze_trigger_5x96.png", true, TriggerType.BORDER_SCENESWITCH, 90, 16, 304, "basement_4", 0, 955, 288));
-				
-				items.put("screw", new Item("screw", "screw, a part of the drill", ItemType.SUPPLY, "screw_icon.png", "screw.png", 640, 352));
-
-				bgMusicName = "GameSong02.ogg";
-				bgMusicVolume = 0.1f;
-
-				// Maze overlay
-				overlay = new AnimatedSprite("overlay", "img", "overlay_maze.png", false, 0, 0, 2880, 1620, 1000);
-				overlay.setAlpha(255);
-				overlayFollowsPlayer = true;
-
-			break;
-			
-			// "Basement 4"-scene
-			case "basement_4":
-
-				background = new Sprite("background", "img", "basement.png", false, 0, 0);
-
-				coordinates = new int[][] {
-
-						{0, 0},
-						{96, 0},
-						{288, 0},
-						{384, 0},
-						{480, 0},
-						{576, 0},
-						{768, 0},
-						{0, 96},
-						{576, 96},
-						{0, 192},
-						{96, 192},
-						{192, 192},
-						{288, 192},
-						{384, 192},
-						{672, 192},
-						{480, 288},
-						{576, 288},
-						{672, 288},
-						{0, 384},
-						{96, 384},
-						{288, 384}
-
-				};
-
-				initializeMaze(coordinates);
-
-				sprites.put("wall_bottom_right", new Sprite("wall_bottom_right", "sprites", "wall_bottom_right.png", true, 0, 480));
-				sprites.put("wall_right", new Sprite("wall_right", "sprites", "wall_right.png", true, 864, 0));
-
-				sprites.put("trigger_1", new Sprite("trigger_1", "img", "maze_trigger_96x5.png", true, TriggerType.BORDER_SCENESWITCH, 0, 208, 460, "basement_2", 0, 192, 0));
-				sprites.put("trigger_2", new Sprite("trigger_2", "img", "maze_trigger_96x5.png", true, TriggerType.BORDER_SCENESWITCH, 0, 688, 460, "basement_2", 0, 672, 0));
-				sprites.put("trigger_3", new Sprite("trigger_3", "img", "maze_trigger_5x96.png", true, TriggerType.BORDER_SCENESWITCH, 270, 880, 304, "basement_3", 0, 0, 288));
-				
-				items.put("cogwheel", new Item("cogwheel", "cogwheel, a part of the drill", ItemType.SUPPLY, "cogwheel_icon.png", "cogwheel.png", 640, 256));
-				
-				bgMusicName = "GameSong02.ogg";
-				bgMusicVolume = 0.1f;
-
-				// Maze overlay
-				overlay = new AnimatedSprite("overlay", "img", "overlay_maze.png", false, 0, 0, 2880, 1620, 1000);
-				overlay.setAlpha(255);
-				overlayFollowsPlayer = true;
-
-			break;
-			
-			// "Drill"-scene
-			case "drill":
-				
-				background = new Sprite("background", "img", "background3.png", false, 0, 0);
-				
-				sprites.put("switch_top", new Sprite("switch_top", "img", "horizontal_line_transparent.png", false, TriggerType.BORDER_SCENESWITCH, 0, 448, 466, "outside_headquarters", 0, 0, 0));
-				
-				sprites.put("middlecore", new AnimatedSprite("middlecore", "sprites", "middlecore.png", true, 352, 240, 64, 64, 500));
-				sprites.put("conveyer_1", new AnimatedSprite("conveyer_1", "sprites", "conveyer.png", true, 416, 240, 64, 64, 250));
-				sprites.put("conveyer_2", new AnimatedSprite("conveyer_2", "sprites", "conveyer.png", true, 480, 240, 64, 64, 250));
-				sprites.put("conveyer_3", new AnimatedSprite("conveyer_3", "sprites", "conveyer.png", true, 544, 240, 64, 64, 250));
-				sprites.put("rocks", new AnimatedSprite("rocks", "sprites", "rocks.png", false, 416, 240, 192, 64, 250));
-				sprites.put("rocks_2", new AnimatedSprite("rocks", "sprites", "rocks_2.png", false, 416, 240, 192, 64, 250));
-				sprites.put("burner", new AnimatedSprite("burner", "sprites", "burner.png", true, 608, 240, 64, 64, 100));
-				
-				sprites.put("npc_officer", new Sprite("npc_officer", "sprites", "npc_red_up.png", true, TriggerType.MESSAGE, -1, -1, -1, "Good to see you here. The drill has stopped working!\nCan you ask around to see what parts the workers need?", 10, 438, 430));
-				sprites.put("drill_bit_npc", new Sprite("drill_bit_npc", "sprites", "npc_yellow_left.png", true, TriggerType.TRADEINSUPPLY, -1, -1, -1, "Could you please get me the drill bit.", 10, 900, 240));
-				sprites.put("cogwheel_npc", new Sprite("cogwheel_npc", "sprites", "npc_yellow_right.png", true, TriggerType.TRADEINSUPPLY, -1, -1, -1, "It would be nice if you could get my a cogwheel.", 10, 60, 330));
-				sprites.put("screw_npc", new Sprite("screw_npc", "sprites", "npc_yellow_bottom.png", true, TriggerType.TRADEINSUPPLY, -1, -1, -1, "I need a screw to continue my work.", 10, 360, 135));
-				sprites.put("wrench_npc", new Sprite("wrench_npc", "sprites", "npc_yellow_bottom.png", true, TriggerType.TRADEINSUPPLY, -1, -1, -1, "Have you seen my wrench by any chance?", 10, 580, 110));
-				
-				items.put("headquarters_entrance_key", new Item("headquarters_entrance_key", "Key to the HQ", ItemType.KEY, "key_hq_icon.png", "key_hq.png", 885, 335));
-				
-				bgMusicName = "GameSong01.ogg";
-				bgMusicVolume = 0.05f;
-				
-			break;
-			
+	/**
+	 * Adds an item to the scene and registers its trigger box in the item grid
+	 * @param key The key of the item
+	 * @param item The item to add
+	 */
+	private void addItem(String key, Item item)
+	{
+		items.put(key, item);
+		
+		TriggerBox itemTriggerBox = item.getSprite().getTriggerBox();
+		itemTriggerGrid.add(itemTriggerBox, itemTriggerBox.getShape());
+	}
+	
+	/**
+	 * Removes an item from the scene and its trigger box from the item grid
+	 * @param key The key of the item
+	 * @return The removed item, null if it didn't exist
+	 */
+	private Item removeItem(String key)
+	{
+		Item item = items.remove(key);
+		
+		if(item != null) {
+			itemTriggerGrid.remove(item.getSprite().getTriggerBox());
 		}
 		
-		bgMusic = new Music("data/music/" + bgMusicName);
+		return item;
 	}
 	
 	/**
 	 * Initialize a maze scene with the given coordinates
 	 * @param coordinates An array of coordinates
+	 * @param sceneRandom The generator picking the sprites, seeded with the seed of the scene
 	 * @throws SlickException Indicates a failure to initialize the display Indicates a failure to initialize the display
 	 */
-	private void initializeMaze(int[][] coordinates) throws SlickException
+	private void initializeMaze(int[][] coordinates, Random sceneRandom) throws SlickException
 	{
-		// Maze objects
-		String[] mazeSprites = new String[] {
-				"shelf.png",
-				"shelf_items.png",
-				"barrels.png",
-				"boxes.png"
-		};
-		
 		// For each coordinate
 		for(int i = 0; i < coordinates.length; i++) {
 			int x = coordinates[i][0];
 			int y = coordinates[i][1];
 			int mazeSpritesCount = mazeSprites.length;
 			
-			int randomIndex = randInt(0, mazeSpritesCount - 1);
+			int randomIndex = sceneRandom.nextInt(mazeSpritesCount);
 			
 			String randomSpriteName = mazeSprites[randomIndex];
 			String spriteName = randomSpriteName + i;
 			
 			Sprite mazeSprite = new Sprite(spriteName, "sprites", randomSpriteName, true, x, y);
 			
-			sprites.put(spriteName, mazeSprite);
+			addSprite(spriteName, mazeSprite, RenderLayer.SCENERY);
 		}
 	}
 		
@@ -605,37 +670,30 @@ public class GameScene {
 	}
 	
 	/**
-	 * Plays the given music in the background
-	 * @throws SlickException Indicates a failure to initialize the display
+	 * Plays the music of the scene in the background, crossfading from the music of the previous scene
+	 * @throws SlickException Indicates a failure to open the music
 	 */
 	public void playMusic() throws SlickException 
 	{
 		if(bgMusicName != null) {
-			bgMusic.loop(1f, bgMusicVolume);
+			MusicManager.play("data/music/" + bgMusicName, bgMusicVolume);
 		}
 	}
 	
 	/**
-	 * Plays the sound with the given name one time
-	 * @param soundName The filename of the sound
-	 * @throws SlickException Indicates a failure to initialize the display
+	 * Plays the given sound effect one time
+	 * @param cue The sound effect to play
 	 */
-	public void playSound(String soundName) throws SlickException
+	public void playSound(SoundCue cue)
 	{
-		Sound sound = new Sound("data/soundeffects/" + soundName);
-		
-		sound.play();
+		SoundBank.play(cue);
 	}
 	
 	/**
-	 * Stops all the sounds playing
+	 * Stops all the sound effects playing, the music keeps playing until the next scene starts its own music
 	 */
 	public void stopAllSounds()
 	{
-		if(bgMusic != null) {
-			bgMusic.stop();
-		}
-		
 		player.stopFootstepSound();
 	}
 	
@@ -644,10 +702,15 @@ public class GameScene {
 	 * @param input The input key
 	 * @throws SlickException Indicates a failure to initialize the display 
 	 */
-	public void keyHandler(Input input) throws SlickException
+	public void keyHandler(InputState input) throws SlickException
 	{
+		// Toggles the outlines of the collision and trigger boxes
+		if(input.isKeyPressed(Input.KEY_F3)) {
+			debugOverlay.toggle();
+		}
+		
 		// Checks if the player is colliding with a sprite
-		boolean isColliding = player.isCollidingWith(sprites);
+		boolean isColliding = player.isCollidingWith(collisionGrid);
 		
 		if(!isColliding) {
 			// Move player
@@ -663,7 +726,7 @@ public class GameScene {
 			}
 			
 			else if(input.isKeyDown(Input.KEY_RIGHT)) {
-				if(player.canMoveRight(screenWidth)) {
+				if(player.canMoveRight(sceneWidth)) {
 					player.moveRight();
 				}
 				
@@ -685,7 +748,7 @@ public class GameScene {
 			}
 			
 			else if(input.isKeyDown(Input.KEY_DOWN)) {
-				if(player.canMoveDown(screenHeight)) {
+				if(player.canMoveDown(sceneHeight)) {
 					player.moveDown();
 				}
 				
@@ -725,7 +788,7 @@ public class GameScene {
 	 * @param input The input key
 	 * @throws SlickException Indicates a failure to initialize the display 
 	 */
-	private void inventoryKeyHandler(Input input) throws SlickException
+	private void inventoryKeyHandler(InputState input) throws SlickException
 	{
 		if(input.isKeyDown(Input.KEY_1)) {
 			inventory.setSelectedSlot(0);
@@ -787,10 +850,11 @@ public class GameScene {
 			}
 			
 			// Update item position
-			if(x > 0 && y > 0 && x < screenWidth && y < screenHeight) {
+			if(x > 0 && y > 0 && x < sceneWidth && y < sceneHeight) {
 				selectedItem.moveItem(x, y);
 				inventory.deleteSelectedItem();
-				items.put(selectedItemName, selectedItem);
+				addItem(selectedItemName, selectedItem);
+				isModified = true;
 			}
 			else {
 				inventory.setCurrentMessage("You can't drop an item here!");
@@ -824,9 +888,10 @@ public class GameScene {
 			
 				case SPACECAKE:
 					
-					itemExpireTimestamp = System.currentTimeMillis() + 20 * 1000;
+					// The effect lasts a number of simulation steps, so it ends at the same step in a replay
+					itemExpireSteps = spaceCakeDuration / Game.getStepLength();
 					inventory.deleteSelectedItem();
-					playSound("SpaceCakeSoundEffect.ogg");
+					playSound(SoundCue.SPACE_CAKE);
 					
 					if(secondOverlay.isStopped()) {
 						secondOverlay.startAnimation();
@@ -842,13 +907,15 @@ public class GameScene {
 	}
 	
 	/**
-	 * Checks if the current item usage is not expired
+	 * Counts down the current item usage by one simulation step and ends its effect when it has expired
 	 */
 	private void checkItemUsage()
 	{
-		long timestamp = System.currentTimeMillis();
-				
-		if(itemExpireTimestamp < timestamp) {
+		if(itemExpireSteps > 0) {
+			itemExpireSteps--;
+		}
+		
+		if(itemExpireSteps == 0) {
 			if(!secondOverlay.isStopped()) {
 				secondOverlay.setAlpha(0);
 				secondOverlay.stopAnimation();
@@ -863,20 +930,17 @@ public class GameScene {
 	 */
 	public boolean checkTradeInSupplies()
 	{
-		for(Object object : sprites.values()) {
-			if(object instanceof Sprite) {
-				
-				Sprite sprite = (Sprite) object;
-				TriggerBox spriteTriggerBox = sprite.getTriggerBox();
-				
-				if(spriteTriggerBox != null) {
-					if(spriteTriggerBox.getTriggerType() == TriggerType.TRADEINSUPPLY) {
-						if(!spriteTriggerBox.isTriggered()) {
-							return false;
-						}
+		ArrayList<Sprite> sceneSprites = sprites.getSprites();
+		
+		for(int i = 0; i < sceneSprites.size(); i++) {
+			TriggerBox spriteTriggerBox = sceneSprites.get(i).getTriggerBox();
+			
+			if(spriteTriggerBox != null) {
+				if(spriteTriggerBox.getTriggerType() == TriggerType.TRADEINSUPPLY) {
+					if(!spriteTriggerBox.isTriggered()) {
+						return false;
 					}
 				}
-				
 			}
 		}
 		return true;
@@ -888,8 +952,8 @@ public class GameScene {
 	 */
 	public void triggerHandler() throws SlickException 
 	{
-		TriggerBox currentTriggerBoxSprites = player.getCurrentTriggerBox(sprites);
-		TriggerBox currentTriggerBoxItems = player.getCurrentItemTriggerBox(items);
+		TriggerBox currentTriggerBoxSprites = player.getCurrentTriggerBox(triggerGrid);
+		TriggerBox currentTriggerBoxItems = player.getCurrentItemTriggerBox(itemTriggerGrid);
 		
 		triggerBoxHandler(currentTriggerBoxSprites);
 		triggerBoxHandler(currentTriggerBoxItems);
@@ -905,7 +969,7 @@ public class GameScene {
 		triggerHandler();
 		
 		// Checks if the player is colliding with a sprite
-		boolean isColliding = player.isCollidingWith(sprites);
+		boolean isColliding = player.isCollidingWith(collisionGrid);
 		
 		if(isColliding) {
 			TriggerBox latestTriggerBox = player.getLatestTriggerBox();
@@ -925,6 +989,78 @@ public class GameScene {
 		return null;
 	}
 	
+	/**
+	 * Returns the name of the scene behind the border the player is approaching, null if the player isn't near a border
+	 * @param distance The distance in pixels from the player to look for border triggers
+	 * @return The name of the approached scene
+	 */
+	public String getApproachingScene(int distance)
+	{
+		int playerSize = player.getPlayerSize();
+		
+		approachArea.setBounds(player.getX() - distance, player.getY() - distance, playerSize + distance * 2, playerSize + distance * 2);
+		approachedTriggerBoxes.clear();
+		triggerGrid.getOverlapping(approachArea, approachedTriggerBoxes);
+		
+		for(int i = 0; i < approachedTriggerBoxes.size(); i++) {
+			TriggerBox triggerBox = approachedTriggerBoxes.get(i);
+			
+			if(triggerBox.getTriggerType() == TriggerType.BORDER_SCENESWITCH) {
+				return triggerBox.getValue();
+			}
+		}
+		
+		return null;
+	}
+	
+	/**
+	 * Adds all the textures used by the scene to the given set
+	 * @param textures The set to add the textures to
+	 */
+	public void collectTextures(Set<Texture> textures)
+	{
+		addTexture(textures, background.getImage());
+		
+		for(Sprite sprite : sprites.getSprites()) {
+			addTexture(textures, sprite.getImage());
+		}
+		
+		for(AnimatedSprite animatedSprite : sprites.getAnimatedSprites()) {
+			addTexture(textures, animatedSprite.getAnimation().getImage(0));
+		}
+		
+		for(Item item : items.values()) {
+			addTexture(textures, item.getSprite().getImage());
+			addTexture(textures, item.getItemIcon().getImage());
+		}
+		
+		for(Agent agent : agents.getAgents()) {
+			addTexture(textures, agent.getSprite().getImage());
+		}
+		
+		for(SpriteSheet spritesheet : player.getSpriteSheets()) {
+			addTexture(textures, spritesheet);
+		}
+		
+		if(overlay != null) {
+			addTexture(textures, overlay.getAnimation().getImage(0));
+		}
+		
+		addTexture(textures, secondOverlay.getAnimation().getImage(0));
+	}
+	
+	/**
+	 * Adds the texture of an image to the given set
+	 * @param textures The set to add the texture to
+	 * @param image The image to add the texture of
+	 */
+	private static void addTexture(Set<Texture> textures, Image image)
+	{
+		if(image != null && image.getTexture() != null) {
+			textures.add(image.getTexture());
+		}
+	}
+	
 	/**
 	 * Handles all the types of trigger boxes
 	 * @param currentTriggerBox The trigger box to check
@@ -975,11 +1111,12 @@ public class GameScene {
 						 
 						if(inventory.hasItemSelected(keyName) || currentTriggerBox.isTriggered()) {
 							// Play unlocked lock effect
-							playSound("UnlockDoorSoundEffect.ogg");
+							playSound(SoundCue.UNLOCK_DOOR);
 							
 							nextScene = currentTriggerBox.getValue();
 							preservePlayerCoordinates = true;
 							currentTriggerBox.setTriggered();
+							isModified = true;
 							 
 							// Remove key from inventory
 							inventory.deleteItem(keyName);
@@ -1004,13 +1141,14 @@ public class GameScene {
 					inventory.setCurrentMessage(currentTriggerBox.getValue());
 					
 					currentTriggerBox.setTriggered();
+					isModified = true;
 					
 					break;
 				}
 				
 				case LOCKEDMESSAGE: {
 					
-					Sprite npc_officer = (Sprite) sprites.get("npc_officer");
+					Sprite npc_officer = sprites.getSprite("npc_officer");
 					
 					if(npc_officer != null) {
 						TriggerBox npc_officer_triggerbox = npc_officer.getTriggerBox();
@@ -1030,7 +1168,7 @@ public class GameScene {
 					
 					if(!currentTriggerBox.isTriggered()) {
 						
-						Sprite npc_officer = (Sprite) sprites.get("npc_officer");
+						Sprite npc_officer = sprites.getSprite("npc_officer");
 						
 						if(npc_officer != null) {
 							TriggerBox npc_officer_triggerbox = npc_officer.getTriggerBox();
@@ -1043,6 +1181,7 @@ public class GameScene {
 									
 									if(npcName.equals(itemName)) {
 										currentTriggerBox.setTriggered();
+										isModified = true;
 										inventory.setCurrentMessage("Thank you for giving me a " + currentItem.getItemName());
 										inventory.deleteItem(currentItem.getKeyValue());
 									} else {
@@ -1064,7 +1203,7 @@ public class GameScene {
 				
 				case TRAPDOOR: {
 					
-					AnimatedSprite animatedSprite = (AnimatedSprite) sprites.get(itemName);
+					AnimatedSprite animatedSprite = sprites.getAnimatedSprite(itemName);
 					
 					if(!currentTriggerBox.isTriggered()) {
 						animatedSprite.playAnimationOnce();
@@ -1088,8 +1227,8 @@ public class GameScene {
 					
 					if(inventory.canAddItem()) {
 						currentTriggerBox.setTriggered();
-						Item item = items.get(itemName);
-						items.remove(itemName);
+						isModified = true;
+						Item item = removeItem(itemName);
 						
 						inventory.addItem(item);
 						inventory.setCurrentMessage(currentTriggerBox.getValue());
@@ -1111,86 +1250,138 @@ public class GameScene {
 	}
 	
 	/**
-	 * Returns a pseudo-random number between min and max, inclusive.
-	 * The difference between min and max can be at most
-	 * <code>Integer.MAX_VALUE - 1</code>.
-	 *
-	 * @param min Minimum value
-	 * @param max Maximum value.  Must be greater than min.
-	 * @return Integer between min and max, inclusive.
-	 * @see java.util.Random#nextInt(int)
+	 * Updates elements in the game, called every simulation step after the player has moved
 	 */
-	private static int randInt(int min, int max) {
-
-	    // NOTE: Usually this should be a field rather than a method
-	    // variable so that it is not re-seeded every call.
-	    Random rand = new Random();
-
-	    // nextInt is normally exclusive of the top value,
-	    // so add 1 to make it inclusive
-	    int randomNum = rand.nextInt((max - min) + 1) + min;
-
-	    return randomNum;
+	public void update()
+	{
+		updateAnimations();
+		
+		// Check item usage
+		checkItemUsage();
+		
+		// If the overlay needs to follow the player
+		// Call the next method
+		if(overlayFollowsPlayer) {
+			overlayFollowPlayer();
+		}
+		
+		// Move the agents
+		agents.update();
+		
+		followPlayer();
 	}
 	
 	/**
-	 * Updates elements in the game, called every update of the game
+	 * Advances the animations of the animated sprites, the player and the overlays by one simulation step,
+	 * so they play at the same speed with and without a display
 	 */
-	public void update()
+	private void updateAnimations()
 	{
-		// Check item usage
-		checkItemUsage();
+		int stepLength = Game.getStepLength();
+		ArrayList<AnimatedSprite> animatedSprites = sprites.getAnimatedSprites();
+		
+		for(int i = 0; i < animatedSprites.size(); i++) {
+			animatedSprites.get(i).update(stepLength);
+		}
+		
+		player.update(stepLength);
+		
+		if(overlay != null) {
+			overlay.update(stepLength);
+		}
+		
+		secondOverlay.update(stepLength);
 	}
 	
 	/**
-	 * Renders the scene
-	 * @param g The graphics to draw the scene on
-	 * @throws SlickException Indicates a failure to initialize the display
+	 * Moves the camera to the player, the rainbow overlay covers the screen so it moves along with the camera
 	 */
-	public void render(Graphics g) throws SlickException
+	private void followPlayer()
 	{
-		// If the overlay needs to follow the player
-		// Call the next method
-		if(overlayFollowsPlayer) {
-			overlayFollowPlayer();
+		int playerSize = player.getPlayerSize();
+		
+		camera.follow(player.getX() + (playerSize / 2), player.getY() + (playerSize / 2));
+		
+		if(isActive) {
+			secondOverlay.setX(camera.getX());
+			secondOverlay.setY(camera.getY());
 		}
+	}
+	
+	/**
+	 * Remembers the current positions of the entities, the agents, the player and the overlays, before the next simulation step moves them
+	 */
+	public void savePositions()
+	{
+		ArrayList<SceneEntity> entities = sprites.getEntities();
 		
-		// Draws collision boxes
-		for(Object object : sprites.values()) {
-			if(object instanceof Sprite) {
-				Sprite sprite = (Sprite) object;
-				
-				sprite.drawBoxes(g);
-			}
-			else if(object instanceof AnimatedSprite) {
-				AnimatedSprite animatedSprite = (AnimatedSprite) object;
-				
-				animatedSprite.drawBoxes(g);
-			}
+		for(int i = 0; i < entities.size(); i++) {
+			entities.get(i).savePosition();
 		}
 		
-		// Draw item collision boxes
 		for(Item item : items.values()) {
-			Sprite sprite = item.getSprite();
-			
-			sprite.drawBoxes(g);
+			item.getSprite().savePosition();
 		}
 		
-		// Draws the player collision box and background
-		player.drawCollisionBox(g);
-		background.drawSprite(g);
+		agents.savePositions();
 		
-		// Draws the sprites.
-		for(Object object : sprites.values()) {
-			if(object instanceof Sprite) {
-				Sprite sprite = (Sprite) object;
-				
-				sprite.drawSprite(g);
-			}
-			else if(object instanceof AnimatedSprite) {
-				AnimatedSprite animatedSprite = (AnimatedSprite) object;
+		player.savePosition();
+		camera.savePosition();
+		
+		if(overlay != null) {
+			overlay.savePosition();
+		}
+		
+		if(secondOverlay != null) {
+			secondOverlay.savePosition();
+		}
+	}
+	
+	/**
+	 * Moves the overlay to the player and saves all positions, so the player isn't drawn moving from its
+	 * position before it was placed in the scene
+	 */
+	public void resetPositions()
+	{
+		if(overlayFollowsPlayer) {
+			overlayFollowPlayer();
+		}
+		
+		followPlayer();
+		savePositions();
+	}
+	
+	/**
+	 * Renders the scene
+	 * @param g The graphics to draw the scene on
+	 * @param interpolation How far the frame is between the previous and the current simulation step, between 0 and 1
+	 * @throws SlickException Indicates a failure to initialize the display
+	 */
+	public void render(Graphics g, float interpolation) throws SlickException
+	{
+		Rectangle viewport = camera.getViewport(interpolation);
+		
+		batch.setInterpolation(interpolation);
+		
+		// The scene is drawn in scene coordinates, moved by the camera
+		g.pushTransform();
+		g.translate(-viewport.getX(), -viewport.getY());
+		
+		if(camera.showsWholeWorld()) {
+			// Draws the background and the sprites, the ones that don't move come from the static layer
+			staticLayer.render(g, batch, background, sprites);
+		}
+		else {
+			// Draws the background and only the sprites on the screen, in draw order
+			background.drawSprite(batch, RenderLayer.BACKGROUND);
+			
+			visibleEntities.clear();
+			renderGrid.getOverlappingInOrder(viewport, visibleEntities);
+			
+			for(int i = 0; i < visibleEntities.size(); i++) {
+				SceneEntity entity = visibleEntities.get(i);
 				
-				animatedSprite.drawSprite(g);
+				entity.drawSprite(batch, sprites.getLayer(entity));
 			}
 		}
 		
@@ -1198,24 +1389,64 @@ public class GameScene {
 		for(Item item : items.values()) {
 			Sprite sprite = item.getSprite();
 			
-			sprite.drawSprite(g);
-		}		
+			if(camera.isVisible(sprite.getX(), sprite.getY(), sprite.getWidth(), sprite.getHeight())) {
+				sprite.drawSprite(batch, RenderLayer.ITEMS);
+			}
+		}
+		
+		// Draw the agents
+		agents.render(batch, camera);
 		
 		// Draw the player
-		player.drawSprite(g);
+		player.drawSprite(batch, RenderLayer.PLAYER);
 		
 		// Draw the space cake effect
 		if(secondOverlay != null) {
-			secondOverlay.drawSprite(g);
+			secondOverlay.drawSprite(batch, RenderLayer.EFFECTS);
 		}
 		
 		// Draw the overlay
 		if(overlay != null) {
-			overlay.drawSprite(g);
+			overlay.drawSprite(batch, RenderLayer.OVERLAY);
 		}
 		
+		batch.flush(g);
+		
+		// Darken the scene around the lights
+		if(lightMask != null) {
+			renderDarkness(g, viewport);
+		}
+		
+		// Draw the outlines of the boxes, only when the debug overlay is enabled
+		debugOverlay.render(g, collisionGrid, triggerGrid, itemTriggerGrid, player);
+		
+		g.popTransform();
+		
 		// Draw the inventory
 		inventory.render(g);
 	}
 	
+	/**
+	 * Darkens the scene except for the area around the player and the lights of the scene
+	 * @param g The graphics to draw on
+	 * @param viewport The visible part of the scene
+	 */
+	private void renderDarkness(Graphics g, Rectangle viewport)
+	{
+		int playerSize = player.getPlayerSize();
+		float playerX = batch.interpolate(player.getPreviousX(), player.getX());
+		float playerY = batch.interpolate(player.getPreviousY(), player.getY());
+		
+		lightMask.clear();
+		lightMask.addLight(playerX + (playerSize / 2), playerY + (playerSize / 2), playerLightRadius);
+		
+		for(int i = 0; i < lights.size(); i++) {
+			int[] light = lights.get(i);
+			
+			lightMask.addLight(light[0], light[1], light[2]);
+		}
+		
+		lightMask.render(g, viewport);
+	}
+	
 }
@@ -1,15 +1,19 @@
 package nl.corebooster.scenes;
 
-import java.util.LinkedHashMap;
-import java.util.Random;
+import java.util.ArrayList;
 
 import nl.corebooster.setup.AnimatedSprite;
+import nl.corebooster.setup.Game;
+import nl.corebooster.setup.GameRandom;
+import nl.corebooster.setup.InputState;
+import nl.corebooster.setup.MusicManager;
+import nl.corebooster.setup.SceneEntities;
+import nl.corebooster.setup.SceneEntity;
 import nl.corebooster.setup.Sprite;
 import nl.corebooster.setup.StarBackground;
 
 import org.newdawn.slick.Graphics;
 import org.newdawn.slick.Input;
-import org.newdawn.slick.Music;
 import org.newdawn.slick.SlickException;
 
 /**
@@ -19,14 +23,13 @@ import org.newdawn.slick.SlickException;
  */
 public class IntroScene {
 	
-	private LinkedHashMap<String, Object> sprites;
+	private SceneEntities sprites;
 	private boolean sceneEnded;
 	
 	private Sprite background;
 	private StarBackground stars;
 	private Sprite overlay;
 	
-	private Music bgMusic;
 			
 	private static final int screenWidth = 960;
 	private static final int screenHeight = 540;
@@ -37,7 +40,7 @@ public class IntroScene {
 	 */
 	public IntroScene() throws SlickException
 	{
-		sprites = new LinkedHashMap<String, Object>();
+		sprites = new SceneEntities();
 		stars = new StarBackground(screenWidth, screenHeight);
 		sceneEnded = false;
 		
@@ -46,21 +49,20 @@ public class IntroScene {
 		
 		// Set title and 'press space to start'
 		Sprite title = new Sprite("title", "img", "title.png", false, 228, 50);
-		sprites.put("title", title);
+		sprites.add("title", title);
 		
 		AnimatedSprite start = new AnimatedSprite("start", "sprites", "press_space.png", false, 166, 470, 627, 29, 200);
-		sprites.put("start", start);
+		sprites.add("start", start);
 		
 		// Make sprite objects
 		Sprite spaceship = new Sprite("spaceship", "sprites", "spaceship.png", false, 416, 210);
-		sprites.put("spaceship", spaceship);
+		sprites.add("spaceship", spaceship);
 		
 		// Black overlay for fade in and fade out
 		overlay = new Sprite("overlay", "img", "overlay.png", false, 0, 0);
 		
 		// Stars playing background music
-		bgMusic = new Music("data/music/IntroSong.ogg");
-		bgMusic.loop(1f, 0.1f);
+		MusicManager.play("data/music/IntroSong.ogg", 0.1f);
 		
 	}
 	
@@ -76,11 +78,11 @@ public class IntroScene {
 	/**
 	 * Gets a sprite from the sprites
 	 * @param key The key of the sprite to get
-	 * @return The Sprite objects from the sprites LinkedHashMap
+	 * @return The Sprite object from the scene entities
 	 */
 	private Sprite getSprite(String key)
 	{
-		return (Sprite) sprites.get(key);
+		return sprites.getSprite(key);
 	}
 	
 	/**
@@ -96,7 +98,7 @@ public class IntroScene {
 	 * Handles user input
 	 * @param input The input key
 	 */
-	public void keyHandler(Input input)
+	public void keyHandler(InputState input)
 	{
 		if(input.isKeyDown(Input.KEY_SPACE))
 		{
@@ -119,8 +121,15 @@ public class IntroScene {
 		stars.animateStars();
 		
 		// Move spaceship
-		getSprite("spaceship").animateUpDown(randInt(50, 150));
-		getSprite("spaceship").animateLeftRight(randInt(50, 250));
+		getSprite("spaceship").animateUpDown(GameRandom.randInt(50, 150));
+		getSprite("spaceship").animateLeftRight(GameRandom.randInt(50, 250));
+		
+		// Blink 'press space to start'
+		ArrayList<AnimatedSprite> animatedSprites = sprites.getAnimatedSprites();
+		
+		for(int i = 0; i < animatedSprites.size(); i++) {
+			animatedSprites.get(i).update(Game.getStepLength());
+		}
 	}
 
 	/**
@@ -132,15 +141,10 @@ public class IntroScene {
 		background.drawSprite(g);
 		stars.drawStars(g);
 		
-		for(Object o : sprites.values()) {
-			if(o instanceof Sprite) {
-				Sprite s = (Sprite) o;
-				s.drawSprite(g);
-			}
-			else if(o instanceof AnimatedSprite) {
-				AnimatedSprite as = (AnimatedSprite) o;
-				as.drawSprite(g);
-			}
+		ArrayList<SceneEntity> entities = sprites.getEntities();
+		
+		for(int i = 0; i < entities.size(); i++) {
+			entities.get(i).drawSprite(g);
 		}
 		
 		// Draw the overlay
@@ -148,34 +152,10 @@ public class IntroScene {
 	}
 	
 	/**
-	 * Stops playing background music
+	 * Fades out the background music
 	 */
 	private void stopBackgroundMusic() {
-		bgMusic.stop();
-	}
-	
-	/**
-	 * Returns a pseudo-random number between min and max, inclusive.
-	 * The difference between min and max can be at most
-	 * <code>Integer.MAX_VALUE - 1</code>.
-	 *
-	 * @param min Minimum value
-	 * @param max Maximum value.  Must be greater than min.
-	 * @return Integer between min and max, inclusive.
-	 * @see java.util.Random#nextInt(int)
-	 */
-	private static int randInt(int min, int max) 
-	{
-
-	    // NOTE: Usually this should be a field rather than a method
-	    // variable so that it is not re-seeded every call.
-	    Random rand = new Random();
-
-	    // nextInt is normally exclusive of the top value,
-	    // so add 1 to make it inclusive
-	    int randomNum = rand.nextInt((max - min) + 1) + min;
-
-	    return randomNum;
+		MusicManager.fadeOut();
 	}
 	
 }
@@ -0,0 +1,107 @@
+package nl.corebooster.scenes;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+import nl.corebooster.setup.Assets;
+
+import org.newdawn.slick.Color;
+import org.newdawn.slick.Graphics;
+import org.newdawn.slick.SlickException;
+import org.newdawn.slick.loading.DeferredResource;
+import org.newdawn.slick.loading.LoadingList;
+
+/**
+ * Describes the loading scene, shown while the preloaded resources are uploaded
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class LoadingScene {
+	
+	private static final int screenWidth = 960;
+	private static final int screenHeight = 540;
+	private static final int barWidth = 400;
+	private static final int barHeight = 12;
+	private static final long uploadBudget = 30;
+	
+	// The resources taken from the loading list that haven't been uploaded yet
+	private ArrayList<DeferredResource> waitingResources;
+	
+	/**
+	 * Initializes the scene
+	 */
+	public LoadingScene()
+	{
+		waitingResources = new ArrayList<DeferredResource>();
+	}
+	
+	/**
+	 * Returns true if all the resources in the loading list have been loaded
+	 * @return Whether or not the loading scene has ended, true/false
+	 */
+	public boolean hasEnded()
+	{
+		return LoadingList.get().getRemainingResources() == 0 && waitingResources.isEmpty();
+	}
+	
+	/**
+	 * Uploads the resources of the loading list that have been decoded, until the upload budget of this update is used.
+	 * Resources that are still decoding are left for a later update.
+	 * @throws SlickException Indicates a failure to load a resource
+	 */
+	public void update() throws SlickException
+	{
+		long deadline = System.currentTimeMillis() + uploadBudget;
+		DeferredResource next = LoadingList.get().getNext();
+		
+		while(next != null) {
+			waitingResources.add(next);
+			next = LoadingList.get().getNext();
+		}
+		
+		Iterator<DeferredResource> iterator = waitingResources.iterator();
+		
+		while(iterator.hasNext() && System.currentTimeMillis() < deadline) {
+			DeferredResource resource = iterator.next();
+			
+			// Uploading a resource that is still decoding would wait for the worker thread and freeze the window,
+			// the description of a preloaded resource is its location
+			if(Assets.isDecoded(resource.getDescription())) {
+				iterator.remove();
+				
+				try {
+					resource.load();
+				}
+				catch(IOException e) {
+					throw new SlickException("Failed to load: " + resource.getDescription(), e);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Renders the scene
+	 * @param g The graphics to draw the loading scene on
+	 */
+	public void render(Graphics g)
+	{
+		LoadingList loadingList = LoadingList.get();
+		int total = loadingList.getTotalResources();
+		int loaded = total - loadingList.getRemainingResources() - waitingResources.size();
+		
+		int x = (screenWidth - barWidth) / 2;
+		int y = (screenHeight - barHeight) / 2;
+		int progressWidth = 0;
+		
+		if(total > 0) {
+			progressWidth = barWidth * loaded / total;
+		}
+		
+		g.setColor(Color.white);
+		g.drawString("Loading...", x, y - 25);
+		g.fillRect(x, y, progressWidth, barHeight);
+		g.drawRect(x, y, barWidth, barHeight);
+	}
+	
+}
@@ -0,0 +1,226 @@
+package nl.corebooster.setup;
+
+import org.newdawn.slick.SlickException;
+import org.newdawn.slick.util.pathfinding.Mover;
+import org.newdawn.slick.util.pathfinding.Path;
+
+/**
+ * Describes a non-player character that walks through a scene. An agent wanders around its starting position,
+ * it walks a planned path from tile to tile, waits a while and then picks a new place to walk to.
+ * Agents don't collide with the player or with each other.
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class Agent implements Mover {
+	
+	private Sprite sprite;
+	private int speed, range;
+	private int homeX, homeY;
+	private int columns, rows;
+	private int tileSize;
+	
+	private Path path;
+	private int pathIndex;
+	private int waitSteps;
+	private boolean isPlanning;
+	
+	/**
+	 * Initializes a new agent
+	 * @param spriteName The name of the agent
+	 * @param folder The folder the image of the agent is located in
+	 * @param filename The filename of the image
+	 * @param x The initial x-position of the agent
+	 * @param y The initial y-position of the agent
+	 * @param speed The walking speed in pixels per simulation step
+	 * @param range How far the agent wanders from its initial position in pixels
+	 * @throws SlickException Indicates a failure to initialize the display
+	 */
+	public Agent(String spriteName, String folder, String filename, int x, int y, int speed, int range) throws SlickException
+	{
+		this.sprite = new Sprite(spriteName, folder, filename, false, x, y);
+		this.speed = speed;
+		this.range = range;
+		this.homeX = x;
+		this.homeY = y;
+		this.path = null;
+		this.pathIndex = 0;
+		this.waitSteps = 0;
+		this.isPlanning = false;
+	}
+	
+	/**
+	 * Returns the sprite of the agent
+	 * @return The sprite
+	 */
+	public Sprite getSprite()
+	{
+		return sprite;
+	}
+	
+	/**
+	 * Returns the width of the area the agent covers
+	 * @return The width in tiles
+	 */
+	public int getColumns()
+	{
+		return columns;
+	}
+	
+	/**
+	 * Returns the height of the area the agent covers
+	 * @return The height in tiles
+	 */
+	public int getRows()
+	{
+		return rows;
+	}
+	
+	/**
+	 * Returns the column of the tile the agent stands on, the top left tile of the area it covers
+	 * @return The column
+	 */
+	public int getColumn()
+	{
+		return sprite.getX() / tileSize;
+	}
+	
+	/**
+	 * Returns the row of the tile the agent stands on, the top left tile of the area it covers
+	 * @return The row
+	 */
+	public int getRow()
+	{
+		return sprite.getY() / tileSize;
+	}
+	
+	/**
+	 * Returns the column of the tile the agent started on
+	 * @return The column
+	 */
+	public int getHomeColumn()
+	{
+		return homeX / tileSize;
+	}
+	
+	/**
+	 * Returns the row of the tile the agent started on
+	 * @return The row
+	 */
+	public int getHomeRow()
+	{
+		return homeY / tileSize;
+	}
+	
+	/**
+	 * Returns how far the agent wanders from the tile it started on
+	 * @return The range in tiles
+	 */
+	public int getRangeInTiles()
+	{
+		return range / tileSize;
+	}
+	
+	/**
+	 * Returns true if the agent is waiting for its path to be planned
+	 * @return Whether or not the agent is planning, true/false
+	 */
+	public boolean isPlanning()
+	{
+		return isPlanning;
+	}
+	
+	/**
+	 * Returns true if the agent has walked its path and waited long enough to walk somewhere else
+	 * @return Whether or not the agent needs a new destination, true/false
+	 */
+	public boolean isIdle()
+	{
+		return path == null && waitSteps <= 0 && !isPlanning;
+	}
+	
+	/**
+	 * Places the agent on the tiles of a navigation grid, snapping it to the tile it stands on
+	 * @param tileSize The size of the tiles
+	 */
+	public void placeOnGrid(int tileSize)
+	{
+		this.tileSize = tileSize;
+		this.columns = (sprite.getImage().getWidth() + tileSize - 1) / tileSize;
+		this.rows = (sprite.getImage().getHeight() + tileSize - 1) / tileSize;
+		
+		sprite.setX(getColumn() * tileSize);
+		sprite.setY(getRow() * tileSize);
+	}
+	
+	/**
+	 * Marks the agent as waiting for its path to be planned
+	 */
+	public void startPlanning()
+	{
+		isPlanning = true;
+	}
+	
+	/**
+	 * Gives the agent a planned path to walk, or makes it wait before trying again when no path was found
+	 * @param path The path to walk, null if no path was found
+	 * @param waitSteps The amount of simulation steps to wait after walking the path
+	 */
+	public void setPath(Path path, int waitSteps)
+	{
+		this.path = path;
+		this.pathIndex = 0;
+		this.waitSteps = waitSteps;
+		this.isPlanning = false;
+	}
+	
+	/**
+	 * Walks the agent towards the next tile of its path, or counts down the time to wait when it has no path
+	 */
+	public void move()
+	{
+		if(path == null) {
+			waitSteps--;
+			return;
+		}
+		
+		int targetX = path.getX(pathIndex) * tileSize;
+		int targetY = path.getY(pathIndex) * tileSize;
+		int x = sprite.getX();
+		int y = sprite.getY();
+		
+		if(x != targetX) {
+			sprite.setX(x + clamp(targetX - x, speed));
+		}
+		else if(y != targetY) {
+			sprite.setY(y + clamp(targetY - y, speed));
+		}
+		
+		if(sprite.getX() == targetX && sprite.getY() == targetY) {
+			pathIndex++;
+			
+			if(pathIndex >= path.getLength()) {
+				path = null;
+			}
+		}
+	}
+	
+	/**
+	 * Clamps a distance to the given maximum step, in either direction
+	 * @param distance The distance to walk
+	 * @param step The maximum step
+	 * @return The distance to walk this step
+	 */
+	private static int clamp(int distance, int step)
+	{
+		if(distance > step) {
+			return step;
+		}
+		else if(distance < -step) {
+			return -step;
+		}
+		else {
+			return distance;
+		}
+	}
+	
+}
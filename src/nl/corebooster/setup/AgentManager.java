@@ -0,0 +1,185 @@
+package nl.corebooster.setup;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+
+import org.newdawn.slick.util.pathfinding.JumpPointPathFinder;
+import org.newdawn.slick.util.pathfinding.Path;
+import org.newdawn.slick.util.pathfinding.PathFinder;
+
+/**
+ * Manages the agents of a scene. Every simulation step all agents walk, but only a slice of them thinks about where
+ * to go next, and paths are planned from a queue until the planning budget of the step is spent. This keeps the cost
+ * of a step bounded no matter how many agents a scene has, agents just wait a little longer for their paths.
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class AgentManager {
+	
+	private static final int tileSize = 32;
+	private static final long planningBudget = 2000000;
+	private static final int seededPathsPerStep = 2;
+	private static final int thinkInterval = 10;
+	private static final int targetAttempts = 8;
+	private static final int minWaitSteps = 20;
+	private static final int maxWaitSteps = 60;
+	
+	private ArrayList<Agent> agents;
+	private LinkedList<Agent> planningQueue;
+	private NavigationGrid grid;
+	private PathFinder pathFinder;
+	private int step;
+	
+	/**
+	 * Initializes a new agent manager without agents
+	 */
+	public AgentManager()
+	{
+		agents = new ArrayList<Agent>();
+		planningQueue = new LinkedList<Agent>();
+		step = 0;
+	}
+	
+	/**
+	 * Returns the agents
+	 * @return The list of agents
+	 */
+	public ArrayList<Agent> getAgents()
+	{
+		return agents;
+	}
+	
+	/**
+	 * Returns the navigation grid the agents walk on
+	 * @return The navigation grid, null if it hasn't been built yet
+	 */
+	public NavigationGrid getGrid()
+	{
+		return grid;
+	}
+	
+	/**
+	 * Adds an agent
+	 * @param agent The agent to add
+	 */
+	public void add(Agent agent)
+	{
+		agents.add(agent);
+	}
+	
+	/**
+	 * Builds the navigation grid from the collision boxes of the scene and places the agents on it,
+	 * should be called once all collision boxes have been added
+	 * @param collisionGrid The spatial grid with the collision boxes of the scene
+	 * @param width The width of the scene
+	 * @param height The height of the scene
+	 */
+	public void buildGrid(SpatialGrid<CollisionBox> collisionGrid, int width, int height)
+	{
+		if(agents.isEmpty()) {
+			return;
+		}
+		
+		grid = new NavigationGrid(collisionGrid, width, height, tileSize);
+		
+		for(int i = 0; i < agents.size(); i++) {
+			agents.get(i).placeOnGrid(tileSize);
+		}
+		
+		pathFinder = new JumpPointPathFinder(grid, grid.getWidthInTiles() * grid.getHeightInTiles(), false);
+	}
+	
+	/**
+	 * Updates the agents, called every simulation step
+	 */
+	public void update()
+	{
+		if(grid == null) {
+			return;
+		}
+		
+		for(int i = 0; i < agents.size(); i++) {
+			agents.get(i).move();
+		}
+		
+		// Every step a different slice of the agents thinks about where to go next
+		for(int i = step % thinkInterval; i < agents.size(); i += thinkInterval) {
+			Agent agent = agents.get(i);
+			
+			if(agent.isIdle()) {
+				agent.startPlanning();
+				planningQueue.add(agent);
+			}
+		}
+		
+		step++;
+		
+		// A seeded run has to repeat exactly, so it plans a fixed amount of paths instead of depending on the timing
+		if(GameRandom.isSeeded()) {
+			for(int i = 0; i < seededPathsPerStep && !planningQueue.isEmpty(); i++) {
+				plan(planningQueue.removeFirst());
+			}
+			
+			return;
+		}
+		
+		// Plan paths until the budget of this step is spent, at least one path is planned so the queue always moves
+		long deadline = System.nanoTime() + planningBudget;
+		
+		while(!planningQueue.isEmpty()) {
+			plan(planningQueue.removeFirst());
+			
+			if(System.nanoTime() >= deadline) {
+				break;
+			}
+		}
+	}
+	
+	/**
+	 * Plans a path for an agent to a random free tile within its range
+	 * @param agent The agent to plan a path for
+	 */
+	private void plan(Agent agent)
+	{
+		int range = agent.getRangeInTiles();
+		Path path = null;
+		
+		for(int attempt = 0; attempt < targetAttempts && path == null; attempt++) {
+			int column = agent.getHomeColumn() + GameRandom.nextInt(range * 2 + 1) - range;
+			int row = agent.getHomeRow() + GameRandom.nextInt(range * 2 + 1) - range;
+			
+			if(grid.isFree(column, row, agent.getColumns(), agent.getRows())) {
+				path = pathFinder.findPath(agent, agent.getColumn(), agent.getRow(), column, row);
+			}
+		}
+		
+		agent.setPath(path, minWaitSteps + GameRandom.nextInt(maxWaitSteps - minWaitSteps + 1));
+	}
+	
+	/**
+	 * Remembers the current positions of the agents, before the next simulation step moves them
+	 */
+	public void savePositions()
+	{
+		for(int i = 0; i < agents.size(); i++) {
+			agents.get(i).getSprite().savePosition();
+		}
+	}
+	
+	/**
+	 * Draws the agents that are on the screen
+	 * @param batch The sprite batch to draw the agents in
+	 * @param camera The camera of the scene
+	 */
+	public void render(SpriteBatch batch, Camera camera)
+	{
+		for(int i = 0; i < agents.size(); i++) {
+			Sprite sprite = agents.get(i).getSprite();
+			
+			if(camera.isVisible(sprite.getX(), sprite.getY(), sprite.getWidth(), sprite.getHeight())) {
+				sprite.drawSprite(batch, RenderLayer.AGENTS);
+			}
+		}
+	}
+	
+}
@@ -13,7 +13,7 @@ import org.newdawn.slick.SpriteSheet;
  * @author Raymon de Looff, Thijs Clowting, Richard Weug
  * @version 1.0
  */
-public class AnimatedSprite {
+public class AnimatedSprite implements SceneEntity {
 
 	private String spriteName;
 	private CollisionBox collisionbox;
@@ -21,6 +21,7 @@ public class AnimatedSprite {
 	private SpriteSheet spritesheet;
 	private Animation spritesheetAnimation;
 	private int x, y, width, height;
+	private int previousX, previousY;
 	private int alpha;
 	
 	/**
@@ -41,6 +42,7 @@ public class AnimatedSprite {
 		this.spriteName = spriteName;
 		this.spritesheet = getSpriteSheet(folder, filename, width, height);
 		spritesheetAnimation = new Animation(spritesheet, interval);
+		spritesheetAnimation.setAutoUpdate(false);
 		
 		if(isCollidable) {
 			collisionbox = new CollisionBox(x, y, width, height);
@@ -53,6 +55,8 @@ public class AnimatedSprite {
 		
 		this.x = x;
 		this.y = y;
+		this.previousX = x;
+		this.previousY = y;
 		this.width = width;
 		this.height = height;
 		alpha = 255;
@@ -82,6 +86,7 @@ public class AnimatedSprite {
 		this.spriteName = spriteName;
 		this.spritesheet = getSpriteSheet(folder, filename, width, height);
 		spritesheetAnimation = new Animation(spritesheet, interval);
+		spritesheetAnimation.setAutoUpdate(false);
 		
 		if(isCollidable) {
 			collisionbox = new CollisionBox(x, y, width, height);
@@ -98,6 +103,8 @@ public class AnimatedSprite {
 		
 		this.x = x;
 		this.y = y;
+		this.previousX = x;
+		this.previousY = y;
 		alpha = 255;
 	}
 	
@@ -197,6 +204,7 @@ public class AnimatedSprite {
 	public void setX(int x)
 	{
 		this.x = x;
+		updateBoxes();
 	}
 	
 	/**
@@ -206,6 +214,7 @@ public class AnimatedSprite {
 	public void setY(int y)
 	{
 		this.y = y;
+		updateBoxes();
 	}
 	
 	/**
@@ -230,7 +239,7 @@ public class AnimatedSprite {
 	 */
 	public SpriteSheet getSpriteSheet(String folder, String filename, int width, int height) throws SlickException
 	{
-		SpriteSheet spritesheet = new SpriteSheet("data/" + folder + "/" + filename, width, height);
+		SpriteSheet spritesheet = Assets.getSpriteSheet("data/" + folder + "/" + filename, width, height);
 		
 		return spritesheet;
 	}
@@ -247,16 +256,44 @@ public class AnimatedSprite {
 	}
 	
 	/**
-	 * Draws the collision box
-	 * @param g The graphics to draw the collision/trigger box on
+	 * Adds the current frame of the animated sprite to a sprite batch
+	 * @param batch The sprite batch to draw the animated sprite with
+	 * @param layer The layer to draw the animated sprite on
 	 */
-	public void drawBoxes(Graphics g) {
+	public void drawSprite(SpriteBatch batch, RenderLayer layer)
+	{
+		batch.draw(layer, spritesheetAnimation.getCurrentFrame(), batch.interpolate(previousX, x), batch.interpolate(previousY, y), alpha / 255f);
+	}
+	
+	/**
+	 * Advances the animation, the animation only moves through the simulation steps, not while drawing
+	 * @param delta The time that has passed in milliseconds
+	 */
+	public void update(int delta)
+	{
+		spritesheetAnimation.update(delta);
+	}
+	
+	/**
+	 * Remembers the current position as the position of the previous simulation step
+	 */
+	public void savePosition()
+	{
+		previousX = x;
+		previousY = y;
+	}
+	
+	/**
+	 * Moves the collision box and trigger box (if they exist) to the current position
+	 */
+	private void updateBoxes()
+	{
 		if(collisionbox != null) {
-			collisionbox.drawBox(g, x, y);
+			collisionbox.setPosition(x, y);
 		}
 		
 		if(triggerbox != null) {
-			triggerbox.drawBox(g, x, y);
+			triggerbox.setPosition(x, y);
 		}
 	}
 	
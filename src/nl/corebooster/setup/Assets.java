@@ -0,0 +1,597 @@
+package nl.corebooster.setup;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.newdawn.slick.Image;
+import org.newdawn.slick.SlickException;
+import org.newdawn.slick.SpriteSheet;
+import org.newdawn.slick.loading.DeferredResource;
+import org.newdawn.slick.loading.LoadingList;
+import org.newdawn.slick.openal.Audio;
+import org.newdawn.slick.openal.OggData;
+import org.newdawn.slick.openal.OggDecoder;
+import org.newdawn.slick.openal.SoundStore;
+import org.newdawn.slick.opengl.ImageData;
+import org.newdawn.slick.opengl.ImageDataFactory;
+import org.newdawn.slick.opengl.InternalTextureLoader;
+import org.newdawn.slick.opengl.LoadableImageData;
+import org.newdawn.slick.opengl.Texture;
+import org.newdawn.slick.opengl.renderer.Renderer;
+import org.newdawn.slick.opengl.renderer.SGL;
+import org.newdawn.slick.util.Log;
+import org.newdawn.slick.util.ResourceLoader;
+
+/**
+ * Describes the cache of loaded images and sound effects. Preloaded files are decoded on worker threads,
+ * the upload to OpenGL and OpenAL is added to the LoadingList and has to be done on the render thread.
+ * Files that aren't preloaded are loaded the moment they are requested.
+ * Small images are packed into shared texture atlases instead of getting a texture of their own.
+ * When the graphics card supports it textures have the size of their image, otherwise they are padded to a power of two
+ * and somewhat larger images that would waste most of their texture on padding are packed into the atlases as well.
+ * When running headless nothing is uploaded: images only know their size and sound effects are silent.
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class Assets {
+	
+	private static HashMap<String, Image> images = new HashMap<String, Image>();
+	private static HashMap<String, Audio> sounds = new HashMap<String, Audio>();
+	private static HashMap<String, Future<ImageData>> pendingImages = new HashMap<String, Future<ImageData>>();
+	private static HashMap<String, Future<byte[]>> pendingAudio = new HashMap<String, Future<byte[]>>();
+	private static ArrayList<TextureAtlas> atlases = new ArrayList<TextureAtlas>();
+	private static ExecutorService decoders;
+	private static boolean headless = false;
+	private static boolean nonPowerOfTwo = false;
+	
+	private static final Charset ascii = Charset.forName("US-ASCII");
+	private static final int atlasSize = 1024;
+	private static final int maxAtlasImageWidth = 512;
+	private static final int maxAtlasImageHeight = 256;
+	private static final int maxPackedImageSize = 512;
+	
+	/**
+	 * Switches to running without a display and sound, has to be called before the first image or sound is loaded
+	 */
+	public static void setHeadless()
+	{
+		headless = true;
+		SoundStore.get().disable();
+	}
+	
+	/**
+	 * Creates textures at the size of their images when the graphics card supports it, has to be called after the display
+	 * is created and before the first image is loaded
+	 */
+	public static void initTextures()
+	{
+		nonPowerOfTwo = Renderer.get().canTextureNonPowerOfTwo();
+		InternalTextureLoader.get().setNonPowerOfTwo(nonPowerOfTwo);
+		
+		Log.info("Non-power-of-two textures " + (nonPowerOfTwo ? "supported" : "not supported, images are padded"));
+	}
+	
+	/**
+	 * Returns true if the game runs without a display and sound
+	 * @return Whether or not the game runs headless, true/false
+	 */
+	public static boolean isHeadless()
+	{
+		return headless;
+	}
+	
+	/**
+	 * Returns a copy of the image with the given reference, the copies share the texture but not the alpha
+	 * @param ref The location of the image, for example data/img/title.png
+	 * @return The image
+	 * @throws SlickException Indicates a failure to load the image
+	 */
+	public static Image getImage(String ref) throws SlickException
+	{
+		try {
+			return loadImage(ref).copy();
+		}
+		catch(IOException e) {
+			throw new SlickException("Failed to load image: " + ref, e);
+		}
+	}
+	
+	/**
+	 * Returns a new spritesheet of the image with the given reference
+	 * @param ref The location of the image
+	 * @param width The width of a single sprite
+	 * @param height The height of a single sprite
+	 * @return The spritesheet
+	 * @throws SlickException Indicates a failure to load the image
+	 */
+	public static SpriteSheet getSpriteSheet(String ref, int width, int height) throws SlickException
+	{
+		return new SpriteSheet(getImage(ref), width, height);
+	}
+	
+	/**
+	 * Returns the sound effect with the given reference, loaded into an OpenAL buffer
+	 * @param ref The location of the sound effect
+	 * @return The audio holding the buffer of the sound effect
+	 * @throws SlickException Indicates a failure to load the sound effect
+	 */
+	public static Audio getAudio(String ref) throws SlickException
+	{
+		Audio sound = sounds.get(ref);
+		
+		if(sound == null) {
+			Future<byte[]> pending = pendingAudio.remove(ref);
+			
+			SoundStore.get().init();
+			
+			try {
+				if(pending != null) {
+					sound = SoundStore.get().getWAV(getWaveRef(ref), getWaveStream(pending, ref));
+				}
+				else {
+					sound = SoundStore.get().getOgg(ref);
+				}
+			}
+			catch(IOException e) {
+				throw new SlickException("Failed to load audio: " + ref, e);
+			}
+			
+			sounds.put(ref, sound);
+		}
+		
+		return sound;
+	}
+	
+	/**
+	 * Starts decoding an image on a worker thread and adds its upload to the loading list
+	 * @param ref The location of the image
+	 */
+	public static void preloadImage(final String ref)
+	{
+		if(headless || images.containsKey(ref) || pendingImages.containsKey(ref)) {
+			return;
+		}
+		
+		streamImage(ref);
+		
+		LoadingList.get().add(new DeferredResource() {
+			public void load() throws IOException
+			{
+				loadImage(ref);
+			}
+			
+			public String getDescription()
+			{
+				return ref;
+			}
+		});
+	}
+	
+	/**
+	 * Starts decoding an image on a worker thread, the image is uploaded when it's requested for the first time.
+	 * Unlike preloading, nothing is added to the loading list, so images can be streamed in while the game runs.
+	 * @param ref The location of the image
+	 */
+	public static void streamImage(final String ref)
+	{
+		if(headless || images.containsKey(ref) || pendingImages.containsKey(ref)) {
+			return;
+		}
+		
+		pendingImages.put(ref, getDecoders().submit(new Callable<ImageData>() {
+			public ImageData call() throws IOException
+			{
+				return decodeImage(ref);
+			}
+		}));
+	}
+	
+	/**
+	 * Stops streaming an image that isn't needed anymore. A decode that hasn't started is skipped, a running decode
+	 * finishes but its result is dropped, so the decoded image doesn't stay on the heap.
+	 * @param ref The location of the image
+	 */
+	public static void cancelStream(String ref)
+	{
+		Future<ImageData> pending = pendingImages.remove(ref);
+		
+		if(pending != null) {
+			pending.cancel(false);
+		}
+	}
+	
+	/**
+	 * Returns true if an image or sound can be requested without waiting for it to be read and decoded
+	 * @param ref The location of the image or sound
+	 * @return Whether or not the image or sound is decoded or cached, true/false
+	 */
+	public static boolean isDecoded(String ref)
+	{
+		if(headless || images.containsKey(ref) || sounds.containsKey(ref)) {
+			return true;
+		}
+		
+		Future<ImageData> pendingImage = pendingImages.get(ref);
+		Future<byte[]> pendingSound = pendingAudio.get(ref);
+		
+		return (pendingImage != null && pendingImage.isDone()) || (pendingSound != null && pendingSound.isDone());
+	}
+	
+	/**
+	 * Starts decoding an Ogg Vorbis sound on a worker thread and adds its upload to the loading list
+	 * @param ref The location of the sound
+	 */
+	public static void preloadSound(final String ref)
+	{
+		if(headless || sounds.containsKey(ref) || pendingAudio.containsKey(ref)) {
+			return;
+		}
+		
+		pendingAudio.put(ref, submitAudio(ref));
+		
+		LoadingList.get().add(new DeferredResource() {
+			public void load() throws IOException
+			{
+				try {
+					getAudio(ref);
+				}
+				catch(SlickException e) {
+					throw new IOException(e.getMessage());
+				}
+			}
+			
+			public String getDescription()
+			{
+				return ref;
+			}
+		});
+	}
+	
+	/**
+	 * Releases a texture and removes the images using it from the cache.
+	 * Atlas textures are shared by all scenes and are never released.
+	 * @param texture The texture to release
+	 */
+	public static void release(Texture texture)
+	{
+		for(int i = 0; i < atlases.size(); i++) {
+			if(atlases.get(i).getTexture() == texture) {
+				return;
+			}
+		}
+		
+		Iterator<Image> iterator = images.values().iterator();
+		
+		while(iterator.hasNext()) {
+			if(iterator.next().getTexture() == texture) {
+				iterator.remove();
+			}
+		}
+		
+		TextureRegistry.unregister(texture);
+		texture.release();
+	}
+	
+	/**
+	 * Returns the cached image with the given reference, uploads it when it isn't cached yet
+	 * @param ref The location of the image
+	 * @return The cached image
+	 * @throws IOException Indicates a failure to load the image
+	 */
+	private static Image loadImage(String ref) throws IOException
+	{
+		Image image = images.get(ref);
+		
+		if(image == null && headless) {
+			image = new SizedImage(readImageSize(ref));
+			images.put(ref, image);
+		}
+		else if(image == null) {
+			Future<ImageData> pending = pendingImages.remove(ref);
+			ImageData imageData;
+			
+			if(pending != null) {
+				imageData = waitFor(pending, ref);
+			}
+			else {
+				imageData = decodeImage(ref);
+			}
+			
+			if(isPacked(imageData)) {
+				image = addToAtlas(imageData);
+			}
+			else {
+				image = new Image(InternalTextureLoader.get().getTexture(imageData, SGL.GL_LINEAR));
+				TextureRegistry.register(ref, image.getTexture());
+			}
+			
+			images.put(ref, image);
+		}
+		
+		return image;
+	}
+	
+	/**
+	 * Returns true if an image is packed into an atlas. Small images always are, without non-power-of-two textures
+	 * images up to 512 by 512 pixels are as well when padding them would take more than twice their own size.
+	 * @param imageData The decoded image
+	 * @return Whether or not the image is packed into an atlas, true/false
+	 */
+	private static boolean isPacked(ImageData imageData)
+	{
+		int width = imageData.getWidth();
+		int height = imageData.getHeight();
+		
+		if(width <= maxAtlasImageWidth && height <= maxAtlasImageHeight) {
+			return true;
+		}
+		
+		return !nonPowerOfTwo && width <= maxPackedImageSize && height <= maxPackedImageSize
+				&& (long) imageData.getTexWidth() * imageData.getTexHeight() > 2L * width * height;
+	}
+	
+	/**
+	 * Packs an image into the first atlas with room for it, a new atlas is created when all atlases are full
+	 * @param imageData The decoded image
+	 * @return The region of the atlas holding the image
+	 * @throws IOException Indicates a failure to create a new atlas
+	 */
+	private static Image addToAtlas(ImageData imageData) throws IOException
+	{
+		for(int i = 0; i < atlases.size(); i++) {
+			Image region = atlases.get(i).add(imageData);
+			
+			if(region != null) {
+				return region;
+			}
+		}
+		
+		TextureAtlas atlas = new TextureAtlas(atlasSize);
+		atlases.add(atlas);
+		TextureRegistry.register("atlas " + atlases.size(), atlas.getTexture());
+		
+		return atlas.add(imageData);
+	}
+	
+	/**
+	 * Decodes an image into pixel data, doesn't use OpenGL so it can run on any thread
+	 * @param ref The location of the image
+	 * @return The decoded image data
+	 * @throws IOException Indicates a failure to read the image
+	 */
+	private static ImageData decodeImage(String ref) throws IOException
+	{
+		LoadableImageData imageData = ImageDataFactory.getImageDataFor(ref);
+		InputStream in = new BufferedInputStream(ResourceLoader.getResourceAsStream(ref));
+		
+		try {
+			imageData.loadImage(in, false, null);
+		}
+		finally {
+			in.close();
+		}
+		
+		return imageData;
+	}
+	
+	/**
+	 * Reads the size of an image from its header, without decoding the image
+	 * @param ref The location of the image
+	 * @return The width and height of the image
+	 * @throws IOException Indicates a failure to read the image
+	 */
+	private static int[] readImageSize(String ref) throws IOException
+	{
+		ImageInputStream in = ImageIO.createImageInputStream(ResourceLoader.getResourceAsStream(ref));
+		
+		if(in == null) {
+			throw new IOException("Failed to read: " + ref);
+		}
+		
+		try {
+			Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+			
+			if(!readers.hasNext()) {
+				throw new IOException("Unknown image format: " + ref);
+			}
+			
+			ImageReader reader = readers.next();
+			
+			try {
+				reader.setInput(in);
+				
+				return new int[] {reader.getWidth(0), reader.getHeight(0)};
+			}
+			finally {
+				reader.dispose();
+			}
+		}
+		finally {
+			in.close();
+		}
+	}
+	
+	/**
+	 * Submits the decoding of an Ogg Vorbis file to the worker threads
+	 * @param ref The location of the file
+	 * @return The future wave file
+	 */
+	private static Future<byte[]> submitAudio(final String ref)
+	{
+		return getDecoders().submit(new Callable<byte[]>() {
+			public byte[] call() throws IOException
+			{
+				return decodeAudio(ref);
+			}
+		});
+	}
+	
+	/**
+	 * Decodes an Ogg Vorbis file into an in-memory wave file, which OpenAL can use without decoding
+	 * @param ref The location of the file
+	 * @return The wave file
+	 * @throws IOException Indicates a failure to read the file
+	 */
+	private static byte[] decodeAudio(String ref) throws IOException
+	{
+		InputStream in = new BufferedInputStream(ResourceLoader.getResourceAsStream(ref));
+		OggData ogg;
+		
+		try {
+			ogg = new OggDecoder().getData(in);
+		}
+		finally {
+			in.close();
+		}
+		
+		if(ogg == null) {
+			throw new IOException("Failed to decode: " + ref);
+		}
+		
+		int dataLength = ogg.data.remaining();
+		ByteBuffer wave = ByteBuffer.allocate(44 + dataLength).order(ByteOrder.LITTLE_ENDIAN);
+		
+		// Wave header for 16 bit PCM
+		wave.put("RIFF".getBytes(ascii));
+		wave.putInt(36 + dataLength);
+		wave.put("WAVEfmt ".getBytes(ascii));
+		wave.putInt(16);
+		wave.putShort((short) 1);
+		wave.putShort((short) ogg.channels);
+		wave.putInt(ogg.rate);
+		wave.putInt(ogg.rate * ogg.channels * 2);
+		wave.putShort((short) (ogg.channels * 2));
+		wave.putShort((short) 16);
+		wave.put("data".getBytes(ascii));
+		wave.putInt(dataLength);
+		
+		// The decoder writes the samples in the native byte order, wave files are little endian
+		if(ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN) {
+			wave.put(ogg.data);
+		}
+		else {
+			ShortBuffer samples = ogg.data.order(ByteOrder.BIG_ENDIAN).asShortBuffer();
+			
+			while(samples.hasRemaining()) {
+				wave.putShort(samples.get());
+			}
+		}
+		
+		return wave.array();
+	}
+	
+	/**
+	 * Returns a stream of a wave file decoded by a worker thread
+	 * @param pending The pending wave file
+	 * @param ref The location of the original file
+	 * @return The stream of the wave file
+	 * @throws SlickException Indicates the decoding failed
+	 */
+	private static InputStream getWaveStream(Future<byte[]> pending, String ref) throws SlickException
+	{
+		try {
+			return new ByteArrayInputStream(waitFor(pending, ref));
+		}
+		catch(IOException e) {
+			throw new SlickException("Failed to load audio: " + ref, e);
+		}
+	}
+	
+	/**
+	 * Returns the reference used for a decoded wave file, Slick picks the loader by extension
+	 * @param ref The location of the original file
+	 * @return The reference ending with .wav
+	 */
+	private static String getWaveRef(String ref)
+	{
+		return ref.substring(0, ref.lastIndexOf('.')) + ".wav";
+	}
+	
+	/**
+	 * Waits for a worker thread to finish decoding
+	 * @param pending The pending result
+	 * @param ref The location of the file being decoded
+	 * @return The decoded result
+	 * @throws IOException Indicates the decoding failed
+	 */
+	private static <T> T waitFor(Future<T> pending, String ref) throws IOException
+	{
+		try {
+			return pending.get();
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while loading: " + ref);
+		}
+		catch(ExecutionException e) {
+			IOException x = new IOException("Failed to load: " + ref);
+			x.initCause(e.getCause());
+			
+			throw x;
+		}
+	}
+	
+	/**
+	 * Returns the worker threads, created the first time something is preloaded
+	 * @return The executor of the worker threads
+	 */
+	private static ExecutorService getDecoders()
+	{
+		if(decoders == null) {
+			int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+			
+			decoders = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+				public Thread newThread(Runnable runnable)
+				{
+					Thread thread = new Thread(runnable, "asset-decoder");
+					thread.setDaemon(true);
+					
+					return thread;
+				}
+			});
+		}
+		
+		return decoders;
+	}
+	
+	/**
+	 * Describes an image without a texture, used when running headless. Only its size is known,
+	 * which is all the game logic needs for collision and trigger boxes and sprite sheets.
+	 */
+	private static class SizedImage extends Image {
+		
+		/**
+		 * Initializes a new image without a texture
+		 * @param size The width and height of the image
+		 */
+		public SizedImage(int[] size)
+		{
+			this.width = size[0];
+			this.height = size[1];
+			this.centerX = width / 2;
+			this.centerY = height / 2;
+			this.inited = true;
+		}
+		
+	}
+	
+}
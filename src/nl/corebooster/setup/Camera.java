@@ -0,0 +1,125 @@
+package nl.corebooster.setup;
+
+import org.newdawn.slick.geom.Rectangle;
+
+/**
+ * Describes the part of a scene that is shown on the screen. The camera keeps the player in the middle of the screen,
+ * without showing anything outside the scene, so a scene as large as the screen never scrolls.
+ * Like the sprites, the camera moves once every simulation step and rendering interpolates between its last two positions.
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class Camera {
+	
+	private int viewWidth, viewHeight;
+	private int worldWidth, worldHeight;
+	private int x, y;
+	private int previousX, previousY;
+	private Rectangle viewport;
+	
+	/**
+	 * Initializes a new camera in the top left corner of the scene
+	 * @param viewWidth The width of the screen
+	 * @param viewHeight The height of the screen
+	 * @param worldWidth The width of the scene
+	 * @param worldHeight The height of the scene
+	 */
+	public Camera(int viewWidth, int viewHeight, int worldWidth, int worldHeight)
+	{
+		this.viewWidth = viewWidth;
+		this.viewHeight = viewHeight;
+		this.worldWidth = worldWidth;
+		this.worldHeight = worldHeight;
+		x = 0;
+		y = 0;
+		previousX = 0;
+		previousY = 0;
+		viewport = new Rectangle(0, 0, viewWidth, viewHeight);
+	}
+	
+	/**
+	 * Returns the x-position of the left side of the screen in the scene
+	 * @return The x-position
+	 */
+	public int getX()
+	{
+		return x;
+	}
+	
+	/**
+	 * Returns the y-position of the top of the screen in the scene
+	 * @return The y-position
+	 */
+	public int getY()
+	{
+		return y;
+	}
+	
+	/**
+	 * Returns true if the whole scene fits on the screen, the camera then never moves
+	 * @return Whether or not the scene fits on the screen, true/false
+	 */
+	public boolean showsWholeWorld()
+	{
+		return worldWidth <= viewWidth && worldHeight <= viewHeight;
+	}
+	
+	/**
+	 * Moves the camera so the target is in the middle of the screen, as far as the edges of the scene allow
+	 * @param targetX The x-position of the target in the scene
+	 * @param targetY The y-position of the target in the scene
+	 */
+	public void follow(int targetX, int targetY)
+	{
+		x = clamp(targetX - viewWidth / 2, worldWidth - viewWidth);
+		y = clamp(targetY - viewHeight / 2, worldHeight - viewHeight);
+	}
+	
+	/**
+	 * Remembers the current position as the position of the previous simulation step
+	 */
+	public void savePosition()
+	{
+		previousX = x;
+		previousY = y;
+	}
+	
+	/**
+	 * Returns the part of the scene shown in the rendered frame, the same rectangle is updated and returned every call
+	 * @param interpolation How far the frame is between the previous and the current simulation step, between 0 and 1
+	 * @return The shown part of the scene
+	 */
+	public Rectangle getViewport(float interpolation)
+	{
+		viewport.setX(previousX + (x - previousX) * interpolation);
+		viewport.setY(previousY + (y - previousY) * interpolation);
+		
+		return viewport;
+	}
+	
+	/**
+	 * Returns true if an area is in the part of the scene shown in the last rendered frame
+	 * @param areaX The x-position of the area
+	 * @param areaY The y-position of the area
+	 * @param width The width of the area
+	 * @param height The height of the area
+	 * @return Whether or not the area is visible, true/false
+	 */
+	public boolean isVisible(float areaX, float areaY, float width, float height)
+	{
+		return areaX < viewport.getX() + viewWidth && viewport.getX() < areaX + width
+				&& areaY < viewport.getY() + viewHeight && viewport.getY() < areaY + height;
+	}
+	
+	/**
+	 * Limits a position of the camera to the scene
+	 * @param position The position
+	 * @param max The largest position that doesn't show anything outside the scene
+	 * @return The limited position
+	 */
+	private static int clamp(int position, int max)
+	{
+		return Math.max(0, Math.min(position, max));
+	}
+	
+}
@@ -0,0 +1,177 @@
+package nl.corebooster.setup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+import nl.corebooster.scenes.GameScene;
+import nl.corebooster.setup.TriggerBox.TriggerType;
+
+import org.newdawn.slick.SlickException;
+
+/**
+ * Streams the game scenes as the chunks of one world. The chunks next to a scene are the scenes behind its borders.
+ * When the player walks towards a border the images of the chunk behind it are decoded on worker threads,
+ * once they are decoded the chunk is built, which only uploads them, so crossing the border doesn't wait for the disk.
+ * Chunks that aren't next to the chunk of the player anymore are unloaded.
+ * When the game random is seeded a chunk is built at the same distance to the border in every run, because building
+ * a chunk uses the game random, the decoding still starts early.
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class ChunkedWorld {
+	
+	private SceneRegistry scenes;
+	private int streamDistance;
+	private int buildDistance;
+	
+	private HashMap<String, ArrayList<String>> neighbours;
+	private LinkedHashSet<String> streamingChunks;
+	private String centerChunk;
+	
+	/**
+	 * Initializes a new world of the scenes in a scene registry
+	 * @param scenes The registry holding the scenes
+	 * @param streamDistance The distance to a border at which the chunk behind it starts decoding
+	 * @param buildDistance The distance to a border at which the chunk behind it is built, decoded or not
+	 */
+	public ChunkedWorld(SceneRegistry scenes, int streamDistance, int buildDistance)
+	{
+		this.scenes = scenes;
+		this.streamDistance = streamDistance;
+		this.buildDistance = buildDistance;
+		
+		neighbours = new HashMap<String, ArrayList<String>>();
+		streamingChunks = new LinkedHashSet<String>();
+	}
+	
+	/**
+	 * Returns the names of the chunks behind the borders of a chunk
+	 * @param sceneName The name of the chunk
+	 * @return The names of the neighbouring chunks
+	 * @throws SlickException Indicates a failure to load the definition of the chunk
+	 */
+	public ArrayList<String> getNeighbours(String sceneName) throws SlickException
+	{
+		ArrayList<String> sceneNeighbours = neighbours.get(sceneName);
+		
+		if(sceneNeighbours == null) {
+			ArrayList<EntityDefinition> entities = SceneLoader.getDefinition(sceneName).getEntities();
+			sceneNeighbours = new ArrayList<String>();
+			
+			for(int i = 0; i < entities.size(); i++) {
+				EntityDefinition entity = entities.get(i);
+				
+				if(entity.hasTrigger() && entity.getTriggerType() == TriggerType.BORDER_SCENESWITCH && !sceneNeighbours.contains(entity.getTriggerValue())) {
+					sceneNeighbours.add(entity.getTriggerValue());
+				}
+			}
+			
+			neighbours.put(sceneName, sceneNeighbours);
+		}
+		
+		return sceneNeighbours;
+	}
+	
+	/**
+	 * Returns true if the images of a chunk are being decoded and the chunk hasn't been built yet
+	 * @param sceneName The name of the chunk
+	 * @return Whether or not the chunk is streaming, true/false
+	 */
+	public boolean isStreaming(String sceneName)
+	{
+		return streamingChunks.contains(sceneName);
+	}
+	
+	/**
+	 * Streams in the chunk the player walks towards and unloads the chunks left behind, called every simulation step
+	 * @param currentScene The chunk the player is in
+	 * @throws SlickException Indicates a failure to load a chunk
+	 */
+	public void update(GameScene currentScene) throws SlickException
+	{
+		// Starts decoding the chunk behind the border the player is walking towards
+		String approachingChunk = currentScene.getApproachingScene(streamDistance);
+		
+		if(approachingChunk != null && scenes.isRegistered(approachingChunk) && !scenes.isResident(approachingChunk) && !isStreaming(approachingChunk)) {
+			GameScene.streamScene(approachingChunk);
+			streamingChunks.add(approachingChunk);
+		}
+		
+		buildStreamedChunks(currentScene.getApproachingScene(buildDistance));
+		
+		if(!currentScene.getSceneName().equals(centerChunk)) {
+			centerChunk = currentScene.getSceneName();
+			unloadDistantChunks();
+		}
+	}
+	
+	/**
+	 * Builds the streaming chunks that have been decoded, and the chunk the player is about to enter
+	 * @param nearChunk The name of the chunk behind the border the player is close to, null if there is none
+	 * @throws SlickException Indicates a failure to load a chunk
+	 */
+	private void buildStreamedChunks(String nearChunk) throws SlickException
+	{
+		Iterator<String> iterator = streamingChunks.iterator();
+		
+		while(iterator.hasNext()) {
+			String sceneName = iterator.next();
+			
+			if(scenes.isResident(sceneName)) {
+				iterator.remove();
+			}
+			else if(sceneName.equals(nearChunk) || (!GameRandom.isSeeded() && GameScene.isStreamed(sceneName))) {
+				scenes.prefetch(sceneName);
+				iterator.remove();
+			}
+		}
+		
+		// The player can reach a border before it was approached from the streaming distance, after spawning for example
+		if(nearChunk != null && scenes.isRegistered(nearChunk)) {
+			scenes.prefetch(nearChunk);
+		}
+	}
+	
+	/**
+	 * Unloads the chunks that are neither the chunk of the player nor next to it, changed chunks stay in memory
+	 * @throws SlickException Indicates a failure to load the definition of a chunk
+	 */
+	private void unloadDistantChunks() throws SlickException
+	{
+		ArrayList<String> keptChunks = getNeighbours(centerChunk);
+		ArrayList<String> distantChunks = new ArrayList<String>();
+		
+		for(GameScene scene : scenes.getResidentScenes()) {
+			String sceneName = scene.getSceneName();
+			
+			if(!sceneName.equals(centerChunk) && !keptChunks.contains(sceneName)) {
+				distantChunks.add(sceneName);
+			}
+		}
+		
+		for(int i = 0; i < distantChunks.size(); i++) {
+			scenes.unload(distantChunks.get(i));
+		}
+		
+		// Chunks that were streaming towards a border the player has left behind aren't needed anymore,
+		// their decoded images would otherwise stay on the heap for the rest of the game
+		Iterator<String> iterator = streamingChunks.iterator();
+		
+		while(iterator.hasNext()) {
+			String sceneName = iterator.next();
+			
+			if(!keptChunks.contains(sceneName)) {
+				GameScene.cancelStream(sceneName);
+				iterator.remove();
+			}
+		}
+		
+		// Images shared with a chunk that is still streaming have been cancelled as well and are decoded again
+		for(String sceneName : streamingChunks) {
+			GameScene.streamScene(sceneName);
+		}
+	}
+	
+}
@@ -1,6 +1,5 @@
 package nl.corebooster.setup;
 
-import org.newdawn.slick.Graphics;
 import org.newdawn.slick.geom.Rectangle;
 
 /**
@@ -34,17 +33,14 @@ public class CollisionBox {
 	}
 	
 	/**
-	 * Draws the box on the given graphics
-	 * @param g The graphics to draw the collision box on
+	 * Moves the box to the given position
 	 * @param x The new x-position of the collision box
 	 * @param y The new y-position of the collision box
 	 */
-	public void drawBox(Graphics g, int x, int y) 
+	public void setPosition(int x, int y)
 	{
 		box.setX(x);
 		box.setY(y);
-		g.setColor(null);
-		g.draw(box);
 	}
 	
 	/**
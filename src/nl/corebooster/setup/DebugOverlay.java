@@ -0,0 +1,126 @@
+package nl.corebooster.setup;
+
+import java.util.ArrayList;
+
+import org.newdawn.slick.Color;
+import org.newdawn.slick.Graphics;
+import org.newdawn.slick.geom.Rectangle;
+import org.newdawn.slick.opengl.TextureImpl;
+import org.newdawn.slick.opengl.renderer.Renderer;
+import org.newdawn.slick.opengl.renderer.SGL;
+
+/**
+ * Describes the debug overlay that outlines the collision and trigger boxes of a scene.
+ * The overlay is disabled by default, when enabled all outlines are drawn as lines in a single draw call.
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class DebugOverlay {
+	
+	private static final Color collisionColor = new Color(1f, 0f, 0f, 0.8f);
+	private static final Color triggerColor = new Color(1f, 1f, 0f, 0.8f);
+	private static final Color itemTriggerColor = new Color(0f, 1f, 0f, 0.8f);
+	private static final Color playerColor = new Color(0f, 0.6f, 1f, 0.8f);
+	
+	private boolean enabled;
+	private ArrayList<Rectangle> shapes;
+	
+	/**
+	 * Constructs a new disabled debug overlay
+	 */
+	public DebugOverlay()
+	{
+		enabled = false;
+		shapes = new ArrayList<Rectangle>();
+	}
+	
+	/**
+	 * Returns true if the overlay is drawn
+	 * @return Whether or not the overlay is enabled, true/false
+	 */
+	public boolean isEnabled()
+	{
+		return enabled;
+	}
+	
+	/**
+	 * Switches the overlay on or off
+	 */
+	public void toggle()
+	{
+		enabled = !enabled;
+	}
+	
+	/**
+	 * Draws the outlines of the boxes of a scene, does nothing when the overlay is disabled
+	 * @param g The graphics to draw the overlay on
+	 * @param collisionGrid The spatial grid with the collision boxes of the scene
+	 * @param triggerGrid The spatial grid with the trigger boxes of the sprites
+	 * @param itemTriggerGrid The spatial grid with the trigger boxes of the items
+	 * @param player The player of the scene
+	 */
+	public void render(Graphics g, SpatialGrid<CollisionBox> collisionGrid, SpatialGrid<TriggerBox> triggerGrid, SpatialGrid<TriggerBox> itemTriggerGrid, Player player)
+	{
+		if(!enabled) {
+			return;
+		}
+		
+		SGL gl = Renderer.get();
+		
+		// Lines are drawn untextured, the next textured draw binds its texture again
+		TextureImpl.bindNone();
+		gl.glBegin(SGL.GL_LINES);
+		
+		drawOutlines(gl, collisionGrid, collisionColor);
+		drawOutlines(gl, triggerGrid, triggerColor);
+		drawOutlines(gl, itemTriggerGrid, itemTriggerColor);
+		drawOutline(gl, player.getCollisionBox().getShape(), playerColor);
+		
+		gl.glEnd();
+		
+		// Restore the color of the graphics, glColor4f bypasses it
+		g.setColor(g.getColor());
+	}
+	
+	/**
+	 * Adds the outlines of all the shapes in a spatial grid to the current line batch
+	 * @param gl The renderer to draw with
+	 * @param grid The spatial grid with the shapes to outline
+	 * @param color The color of the outlines
+	 */
+	private void drawOutlines(SGL gl, SpatialGrid<?> grid, Color color)
+	{
+		shapes.clear();
+		grid.getShapes(shapes);
+		
+		for(int i = 0; i < shapes.size(); i++) {
+			drawOutline(gl, shapes.get(i), color);
+		}
+	}
+	
+	/**
+	 * Adds the four edges of a rectangle to the current line batch
+	 * @param gl The renderer to draw with
+	 * @param shape The rectangle to outline
+	 * @param color The color of the outline
+	 */
+	private static void drawOutline(SGL gl, Rectangle shape, Color color)
+	{
+		float left = shape.getX();
+		float top = shape.getY();
+		float right = left + shape.getWidth();
+		float bottom = top + shape.getHeight();
+		
+		gl.glColor4f(color.r, color.g, color.b, color.a);
+		
+		gl.glVertex2f(left, top);
+		gl.glVertex2f(right, top);
+		gl.glVertex2f(right, top);
+		gl.glVertex2f(right, bottom);
+		gl.glVertex2f(right, bottom);
+		gl.glVertex2f(left, bottom);
+		gl.glVertex2f(left, bottom);
+		gl.glVertex2f(left, top);
+	}
+	
+}
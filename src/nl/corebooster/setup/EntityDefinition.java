@@ -0,0 +1,392 @@
+package nl.corebooster.setup;
+
+import nl.corebooster.setup.Item.ItemType;
+import nl.corebooster.setup.TriggerBox.TriggerType;
+
+/**
+ * Describes a single entity of a scene definition: a sprite, an animated sprite, an item, a maze or an agent
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class EntityDefinition {
+	
+	public enum EntityType {
+		SPRITE, ANIMATED_SPRITE, ITEM, MAZE, AGENT;
+	}
+	
+	private EntityType entityType;
+	private String key, spriteName;
+	private String folder, filename;
+	private boolean isCollidable;
+	private RenderLayer layer;
+	private int x, y, width, height, interval;
+	
+	private TriggerType triggerType;
+	private int triggerDirection, alternateX, alternateY, triggerMargin;
+	private String triggerValue;
+	
+	private String itemName, iconFilename;
+	private ItemType itemType;
+	
+	private int[][] coordinates;
+	
+	private int speed, range;
+	
+	/**
+	 * Constructs a new entity definition, the other properties are set with the setters
+	 * @param entityType The type of entity: SPRITE, ANIMATED_SPRITE, ITEM, MAZE, AGENT
+	 * @param key The key of the entity in the scene
+	 */
+	public EntityDefinition(EntityType entityType, String key)
+	{
+		this.entityType = entityType;
+		this.key = key;
+		this.spriteName = key;
+		this.layer = RenderLayer.SCENERY;
+		this.triggerType = null;
+		this.triggerDirection = -1;
+		this.alternateX = -1;
+		this.alternateY = -1;
+		this.coordinates = new int[0][];
+	}
+	
+	/**
+	 * Returns the type of the entity
+	 * @return The type of the entity
+	 */
+	public EntityType getEntityType()
+	{
+		return entityType;
+	}
+	
+	/**
+	 * Returns the key of the entity in the scene
+	 * @return The key of the entity
+	 */
+	public String getKey()
+	{
+		return key;
+	}
+	
+	/**
+	 * Returns the name of the sprite, defaults to the key
+	 * @return The name of the sprite
+	 */
+	public String getSpriteName()
+	{
+		return spriteName;
+	}
+	
+	/**
+	 * Returns the folder the image is located in
+	 * @return The folder of the image
+	 */
+	public String getFolder()
+	{
+		return folder;
+	}
+	
+	/**
+	 * Returns the filename of the image, for items the filename of the sprite
+	 * @return The filename of the image
+	 */
+	public String getFilename()
+	{
+		return filename;
+	}
+	
+	/**
+	 * Returns true if the player can collide with the entity
+	 * @return Whether or not the entity is collidable, true/false
+	 */
+	public boolean isCollidable()
+	{
+		return isCollidable;
+	}
+	
+	/**
+	 * Returns the layer the entity is drawn on
+	 * @return The layer, SCENERY unless the scene file says otherwise
+	 */
+	public RenderLayer getLayer()
+	{
+		return layer;
+	}
+	
+	/**
+	 * Returns the x-position
+	 * @return The initial x-position of the entity
+	 */
+	public int getX()
+	{
+		return x;
+	}
+	
+	/**
+	 * Returns the y-position
+	 * @return The initial y-position of the entity
+	 */
+	public int getY()
+	{
+		return y;
+	}
+	
+	/**
+	 * Returns the width of a frame of an animated sprite
+	 * @return The width of the animated sprite
+	 */
+	public int getWidth()
+	{
+		return width;
+	}
+	
+	/**
+	 * Returns the height of a frame of an animated sprite
+	 * @return The height of the animated sprite
+	 */
+	public int getHeight()
+	{
+		return height;
+	}
+	
+	/**
+	 * Returns the animation interval of an animated sprite
+	 * @return The animation interval
+	 */
+	public int getInterval()
+	{
+		return interval;
+	}
+	
+	/**
+	 * Returns true if the entity has a trigger box
+	 * @return Whether or not the entity has a trigger, true/false
+	 */
+	public boolean hasTrigger()
+	{
+		return triggerType != null;
+	}
+	
+	/**
+	 * Returns the type of the trigger
+	 * @return The type of the trigger, null if the entity has no trigger
+	 */
+	public TriggerType getTriggerType()
+	{
+		return triggerType;
+	}
+	
+	/**
+	 * Returns the trigger direction
+	 * @return The direction the player has to approach from for the trigger to work
+	 */
+	public int getTriggerDirection()
+	{
+		return triggerDirection;
+	}
+	
+	/**
+	 * Returns the alternate x position
+	 * @return The x position to use if the normal position is blocked
+	 */
+	public int getAlternateX()
+	{
+		return alternateX;
+	}
+	
+	/**
+	 * Returns the alternate y position
+	 * @return The y position to use if the normal position is blocked
+	 */
+	public int getAlternateY()
+	{
+		return alternateY;
+	}
+	
+	/**
+	 * Returns the value of the trigger
+	 * @return The value of the trigger
+	 */
+	public String getTriggerValue()
+	{
+		return triggerValue;
+	}
+	
+	/**
+	 * Returns the margin of the trigger box
+	 * @return The margin of the trigger box
+	 */
+	public int getTriggerMargin()
+	{
+		return triggerMargin;
+	}
+	
+	/**
+	 * Returns the name of the item
+	 * @return The name of the item
+	 */
+	public String getItemName()
+	{
+		return itemName;
+	}
+	
+	/**
+	 * Returns the type of the item
+	 * @return The type of the item
+	 */
+	public ItemType getItemType()
+	{
+		return itemType;
+	}
+	
+	/**
+	 * Returns the filename of the item icon
+	 * @return The filename of the icon
+	 */
+	public String getIconFilename()
+	{
+		return iconFilename;
+	}
+	
+	/**
+	 * Returns the coordinates of the cells of a maze
+	 * @return An array of coordinates
+	 */
+	public int[][] getCoordinates()
+	{
+		return coordinates;
+	}
+	
+	/**
+	 * Returns the walking speed of an agent
+	 * @return The speed in pixels per simulation step
+	 */
+	public int getSpeed()
+	{
+		return speed;
+	}
+	
+	/**
+	 * Returns how far an agent wanders from its starting position
+	 * @return The range in pixels
+	 */
+	public int getRange()
+	{
+		return range;
+	}
+	
+	/**
+	 * Sets the name of the sprite
+	 * @param spriteName The name of the sprite
+	 */
+	public void setSpriteName(String spriteName)
+	{
+		this.spriteName = spriteName;
+	}
+	
+	/**
+	 * Sets the image of the entity
+	 * @param folder The folder the image is located in
+	 * @param filename The filename of the image
+	 */
+	public void setImage(String folder, String filename)
+	{
+		this.folder = folder;
+		this.filename = filename;
+	}
+	
+	/**
+	 * Sets if the player can collide with the entity
+	 * @param isCollidable Depends if you can collide with the entity or not, true/false
+	 */
+	public void setCollidable(boolean isCollidable)
+	{
+		this.isCollidable = isCollidable;
+	}
+	
+	/**
+	 * Sets the layer the entity is drawn on
+	 * @param layer The layer
+	 */
+	public void setLayer(RenderLayer layer)
+	{
+		this.layer = layer;
+	}
+	
+	/**
+	 * Sets the position
+	 * @param x The initial x-position of the entity
+	 * @param y The initial y-position of the entity
+	 */
+	public void setPosition(int x, int y)
+	{
+		this.x = x;
+		this.y = y;
+	}
+	
+	/**
+	 * Sets the frame size and interval of an animated sprite
+	 * @param width The width of the animated sprite
+	 * @param height The height of the animated sprite
+	 * @param interval The animation interval
+	 */
+	public void setAnimation(int width, int height, int interval)
+	{
+		this.width = width;
+		this.height = height;
+		this.interval = interval;
+	}
+	
+	/**
+	 * Sets the trigger of the entity
+	 * @param triggerType The type of trigger called when collided
+	 * @param triggerDirection The direction the player has to approach from for the trigger to work
+	 * @param alternateX The x position to use if the normal position is blocked
+	 * @param alternateY The y position to use if the normal position is blocked
+	 * @param triggerValue The value of the trigger called when collided
+	 * @param triggerMargin The margin of the trigger box
+	 */
+	public void setTrigger(TriggerType triggerType, int triggerDirection, int alternateX, int alternateY, String triggerValue, int triggerMargin)
+	{
+		this.triggerType = triggerType;
+		this.triggerDirection = triggerDirection;
+		this.alternateX = alternateX;
+		this.alternateY = alternateY;
+		this.triggerValue = triggerValue;
+		this.triggerMargin = triggerMargin;
+	}
+	
+	/**
+	 * Sets the item properties
+	 * @param itemName The name of the item
+	 * @param itemType The type of the item
+	 * @param iconFilename The filename of the item icon
+	 */
+	public void setItem(String itemName, ItemType itemType, String iconFilename)
+	{
+		this.itemName = itemName;
+		this.itemType = itemType;
+		this.iconFilename = iconFilename;
+	}
+	
+	/**
+	 * Sets the coordinates of the cells of a maze
+	 * @param coordinates An array of coordinates
+	 */
+	public void setCoordinates(int[][] coordinates)
+	{
+		this.coordinates = coordinates;
+	}
+	
+	/**
+	 * Sets the movement properties of an agent
+	 * @param speed The walking speed in pixels per simulation step
+	 * @param range How far the agent wanders from its starting position in pixels
+	 */
+	public void setAgent(int speed, int range)
+	{
+		this.speed = speed;
+		this.range = range;
+	}
+	
+}
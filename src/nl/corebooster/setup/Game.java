@@ -1,10 +1,11 @@
 package nl.corebooster.setup;
 
-import java.util.HashMap;
+import java.io.IOException;
 
 import nl.corebooster.scenes.EndScene;
 import nl.corebooster.scenes.GameScene;
 import nl.corebooster.scenes.IntroScene;
+import nl.corebooster.scenes.LoadingScene;
 
 import org.newdawn.slick.AppGameContainer;
 import org.newdawn.slick.BasicGame;
@@ -12,6 +13,7 @@ import org.newdawn.slick.GameContainer;
 import org.newdawn.slick.Graphics;
 import org.newdawn.slick.Input;
 import org.newdawn.slick.SlickException;
+import org.newdawn.slick.util.Log;
 
 /**
  * Game is the main class, it's handles the initialization, game logic and rendering.
@@ -20,10 +22,48 @@ import org.newdawn.slick.SlickException;
  */
 public class Game extends BasicGame {
 	
+	private LoadingScene loading;
 	private IntroScene intro;
 	private GameScene currentScene;
 	private EndScene end;
-	private HashMap<String, GameScene> scenes;
+	private SceneRegistry scenes;
+	private ChunkedWorld world;
+	
+	private static final long sceneTextureBudget = 192L * 1024 * 1024;
+	private static final int streamDistance = 288;
+	private static final int prefetchDistance = 96;
+	
+	// The game logic runs in fixed steps, rendering interpolates between the last two steps
+	private static final int stepLength = 50;
+	private static final int maxStepsPerUpdate = 5;
+	private int accumulator;
+	
+	private InputState inputState;
+	private static final String frameTimesFile = "frametimes.csv";
+	
+	// Input is recorded and replayed from the intro on, the loading scene takes as long as the preloading does
+	private InputRecorder recorder;
+	private String recordingFile;
+	private InputReplayer replayer;
+	private long replayStart;
+	
+	// Resources needed before the intro starts, decoded in the background while the loading scene is shown
+	private static final String[] preloadedImages = new String[] {
+			"data/img/intro_background.png",
+			"data/img/title.png",
+			"data/img/overlay.png",
+			"data/img/theend.png",
+			"data/sprites/press_space.png",
+			"data/sprites/spaceship.png",
+			"data/sprites/star.png",
+			"data/img/inventory.png",
+			"data/img/selected_slot.png",
+			"data/sprites/spacecake_effect.png",
+			"data/sprites/player_up.png",
+			"data/sprites/player_right.png",
+			"data/sprites/player_down.png",
+			"data/sprites/player_left.png"
+	};
 	
 	/**
 	 * Constructs the SetupClass
@@ -32,21 +72,106 @@ public class Game extends BasicGame {
 	public Game(String title) {
 		super(title);
 		
-		scenes = new HashMap<String, GameScene>();
+		scenes = new SceneRegistry(sceneTextureBudget);
+		world = new ChunkedWorld(scenes, streamDistance, prefetchDistance);
+		accumulator = 0;
+		inputState = new InputState();
+	}
+	
+	/**
+	 * Returns the length of a simulation step
+	 * @return The length of a step in milliseconds
+	 */
+	public static int getStepLength()
+	{
+		return stepLength;
+	}
+	
+	/**
+	 * Returns the game scene the player is in
+	 * @return The current game scene, null while the intro hasn't started yet
+	 */
+	public GameScene getCurrentScene()
+	{
+		return currentScene;
+	}
+	
+	/**
+	 * Returns true if the intro has been shown and the player has started playing
+	 * @return Whether or not the game scenes are being played, true/false
+	 */
+	public boolean isPlaying()
+	{
+		return intro != null && intro.hasEnded();
 	}
 	
 	/**
-	 * Returns the game scene with the given key
+	 * Returns the game scene with the given key, the scene is built when it isn't loaded yet
 	 * @return The game scene
+	 * @throws SlickException Indicates a failure to load the scene
 	 */
-	public GameScene getScene(String key)
+	public GameScene getScene(String key) throws SlickException
 	{
-		if(scenes.containsKey(key)) {
-			return scenes.get(key);
-		}
-		else {
-			return null;
+		return scenes.getScene(key);
+	}
+	
+	/**
+	 * Records the input of every simulation step, the recording is written when the game closes.
+	 * The game random should be seeded before the game is initialized.
+	 * @param recordingFile The name of the file to write the recording to
+	 */
+	public void startRecording(String recordingFile)
+	{
+		this.recordingFile = recordingFile;
+		recorder = new InputRecorder(GameRandom.getSeed());
+	}
+	
+	/**
+	 * Returns the recording of the input
+	 * @return The recorder, null if the input isn't recorded
+	 */
+	public InputRecorder getRecorder()
+	{
+		return recorder;
+	}
+	
+	/**
+	 * Replays a recording instead of reading the input, seeds the game random with the seed of the recording.
+	 * Should be called before the game is initialized.
+	 * @param replayer The recording to replay
+	 */
+	public void startReplay(InputReplayer replayer)
+	{
+		this.replayer = replayer;
+		GameRandom.setSeed(replayer.getSeed());
+	}
+	
+	/**
+	 * Returns true if a replay has replayed all its steps
+	 * @return Whether or not the replay has finished, true/false
+	 */
+	public boolean isReplayFinished()
+	{
+		return replayer != null && !replayer.hasNext();
+	}
+	
+	/**
+	 * Writes the recording of the input when the window is closed
+	 * @return Always true, the game may close
+	 */
+	public boolean closeRequested()
+	{
+		if(recorder != null) {
+			try {
+				recorder.save(recordingFile);
+				Log.info("Recorded " + recorder.getStepCount() + " steps to " + recordingFile);
+			}
+			catch(IOException e) {
+				Log.error("Unable to write the recording to " + recordingFile + ": " + e.getMessage());
+			}
 		}
+		
+		return true;
 	}
 	
 	/**
@@ -57,39 +182,211 @@ public class Game extends BasicGame {
 	public void init(GameContainer container) throws SlickException {
 		// Container preferences
 		container.setShowFPS(false);
+		container.setProfiling(true);
+		
+		Assets.initTextures();
+		init();
+	}
+	
+	/**
+	 * Initializes the game logic and starts preloading the resources, doesn't need a game container
+	 * @throws SlickException Indicates a failure to load the first scene
+	 */
+	public void init() throws SlickException
+	{
+		loading = new LoadingScene();
+		
+		SoundBank.reserveSources();
+		SoundBank.preload();
+		
+		for(int i = 0; i < preloadedImages.length; i++) {
+			Assets.preloadImage(preloadedImages[i]);
+		}
+		
+		GameScene.preloadScene("ice");
+		
+		// Scenes are built when the player enters them for the first time
+		scenes.register("ice", 480, 270);
+		scenes.register("outside_headquarters", 15, 260);
+		scenes.register("above_headquarters", 488, 461);
+		scenes.register("headquarters", 75, 270);
+		scenes.register("basement_1", 864, 80);
+		scenes.register("basement_2", 15, 60);
+		scenes.register("basement_3", 228, 15);
+		scenes.register("basement_4", 192, 15);
+		scenes.register("drill", 448, 15);
+	}
+	
+	/**
+	 * Creates the intro, the first game scene and the end scene, after the loading scene has ended
+	 * @throws SlickException Indicates a failure to initialize the display
+	 */
+	private void initializeScenes() throws SlickException
+	{
+		SoundBank.init();
 		
 		intro = new IntroScene();
 		
-		scenes.put("ice", new GameScene("ice", 480, 270));
-		scenes.put("outside_headquarters", new GameScene("outside_headquarters", 15, 260));
-		scenes.put("above_headquarters", new GameScene("above_headquarters", 488, 461));
-		scenes.put("headquarters", new GameScene("headquarters", 75, 270));
-		scenes.put("basement_1", new GameScene("basement_1", 864, 80));
-		scenes.put("basement_2", new GameScene("basement_2", 15, 60));
-		scenes.put("basement_3", new GameScene("basement_3", 228, 15));
-		scenes.put("basement_4", new GameScene("basement_4", 192, 15));
-		scenes.put("drill", new GameScene("drill", 448, 15));
-		
-		currentScene = scenes.get("ice");
+		currentScene = scenes.getScene("ice");
 		currentScene.setActive();
 		
 		end = new EndScene();
 	}
 	
 	/**
-	 * Updates the game
+	 * Updates the game, runs as many fixed simulation steps as fit in the elapsed time
 	 * @param container The game container to update
-	 * @param delta The update frequency
+	 * @param delta The time since the last update in milliseconds
 	 * @throws SlickException Indicates a failure to initialize the display
 	 */
 	public void update(GameContainer container, int delta) throws SlickException {
+		profilerKeyHandler(container);
+		
+		if(replayer != null) {
+			replayFrame(container);
+			return;
+		}
+		
+		inputState.read(container.getInput());
+		
+		update(inputState, delta);
+	}
+		
+	/**
+	 * Runs one simulation step of the replay every frame, as fast as the display allows, which makes the rendered frames
+	 * the same in every replay. When the replay has finished the frame times are written and the game exits.
+	 * @param container The game container to update
+	 * @throws SlickException Indicates a failure to load a scene
+	 */
+	private void replayFrame(GameContainer container) throws SlickException
+	{
+		if(replayStart == 0) {
+			replayStart = System.nanoTime();
+		}
+		
+		if(!isReplayFinished()) {
+			update(inputState, stepLength);
+			return;
+		}
+		
+		long elapsed = System.nanoTime() - replayStart;
+		
+		Log.info("Replayed " + replayer.getStepCount() + " steps in " + (elapsed / 1000000) + " ms");
+		
+		if(container.getProfiler() != null) {
+			try {
+				container.getProfiler().writeCSV(frameTimesFile);
+				Log.info("Frame times written to " + frameTimesFile);
+			}
+			catch(IOException e) {
+				Log.error("Unable to write frame times to " + frameTimesFile + ": " + e.getMessage());
+			}
+		}
+		
+		container.exit();
+	}
+	
+	/**
+	 * Handles the keys of the frame profiler, F4 toggles its overlay and F5 writes the kept frame times to a CSV file.
+	 * F6 writes the memory of every texture and every resident scene to the log.
+	 * @param container The game container holding the profiler
+	 */
+	private void profilerKeyHandler(GameContainer container)
+	{
 		Input input = container.getInput();
 		
-		if(!intro.hasEnded()) {
+		if(input.isKeyPressed(Input.KEY_F4)) {
+			container.setShowProfiler(!container.isShowingProfiler());
+		}
+		
+		if(input.isKeyPressed(Input.KEY_F5) && container.getProfiler() != null) {
+			try {
+				container.getProfiler().writeCSV(frameTimesFile);
+				Log.info("Frame times written to " + frameTimesFile);
+			}
+			catch(IOException e) {
+				Log.error("Unable to write frame times to " + frameTimesFile + ": " + e.getMessage());
+			}
+		}
+		
+		if(input.isKeyPressed(Input.KEY_F6)) {
+			Log.info("Texture memory:\n" + TextureRegistry.getReport(scenes.getResidentScenes()));
+		}
+	}
+	
+	/**
+	 * Updates the game with the given input state, doesn't need a game container or a display.
+	 * Running headless, every update of a step length runs exactly one simulation step.
+	 * @param input The state of the keys
+	 * @param delta The time since the last update in milliseconds
+	 * @throws SlickException Indicates a failure to load a scene
+	 */
+	public void update(InputState input, int delta) throws SlickException
+	{
+		int steps = 0;
+		
+		MusicManager.update(delta);
+		
+		accumulator += delta;
+		
+		while(accumulator >= stepLength && steps < maxStepsPerUpdate) {
+			if(intro != null && intro.hasEnded()) {
+				currentScene.savePositions();
+			}
+			
+			step(input);
+			
+			accumulator -= stepLength;
+			steps++;
+		}
+		
+		// Drop the time that couldn't be simulated after a long hitch, instead of catching up over the next frames
+		if(accumulator >= stepLength) {
+			accumulator %= stepLength;
+		}
+	}
+	
+	/**
+	 * Advances the game by one simulation step
+	 * @param input The state of the keys
+	 * @throws SlickException Indicates a failure to initialize the display
+	 */
+	private void step(InputState input) throws SlickException
+	{
+		if(intro != null) {
+			if(replayer != null && replayer.hasNext()) {
+				replayer.next(input);
+			}
+			
+			if(recorder != null) {
+				recorder.record(input);
+			}
+		}
+		
+		if(intro == null) {
+			loading.update();
+			
+			if(loading.hasEnded()) {
+				initializeScenes();
+			}
+		}
+		else if(!intro.hasEnded()) {
 			intro.animate();
 			intro.keyHandler(input);
+			
+			// Fades in the intro in 50 steps, independent of the frame rate
+			intro.getOverlay().fadeOut(50);
 		}
 		else if(currentScene.getSceneName().equals("drill") && currentScene.checkTradeInSupplies()) {
+			// Disables the game scene and makes everything ready for the end scene
+			if(currentScene.isActive()) {
+				currentScene.setInactive();
+				currentScene.stopAllSounds();
+				currentScene.setUnrendered();
+				currentScene.resetNextScene();
+				MusicManager.fadeOut();
+			}
+			
 			end.animate();
 		}
 		else if(currentScene.isActive()) {
@@ -106,22 +403,26 @@ public class Game extends BasicGame {
 					currentPlayer.setY(alternateCoordinates[1]);
 				}
 				
+				currentScene.resetPositions();
 			}
 			
+			// Streams in the scene behind the border the player is walking towards and unloads the scenes left behind
+			world.update(currentScene);
+			
 			if(currentScene.getNextScene() != null) {
-				GameScene nextScene = scenes.get(currentScene.getNextScene());
+				GameScene nextScene = scenes.getScene(currentScene.getNextScene());
 				
 				// Disables the current scene and enables the next scene
 				currentScene.setInactive();
 				nextScene.setActive();
 			}
 			
-			currentScene.update();
 			currentScene.keyHandler(input);
 			currentScene.triggerHandler();
+			currentScene.update();
 		}
 		else {
-			for(GameScene scene: scenes.values()) {
+			for(GameScene scene: scenes.getResidentScenes()) {
 				if(scene.isActive()) {
 					// Change player position for next scene
 					Player currentPlayer = currentScene.getPlayer();
@@ -146,7 +447,7 @@ public class Game extends BasicGame {
 								y = nextPlayerY - offset;
 							}
 							else {
-								y = 540 - playerSize - offset;
+								y = scene.getSceneHeight() - playerSize - offset;
 							}
 						break;
 						
@@ -177,7 +478,7 @@ public class Game extends BasicGame {
 								x = nextPlayerX - offset;
 							}
 							else {
-								x = 960 - playerSize - offset;
+								x = scene.getSceneWidth() - playerSize - offset;
 							}
 							
 							y = currentPlayerY;
@@ -187,6 +488,7 @@ public class Game extends BasicGame {
 					nextPlayer.rotatePlayer(currentPlayerRotation);
 					nextPlayer.setX(x);
 					nextPlayer.setY(y);
+					scene.resetPositions();
 					
 					// Disables current scene
 					currentScene.stopAllSounds();
@@ -206,43 +508,62 @@ public class Game extends BasicGame {
 	 * @param g	The graphics to render on
 	 */
 	public void render(GameContainer container, Graphics g) throws SlickException {
-		if(!intro.hasEnded())
+		if(intro == null) {
+			loading.render(g);
+		}
+		else if(!intro.hasEnded())
 		{
 			intro.render(g);
-			intro.getOverlay().fadeOut(150);
 		}
 		else if(currentScene.getSceneName().equals("drill") && currentScene.checkTradeInSupplies()) {
-			// Disables the Game Scene and makes everything ready for the end scene
-			currentScene.setInactive();
-			currentScene.stopAllSounds();
-			currentScene.setUnrendered();
-			currentScene.resetNextScene();
-			
 			// Renders end scene
 			end.render(g);
 		}
 		else
 		{
-			currentScene.render(g);
+			currentScene.render(g, (float) accumulator / stepLength);
 			
 		}
 	}
 
 	/**
 	 * The main class, responsible for the applications initialization
-	 * @param args The startup arguments
+	 * @param args The startup arguments, -record file [seed] records the input to the file and -replay file replays it
 	 * @throws SlickException Indicates a failure to initialize the display
 	 */
 	public static void main(String[] args) throws SlickException {
-		AppGameContainer app = new AppGameContainer(new Game("Blue Abyss"));
-		int updateInterval = 50;
+		Game game = new Game("Blue Abyss");
+		AppGameContainer app = new AppGameContainer(game);
+		int maxFrameRate = 240;
+		boolean replaying = false;
+		
+		if(args.length > 1 && args[0].equals("-record")) {
+			GameRandom.setSeed(args.length > 2 ? Long.parseLong(args[2]) : System.currentTimeMillis());
+			game.startRecording(args[1]);
+		}
+		else if(args.length > 1 && args[0].equals("-replay")) {
+			try {
+				game.startReplay(new InputReplayer(args[1]));
+				replaying = true;
+			}
+			catch(IOException e) {
+				throw new SlickException("Unable to read the recording " + args[1], e);
+			}
+		}
 		
 		app.setDisplayMode(960, 540, false);
 		app.setIcon("data/img/icon.png");
 		
-		app.setMinimumLogicUpdateInterval(updateInterval);
-		app.setMaximumLogicUpdateInterval(updateInterval);
-		app.setTargetFrameRate(60);
+		if(replaying) {
+			// A replay renders as many frames as it can, one simulation step each
+			app.setVSync(false);
+			app.setTargetFrameRate(-1);
+		}
+		else {
+			// Render at the refresh rate of the display, the game logic keeps its own fixed step
+			app.setVSync(true);
+			app.setTargetFrameRate(maxFrameRate);
+		}
 		
 		app.start();
 	}
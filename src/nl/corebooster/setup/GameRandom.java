@@ -0,0 +1,77 @@
+package nl.corebooster.setup;
+
+import java.util.Random;
+
+/**
+ * Provides the random numbers of the game logic from one shared generator. Without a seed every run is different,
+ * after seeding the generator a run with the same input is repeated exactly, which replays depend on.
+ * The generator may only be used from the thread running the game logic.
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class GameRandom {
+	
+	private static Random random = new Random();
+	private static long seed;
+	private static boolean seeded = false;
+	
+	/**
+	 * Seeds the generator, should be called before the game is initialized
+	 * @param seed The seed
+	 */
+	public static void setSeed(long seed)
+	{
+		GameRandom.seed = seed;
+		random = new Random(seed);
+		seeded = true;
+	}
+	
+	/**
+	 * Returns the seed of the generator
+	 * @return The seed, only meaningful when the generator has been seeded
+	 */
+	public static long getSeed()
+	{
+		return seed;
+	}
+	
+	/**
+	 * Returns true if the generator has been seeded, the game logic then has to avoid everything that depends on timing
+	 * @return Whether or not the generator has been seeded, true/false
+	 */
+	public static boolean isSeeded()
+	{
+		return seeded;
+	}
+	
+	/**
+	 * Returns a random number between 0, inclusive, and the bound, exclusive
+	 * @param bound The upper bound, must be positive
+	 * @return The random number
+	 */
+	public static int nextInt(int bound)
+	{
+		return random.nextInt(bound);
+	}
+	
+	/**
+	 * Returns a random long, for example to seed a generator of its own
+	 * @return The random number
+	 */
+	public static long nextLong()
+	{
+		return random.nextLong();
+	}
+	
+	/**
+	 * Returns a random number between min and max, inclusive
+	 * @param min The minimum value
+	 * @param max The maximum value, must be greater than or equal to min
+	 * @return The random number
+	 */
+	public static int randInt(int min, int max)
+	{
+		return random.nextInt((max - min) + 1) + min;
+	}
+	
+}
@@ -0,0 +1,234 @@
+package nl.corebooster.setup;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Random;
+
+import org.newdawn.slick.Input;
+import org.newdawn.slick.SlickException;
+
+/**
+ * Runs the game logic without a display or sound, as fast as it can. A bot skips the intro and walks the player
+ * around in random directions, which makes this usable as a soak test and to measure the cost of the game logic.
+ * Every update is exactly one simulation step, the elapsed game time doesn't depend on the real time.
+ * The game random is seeded with the seed of the bot, so a run repeats exactly. Instead of the bot a recording can be replayed.
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class HeadlessGame {
+	
+	private static final int defaultTicks = 10000;
+	private static final int minWalkSteps = 5;
+	private static final int maxWalkSteps = 40;
+	
+	// The keys the bot walks with
+	private static final int[] walkKeys = new int[] {
+			Input.KEY_LEFT,
+			Input.KEY_RIGHT,
+			Input.KEY_UP,
+			Input.KEY_DOWN
+	};
+	
+	private Game game;
+	private InputState input;
+	private Random random;
+	private InputReplayer replayer;
+	private int walkKey;
+	private int walkSteps;
+	private LinkedHashSet<String> visitedScenes;
+	
+	/**
+	 * Initializes a new headless game walked around by the bot, switches the assets to headless
+	 * @param seed The seed of the random walk of the bot and of the game random
+	 * @throws SlickException Indicates a failure to load the first scene
+	 */
+	public HeadlessGame(long seed) throws SlickException
+	{
+		this(seed, null);
+	}
+	
+	/**
+	 * Initializes a new headless game replaying a recording, switches the assets to headless
+	 * @param replayer The recording to replay
+	 * @throws SlickException Indicates a failure to load the first scene
+	 */
+	public HeadlessGame(InputReplayer replayer) throws SlickException
+	{
+		this(replayer.getSeed(), replayer);
+	}
+	
+	/**
+	 * Initializes a new headless game, switches the assets to headless
+	 * @param seed The seed of the random walk of the bot and of the game random
+	 * @param replayer The recording to replay, null to let the bot play
+	 * @throws SlickException Indicates a failure to load the first scene
+	 */
+	private HeadlessGame(long seed, InputReplayer replayer) throws SlickException
+	{
+		Assets.setHeadless();
+		GameRandom.setSeed(seed);
+		
+		game = new Game("Blue Abyss");
+		input = new InputState();
+		random = new Random(seed);
+		this.replayer = replayer;
+		walkKey = -1;
+		walkSteps = 0;
+		visitedScenes = new LinkedHashSet<String>();
+		
+		if(replayer != null) {
+			game.startReplay(replayer);
+		}
+		
+		game.init();
+	}
+	
+	/**
+	 * Returns the game
+	 * @return The game being simulated
+	 */
+	public Game getGame()
+	{
+		return game;
+	}
+	
+	/**
+	 * Returns the names of the scenes the player has been in, in the order they were entered
+	 * @return The names of the visited scenes
+	 */
+	public LinkedHashSet<String> getVisitedScenes()
+	{
+		return visitedScenes;
+	}
+	
+	/**
+	 * Returns a description of where the player is, runs with the same seed and input end in the same place
+	 * @return The scene and the position of the player
+	 */
+	public String getPlayerPosition()
+	{
+		if(!game.isPlaying()) {
+			return "not playing";
+		}
+		
+		Player player = game.getCurrentScene().getPlayer();
+		
+		return game.getCurrentScene().getSceneName() + " (" + player.getX() + ", " + player.getY() + ")";
+	}
+	
+	/**
+	 * Runs a single simulation step, with the input of the bot or the replayed input
+	 * @throws SlickException Indicates a failure to load a scene
+	 */
+	public void tick() throws SlickException
+	{
+		// A replay sets the recorded input itself
+		if(replayer == null) {
+			if(!game.isPlaying()) {
+				// Holds space until the intro has ended
+				input.setKeyDown(Input.KEY_SPACE, game.getCurrentScene() != null);
+			}
+			else {
+				input.setKeyDown(Input.KEY_SPACE, false);
+				walk();
+			}
+		}
+		
+		tick(input);
+	}
+	
+	/**
+	 * Runs a single simulation step with the given input instead of the input of the bot, a replay still sets the recorded input
+	 * @param input The state of the keys
+	 * @throws SlickException Indicates a failure to load a scene
+	 */
+	public void tick(InputState input) throws SlickException
+	{
+		game.update(input, Game.getStepLength());
+		
+		if(game.isPlaying()) {
+			visitedScenes.add(game.getCurrentScene().getSceneName());
+		}
+	}
+	
+	/**
+	 * Holds down a walking key, a new direction is picked after a random amount of steps
+	 */
+	private void walk()
+	{
+		if(walkSteps > 0) {
+			walkSteps--;
+			return;
+		}
+		
+		if(walkKey != -1) {
+			input.setKeyDown(walkKey, false);
+		}
+		
+		walkKey = walkKeys[random.nextInt(walkKeys.length)];
+		walkSteps = minWalkSteps + random.nextInt(maxWalkSteps - minWalkSteps + 1);
+		
+		input.setKeyDown(walkKey, true);
+	}
+	
+	/**
+	 * Runs the game headless and prints how many simulation steps it ran per second
+	 * @param args The number of steps to run, the seed of the bot and a file to record the input of the bot to, all optional.
+	 * Or -replay and a recording file, to replay the recording instead of letting the bot play.
+	 * @throws SlickException Indicates a failure to load a scene
+	 * @throws IOException Indicates a failure to read or write a recording
+	 */
+	public static void main(String[] args) throws SlickException, IOException
+	{
+		int ticks = defaultTicks;
+		long seed = 1;
+		String recordingFile = null;
+		HeadlessGame headless;
+		
+		if(args.length > 1 && args[0].equals("-replay")) {
+			InputReplayer replayer = new InputReplayer(args[1]);
+			
+			headless = new HeadlessGame(replayer);
+			ticks = Integer.MAX_VALUE;
+		}
+		else {
+			if(args.length > 0) {
+				ticks = Integer.parseInt(args[0]);
+			}
+			
+			if(args.length > 1) {
+				seed = Long.parseLong(args[1]);
+			}
+			
+			if(args.length > 2) {
+				recordingFile = args[2];
+			}
+			
+			headless = new HeadlessGame(seed);
+			
+			if(recordingFile != null) {
+				headless.getGame().startRecording(recordingFile);
+			}
+		}
+		
+		long start = System.nanoTime();
+		int steps = 0;
+		
+		while(steps < ticks && !headless.getGame().isReplayFinished()) {
+			headless.tick();
+			steps++;
+		}
+		
+		long elapsed = System.nanoTime() - start;
+		
+		System.out.println(steps + " steps in " + (elapsed / 1000000) + " ms, " + (long) (steps * 1000000000.0 / elapsed) + " steps per second");
+		System.out.println("Visited scenes: " + headless.getVisitedScenes());
+		System.out.println("Player in " + headless.getPlayerPosition());
+		
+		if(recordingFile != null) {
+			headless.getGame().getRecorder().save(recordingFile);
+			System.out.println("Recorded " + headless.getGame().getRecorder().getStepCount() + " steps to " + recordingFile);
+		}
+	}
+	
+}
@@ -0,0 +1,103 @@
+package nl.corebooster.setup;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Records the state of the keys at the start of every simulation step, so a run can be replayed exactly with the same seed.
+ * Keys are usually held for many steps, so a recording is stored as runs of steps with the same key state.
+ * The recording file holds a header with the seed, followed by the runs.
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class InputRecorder {
+	
+	static final int recordingMagic = 0x5A524543;
+	static final int recordingVersion = 1;
+	
+	private long seed;
+	private ArrayList<int[]> runs;
+	private int stepCount;
+	
+	/**
+	 * Initializes a new empty recording
+	 * @param seed The seed the recorded run uses
+	 */
+	public InputRecorder(long seed)
+	{
+		this.seed = seed;
+		runs = new ArrayList<int[]>();
+		stepCount = 0;
+	}
+	
+	/**
+	 * Returns the seed the recorded run uses
+	 * @return The seed
+	 */
+	public long getSeed()
+	{
+		return seed;
+	}
+	
+	/**
+	 * Returns the amount of recorded steps
+	 * @return The amount of steps
+	 */
+	public int getStepCount()
+	{
+		return stepCount;
+	}
+	
+	/**
+	 * Records the state of the keys for the next simulation step
+	 * @param input The state of the keys before the step runs
+	 */
+	public void record(InputState input)
+	{
+		int downMask = input.getDownMask();
+		int pressedMask = input.getPressedMask();
+		
+		int[] last = runs.isEmpty() ? null : runs.get(runs.size() - 1);
+		
+		if(last != null && last[0] == downMask && last[1] == pressedMask) {
+			last[2]++;
+		}
+		else {
+			runs.add(new int[] {downMask, pressedMask, 1});
+		}
+		
+		stepCount++;
+	}
+	
+	/**
+	 * Writes the recording to a file
+	 * @param filename The name of the file to write
+	 * @throws IOException Indicates a failure to write the file
+	 */
+	public void save(String filename) throws IOException
+	{
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filename)));
+		
+		try {
+			out.writeInt(recordingMagic);
+			out.writeInt(recordingVersion);
+			out.writeLong(seed);
+			out.writeInt(runs.size());
+			
+			for(int i = 0; i < runs.size(); i++) {
+				int[] run = runs.get(i);
+				
+				out.writeInt(run[0]);
+				out.writeInt(run[1]);
+				out.writeInt(run[2]);
+			}
+		}
+		finally {
+			out.close();
+		}
+	}
+	
+}
@@ -0,0 +1,117 @@
+package nl.corebooster.setup;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Replays a recording made by the input recorder, setting the state of the keys before every simulation step.
+ * The game has to be seeded with the seed of the recording, or the run won't repeat.
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class InputReplayer {
+	
+	private long seed;
+	private int[][] runs;
+	private int stepCount;
+	private int run;
+	private int stepInRun;
+	private int step;
+	
+	/**
+	 * Initializes a new replayer, reads the recording from a file
+	 * @param filename The name of the recording file
+	 * @throws IOException Indicates the file can't be read or isn't a recording
+	 */
+	public InputReplayer(String filename) throws IOException
+	{
+		DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(filename)));
+		
+		try {
+			if(in.readInt() != InputRecorder.recordingMagic) {
+				throw new IOException(filename + " isn't an input recording");
+			}
+			
+			int version = in.readInt();
+			
+			if(version != InputRecorder.recordingVersion) {
+				throw new IOException("Unsupported version of input recording " + filename + ": " + version);
+			}
+			
+			seed = in.readLong();
+			runs = new int[in.readInt()][3];
+			stepCount = 0;
+			
+			for(int i = 0; i < runs.length; i++) {
+				runs[i][0] = in.readInt();
+				runs[i][1] = in.readInt();
+				runs[i][2] = in.readInt();
+				
+				stepCount += runs[i][2];
+			}
+		}
+		finally {
+			in.close();
+		}
+		
+		run = 0;
+		stepInRun = 0;
+		step = 0;
+	}
+	
+	/**
+	 * Returns the seed the recorded run uses
+	 * @return The seed
+	 */
+	public long getSeed()
+	{
+		return seed;
+	}
+	
+	/**
+	 * Returns the amount of recorded steps
+	 * @return The amount of steps
+	 */
+	public int getStepCount()
+	{
+		return stepCount;
+	}
+	
+	/**
+	 * Returns the amount of steps replayed so far
+	 * @return The amount of steps
+	 */
+	public int getStep()
+	{
+		return step;
+	}
+	
+	/**
+	 * Returns true if there are steps left to replay
+	 * @return Whether or not there are steps left, true/false
+	 */
+	public boolean hasNext()
+	{
+		return step < stepCount;
+	}
+	
+	/**
+	 * Sets the state of the keys to the recorded state of the next step
+	 * @param input The state of the keys to set
+	 */
+	public void next(InputState input)
+	{
+		input.setMasks(runs[run][0], runs[run][1]);
+		
+		stepInRun++;
+		step++;
+		
+		if(stepInRun == runs[run][2]) {
+			run++;
+			stepInRun = 0;
+		}
+	}
+	
+}
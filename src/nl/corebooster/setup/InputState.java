@@ -0,0 +1,149 @@
+package nl.corebooster.setup;
+
+import org.newdawn.slick.Input;
+
+/**
+ * Describes the state of the keys the game logic reads during a simulation step. The state is read from
+ * the input of the game container once per update, or set directly when the game runs without a display.
+ * A key press is handled once, checking it consumes it like Slick's input does.
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class InputState {
+	
+	// The keys the game logic reads
+	private static final int[] keys = new int[] {
+			Input.KEY_LEFT,
+			Input.KEY_RIGHT,
+			Input.KEY_UP,
+			Input.KEY_DOWN,
+			Input.KEY_1,
+			Input.KEY_2,
+			Input.KEY_3,
+			Input.KEY_4,
+			Input.KEY_D,
+			Input.KEY_SPACE,
+			Input.KEY_F3
+	};
+	
+	private static final int keyCount = 256;
+	
+	private boolean[] down;
+	private boolean[] pressed;
+	
+	/**
+	 * Initializes a new input state with all keys released
+	 */
+	public InputState()
+	{
+		down = new boolean[keyCount];
+		pressed = new boolean[keyCount];
+	}
+	
+	/**
+	 * Returns true if the key is held down
+	 * @param key The code of the key
+	 * @return Whether or not the key is down, true/false
+	 */
+	public boolean isKeyDown(int key)
+	{
+		return down[key];
+	}
+	
+	/**
+	 * Returns true if the key has been pressed since it was last checked, the press is consumed
+	 * @param key The code of the key
+	 * @return Whether or not the key has been pressed, true/false
+	 */
+	public boolean isKeyPressed(int key)
+	{
+		if(pressed[key]) {
+			pressed[key] = false;
+			
+			return true;
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Holds down or releases a key, holding down a released key presses it
+	 * @param key The code of the key
+	 * @param isDown Whether or not the key is down, true/false
+	 */
+	public void setKeyDown(int key, boolean isDown)
+	{
+		if(isDown && !down[key]) {
+			pressed[key] = true;
+		}
+		
+		down[key] = isDown;
+	}
+	
+	/**
+	 * Returns the keys the game logic reads that are held down, as a bit mask with a bit for every key it reads
+	 * @return The bit mask of the keys that are down
+	 */
+	public int getDownMask()
+	{
+		return toMask(down);
+	}
+	
+	/**
+	 * Returns the keys the game logic reads that have been pressed and not yet checked, as a bit mask with a bit for every key it reads
+	 * @return The bit mask of the pressed keys
+	 */
+	public int getPressedMask()
+	{
+		return toMask(pressed);
+	}
+	
+	/**
+	 * Sets the state of the keys the game logic reads from bit masks, as returned by getDownMask and getPressedMask
+	 * @param downMask The bit mask of the keys that are down
+	 * @param pressedMask The bit mask of the pressed keys
+	 */
+	public void setMasks(int downMask, int pressedMask)
+	{
+		for(int i = 0; i < keys.length; i++) {
+			down[keys[i]] = (downMask & (1 << i)) != 0;
+			pressed[keys[i]] = (pressedMask & (1 << i)) != 0;
+		}
+	}
+	
+	/**
+	 * Returns the state of the keys the game logic reads as a bit mask
+	 * @param state The state of all keys
+	 * @return The bit mask, with a bit for every key the game logic reads
+	 */
+	private static int toMask(boolean[] state)
+	{
+		int mask = 0;
+		
+		for(int i = 0; i < keys.length; i++) {
+			if(state[keys[i]]) {
+				mask |= 1 << i;
+			}
+		}
+		
+		return mask;
+	}
+	
+	/**
+	 * Reads the state of the keys the game logic uses from the input of the game container
+	 * @param input The input of the game container
+	 */
+	public void read(Input input)
+	{
+		for(int i = 0; i < keys.length; i++) {
+			int key = keys[i];
+			
+			down[key] = input.isKeyDown(key);
+			
+			if(input.isKeyPressed(key)) {
+				pressed[key] = true;
+			}
+		}
+	}
+	
+}
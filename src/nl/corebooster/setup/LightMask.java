@@ -0,0 +1,204 @@
+package nl.corebooster.setup;
+
+import org.lwjgl.opengl.GL11;
+import org.newdawn.slick.Color;
+import org.newdawn.slick.Graphics;
+import org.newdawn.slick.Image;
+import org.newdawn.slick.ImageBuffer;
+import org.newdawn.slick.geom.Rectangle;
+import org.newdawn.slick.opengl.renderer.Renderer;
+import org.newdawn.slick.opengl.renderer.SGL;
+import org.newdawn.slick.util.MaskUtil;
+
+/**
+ * Darkens a scene except for the area around its lights. The darkness is built in the alpha channel of the screen:
+ * the alpha is set to fully dark, every light multiplies it by a small radial gradient, and a black rectangle is then
+ * blended over the screen as dark as the alpha. Overlapping lights light up each other's edges.
+ * Without an alpha channel the lights are cut out of the darkness with the depth buffer, with hard edges.
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class LightMask {
+	
+	private static final int gradientSize = 128;
+	private static Image gradient;
+	private static Boolean hasAlphaChannel;
+	
+	// The lights of the frame being drawn, each light holds an x-position, a y-position and a radius
+	private float[] lights;
+	private int lightCount;
+	
+	/**
+	 * Initializes a new light mask without lights
+	 */
+	public LightMask()
+	{
+		lights = new float[12];
+		lightCount = 0;
+	}
+	
+	/**
+	 * Returns the amount of lights added since the mask was cleared
+	 * @return The amount of lights
+	 */
+	public int getLightCount()
+	{
+		return lightCount;
+	}
+	
+	/**
+	 * Removes all the lights, called before adding the lights of the next frame
+	 */
+	public void clear()
+	{
+		lightCount = 0;
+	}
+	
+	/**
+	 * Adds a light, the darkness fades out linearly towards its center
+	 * @param x The x-position of the center of the light
+	 * @param y The y-position of the center of the light
+	 * @param radius The distance from the center at which it's completely dark
+	 */
+	public void addLight(float x, float y, float radius)
+	{
+		if(lightCount * 3 == lights.length) {
+			float[] newLights = new float[lights.length * 2];
+			System.arraycopy(lights, 0, newLights, 0, lights.length);
+			
+			lights = newLights;
+		}
+		
+		lights[lightCount * 3] = x;
+		lights[lightCount * 3 + 1] = y;
+		lights[lightCount * 3 + 2] = radius;
+		lightCount++;
+	}
+	
+	/**
+	 * Darkens the visible part of the scene, everything drawn before is darkened
+	 * @param g The graphics the scene is drawn on
+	 * @param viewport The visible part of the scene
+	 */
+	public void render(Graphics g, Rectangle viewport)
+	{
+		if(hasAlphaChannel == null) {
+			hasAlphaChannel = Boolean.valueOf(GL11.glGetInteger(GL11.GL_ALPHA_BITS) > 0);
+		}
+		
+		if(hasAlphaChannel.booleanValue()) {
+			renderGradients(g, viewport);
+		}
+		else {
+			renderCutouts(g, viewport);
+		}
+		
+		g.setDrawMode(Graphics.MODE_NORMAL);
+		g.setColor(Color.white);
+	}
+	
+	/**
+	 * Darkens the scene through the alpha channel of the screen, with soft edges around the lights
+	 * @param g The graphics the scene is drawn on
+	 * @param viewport The visible part of the scene
+	 */
+	private void renderGradients(Graphics g, Rectangle viewport)
+	{
+		SGL gl = Renderer.get();
+		Image lightGradient = getGradient();
+		
+		// Only the alpha is written, the scene keeps its colors
+		g.setDrawMode(Graphics.MODE_ALPHA_MAP);
+		g.setColor(Color.black);
+		g.fillRect(viewport.getX(), viewport.getY(), viewport.getWidth(), viewport.getHeight());
+		
+		// Every light multiplies the darkness by its gradient
+		gl.glEnable(SGL.GL_BLEND);
+		gl.glBlendFunc(GL11.GL_ZERO, SGL.GL_SRC_ALPHA);
+		
+		lightGradient.startUse();
+		
+		for(int i = 0; i < lightCount; i++) {
+			float x = lights[i * 3];
+			float y = lights[i * 3 + 1];
+			float radius = lights[i * 3 + 2];
+			
+			if(isVisible(x, y, radius, viewport)) {
+				lightGradient.drawEmbedded(x - radius, y - radius, radius * 2, radius * 2);
+			}
+		}
+		
+		lightGradient.endUse();
+		
+		// Black is blended over the scene as dark as the alpha
+		g.setDrawMode(Graphics.MODE_ALPHA_BLEND);
+		g.setColor(Color.black);
+		g.fillRect(viewport.getX(), viewport.getY(), viewport.getWidth(), viewport.getHeight());
+	}
+	
+	/**
+	 * Darkens the scene outside circles around the lights, the circles are half the radius, where the gradient is half dark
+	 * @param g The graphics the scene is drawn on
+	 * @param viewport The visible part of the scene
+	 */
+	private void renderCutouts(Graphics g, Rectangle viewport)
+	{
+		MaskUtil.defineMask();
+		
+		for(int i = 0; i < lightCount; i++) {
+			float radius = lights[i * 3 + 2] / 2;
+			
+			g.fillOval(lights[i * 3] - radius, lights[i * 3 + 1] - radius, radius * 2, radius * 2);
+		}
+		
+		MaskUtil.finishDefineMask();
+		MaskUtil.drawOffMask();
+		
+		g.setColor(Color.black);
+		g.fillRect(viewport.getX(), viewport.getY(), viewport.getWidth(), viewport.getHeight());
+		
+		MaskUtil.resetMask();
+	}
+	
+	/**
+	 * Returns true if a light reaches into the visible part of the scene
+	 * @param x The x-position of the center of the light
+	 * @param y The y-position of the center of the light
+	 * @param radius The radius of the light
+	 * @param viewport The visible part of the scene
+	 * @return Whether or not the light is visible, true/false
+	 */
+	private static boolean isVisible(float x, float y, float radius, Rectangle viewport)
+	{
+		return x + radius > viewport.getX() && x - radius < viewport.getX() + viewport.getWidth()
+				&& y + radius > viewport.getY() && y - radius < viewport.getY() + viewport.getHeight();
+	}
+	
+	/**
+	 * Returns the gradient of a light, created the first time it's needed. Its alpha is 0 in the center and rises
+	 * linearly to 1 at the edge of the circle, the corners are completely dark.
+	 * @return The gradient image
+	 */
+	private static Image getGradient()
+	{
+		if(gradient == null) {
+			ImageBuffer buffer = new ImageBuffer(gradientSize, gradientSize);
+			float center = gradientSize / 2f;
+			
+			for(int y = 0; y < gradientSize; y++) {
+				for(int x = 0; x < gradientSize; x++) {
+					float dx = x + 0.5f - center;
+					float dy = y + 0.5f - center;
+					float darkness = Math.min(1, (float) Math.sqrt(dx * dx + dy * dy) / center);
+					
+					buffer.setRGBA(x, y, 255, 255, 255, Math.round(darkness * 255));
+				}
+			}
+			
+			gradient = buffer.getImage();
+		}
+		
+		return gradient;
+	}
+	
+}
@@ -0,0 +1,227 @@
+package nl.corebooster.setup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.lwjgl.openal.AL10;
+import org.lwjgl.openal.OpenALException;
+import org.newdawn.slick.SlickException;
+import org.newdawn.slick.openal.OpenALStreamPlayer;
+import org.newdawn.slick.openal.SoundStore;
+
+/**
+ * Plays the background music of the game. Tracks are streamed from their Ogg Vorbis files instead of being decoded completely,
+ * every track has one stream and one OpenAL source that are shared by all scenes using the track.
+ * Switching to another track fades out the playing track while the new track fades in.
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class MusicManager {
+	
+	private static final int fadeLength = 1500;
+	
+	private static HashMap<String, Track> tracks = new HashMap<String, Track>();
+	private static ArrayList<Track> playing = new ArrayList<Track>();
+	private static Track current;
+	
+	/**
+	 * Plays a track in a loop. When another track is playing it fades out while the track fades in,
+	 * when the track is already playing only its volume fades to the given volume.
+	 * @param ref The location of the track
+	 * @param volume The volume to play the track at
+	 * @throws SlickException Indicates a failure to open the track
+	 */
+	public static void play(String ref, float volume) throws SlickException
+	{
+		SoundStore.get().init();
+		
+		if(!SoundStore.get().soundWorks()) {
+			return;
+		}
+		
+		Track track = getTrack(ref);
+		
+		if(current != null && current != track) {
+			current.fadeTo(0);
+		}
+		
+		if(!playing.contains(track)) {
+			track.start();
+			playing.add(track);
+		}
+		
+		track.fadeTo(volume);
+		current = track;
+	}
+	
+	/**
+	 * Fades out the playing track
+	 */
+	public static void fadeOut()
+	{
+		if(current != null) {
+			current.fadeTo(0);
+			current = null;
+		}
+	}
+	
+	/**
+	 * Stops all tracks at once
+	 */
+	public static void stop()
+	{
+		for(int i = 0; i < playing.size(); i++) {
+			playing.get(i).stop();
+		}
+		
+		playing.clear();
+		current = null;
+	}
+	
+	/**
+	 * Refills the stream buffers of the playing tracks and advances their fades, has to be called every frame
+	 * @param delta The time since the last update in milliseconds
+	 */
+	public static void update(int delta)
+	{
+		float musicVolume = SoundStore.get().getMusicVolume();
+		
+		for(int i = playing.size() - 1; i >= 0; i--) {
+			Track track = playing.get(i);
+			
+			track.update(delta, musicVolume);
+			
+			// A track that has faded out stops, so its stream doesn't have to be decoded anymore
+			if(track != current && track.isSilent()) {
+				track.stop();
+				playing.remove(i);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the track with the given reference, its source and stream are created the first time it's requested
+	 * @param ref The location of the track
+	 * @return The track
+	 * @throws SlickException Indicates a failure to create the source of the track
+	 */
+	private static Track getTrack(String ref) throws SlickException
+	{
+		Track track = tracks.get(ref);
+		
+		if(track == null) {
+			int source;
+			
+			try {
+				source = AL10.alGenSources();
+			}
+			catch(OpenALException e) {
+				throw new SlickException("No source available for music: " + ref, e);
+			}
+			
+			if(AL10.alGetError() != AL10.AL_NO_ERROR) {
+				throw new SlickException("No source available for music: " + ref);
+			}
+			
+			track = new Track(ref, source);
+			tracks.put(ref, track);
+		}
+		
+		return track;
+	}
+	
+	/**
+	 * Describes a track with its source, stream and fade
+	 */
+	private static class Track {
+		
+		private String ref;
+		private int source;
+		private OpenALStreamPlayer stream;
+		private float gain, fadeStartGain, fadeTargetGain;
+		private int fadeElapsed;
+		
+		/**
+		 * Constructs a new silent track
+		 * @param ref The location of the track
+		 * @param source The OpenAL source to play the track on
+		 */
+		public Track(String ref, int source)
+		{
+			this.ref = ref;
+			this.source = source;
+			this.stream = new OpenALStreamPlayer(source, ref);
+			this.stream.setup(1f);
+			this.gain = 0;
+			this.fadeStartGain = 0;
+			this.fadeTargetGain = 0;
+			this.fadeElapsed = fadeLength;
+		}
+		
+		/**
+		 * Starts streaming the track from the beginning, silently
+		 * @throws SlickException Indicates a failure to open the track
+		 */
+		public void start() throws SlickException
+		{
+			gain = 0;
+			AL10.alSourcef(source, AL10.AL_GAIN, 0);
+			
+			try {
+				stream.play(true);
+			}
+			catch(IOException e) {
+				throw new SlickException("Failed to stream music: " + ref, e);
+			}
+		}
+		
+		/**
+		 * Stops the track
+		 */
+		public void stop()
+		{
+			AL10.alSourceStop(source);
+			gain = 0;
+			fadeTargetGain = 0;
+			fadeElapsed = fadeLength;
+		}
+		
+		/**
+		 * Starts fading from the current volume to the given volume
+		 * @param volume The volume to fade to
+		 */
+		public void fadeTo(float volume)
+		{
+			fadeStartGain = gain;
+			fadeTargetGain = volume;
+			fadeElapsed = 0;
+		}
+		
+		/**
+		 * Returns true if the track has faded out completely
+		 * @return Whether or not the track is silent, true/false
+		 */
+		public boolean isSilent()
+		{
+			return fadeElapsed >= fadeLength && fadeTargetGain == 0;
+		}
+		
+		/**
+		 * Refills the stream buffers and advances the fade
+		 * @param delta The time since the last update in milliseconds
+		 * @param musicVolume The music volume of the sound store
+		 */
+		public void update(int delta, float musicVolume)
+		{
+			stream.update();
+			
+			fadeElapsed = Math.min(fadeElapsed + delta, fadeLength);
+			gain = fadeStartGain + (fadeTargetGain - fadeStartGain) * fadeElapsed / fadeLength;
+			
+			AL10.alSourcef(source, AL10.AL_GAIN, gain * musicVolume);
+		}
+		
+	}
+	
+}
@@ -0,0 +1,140 @@
+package nl.corebooster.setup;
+
+import org.newdawn.slick.geom.Rectangle;
+import org.newdawn.slick.util.pathfinding.Mover;
+import org.newdawn.slick.util.pathfinding.PathFindingContext;
+import org.newdawn.slick.util.pathfinding.TileBasedMap;
+
+/**
+ * Describes the walkable area of a scene as a grid of tiles, derived from the collision boxes of the scene.
+ * A tile is blocked when any collision box overlaps it. Agents cover more than one tile, so for an agent
+ * a tile is blocked when any tile of the area the agent covers from there is blocked.
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class NavigationGrid implements TileBasedMap {
+	
+	private int tileSize;
+	private int columns, rows;
+	private boolean[] blocked;
+	
+	/**
+	 * Initializes a new navigation grid from the collision boxes of a scene
+	 * @param collisionGrid The spatial grid with the collision boxes of the scene
+	 * @param width The width of the scene
+	 * @param height The height of the scene
+	 * @param tileSize The width and height of a single tile
+	 */
+	public NavigationGrid(SpatialGrid<CollisionBox> collisionGrid, int width, int height, int tileSize)
+	{
+		this.tileSize = tileSize;
+		this.columns = width / tileSize;
+		this.rows = height / tileSize;
+		this.blocked = new boolean[columns * rows];
+		
+		// The tile area is inset by a pixel, a box only touching the edge of a tile doesn't block it
+		Rectangle area = new Rectangle(0, 0, tileSize - 2, tileSize - 2);
+		
+		for(int row = 0; row < rows; row++) {
+			for(int column = 0; column < columns; column++) {
+				area.setLocation(column * tileSize + 1, row * tileSize + 1);
+				blocked[row * columns + column] = collisionGrid.isOverlapping(area);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the size of a single tile
+	 * @return The width and height of a tile
+	 */
+	public int getTileSize()
+	{
+		return tileSize;
+	}
+	
+	/**
+	 * Returns true if an area of tiles lies within the grid and none of its tiles are blocked
+	 * @param column The column of the top left tile of the area
+	 * @param row The row of the top left tile of the area
+	 * @param width The width of the area in tiles
+	 * @param height The height of the area in tiles
+	 * @return Whether or not the area is free, true/false
+	 */
+	public boolean isFree(int column, int row, int width, int height)
+	{
+		if(column < 0 || row < 0 || column + width > columns || row + height > rows) {
+			return false;
+		}
+		
+		for(int y = row; y < row + height; y++) {
+			for(int x = column; x < column + width; x++) {
+				if(blocked[y * columns + x]) {
+					return false;
+				}
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Returns the width of the grid
+	 * @return The number of columns
+	 */
+	public int getWidthInTiles()
+	{
+		return columns;
+	}
+	
+	/**
+	 * Returns the height of the grid
+	 * @return The number of rows
+	 */
+	public int getHeightInTiles()
+	{
+		return rows;
+	}
+	
+	/**
+	 * Called by the path finder for every tile it visits, not used
+	 * @param x The column of the visited tile
+	 * @param y The row of the visited tile
+	 */
+	public void pathFinderVisited(int x, int y)
+	{
+	}
+	
+	/**
+	 * Returns true if the mover of the path finding context can't stand on the given tile
+	 * @param context The context of the path finder
+	 * @param tx The column of the tile
+	 * @param ty The row of the tile
+	 * @return Whether or not the tile is blocked, true/false
+	 */
+	public boolean blocked(PathFindingContext context, int tx, int ty)
+	{
+		Mover mover = context.getMover();
+		
+		if(mover instanceof Agent) {
+			Agent agent = (Agent) mover;
+			
+			return !isFree(tx, ty, agent.getColumns(), agent.getRows());
+		}
+		else {
+			return !isFree(tx, ty, 1, 1);
+		}
+	}
+	
+	/**
+	 * Returns the cost of moving through a tile, all tiles cost the same
+	 * @param context The context of the path finder
+	 * @param tx The column of the tile
+	 * @param ty The row of the tile
+	 * @return The cost of the tile
+	 */
+	public float getCost(PathFindingContext context, int tx, int ty)
+	{
+		return 1;
+	}
+	
+}
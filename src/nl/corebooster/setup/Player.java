@@ -1,11 +1,8 @@
 package nl.corebooster.setup;
 
-import java.util.LinkedHashMap;
-
 import org.newdawn.slick.Animation;
 import org.newdawn.slick.Graphics;
 import org.newdawn.slick.SlickException;
-import org.newdawn.slick.Sound;
 import org.newdawn.slick.SpriteSheet;
 
 /**
@@ -18,12 +15,20 @@ public class Player {
 	private CollisionBox collisionbox;
 	private SpriteSheet spritesheet;
 	private Animation spritesheetAnimation;
+	private SpriteSheet[] directionSpritesheets;
+	private Animation[] directionAnimations;
 	private static TriggerBox latestTriggerBox;
 	private int x, y;
+	private int previousX, previousY;
 	private static int movementSpeed;
 	private int angle;
 	private static final int playerSize = 64;
-	private Sound footstep;
+	private static final String[] directionFilenames = new String[] {
+			"player_up.png",
+			"player_right.png",
+			"player_down.png",
+			"player_left.png"
+	};
 	
 	/**
 	 * Constructs a player at a given position.
@@ -33,19 +38,29 @@ public class Player {
 	 */
 	public Player(int x, int y) throws SlickException
 	{
-		this.spritesheet = getSpriteSheet("sprites", "player_up.png", playerSize, playerSize);
-		spritesheetAnimation = new Animation(spritesheet, 100);
+		// Load the spritesheet and animation of every direction once
+		directionSpritesheets = new SpriteSheet[directionFilenames.length];
+		directionAnimations = new Animation[directionFilenames.length];
+		
+		for(int i = 0; i < directionFilenames.length; i++) {
+			directionSpritesheets[i] = getSpriteSheet("sprites", directionFilenames[i], playerSize, playerSize);
+			directionAnimations[i] = new Animation(directionSpritesheets[i], 100);
+			directionAnimations[i].setAutoUpdate(false);
+		}
+		
+		this.spritesheet = directionSpritesheets[0];
+		spritesheetAnimation = directionAnimations[0];
 		latestTriggerBox = null;
 		
 		collisionbox = new CollisionBox(x, y, playerSize, playerSize);
 		
 		this.x = x;
 		this.y = y;	
+		this.previousX = x;
+		this.previousY = y;
 		
 		movementSpeed = 5;
 		angle = 0;
-		
-		footstep = new Sound("data/soundeffects/FootstepIce.ogg");
 	}
 	
 	/**
@@ -65,6 +80,15 @@ public class Player {
 		return spritesheet;
 	}
 	
+	/**
+	 * Returns the spritesheets of all the directions
+	 * @return The spritesheets the player animations are based on
+	 */
+	public SpriteSheet[] getSpriteSheets()
+	{
+		return directionSpritesheets;
+	}
+	
 	/**
 	 * Returns the latest trigger box
 	 * @return The latest trigger box
@@ -108,6 +132,24 @@ public class Player {
 		return y;
 	}
 	
+	/**
+	 * Returns the X-position at the previous simulation step
+	 * @return The players previous X-position
+	 */
+	public int getPreviousX()
+	{
+		return previousX;
+	}
+	
+	/**
+	 * Returns the Y-position at the previous simulation step
+	 * @return The players previous Y-position
+	 */
+	public int getPreviousY()
+	{
+		return previousY;
+	}
+	
 	/**
 	 * Returns the rotation angle
 	 * @return The angle the player is on
@@ -118,12 +160,18 @@ public class Player {
 	}
 	
 	/**
-	 * Sets a new spritesheet for the player
+	 * Sets a new spritesheet for the current rotation of the player
 	 * @param spritesheet The players new spritesheet
 	 */
 	public void setSpriteSheet(SpriteSheet spritesheet)
 	{
+		int direction = getDirectionIndex(angle);
+		
 		this.spritesheet = spritesheet;
+		directionSpritesheets[direction] = spritesheet;
+		directionAnimations[direction] = new Animation(spritesheet, 100);
+		directionAnimations[direction].setAutoUpdate(false);
+		spritesheetAnimation = directionAnimations[direction];
 	}
 	
 	/**
@@ -133,6 +181,7 @@ public class Player {
 	public void setX(int x)
 	{
 		this.x = x;
+		collisionbox.setPosition(x, y);
 	}
 	
 	/**
@@ -142,6 +191,7 @@ public class Player {
 	public void setY(int y)
 	{
 		this.y = y;
+		collisionbox.setPosition(x, y);
 	}
 	
 	/**
@@ -211,7 +261,7 @@ public class Player {
 	 */
 	public SpriteSheet getSpriteSheet(String folder, String filename, int width, int height) throws SlickException
 	{
-		SpriteSheet spritesheet = new SpriteSheet("data/" + folder + "/" + filename, width, height);
+		SpriteSheet spritesheet = Assets.getSpriteSheet("data/" + folder + "/" + filename, width, height);
 		
 		return spritesheet;
 	}
@@ -282,12 +332,11 @@ public class Player {
 	 */
 	public void moveUp() throws SlickException
 	{
-		setSpriteSheet(getSpriteSheet("sprites", "player_up.png", playerSize, playerSize));
-		
 		rotateAndRefresh(0);
 		
 		startAnimation();
 		y -= movementSpeed;
+		collisionbox.setPosition(x, y);
 	}
 	
 	/**
@@ -296,12 +345,11 @@ public class Player {
 	 */
 	public void moveDown() throws SlickException
 	{
-		setSpriteSheet(getSpriteSheet("sprites", "player_down.png", playerSize, playerSize));
-		
 		rotateAndRefresh(180);
 		
 		startAnimation();
 		y += movementSpeed;
+		collisionbox.setPosition(x, y);
 	}
 	
 	/**
@@ -310,12 +358,11 @@ public class Player {
 	 */
 	public void moveRight() throws SlickException
 	{
-		setSpriteSheet(getSpriteSheet("sprites", "player_right.png", playerSize, playerSize));
-		
 		rotateAndRefresh(90);
 		
 		startAnimation();
 		x += movementSpeed;
+		collisionbox.setPosition(x, y);
 	}
 	
 	/**
@@ -324,12 +371,11 @@ public class Player {
 	 */
 	public void moveLeft() throws SlickException
 	{
-		setSpriteSheet(getSpriteSheet("sprites", "player_left.png", playerSize, playerSize));
-		
 		rotateAndRefresh(270);
 		
 		startAnimation();
 		x -= movementSpeed;
+		collisionbox.setPosition(x, y);
 	}	
 	
 	/**
@@ -342,109 +388,60 @@ public class Player {
 	}
 	
 	/**
-	 * Draw collision box.
-	 * @param g The graphics to draw on
+	 * Adds the current frame of the player to a sprite batch
+	 * @param batch The sprite batch to draw the player with
+	 * @param layer The layer to draw the player on
+	 */
+	public void drawSprite(SpriteBatch batch, RenderLayer layer)
+	{
+		batch.draw(layer, spritesheetAnimation.getCurrentFrame(), batch.interpolate(previousX, x), batch.interpolate(previousY, y), 1);
+	}
+	
+	/**
+	 * Advances the animation of the current direction, the animation only moves through the simulation steps
+	 * @param delta The time that has passed in milliseconds
+	 */
+	public void update(int delta)
+	{
+		spritesheetAnimation.update(delta);
+	}
+	
+	/**
+	 * Remembers the current position as the position of the previous simulation step
 	 */
-	public void drawCollisionBox(Graphics g) 
+	public void savePosition()
 	{
-		collisionbox.drawBox(g, x, y);
+		previousX = x;
+		previousY = y;
 	}
 	
 	/**
 	 * Checks if the player collides with another collision box
-	 * @param sprites The list of sprites to check collision with
+	 * @param collisionGrid The spatial grid with the collision boxes to check collision with
 	 * @return Whether or not anything is colliding, true/false
 	 */
-	public boolean isCollidingWith(LinkedHashMap<String, Object> sprites)
-	{
-		for(Object o : sprites.values()) {
-			if(o instanceof Sprite) {
-				Sprite s = (Sprite) o;
-				CollisionBox spriteCollisionbox = s.getCollisionBox();
-				
-				if(spriteCollisionbox != null) {
-					boolean isColliding = spriteCollisionbox.isColliding(collisionbox.getShape());
-					
-					if(isColliding) {
-						return true;
-					}
-				}
-			}
-			else if(o instanceof AnimatedSprite) {
-				AnimatedSprite as = (AnimatedSprite) o;
-				CollisionBox spriteCollisionbox = as.getCollisionBox();
-				
-				if(spriteCollisionbox != null) {
-					boolean isColliding = spriteCollisionbox.isColliding(collisionbox.getShape());
-					
-					if(isColliding) {
-						return true;
-					}
-				}
-			}
-		}
-		
-		return false;
+	public boolean isCollidingWith(SpatialGrid<CollisionBox> collisionGrid)
+	{
+		return collisionGrid.isOverlapping(collisionbox.getShape());
 	}
 	
 	/**
 	 * Returns the TriggerBox when a player is touching a trigger box, null if not triggering
-	 * @param sprites The list of sprites to check triggers with
+	 * @param triggerGrid The spatial grid with the trigger boxes of the sprites to check triggers with
 	 * @return The trigger box that is triggered
 	 */
-	public TriggerBox getCurrentTriggerBox(LinkedHashMap<String, Object> sprites)
-	{
-		for(Object o : sprites.values()) {
-			if(o instanceof Sprite) {
-				Sprite s = (Sprite) o;
-				TriggerBox spriteTriggerbox = s.getTriggerBox();
-				
-				if(spriteTriggerbox != null) {
-					boolean isTriggering = spriteTriggerbox.isTriggering(collisionbox.getShape());
-					
-					if(isTriggering) {
-						return spriteTriggerbox;
-					}
-				}
-			}
-			else if(o instanceof AnimatedSprite) {
-				AnimatedSprite as = (AnimatedSprite) o;
-				TriggerBox spriteTriggerbox = as.getTriggerBox();
-				
-				if(spriteTriggerbox != null) {
-					boolean isTriggering = spriteTriggerbox.isTriggering(collisionbox.getShape());
-					
-					if(isTriggering) {
-						return spriteTriggerbox;
-					}
-				}
-			}
-		}
-		
-		return null;
+	public TriggerBox getCurrentTriggerBox(SpatialGrid<TriggerBox> triggerGrid)
+	{
+		return triggerGrid.getFirstOverlapping(collisionbox.getShape());
 	}
 	
 	/**
 	 * Returns the TriggerBox when a player is touching a trigger box of an item, null if not triggering
-	 * @param items The list of items to check triggers with
+	 * @param itemTriggerGrid The spatial grid with the trigger boxes of the items to check triggers with
 	 * @return The trigger box that is triggered
 	 */
-	public TriggerBox getCurrentItemTriggerBox(LinkedHashMap<String, Item> items) {
-		for(Item i : items.values()) {
-			TriggerBox itemTriggerBox = i.getSprite().getTriggerBox();
-			
-			if(itemTriggerBox != null) {
-				boolean isTriggering = itemTriggerBox.isTriggering(collisionbox.getShape());
-				
-				if(isTriggering) {
-					return itemTriggerBox;
-				}
-			}
-			
-
-		}
-		
-		return null;
+	public TriggerBox getCurrentItemTriggerBox(SpatialGrid<TriggerBox> itemTriggerGrid) {
+		return itemTriggerGrid.getFirstOverlapping(collisionbox.getShape());
 	}
 	
 	/**
@@ -456,11 +453,25 @@ public class Player {
 	}
 	
 	/**
-	 * Refreshes the animation
+	 * Refreshes the animation, switches to the preloaded animation of the current rotation
 	 */
 	public void refreshAnimation()
 	{
-		spritesheetAnimation = new Animation(spritesheet, 100);
+		int direction = getDirectionIndex(angle);
+		
+		spritesheet = directionSpritesheets[direction];
+		spritesheetAnimation = directionAnimations[direction];
+		spritesheetAnimation.restart();
+	}
+	
+	/**
+	 * Returns the index of the preloaded spritesheet and animation for the given angle
+	 * @param angle The angle of the player
+	 * @return The direction index, 0 (up), 1 (right), 2 (down) or 3 (left)
+	 */
+	private static int getDirectionIndex(int angle)
+	{
+		return ((angle % 360 + 360) % 360) / 90;
 	}
 	
 	/**
@@ -476,16 +487,14 @@ public class Player {
 	 * Plays footstep sound
 	 */
 	public void playFootstepSound() {
-		footstep.loop(1f, 0.1f);
+		SoundBank.loop(SoundCue.FOOTSTEP);
 	}
 	
 	/**
 	 * Stops playing footstep sound
 	 */
 	public void stopFootstepSound() {
-		if(footstep.playing()) {
-			footstep.stop();
-		}
+		SoundBank.stop(SoundCue.FOOTSTEP);
 	}
 	
 	/**
@@ -493,6 +502,6 @@ public class Player {
 	 * @return Whether or not the footstep sound is playing, true/false
 	 */
 	public boolean isFootstepSoundPlaying() {
-		return footstep.playing();
+		return SoundBank.isPlaying(SoundCue.FOOTSTEP);
 	}
 }
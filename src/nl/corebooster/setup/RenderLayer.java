@@ -0,0 +1,12 @@
+package nl.corebooster.setup;
+
+/**
+ * Describes the layers of a scene, from back to front. Sprites on a layer are drawn over all sprites on the layers before it.
+ * Scene entities are on the floor layer, like trapdoors, or on the scenery layer with the other objects.
+ * The inventory is drawn after all layers, in screen space.
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public enum RenderLayer {
+	BACKGROUND, FLOOR, SCENERY, ITEMS, AGENTS, PLAYER, EFFECTS, OVERLAY;
+}
@@ -0,0 +1,207 @@
+package nl.corebooster.setup;
+
+import java.util.ArrayList;
+
+/**
+ * Describes the content of a game scene as it is stored in the scene files
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class SceneDefinition {
+	
+	private static final int defaultWidth = 960;
+	private static final int defaultHeight = 540;
+	
+	private String sceneName;
+	private String backgroundFilename;
+	private String musicFilename;
+	private float musicVolume;
+	private int width, height;
+	private EntityDefinition overlay;
+	private boolean overlayFollowsPlayer;
+	private int lightRadius;
+	private ArrayList<int[]> lights;
+	private ArrayList<EntityDefinition> entities;
+	
+	/**
+	 * Constructs a new scene definition without entities
+	 * @param sceneName The name of the scene
+	 * @param backgroundFilename The filename of the background image
+	 * @param musicFilename The filename of the background music
+	 * @param musicVolume The volume of the background music
+	 */
+	public SceneDefinition(String sceneName, String backgroundFilename, String musicFilename, float musicVolume)
+	{
+		this.sceneName = sceneName;
+		this.backgroundFilename = backgroundFilename;
+		this.musicFilename = musicFilename;
+		this.musicVolume = musicVolume;
+		this.width = defaultWidth;
+		this.height = defaultHeight;
+		this.overlay = null;
+		this.overlayFollowsPlayer = false;
+		this.lightRadius = 0;
+		this.lights = new ArrayList<int[]>();
+		this.entities = new ArrayList<EntityDefinition>();
+	}
+	
+	/**
+	 * Returns the name of the scene
+	 * @return The name of the scene
+	 */
+	public String getSceneName()
+	{
+		return sceneName;
+	}
+	
+	/**
+	 * Returns the filename of the background image
+	 * @return The filename of the background
+	 */
+	public String getBackgroundFilename()
+	{
+		return backgroundFilename;
+	}
+	
+	/**
+	 * Returns the filename of the background music
+	 * @return The filename of the music
+	 */
+	public String getMusicFilename()
+	{
+		return musicFilename;
+	}
+	
+	/**
+	 * Returns the volume of the background music
+	 * @return The volume of the music
+	 */
+	public float getMusicVolume()
+	{
+		return musicVolume;
+	}
+	
+	/**
+	 * Returns the width of the scene, scenes can be larger than the screen
+	 * @return The width in pixels
+	 */
+	public int getWidth()
+	{
+		return width;
+	}
+	
+	/**
+	 * Returns the height of the scene, scenes can be larger than the screen
+	 * @return The height in pixels
+	 */
+	public int getHeight()
+	{
+		return height;
+	}
+	
+	/**
+	 * Returns the overlay drawn on top of the scene
+	 * @return The overlay, null if the scene has no overlay
+	 */
+	public EntityDefinition getOverlay()
+	{
+		return overlay;
+	}
+	
+	/**
+	 * Returns true if the overlay follows the player
+	 * @return Whether or not the overlay follows the player, true/false
+	 */
+	public boolean overlayFollowsPlayer()
+	{
+		return overlayFollowsPlayer;
+	}
+	
+	/**
+	 * Returns true if the scene is dark, it's only visible around the player and the lights
+	 * @return Whether or not the scene is dark, true/false
+	 */
+	public boolean isDark()
+	{
+		return lightRadius > 0;
+	}
+	
+	/**
+	 * Returns the radius of the light around the player in a dark scene
+	 * @return The radius in pixels, 0 if the scene isn't dark
+	 */
+	public int getLightRadius()
+	{
+		return lightRadius;
+	}
+	
+	/**
+	 * Returns the lights at fixed positions in a dark scene
+	 * @return The lights, each holding an x-position, a y-position and a radius
+	 */
+	public ArrayList<int[]> getLights()
+	{
+		return lights;
+	}
+	
+	/**
+	 * Returns the entities of the scene in the order they are added to the scene
+	 * @return The entities
+	 */
+	public ArrayList<EntityDefinition> getEntities()
+	{
+		return entities;
+	}
+	
+	/**
+	 * Sets the size of the scene, by default a scene is as large as the screen
+	 * @param width The width in pixels
+	 * @param height The height in pixels
+	 */
+	public void setSize(int width, int height)
+	{
+		this.width = width;
+		this.height = height;
+	}
+	
+	/**
+	 * Sets the overlay drawn on top of the scene
+	 * @param overlay The overlay
+	 * @param overlayFollowsPlayer Whether or not the overlay follows the player
+	 */
+	public void setOverlay(EntityDefinition overlay, boolean overlayFollowsPlayer)
+	{
+		this.overlay = overlay;
+		this.overlayFollowsPlayer = overlayFollowsPlayer;
+	}
+	
+	/**
+	 * Makes the scene dark, only the area around the player and the lights is visible
+	 * @param lightRadius The radius of the light around the player in pixels, 0 makes the scene light again
+	 */
+	public void setDarkness(int lightRadius)
+	{
+		this.lightRadius = lightRadius;
+	}
+	
+	/**
+	 * Adds a light at a fixed position to a dark scene
+	 * @param x The x-position of the center of the light
+	 * @param y The y-position of the center of the light
+	 * @param radius The radius of the light in pixels
+	 */
+	public void addLight(int x, int y, int radius)
+	{
+		lights.add(new int[] {x, y, radius});
+	}
+	
+	/**
+	 * Adds an entity to the end of the scene
+	 * @param entity The entity to add
+	 */
+	public void addEntity(EntityDefinition entity)
+	{
+		entities.add(entity);
+	}
+	
+}
@@ -0,0 +1,224 @@
+package nl.corebooster.setup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Describes the entities of a scene. The entities are kept in the order they are added and
+ * in separate lists per type, so loops over one type don't need casts. Every entity is on a render layer,
+ * the draw order has the entities sorted by layer and in the order they are added within a layer.
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class SceneEntities {
+	
+	private HashMap<String, SceneEntity> entityLookup;
+	private ArrayList<SceneEntity> entities;
+	private ArrayList<Sprite> sprites;
+	private ArrayList<AnimatedSprite> animatedSprites;
+	private HashMap<SceneEntity, RenderLayer> layers;
+	private ArrayList<SceneEntity> drawOrder;
+	private boolean isDrawOrderValid;
+	
+	/**
+	 * Initializes an empty list of scene entities
+	 */
+	public SceneEntities()
+	{
+		entityLookup = new HashMap<String, SceneEntity>();
+		entities = new ArrayList<SceneEntity>();
+		sprites = new ArrayList<Sprite>();
+		animatedSprites = new ArrayList<AnimatedSprite>();
+		layers = new HashMap<SceneEntity, RenderLayer>();
+		drawOrder = new ArrayList<SceneEntity>();
+		isDrawOrderValid = true;
+	}
+	
+	/**
+	 * Returns the entity with the given key
+	 * @param key The key of the entity
+	 * @return The entity, null if it doesn't exist
+	 */
+	public SceneEntity get(String key)
+	{
+		return entityLookup.get(key);
+	}
+	
+	/**
+	 * Returns the sprite with the given key
+	 * @param key The key of the sprite
+	 * @return The sprite, null if it doesn't exist or isn't a sprite
+	 */
+	public Sprite getSprite(String key)
+	{
+		SceneEntity entity = entityLookup.get(key);
+		
+		if(entity instanceof Sprite) {
+			return (Sprite) entity;
+		}
+		else {
+			return null;
+		}
+	}
+	
+	/**
+	 * Returns the animated sprite with the given key
+	 * @param key The key of the animated sprite
+	 * @return The animated sprite, null if it doesn't exist or isn't an animated sprite
+	 */
+	public AnimatedSprite getAnimatedSprite(String key)
+	{
+		SceneEntity entity = entityLookup.get(key);
+		
+		if(entity instanceof AnimatedSprite) {
+			return (AnimatedSprite) entity;
+		}
+		else {
+			return null;
+		}
+	}
+	
+	/**
+	 * Returns all entities in the order they have been added
+	 * @return The entities
+	 */
+	public ArrayList<SceneEntity> getEntities()
+	{
+		return entities;
+	}
+	
+	/**
+	 * Returns all entities in the order they are drawn in, sorted by layer
+	 * @return The entities in draw order
+	 */
+	public ArrayList<SceneEntity> getDrawOrder()
+	{
+		if(!isDrawOrderValid) {
+			drawOrder.clear();
+			
+			for(RenderLayer layer : RenderLayer.values()) {
+				for(int i = 0; i < entities.size(); i++) {
+					if(layers.get(entities.get(i)) == layer) {
+						drawOrder.add(entities.get(i));
+					}
+				}
+			}
+			
+			isDrawOrderValid = true;
+		}
+		
+		return drawOrder;
+	}
+	
+	/**
+	 * Returns the layer an entity is drawn on
+	 * @param entity The entity
+	 * @return The layer, null if the entity isn't in the scene
+	 */
+	public RenderLayer getLayer(SceneEntity entity)
+	{
+		return layers.get(entity);
+	}
+	
+	/**
+	 * Returns all sprites
+	 * @return The sprites
+	 */
+	public ArrayList<Sprite> getSprites()
+	{
+		return sprites;
+	}
+	
+	/**
+	 * Returns all animated sprites
+	 * @return The animated sprites
+	 */
+	public ArrayList<AnimatedSprite> getAnimatedSprites()
+	{
+		return animatedSprites;
+	}
+	
+	/**
+	 * Returns the amount of entities
+	 * @return The amount of entities
+	 */
+	public int size()
+	{
+		return entities.size();
+	}
+	
+	/**
+	 * Adds a sprite on the scenery layer, replacing the entity with the same key
+	 * @param key The key of the sprite
+	 * @param sprite The sprite to add
+	 */
+	public void add(String key, Sprite sprite)
+	{
+		add(key, sprite, RenderLayer.SCENERY);
+	}
+	
+	/**
+	 * Adds a sprite, replacing the entity with the same key
+	 * @param key The key of the sprite
+	 * @param sprite The sprite to add
+	 * @param layer The layer to draw the sprite on
+	 */
+	public void add(String key, Sprite sprite, RenderLayer layer)
+	{
+		remove(key);
+		
+		entityLookup.put(key, sprite);
+		entities.add(sprite);
+		sprites.add(sprite);
+		layers.put(sprite, layer);
+		isDrawOrderValid = false;
+	}
+	
+	/**
+	 * Adds an animated sprite on the scenery layer, replacing the entity with the same key
+	 * @param key The key of the animated sprite
+	 * @param animatedSprite The animated sprite to add
+	 */
+	public void add(String key, AnimatedSprite animatedSprite)
+	{
+		add(key, animatedSprite, RenderLayer.SCENERY);
+	}
+	
+	/**
+	 * Adds an animated sprite, replacing the entity with the same key
+	 * @param key The key of the animated sprite
+	 * @param animatedSprite The animated sprite to add
+	 * @param layer The layer to draw the animated sprite on
+	 */
+	public void add(String key, AnimatedSprite animatedSprite, RenderLayer layer)
+	{
+		remove(key);
+		
+		entityLookup.put(key, animatedSprite);
+		entities.add(animatedSprite);
+		animatedSprites.add(animatedSprite);
+		layers.put(animatedSprite, layer);
+		isDrawOrderValid = false;
+	}
+	
+	/**
+	 * Removes the entity with the given key
+	 * @param key The key of the entity
+	 * @return The removed entity, null if it didn't exist
+	 */
+	public SceneEntity remove(String key)
+	{
+		SceneEntity entity = entityLookup.remove(key);
+		
+		if(entity != null) {
+			entities.remove(entity);
+			sprites.remove(entity);
+			animatedSprites.remove(entity);
+			layers.remove(entity);
+			isDrawOrderValid = false;
+		}
+		
+		return entity;
+	}
+	
+}
@@ -0,0 +1,72 @@
+package nl.corebooster.setup;
+
+import org.newdawn.slick.Graphics;
+
+/**
+ * Describes an entity that can be placed in a scene, like a sprite or an animated sprite
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public interface SceneEntity {
+	
+	/**
+	 * Returns the name of the entity
+	 * @return The name of the entity
+	 */
+	public String getSpriteName();
+	
+	/**
+	 * Returns the collision box
+	 * @return The collision box of the entity, null if it isn't collidable
+	 */
+	public CollisionBox getCollisionBox();
+	
+	/**
+	 * Returns the trigger box
+	 * @return The trigger box of the entity, null if it has no trigger
+	 */
+	public TriggerBox getTriggerBox();
+	
+	/**
+	 * Returns the x-position
+	 * @return The x-position of the entity
+	 */
+	public int getX();
+	
+	/**
+	 * Returns the y-position
+	 * @return The y-position of the entity
+	 */
+	public int getY();
+	
+	/**
+	 * Returns the width
+	 * @return The width of the entity
+	 */
+	public int getWidth();
+	
+	/**
+	 * Returns the height
+	 * @return The height of the entity
+	 */
+	public int getHeight();
+	
+	/**
+	 * Remembers the current position as the position of the previous simulation step
+	 */
+	public void savePosition();
+	
+	/**
+	 * Draws the entity on the screen
+	 * @param g The graphics to draw the entity on
+	 */
+	public void drawSprite(Graphics g);
+	
+	/**
+	 * Adds the entity to a sprite batch
+	 * @param batch The sprite batch to draw the entity with
+	 * @param layer The layer to draw the entity on
+	 */
+	public void drawSprite(SpriteBatch batch, RenderLayer layer);
+	
+}
@@ -0,0 +1,496 @@
+package nl.corebooster.setup;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+
+import nl.corebooster.setup.EntityDefinition.EntityType;
+import nl.corebooster.setup.Item.ItemType;
+import nl.corebooster.setup.TriggerBox.TriggerType;
+
+import org.newdawn.slick.SlickException;
+import org.newdawn.slick.util.Log;
+import org.newdawn.slick.util.xml.SlickXMLException;
+import org.newdawn.slick.util.xml.XMLElement;
+import org.newdawn.slick.util.xml.XMLElementList;
+import org.newdawn.slick.util.xml.XMLParser;
+
+/**
+ * Loads scene definitions from the scene files in data/scenes. Every scene file is compiled once into
+ * a binary cache file, later loads map the cache file into memory instead of parsing the XML again.
+ * The cache is compiled again when the scene file has changed.
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class SceneLoader {
+	
+	private static final String sceneFolder = "data/scenes/";
+	private static final String cacheFolder = "data/scenes/cache/";
+	private static final int cacheMagic = 0x5A55554C;
+	private static final int cacheVersion = 4;
+	private static final Charset charset = Charset.forName("UTF-8");
+	
+	private static HashMap<String, SceneDefinition> definitions = new HashMap<String, SceneDefinition>();
+	
+	/**
+	 * Compiles all scene files into the binary cache, used as a build step
+	 * @param args Not used
+	 * @throws SlickException Indicates a failure to read a scene file
+	 */
+	public static void main(String[] args) throws SlickException
+	{
+		File[] sceneFiles = new File(sceneFolder).listFiles();
+		
+		if(sceneFiles == null) {
+			throw new SlickException("Scene folder not found: " + sceneFolder);
+		}
+		
+		for(int i = 0; i < sceneFiles.length; i++) {
+			String filename = sceneFiles[i].getName();
+			
+			if(filename.endsWith(".xml")) {
+				compile(filename.substring(0, filename.length() - 4));
+			}
+		}
+	}
+	
+	/**
+	 * Returns the definition of a scene, loaded from the cache when it's up to date
+	 * @param sceneName The name of the scene
+	 * @return The definition of the scene
+	 * @throws SlickException Indicates the scene doesn't exist or can't be read
+	 */
+	public static synchronized SceneDefinition getDefinition(String sceneName) throws SlickException
+	{
+		SceneDefinition definition = definitions.get(sceneName);
+		
+		if(definition == null) {
+			File sceneFile = getSceneFile(sceneName);
+			File cacheFile = getCacheFile(sceneName);
+			
+			definition = readCache(sceneFile, cacheFile);
+			
+			if(definition == null) {
+				definition = compile(sceneName);
+			}
+			
+			definitions.put(sceneName, definition);
+		}
+		
+		return definition;
+	}
+	
+	/**
+	 * Parses a scene file and writes it to the binary cache
+	 * @param sceneName The name of the scene
+	 * @return The definition of the scene
+	 * @throws SlickException Indicates the scene doesn't exist or can't be read
+	 */
+	public static SceneDefinition compile(String sceneName) throws SlickException
+	{
+		File sceneFile = getSceneFile(sceneName);
+		File cacheFile = getCacheFile(sceneName);
+		SceneDefinition definition = parse(sceneFile);
+		
+		try {
+			writeCache(definition, sceneFile, cacheFile);
+		}
+		catch(IOException e) {
+			// The game still runs from the parsed file if the cache can't be written
+			Log.warn("Unable to write scene cache " + cacheFile.getPath() + ": " + e.getMessage());
+		}
+		
+		return definition;
+	}
+	
+	/**
+	 * Returns the scene file of a scene
+	 * @param sceneName The name of the scene
+	 * @return The scene file
+	 * @throws SlickException Indicates the scene doesn't exist
+	 */
+	private static File getSceneFile(String sceneName) throws SlickException
+	{
+		File sceneFile = new File(sceneFolder + sceneName + ".xml");
+		
+		if(!sceneFile.isFile()) {
+			throw new SlickException("Unknown scene: " + sceneName);
+		}
+		
+		return sceneFile;
+	}
+	
+	/**
+	 * Returns the cache file of a scene
+	 * @param sceneName The name of the scene
+	 * @return The cache file, which might not exist yet
+	 */
+	private static File getCacheFile(String sceneName)
+	{
+		return new File(cacheFolder + sceneName + ".bin");
+	}
+	
+	/**
+	 * Parses a scene file
+	 * @param sceneFile The scene file
+	 * @return The definition of the scene
+	 * @throws SlickException Indicates the scene file can't be read
+	 */
+	private static SceneDefinition parse(File sceneFile) throws SlickException
+	{
+		XMLElement root = new XMLParser().parse(sceneFile.getPath());
+		
+		SceneDefinition definition = new SceneDefinition(root.getAttribute("name"), root.getAttribute("background"), root.getAttribute("music"), (float) root.getDoubleAttribute("musicVolume"));
+		definition.setSize(root.getIntAttribute("width", definition.getWidth()), root.getIntAttribute("height", definition.getHeight()));
+		XMLElementList children = root.getChildren();
+		
+		for(int i = 0; i < children.size(); i++) {
+			XMLElement element = children.get(i);
+			String elementName = element.getName();
+			
+			if(elementName.equals("sprite")) {
+				definition.addEntity(parseSprite(element, EntityType.SPRITE));
+			}
+			else if(elementName.equals("animatedSprite")) {
+				EntityDefinition entity = parseSprite(element, EntityType.ANIMATED_SPRITE);
+				entity.setAnimation(element.getIntAttribute("width"), element.getIntAttribute("height"), element.getIntAttribute("interval"));
+				
+				definition.addEntity(entity);
+			}
+			else if(elementName.equals("item")) {
+				EntityDefinition entity = new EntityDefinition(EntityType.ITEM, element.getAttribute("key"));
+				entity.setImage("items", element.getAttribute("file"));
+				entity.setPosition(element.getIntAttribute("x"), element.getIntAttribute("y"));
+				entity.setItem(element.getAttribute("name"), ItemType.valueOf(element.getAttribute("type")), element.getAttribute("icon"));
+				
+				definition.addEntity(entity);
+			}
+			else if(elementName.equals("maze")) {
+				XMLElementList cells = element.getChildrenByName("cell");
+				int[][] coordinates = new int[cells.size()][];
+				
+				for(int j = 0; j < cells.size(); j++) {
+					coordinates[j] = new int[] {cells.get(j).getIntAttribute("x"), cells.get(j).getIntAttribute("y")};
+				}
+				
+				EntityDefinition entity = new EntityDefinition(EntityType.MAZE, "maze");
+				entity.setCoordinates(coordinates);
+				
+				definition.addEntity(entity);
+			}
+			else if(elementName.equals("agent")) {
+				EntityDefinition entity = new EntityDefinition(EntityType.AGENT, element.getAttribute("key"));
+				entity.setSpriteName(element.getAttribute("name", entity.getKey()));
+				entity.setImage(element.getAttribute("folder"), element.getAttribute("file"));
+				entity.setPosition(element.getIntAttribute("x"), element.getIntAttribute("y"));
+				entity.setAgent(element.getIntAttribute("speed", 2), element.getIntAttribute("range", 192));
+				
+				definition.addEntity(entity);
+			}
+			else if(elementName.equals("overlay")) {
+				EntityDefinition overlay = new EntityDefinition(EntityType.ANIMATED_SPRITE, "overlay");
+				overlay.setImage(element.getAttribute("folder"), element.getAttribute("file"));
+				overlay.setAnimation(element.getIntAttribute("width"), element.getIntAttribute("height"), element.getIntAttribute("interval"));
+				
+				definition.setOverlay(overlay, element.getBooleanAttribute("followsPlayer", false));
+			}
+			else if(elementName.equals("darkness")) {
+				XMLElementList lights = element.getChildrenByName("light");
+				
+				definition.setDarkness(element.getIntAttribute("lightRadius"));
+				
+				for(int j = 0; j < lights.size(); j++) {
+					definition.addLight(lights.get(j).getIntAttribute("x"), lights.get(j).getIntAttribute("y"), lights.get(j).getIntAttribute("radius"));
+				}
+			}
+			else {
+				throw new SlickException("Unknown element " + elementName + " in " + sceneFile.getPath());
+			}
+		}
+		
+		return definition;
+	}
+	
+	/**
+	 * Parses a sprite or animated sprite element with its optional trigger
+	 * @param element The element to parse
+	 * @param entityType The type of entity: SPRITE or ANIMATED_SPRITE
+	 * @return The definition of the entity
+	 * @throws SlickXMLException Indicates an attribute is missing or invalid
+	 */
+	private static EntityDefinition parseSprite(XMLElement element, EntityType entityType) throws SlickXMLException
+	{
+		String key = element.getAttribute("key");
+		EntityDefinition entity = new EntityDefinition(entityType, key);
+		
+		entity.setSpriteName(element.getAttribute("name", key));
+		entity.setImage(element.getAttribute("folder"), element.getAttribute("file"));
+		entity.setCollidable(element.getBooleanAttribute("collidable", false));
+		entity.setLayer(RenderLayer.valueOf(element.getAttribute("layer", RenderLayer.SCENERY.name())));
+		entity.setPosition(element.getIntAttribute("x"), element.getIntAttribute("y"));
+		
+		XMLElementList triggers = element.getChildrenByName("trigger");
+		
+		if(triggers.size() > 0) {
+			XMLElement trigger = triggers.get(0);
+			
+			entity.setTrigger(TriggerType.valueOf(trigger.getAttribute("type")), trigger.getIntAttribute("direction", -1), trigger.getIntAttribute("alternateX", -1), trigger.getIntAttribute("alternateY", -1), trigger.getAttribute("value"), trigger.getIntAttribute("margin", 0));
+		}
+		
+		return entity;
+	}
+	
+	/**
+	 * Writes a scene definition to its cache file, headed by the modification time and length of the scene file
+	 * @param definition The definition to write
+	 * @param sceneFile The scene file the definition was parsed from
+	 * @param cacheFile The cache file to write to
+	 * @throws IOException Indicates a failure to write the cache file
+	 */
+	private static void writeCache(SceneDefinition definition, File sceneFile, File cacheFile) throws IOException
+	{
+		File parent = cacheFile.getParentFile();
+		
+		if(!parent.isDirectory() && !parent.mkdirs()) {
+			throw new IOException("Unable to create " + parent.getPath());
+		}
+		
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(cacheFile)));
+		
+		try {
+			out.writeInt(cacheMagic);
+			out.writeInt(cacheVersion);
+			out.writeLong(sceneFile.lastModified());
+			out.writeLong(sceneFile.length());
+			
+			writeString(out, definition.getSceneName());
+			writeString(out, definition.getBackgroundFilename());
+			writeString(out, definition.getMusicFilename());
+			out.writeFloat(definition.getMusicVolume());
+			out.writeInt(definition.getWidth());
+			out.writeInt(definition.getHeight());
+			
+			out.writeBoolean(definition.getOverlay() != null);
+			
+			if(definition.getOverlay() != null) {
+				writeEntity(out, definition.getOverlay());
+				out.writeBoolean(definition.overlayFollowsPlayer());
+			}
+			
+			out.writeInt(definition.getLightRadius());
+			out.writeInt(definition.getLights().size());
+			
+			for(int i = 0; i < definition.getLights().size(); i++) {
+				int[] light = definition.getLights().get(i);
+				
+				out.writeInt(light[0]);
+				out.writeInt(light[1]);
+				out.writeInt(light[2]);
+			}
+			
+			out.writeInt(definition.getEntities().size());
+			
+			for(int i = 0; i < definition.getEntities().size(); i++) {
+				writeEntity(out, definition.getEntities().get(i));
+			}
+		}
+		finally {
+			out.close();
+		}
+	}
+	
+	/**
+	 * Writes a single entity definition
+	 * @param out The stream to write to
+	 * @param entity The entity to write
+	 * @throws IOException Indicates a failure to write the cache file
+	 */
+	private static void writeEntity(DataOutputStream out, EntityDefinition entity) throws IOException
+	{
+		out.writeByte(entity.getEntityType().ordinal());
+		writeString(out, entity.getKey());
+		writeString(out, entity.getSpriteName());
+		writeString(out, entity.getFolder());
+		writeString(out, entity.getFilename());
+		out.writeBoolean(entity.isCollidable());
+		out.writeByte(entity.getLayer().ordinal());
+		out.writeInt(entity.getX());
+		out.writeInt(entity.getY());
+		out.writeInt(entity.getWidth());
+		out.writeInt(entity.getHeight());
+		out.writeInt(entity.getInterval());
+		
+		out.writeBoolean(entity.hasTrigger());
+		
+		if(entity.hasTrigger()) {
+			out.writeByte(entity.getTriggerType().ordinal());
+			out.writeInt(entity.getTriggerDirection());
+			out.writeInt(entity.getAlternateX());
+			out.writeInt(entity.getAlternateY());
+			writeString(out, entity.getTriggerValue());
+			out.writeInt(entity.getTriggerMargin());
+		}
+		
+		out.writeBoolean(entity.getItemType() != null);
+		
+		if(entity.getItemType() != null) {
+			writeString(out, entity.getItemName());
+			out.writeByte(entity.getItemType().ordinal());
+			writeString(out, entity.getIconFilename());
+		}
+		
+		int[][] coordinates = entity.getCoordinates();
+		out.writeInt(coordinates.length);
+		
+		for(int i = 0; i < coordinates.length; i++) {
+			out.writeInt(coordinates[i][0]);
+			out.writeInt(coordinates[i][1]);
+		}
+		
+		out.writeInt(entity.getSpeed());
+		out.writeInt(entity.getRange());
+	}
+	
+	/**
+	 * Writes a string as its length followed by its UTF-8 bytes, null is written as length -1
+	 * @param out The stream to write to
+	 * @param value The string to write, can be null
+	 * @throws IOException Indicates a failure to write the cache file
+	 */
+	private static void writeString(DataOutputStream out, String value) throws IOException
+	{
+		if(value == null) {
+			out.writeInt(-1);
+		}
+		else {
+			byte[] bytes = value.getBytes(charset);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+	
+	/**
+	 * Reads a scene definition from its cache file
+	 * @param sceneFile The scene file the cache has to match
+	 * @param cacheFile The cache file to read
+	 * @return The definition of the scene, null if the cache is missing, outdated or unreadable
+	 */
+	private static SceneDefinition readCache(File sceneFile, File cacheFile)
+	{
+		if(!cacheFile.isFile()) {
+			return null;
+		}
+		
+		try {
+			RandomAccessFile file = new RandomAccessFile(cacheFile, "r");
+			ByteBuffer buffer;
+			
+			try {
+				// The mapping stays valid after the file is closed
+				buffer = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
+			}
+			finally {
+				file.close();
+			}
+			
+			if(buffer.getInt() != cacheMagic || buffer.getInt() != cacheVersion || buffer.getLong() != sceneFile.lastModified() || buffer.getLong() != sceneFile.length()) {
+				return null;
+			}
+			
+			SceneDefinition definition = new SceneDefinition(readString(buffer), readString(buffer), readString(buffer), buffer.getFloat());
+			definition.setSize(buffer.getInt(), buffer.getInt());
+			
+			if(buffer.get() != 0) {
+				EntityDefinition overlay = readEntity(buffer);
+				definition.setOverlay(overlay, buffer.get() != 0);
+			}
+			
+			definition.setDarkness(buffer.getInt());
+			
+			int lightCount = buffer.getInt();
+			
+			for(int i = 0; i < lightCount; i++) {
+				definition.addLight(buffer.getInt(), buffer.getInt(), buffer.getInt());
+			}
+			
+			int entityCount = buffer.getInt();
+			
+			for(int i = 0; i < entityCount; i++) {
+				definition.addEntity(readEntity(buffer));
+			}
+			
+			return definition;
+		}
+		catch(IOException e) {
+			return null;
+		}
+		catch(RuntimeException e) {
+			// A truncated or corrupt cache file is compiled again
+			return null;
+		}
+	}
+	
+	/**
+	 * Reads a single entity definition
+	 * @param buffer The buffer to read from
+	 * @return The entity definition
+	 */
+	private static EntityDefinition readEntity(ByteBuffer buffer)
+	{
+		EntityType entityType = EntityType.values()[buffer.get()];
+		EntityDefinition entity = new EntityDefinition(entityType, readString(buffer));
+		
+		entity.setSpriteName(readString(buffer));
+		entity.setImage(readString(buffer), readString(buffer));
+		entity.setCollidable(buffer.get() != 0);
+		entity.setLayer(RenderLayer.values()[buffer.get()]);
+		entity.setPosition(buffer.getInt(), buffer.getInt());
+		entity.setAnimation(buffer.getInt(), buffer.getInt(), buffer.getInt());
+		
+		if(buffer.get() != 0) {
+			entity.setTrigger(TriggerType.values()[buffer.get()], buffer.getInt(), buffer.getInt(), buffer.getInt(), readString(buffer), buffer.getInt());
+		}
+		
+		if(buffer.get() != 0) {
+			entity.setItem(readString(buffer), ItemType.values()[buffer.get()], readString(buffer));
+		}
+		
+		int[][] coordinates = new int[buffer.getInt()][];
+		
+		for(int i = 0; i < coordinates.length; i++) {
+			coordinates[i] = new int[] {buffer.getInt(), buffer.getInt()};
+		}
+		
+		entity.setCoordinates(coordinates);
+		entity.setAgent(buffer.getInt(), buffer.getInt());
+		
+		return entity;
+	}
+	
+	/**
+	 * Reads a string written by writeString
+	 * @param buffer The buffer to read from
+	 * @return The string, can be null
+	 */
+	private static String readString(ByteBuffer buffer)
+	{
+		int length = buffer.getInt();
+		
+		if(length < 0) {
+			return null;
+		}
+		
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		
+		return new String(bytes, charset);
+	}
+	
+}
@@ -0,0 +1,288 @@
+package nl.corebooster.setup;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+
+import nl.corebooster.scenes.GameScene;
+
+import org.newdawn.slick.SlickException;
+import org.newdawn.slick.opengl.Texture;
+
+/**
+ * Describes the registry of game scenes. Scenes are built the first time they are needed and
+ * the least recently used scenes are evicted when the resident textures exceed the budget.
+ * An evicted or unloaded scene is built again with the seed of its first build and the last position of its player,
+ * so it looks the same and the player returns to where it was.
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class SceneRegistry {
+	
+	private LinkedHashMap<String, int[]> spawnPoints;
+	private LinkedHashMap<String, GameScene> residentScenes;
+	private HashMap<String, Long> sceneSeeds;
+	private HashMap<String, int[]> playerPositions;
+	private long textureBudget;
+	
+	/**
+	 * Initializes an empty scene registry
+	 * @param textureBudget The maximum amount of bytes of texture memory the resident scenes may use
+	 */
+	public SceneRegistry(long textureBudget)
+	{
+		spawnPoints = new LinkedHashMap<String, int[]>();
+		residentScenes = new LinkedHashMap<String, GameScene>(16, 0.75f, true);
+		sceneSeeds = new HashMap<String, Long>();
+		playerPositions = new HashMap<String, int[]>();
+		this.textureBudget = textureBudget;
+	}
+	
+	/**
+	 * Registers a scene, it will be built when it's needed for the first time
+	 * @param sceneName The name of the scene
+	 * @param playerX The players initial x-position
+	 * @param playerY The players initial y-position
+	 */
+	public void register(String sceneName, int playerX, int playerY)
+	{
+		spawnPoints.put(sceneName, new int[] {playerX, playerY});
+	}
+	
+	/**
+	 * Returns true if a scene with the given name is registered
+	 * @param sceneName The name of the scene
+	 * @return Whether or not the scene is registered, true/false
+	 */
+	public boolean isRegistered(String sceneName)
+	{
+		return spawnPoints.containsKey(sceneName);
+	}
+	
+	/**
+	 * Returns true if the scene with the given name is built and in memory
+	 * @param sceneName The name of the scene
+	 * @return Whether or not the scene is resident, true/false
+	 */
+	public boolean isResident(String sceneName)
+	{
+		return residentScenes.containsKey(sceneName);
+	}
+	
+	/**
+	 * Returns the texture budget
+	 * @return The maximum amount of bytes of texture memory the resident scenes may use
+	 */
+	public long getTextureBudget()
+	{
+		return textureBudget;
+	}
+	
+	/**
+	 * Sets the texture budget, scenes are evicted the next time a scene is requested
+	 * @param textureBudget The maximum amount of bytes of texture memory the resident scenes may use
+	 */
+	public void setTextureBudget(long textureBudget)
+	{
+		this.textureBudget = textureBudget;
+	}
+	
+	/**
+	 * Returns all the scenes that are currently in memory, least recently used first
+	 * @return The resident scenes
+	 */
+	public Collection<GameScene> getResidentScenes()
+	{
+		return residentScenes.values();
+	}
+	
+	/**
+	 * Returns the game scene with the given name, builds it when it isn't resident
+	 * @param sceneName The name of the scene
+	 * @return The game scene, null if the scene isn't registered
+	 * @throws SlickException Indicates a failure to load the resources of the scene
+	 */
+	public GameScene getScene(String sceneName) throws SlickException
+	{
+		GameScene scene = residentScenes.get(sceneName);
+		
+		if(scene == null && isRegistered(sceneName)) {
+			int[] playerPosition = playerPositions.get(sceneName);
+			Long seed = sceneSeeds.get(sceneName);
+			
+			if(playerPosition == null) {
+				playerPosition = spawnPoints.get(sceneName);
+			}
+			
+			if(seed == null) {
+				seed = Long.valueOf(GameRandom.nextLong());
+				sceneSeeds.put(sceneName, seed);
+			}
+			
+			scene = new GameScene(sceneName, playerPosition[0], playerPosition[1], seed.longValue());
+			residentScenes.put(sceneName, scene);
+			
+			evict(scene);
+		}
+		
+		return scene;
+	}
+	
+	/**
+	 * Builds the scene with the given name ahead of time, so switching to it doesn't have to load it
+	 * @param sceneName The name of the scene
+	 * @throws SlickException Indicates a failure to load the resources of the scene
+	 */
+	public void prefetch(String sceneName) throws SlickException
+	{
+		if(!isResident(sceneName)) {
+			getScene(sceneName);
+		}
+	}
+	
+	/**
+	 * Removes a scene from memory and releases the textures no other resident scene uses, it's built again when it's needed,
+	 * looking the same and with the player where it was. Scenes that are shown or that have been changed by the player aren't unloaded.
+	 * @param sceneName The name of the scene
+	 * @return Whether or not the scene has been unloaded, true/false
+	 */
+	public boolean unload(String sceneName)
+	{
+		GameScene scene = residentScenes.get(sceneName);
+		
+		if(scene == null || !isEvictable(scene)) {
+			return false;
+		}
+		
+		residentScenes.remove(sceneName);
+		savePlayerPosition(scene);
+		
+		ArrayList<GameScene> unloadedScenes = new ArrayList<GameScene>();
+		unloadedScenes.add(scene);
+		
+		releaseTextures(unloadedScenes, collectResidentTextures());
+		
+		return true;
+	}
+	
+	/**
+	 * Returns the amount of texture memory used by the resident scenes, shared textures are counted once
+	 * @return The amount of bytes
+	 */
+	public long getResidentTextureMemory()
+	{
+		return getTextureMemory(collectResidentTextures());
+	}
+	
+	/**
+	 * Evicts the least recently used scenes until the resident textures fit in the budget.
+	 * Scenes that are shown or that have been changed by the player are never evicted.
+	 * @param requestedScene The scene that has just been requested, never evicted
+	 */
+	private void evict(GameScene requestedScene)
+	{
+		Set<Texture> residentTextures = collectResidentTextures();
+		
+		if(getTextureMemory(residentTextures) <= textureBudget) {
+			return;
+		}
+		
+		ArrayList<GameScene> evictedScenes = new ArrayList<GameScene>();
+		Iterator<GameScene> iterator = residentScenes.values().iterator();
+		
+		while(iterator.hasNext() && getTextureMemory(residentTextures) > textureBudget) {
+			GameScene scene = iterator.next();
+			
+			if(scene != requestedScene && isEvictable(scene)) {
+				iterator.remove();
+				savePlayerPosition(scene);
+				evictedScenes.add(scene);
+				
+				residentTextures = collectResidentTextures();
+			}
+		}
+		
+		releaseTextures(evictedScenes, residentTextures);
+	}
+	
+	/**
+	 * Remembers the position of the player of a scene that is removed from memory, the player is placed there
+	 * when the scene is built again
+	 * @param scene The scene
+	 */
+	private void savePlayerPosition(GameScene scene)
+	{
+		Player player = scene.getPlayer();
+		
+		playerPositions.put(scene.getSceneName(), new int[] {player.getX(), player.getY()});
+	}
+	
+	/**
+	 * Returns true if a scene may be removed from memory, it isn't shown and hasn't been changed by the player
+	 * @param scene The scene
+	 * @return Whether or not the scene may be removed, true/false
+	 */
+	private static boolean isEvictable(GameScene scene)
+	{
+		return !scene.isActive() && !scene.isRendered() && !scene.isModified();
+	}
+	
+	/**
+	 * Releases the textures of removed scenes that aren't used by any remaining scene
+	 * @param removedScenes The scenes that have been removed
+	 * @param residentTextures The textures of the remaining scenes
+	 */
+	private static void releaseTextures(ArrayList<GameScene> removedScenes, Set<Texture> residentTextures)
+	{
+		for(GameScene scene : removedScenes) {
+			Set<Texture> sceneTextures = newTextureSet();
+			scene.collectTextures(sceneTextures);
+			
+			for(Texture texture : sceneTextures) {
+				if(!residentTextures.contains(texture)) {
+					Assets.release(texture);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Collects the textures used by the resident scenes
+	 * @return The set of textures
+	 */
+	private Set<Texture> collectResidentTextures()
+	{
+		Set<Texture> textures = newTextureSet();
+		
+		for(GameScene scene : residentScenes.values()) {
+			scene.collectTextures(textures);
+		}
+		
+		return textures;
+	}
+	
+	/**
+	 * Creates a set that compares textures by identity
+	 * @return The empty set
+	 */
+	private static Set<Texture> newTextureSet()
+	{
+		return Collections.newSetFromMap(new IdentityHashMap<Texture, Boolean>());
+	}
+	
+	/**
+	 * Returns the amount of texture memory used by the given textures
+	 * @param textures The textures
+	 * @return The amount of bytes
+	 */
+	private static long getTextureMemory(Set<Texture> textures)
+	{
+		return TextureRegistry.getBytes(textures);
+	}
+	
+}
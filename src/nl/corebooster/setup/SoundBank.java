@@ -0,0 +1,272 @@
+package nl.corebooster.setup;
+
+import org.lwjgl.openal.AL10;
+import org.lwjgl.openal.OpenALException;
+import org.newdawn.slick.SlickException;
+import org.newdawn.slick.openal.SoundStore;
+import org.newdawn.slick.util.Log;
+
+/**
+ * Plays the sound effects of the game through a fixed pool of OpenAL sources, the voices.
+ * The sound effects are loaded once, playing a sound effect doesn't allocate anything.
+ * When all voices are playing, the oldest voice with the lowest priority is stopped for a sound effect with the same or a higher priority.
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class SoundBank {
+	
+	private static final int voiceCount = 8;
+	
+	// Sources the sound store keeps for the music and Slick's own sound effects
+	private static final int storeSourceCount = 4;
+	
+	private static final SoundCue[] cues = SoundCue.values();
+	private static int[] buffers;
+	private static int[] sources;
+	private static SoundCue[] voiceCues;
+	private static long[] voiceStarts;
+	private static int voices;
+	private static long playCount;
+	
+	/**
+	 * Limits the sources of the sound store, so the voices can be generated next to them.
+	 * Has to be called before the first sound or music is loaded.
+	 */
+	public static void reserveSources()
+	{
+		SoundStore.get().setMaxSources(storeSourceCount);
+	}
+	
+	/**
+	 * Starts decoding all sound effects in the background, they are loaded by the loading list
+	 */
+	public static void preload()
+	{
+		for(int i = 0; i < cues.length; i++) {
+			Assets.preloadSound(cues[i].getRef());
+		}
+	}
+	
+	/**
+	 * Loads all sound effects and generates the voices, does nothing when the sound bank is already initialized
+	 * @throws SlickException Indicates a failure to load a sound effect
+	 */
+	public static void init() throws SlickException
+	{
+		if(buffers != null) {
+			return;
+		}
+		
+		SoundStore.get().init();
+		
+		buffers = new int[cues.length];
+		sources = new int[voiceCount];
+		voiceCues = new SoundCue[voiceCount];
+		voiceStarts = new long[voiceCount];
+		voices = 0;
+		playCount = 0;
+		
+		for(int i = 0; i < cues.length; i++) {
+			buffers[i] = Assets.getAudio(cues[i].getRef()).getBufferID();
+		}
+		
+		if(!SoundStore.get().soundWorks()) {
+			return;
+		}
+		
+		// Generate as many voices as OpenAL allows, up to the voice count
+		while(voices < voiceCount) {
+			try {
+				int source = AL10.alGenSources();
+				
+				if(AL10.alGetError() != AL10.AL_NO_ERROR) {
+					break;
+				}
+				
+				sources[voices] = source;
+				voices++;
+			}
+			catch(OpenALException e) {
+				break;
+			}
+		}
+		
+		if(voices < voiceCount) {
+			Log.warn("Only " + voices + " of " + voiceCount + " sound effect voices are available");
+		}
+	}
+	
+	/**
+	 * Plays a sound effect once
+	 * @param cue The sound effect to play
+	 * @return The voice playing the sound effect, -1 if no voice was available
+	 */
+	public static int play(SoundCue cue)
+	{
+		return start(cue, false);
+	}
+	
+	/**
+	 * Plays a sound effect until it's stopped
+	 * @param cue The sound effect to play
+	 * @return The voice playing the sound effect, -1 if no voice was available
+	 */
+	public static int loop(SoundCue cue)
+	{
+		return start(cue, true);
+	}
+	
+	/**
+	 * Returns true if the sound effect is playing on any voice
+	 * @param cue The sound effect to check
+	 * @return Whether or not the sound effect is playing, true/false
+	 */
+	public static boolean isPlaying(SoundCue cue)
+	{
+		for(int i = 0; i < voices; i++) {
+			if(voiceCues[i] == cue && isActive(i)) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Stops every voice playing the sound effect
+	 * @param cue The sound effect to stop
+	 */
+	public static void stop(SoundCue cue)
+	{
+		for(int i = 0; i < voices; i++) {
+			if(voiceCues[i] == cue) {
+				AL10.alSourceStop(sources[i]);
+				voiceCues[i] = null;
+			}
+		}
+	}
+	
+	/**
+	 * Stops all voices
+	 */
+	public static void stopAll()
+	{
+		for(int i = 0; i < voices; i++) {
+			AL10.alSourceStop(sources[i]);
+			voiceCues[i] = null;
+		}
+	}
+	
+	/**
+	 * Starts a sound effect on a voice
+	 * @param cue The sound effect to play
+	 * @param loop Whether or not the sound effect is played until it's stopped
+	 * @return The voice playing the sound effect, -1 if no voice was available
+	 */
+	private static int start(SoundCue cue, boolean loop)
+	{
+		int voice = findVoice(cue);
+		
+		if(voice == -1) {
+			return -1;
+		}
+		
+		int source = sources[voice];
+		
+		AL10.alSourceStop(source);
+		AL10.alSourcei(source, AL10.AL_BUFFER, buffers[cue.ordinal()]);
+		AL10.alSourcef(source, AL10.AL_GAIN, cue.getVolume() * SoundStore.get().getSoundVolume());
+		AL10.alSourcei(source, AL10.AL_LOOPING, loop ? AL10.AL_TRUE : AL10.AL_FALSE);
+		AL10.alSourcePlay(source);
+		
+		voiceCues[voice] = cue;
+		voiceStarts[voice] = ++playCount;
+		
+		return voice;
+	}
+	
+	/**
+	 * Returns the voice to play a sound effect on. When the sound effect already plays on its maximum amount of voices,
+	 * its oldest voice is reused. Otherwise a free voice is used, or the oldest voice with the lowest priority is stolen.
+	 * @param cue The sound effect to play
+	 * @return The voice, -1 if every voice plays a sound effect with a higher priority
+	 */
+	private static int findVoice(SoundCue cue)
+	{
+		int free = -1;
+		int lowest = -1;
+		int oldestOfCue = -1;
+		int playingOfCue = 0;
+		
+		for(int i = 0; i < voices; i++) {
+			if(!isActive(i)) {
+				if(free == -1) {
+					free = i;
+				}
+				
+				continue;
+			}
+			
+			if(voiceCues[i] == cue) {
+				playingOfCue++;
+				
+				if(oldestOfCue == -1 || voiceStarts[i] < voiceStarts[oldestOfCue]) {
+					oldestOfCue = i;
+				}
+			}
+			
+			if(lowest == -1 || isLessImportant(i, lowest)) {
+				lowest = i;
+			}
+		}
+		
+		if(playingOfCue >= cue.getMaxVoices()) {
+			return oldestOfCue;
+		}
+		else if(free != -1) {
+			return free;
+		}
+		else if(lowest != -1 && voiceCues[lowest].getPriority() <= cue.getPriority()) {
+			return lowest;
+		}
+		else {
+			return -1;
+		}
+	}
+	
+	/**
+	 * Returns true if a voice is less important than another voice, by priority first and age second
+	 * @param voice The voice to compare
+	 * @param other The voice to compare with
+	 * @return Whether or not the voice is less important, true/false
+	 */
+	private static boolean isLessImportant(int voice, int other)
+	{
+		int priority = voiceCues[voice].getPriority();
+		int otherPriority = voiceCues[other].getPriority();
+		
+		if(priority != otherPriority) {
+			return priority < otherPriority;
+		}
+		else {
+			return voiceStarts[voice] < voiceStarts[other];
+		}
+	}
+	
+	/**
+	 * Returns true if a voice is playing or paused
+	 * @param voice The voice to check
+	 * @return Whether or not the voice is in use, true/false
+	 */
+	private static boolean isActive(int voice)
+	{
+		if(voiceCues[voice] == null) {
+			return false;
+		}
+		
+		int state = AL10.alGetSourcei(sources[voice], AL10.AL_SOURCE_STATE);
+		
+		return state == AL10.AL_PLAYING || state == AL10.AL_PAUSED;
+	}
+	
+}
@@ -0,0 +1,70 @@
+package nl.corebooster.setup;
+
+/**
+ * Describes the sound effects of the game. A cue with a higher priority can take the voice of a cue with a lower priority
+ * when all voices of the sound bank are playing.
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public enum SoundCue {
+	FOOTSTEP("FootstepIce.ogg", 0.1f, 0, 1),
+	SPACE_CAKE("SpaceCakeSoundEffect.ogg", 1f, 2, 2),
+	UNLOCK_DOOR("UnlockDoorSoundEffect.ogg", 1f, 2, 2);
+	
+	private String filename;
+	private float volume;
+	private int priority;
+	private int maxVoices;
+	
+	/**
+	 * Constructs a new sound cue
+	 * @param filename The filename of the sound effect
+	 * @param volume The volume to play the sound effect at
+	 * @param priority The priority of the sound effect, higher is more important
+	 * @param maxVoices The maximum amount of voices playing the sound effect at the same time
+	 */
+	private SoundCue(String filename, float volume, int priority, int maxVoices)
+	{
+		this.filename = filename;
+		this.volume = volume;
+		this.priority = priority;
+		this.maxVoices = maxVoices;
+	}
+	
+	/**
+	 * Returns the location of the sound effect
+	 * @return The location of the sound effect
+	 */
+	public String getRef()
+	{
+		return "data/soundeffects/" + filename;
+	}
+	
+	/**
+	 * Returns the volume to play the sound effect at
+	 * @return The volume, between 0 and 1
+	 */
+	public float getVolume()
+	{
+		return volume;
+	}
+	
+	/**
+	 * Returns the priority of the sound effect
+	 * @return The priority, higher is more important
+	 */
+	public int getPriority()
+	{
+		return priority;
+	}
+	
+	/**
+	 * Returns the maximum amount of voices playing the sound effect at the same time
+	 * @return The maximum amount of voices
+	 */
+	public int getMaxVoices()
+	{
+		return maxVoices;
+	}
+	
+}
@@ -0,0 +1,391 @@
+package nl.corebooster.setup;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import org.newdawn.slick.geom.Rectangle;
+
+/**
+ * Describes a uniform grid that buckets rectangles by the cells they touch,
+ * so overlap queries only have to look at the entries near the queried area
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ * @param <T> The type of the registered entries
+ */
+public class SpatialGrid<T> {
+	
+	private int cellSize;
+	private int columns, rows;
+	private ArrayList<ArrayList<Entry<T>>> cells;
+	private IdentityHashMap<T, Entry<T>> entries;
+	private int nextOrder;
+	private int queryStamp;
+	private ArrayList<Entry<T>> found;
+	
+	/**
+	 * Initializes a new spatial grid covering the given area
+	 * @param width The width of the area covered by the grid
+	 * @param height The height of the area covered by the grid
+	 * @param cellSize The width and height of a single cell
+	 */
+	public SpatialGrid(int width, int height, int cellSize)
+	{
+		this.cellSize = cellSize;
+		this.columns = (width / cellSize) + 1;
+		this.rows = (height / cellSize) + 1;
+		
+		cells = new ArrayList<ArrayList<Entry<T>>>(columns * rows);
+		
+		for(int i = 0; i < columns * rows; i++) {
+			cells.add(new ArrayList<Entry<T>>());
+		}
+		
+		entries = new IdentityHashMap<T, Entry<T>>();
+		nextOrder = 0;
+		queryStamp = 0;
+		found = new ArrayList<Entry<T>>();
+	}
+	
+	/**
+	 * Returns the size of a single cell
+	 * @return The width and height of a cell
+	 */
+	public int getCellSize()
+	{
+		return cellSize;
+	}
+	
+	/**
+	 * Returns the amount of entries in the grid
+	 * @return The amount of entries
+	 */
+	public int size()
+	{
+		return entries.size();
+	}
+	
+	/**
+	 * Returns true if the given value is registered in the grid
+	 * @param value The value to look for
+	 * @return Whether or not the value is registered, true/false
+	 */
+	public boolean contains(T value)
+	{
+		return entries.containsKey(value);
+	}
+	
+	/**
+	 * Registers a value with the shape it occupies. Registering a value again moves it to the back of the query order.
+	 * @param value The value to register
+	 * @param shape The shape of the value, read again when the value is updated
+	 */
+	public void add(T value, Rectangle shape)
+	{
+		remove(value);
+		
+		Entry<T> entry = new Entry<T>(value, shape, nextOrder++);
+		entries.put(value, entry);
+		
+		insertIntoCells(entry);
+	}
+	
+	/**
+	 * Removes a value from the grid
+	 * @param value The value to remove
+	 */
+	public void remove(T value)
+	{
+		Entry<T> entry = entries.remove(value);
+		
+		if(entry != null) {
+			removeFromCells(entry);
+		}
+	}
+	
+	/**
+	 * Moves a value to the cells matching the current position of its shape
+	 * @param value The value that has moved
+	 */
+	public void update(T value)
+	{
+		Entry<T> entry = entries.get(value);
+		
+		if(entry != null) {
+			removeFromCells(entry);
+			insertIntoCells(entry);
+		}
+	}
+	
+	/**
+	 * Removes all the values from the grid
+	 */
+	public void clear()
+	{
+		for(ArrayList<Entry<T>> cell : cells) {
+			cell.clear();
+		}
+		
+		entries.clear();
+	}
+	
+	/**
+	 * Returns true if any registered shape overlaps the given area
+	 * @param area The area to check
+	 * @return Whether or not anything overlaps, true/false
+	 */
+	public boolean isOverlapping(Rectangle area)
+	{
+		int minColumn = getColumn(area.getX());
+		int maxColumn = getColumn(area.getX() + area.getWidth());
+		int minRow = getRow(area.getY());
+		int maxRow = getRow(area.getY() + area.getHeight());
+		
+		for(int row = minRow; row <= maxRow; row++) {
+			for(int column = minColumn; column <= maxColumn; column++) {
+				ArrayList<Entry<T>> cell = cells.get(row * columns + column);
+				
+				for(int i = 0; i < cell.size(); i++) {
+					if(cell.get(i).shape.intersects(area)) {
+						return true;
+					}
+				}
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Returns the earliest registered value whose shape overlaps the given area, null if nothing overlaps
+	 * @param area The area to check
+	 * @return The overlapping value
+	 */
+	public T getFirstOverlapping(Rectangle area)
+	{
+		int minColumn = getColumn(area.getX());
+		int maxColumn = getColumn(area.getX() + area.getWidth());
+		int minRow = getRow(area.getY());
+		int maxRow = getRow(area.getY() + area.getHeight());
+		Entry<T> first = null;
+		
+		for(int row = minRow; row <= maxRow; row++) {
+			for(int column = minColumn; column <= maxColumn; column++) {
+				ArrayList<Entry<T>> cell = cells.get(row * columns + column);
+				
+				for(int i = 0; i < cell.size(); i++) {
+					Entry<T> entry = cell.get(i);
+					
+					if((first == null || entry.order < first.order) && entry.shape.intersects(area)) {
+						first = entry;
+					}
+				}
+			}
+		}
+		
+		if(first != null) {
+			return first.value;
+		}
+		else {
+			return null;
+		}
+	}
+	
+	/**
+	 * Adds every value whose shape overlaps the given area to the result, each value once
+	 * @param area The area to check
+	 * @param result The list to add the overlapping values to
+	 */
+	public void getOverlapping(Rectangle area, List<T> result)
+	{
+		int minColumn = getColumn(area.getX());
+		int maxColumn = getColumn(area.getX() + area.getWidth());
+		int minRow = getRow(area.getY());
+		int maxRow = getRow(area.getY() + area.getHeight());
+		
+		queryStamp++;
+		
+		for(int row = minRow; row <= maxRow; row++) {
+			for(int column = minColumn; column <= maxColumn; column++) {
+				ArrayList<Entry<T>> cell = cells.get(row * columns + column);
+				
+				for(int i = 0; i < cell.size(); i++) {
+					Entry<T> entry = cell.get(i);
+					
+					if(entry.stamp != queryStamp) {
+						entry.stamp = queryStamp;
+						
+						if(entry.shape.intersects(area)) {
+							result.add(entry.value);
+						}
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Adds every value whose shape overlaps the given area to the result, each value once, in the order they have been registered in
+	 * @param area The area to check
+	 * @param result The list to add the overlapping values to
+	 */
+	public void getOverlappingInOrder(Rectangle area, List<T> result)
+	{
+		int minColumn = getColumn(area.getX());
+		int maxColumn = getColumn(area.getX() + area.getWidth());
+		int minRow = getRow(area.getY());
+		int maxRow = getRow(area.getY() + area.getHeight());
+		
+		queryStamp++;
+		found.clear();
+		
+		for(int row = minRow; row <= maxRow; row++) {
+			for(int column = minColumn; column <= maxColumn; column++) {
+				ArrayList<Entry<T>> cell = cells.get(row * columns + column);
+				
+				for(int i = 0; i < cell.size(); i++) {
+					Entry<T> entry = cell.get(i);
+					
+					if(entry.stamp != queryStamp) {
+						entry.stamp = queryStamp;
+						
+						if(entry.shape.intersects(area)) {
+							insertByOrder(entry);
+						}
+					}
+				}
+			}
+		}
+		
+		for(int i = 0; i < found.size(); i++) {
+			result.add(found.get(i).value);
+		}
+	}
+	
+	/**
+	 * Adds the shape of every registered value to the result
+	 * @param result The list to add the shapes to
+	 */
+	public void getShapes(List<Rectangle> result)
+	{
+		for(Entry<T> entry : entries.values()) {
+			result.add(entry.shape);
+		}
+	}
+	
+	/**
+	 * Adds the entry to every cell its shape touches
+	 * @param entry The entry to insert
+	 */
+	private void insertIntoCells(Entry<T> entry)
+	{
+		Rectangle shape = entry.shape;
+		
+		entry.minColumn = getColumn(shape.getX());
+		entry.maxColumn = getColumn(shape.getX() + shape.getWidth());
+		entry.minRow = getRow(shape.getY());
+		entry.maxRow = getRow(shape.getY() + shape.getHeight());
+		
+		for(int row = entry.minRow; row <= entry.maxRow; row++) {
+			for(int column = entry.minColumn; column <= entry.maxColumn; column++) {
+				cells.get(row * columns + column).add(entry);
+			}
+		}
+	}
+	
+	/**
+	 * Inserts a found entry by registration order, the entries of a cell are already in registration order
+	 * @param entry The entry to insert
+	 */
+	private void insertByOrder(Entry<T> entry)
+	{
+		int index = found.size();
+		
+		while(index > 0 && found.get(index - 1).order > entry.order) {
+			index--;
+		}
+		
+		found.add(index, entry);
+	}
+	
+	/**
+	 * Removes the entry from every cell it was inserted in
+	 * @param entry The entry to remove
+	 */
+	private void removeFromCells(Entry<T> entry)
+	{
+		for(int row = entry.minRow; row <= entry.maxRow; row++) {
+			for(int column = entry.minColumn; column <= entry.maxColumn; column++) {
+				cells.get(row * columns + column).remove(entry);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the column of the given x-position, clamped to the grid
+	 * @param x The x-position
+	 * @return The column index
+	 */
+	private int getColumn(float x)
+	{
+		return clamp((int) Math.floor(x / cellSize), columns - 1);
+	}
+	
+	/**
+	 * Returns the row of the given y-position, clamped to the grid
+	 * @param y The y-position
+	 * @return The row index
+	 */
+	private int getRow(float y)
+	{
+		return clamp((int) Math.floor(y / cellSize), rows - 1);
+	}
+	
+	/**
+	 * Clamps the given index between 0 and max
+	 * @param index The index to clamp
+	 * @param max The highest allowed index
+	 * @return The clamped index
+	 */
+	private static int clamp(int index, int max)
+	{
+		if(index < 0) {
+			return 0;
+		}
+		else if(index > max) {
+			return max;
+		}
+		else {
+			return index;
+		}
+	}
+	
+	/**
+	 * Describes a value registered in the grid
+	 * @param <T> The type of the value
+	 */
+	private static class Entry<T> {
+		
+		private T value;
+		private Rectangle shape;
+		private int order;
+		private int stamp;
+		private int minColumn, maxColumn, minRow, maxRow;
+		
+		/**
+		 * Constructs a new entry
+		 * @param value The registered value
+		 * @param shape The shape of the value
+		 * @param order The registration order of the value
+		 */
+		private Entry(T value, Rectangle shape, int order)
+		{
+			this.value = value;
+			this.shape = shape;
+			this.order = order;
+			this.stamp = 0;
+		}
+		
+	}
+	
+}
@@ -11,7 +11,7 @@ import org.newdawn.slick.SlickException;
  * @author Raymon de Looff, Thijs Clowting, Richard Weug
  * @version 1.0
  */
-public class Sprite {
+public class Sprite implements SceneEntity {
 	
 	private String spriteName;
 	private CollisionBox collisionbox;
@@ -19,6 +19,7 @@ public class Sprite {
 	private Image image;
 	private boolean maxXReached, maxYReached;
 	private int x, y, newX, newY;
+	private int previousX, previousY;
 	
 	/**
 	 * Constructs a new sprite from an image
@@ -51,6 +52,8 @@ public class Sprite {
 		this.y = y;
 		this.newX = x;
 		this.newY = y;
+		this.previousX = x;
+		this.previousY = y;
 	}
 	
 	/**
@@ -90,6 +93,8 @@ public class Sprite {
 		this.y = y;
 		this.newX = x;
 		this.newY = y;
+		this.previousX = x;
+		this.previousY = y;
 	}
 	
 	/**
@@ -164,6 +169,24 @@ public class Sprite {
 		return y;
 	}
 	
+	/**
+	 * Returns the width
+	 * @return The width of the image of the sprite
+	 */
+	public int getWidth()
+	{
+		return image.getWidth();
+	}
+	
+	/**
+	 * Returns the height
+	 * @return The height of the image of the sprite
+	 */
+	public int getHeight()
+	{
+		return image.getHeight();
+	}
+	
 	/**
 	 * Returns the new x-position
 	 * @return The new x-position of the sprite
@@ -198,6 +221,7 @@ public class Sprite {
 	public void setX(int x)
 	{
 		this.x = x;
+		updateBoxes();
 	}
 	
 	/**
@@ -207,6 +231,7 @@ public class Sprite {
 	public void setY(int y)
 	{
 		this.y = y;
+		updateBoxes();
 	}
 	
 	/**
@@ -236,7 +261,7 @@ public class Sprite {
 	 */
 	private Image getImage(String folder, String filename) throws SlickException
 	{
-		Image image = new Image("data/" + folder + "/" + filename);
+		Image image = Assets.getImage("data/" + folder + "/" + filename);
 		
 		return image;
 	}
@@ -251,6 +276,7 @@ public class Sprite {
 		
 		if(maxYReached && y > minY) {
 			y -= 1;
+			updateBoxes();
 		}
 		else {
 			maxYReached = false;
@@ -267,6 +293,7 @@ public class Sprite {
 		
 		if(!maxYReached && y < maxY) {
 			y += 1;
+			updateBoxes();
 		}
 		else {
 			maxYReached = true;
@@ -283,6 +310,7 @@ public class Sprite {
 		
 		if(maxXReached && x > minX) {
 			x -= 1;
+			updateBoxes();
 		}
 		else {
 			maxXReached = false;
@@ -299,6 +327,7 @@ public class Sprite {
 		
 		if(!maxXReached && x < maxX) {
 			x += 1;
+			updateBoxes();
 		}
 		else {
 			maxXReached = true;
@@ -332,6 +361,7 @@ public class Sprite {
 	{
 		x = newX;
 		maxXReached = false;
+		updateBoxes();
 	}
 	
 	/**
@@ -341,6 +371,7 @@ public class Sprite {
 	{
 		y = newY;
 		maxYReached = false;
+		updateBoxes();
 	}
 	
 	/**
@@ -353,16 +384,35 @@ public class Sprite {
 	}
 	
 	/**
-	 * Draws the collision box and trigger box (if they exist)
-	 * @param g The graphics to draw the collision/trigger box on
+	 * Adds the sprite to a sprite batch
+	 * @param batch The sprite batch to draw the sprite with
+	 * @param layer The layer to draw the sprite on
 	 */
-	public void drawBoxes(Graphics g) {
+	public void drawSprite(SpriteBatch batch, RenderLayer layer)
+	{
+		batch.draw(layer, image, batch.interpolate(previousX, x), batch.interpolate(previousY, y), image.getAlpha());
+	}
+	
+	/**
+	 * Remembers the current position as the position of the previous simulation step
+	 */
+	public void savePosition()
+	{
+		previousX = x;
+		previousY = y;
+	}
+	
+	/**
+	 * Moves the collision box and trigger box (if they exist) to the current position
+	 */
+	private void updateBoxes()
+	{
 		if(collisionbox != null) {
-			collisionbox.drawBox(g, x, y);
+			collisionbox.setPosition(x, y);
 		}
 		
 		if(triggerbox != null) {
-			triggerbox.drawBox(g, x, y);
+			triggerbox.setPosition(x, y);
 		}
 	}
 	
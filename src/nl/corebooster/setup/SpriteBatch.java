@@ -0,0 +1,207 @@
+package nl.corebooster.setup;
+
+import org.newdawn.slick.Graphics;
+import org.newdawn.slick.Image;
+import org.newdawn.slick.opengl.Texture;
+import org.newdawn.slick.opengl.renderer.Renderer;
+import org.newdawn.slick.opengl.renderer.SGL;
+
+/**
+ * Describes a batch of sprites that is drawn at once. The sprites are ordered by layer, sprites on the same
+ * layer keep the order they were added in. Following sprites that share a texture are drawn between a single
+ * startUse and endUse, so they share one texture bind and one glBegin/glEnd.
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class SpriteBatch {
+	
+	private static final RenderLayer[] layers = RenderLayer.values();
+	
+	private Image[] images;
+	private float[] positions;
+	private float[] alphas;
+	private int[] entryLayers;
+	private int[] order;
+	private int[] layerStarts;
+	private int size;
+	private int runCount;
+	private float interpolation;
+	
+	/**
+	 * Creates an empty sprite batch
+	 * @param capacity The amount of sprites the batch can hold before it has to grow
+	 */
+	public SpriteBatch(int capacity)
+	{
+		images = new Image[capacity];
+		positions = new float[capacity * 2];
+		alphas = new float[capacity];
+		entryLayers = new int[capacity];
+		order = new int[capacity];
+		layerStarts = new int[layers.length + 1];
+		size = 0;
+		runCount = 0;
+		interpolation = 1;
+	}
+	
+	/**
+	 * Returns the amount of sprites added since the last flush
+	 * @return The amount of sprites
+	 */
+	public int getSize()
+	{
+		return size;
+	}
+	
+	/**
+	 * Returns the amount of texture runs drawn by the last flush, each run costs one bind and one glBegin/glEnd
+	 * @return The amount of runs
+	 */
+	public int getRunCount()
+	{
+		return runCount;
+	}
+	
+	/**
+	 * Sets how far the rendered frame is between the previous and the current simulation step
+	 * @param interpolation The interpolation factor, 0 draws the previous positions and 1 the current positions
+	 */
+	public void setInterpolation(float interpolation)
+	{
+		this.interpolation = interpolation;
+	}
+	
+	/**
+	 * Returns the position to draw at for the current interpolation factor
+	 * @param previous The position at the previous simulation step
+	 * @param current The position at the current simulation step
+	 * @return The interpolated position
+	 */
+	public float interpolate(int previous, int current)
+	{
+		return previous + (current - previous) * interpolation;
+	}
+	
+	/**
+	 * Adds an image to the batch, it's drawn at its own size. Fully transparent images are skipped.
+	 * @param layer The layer to draw the image on
+	 * @param image The image to draw
+	 * @param x The x-position to draw the image at
+	 * @param y The y-position to draw the image at
+	 * @param alpha The alpha to draw the image with, between 0 and 1
+	 */
+	public void draw(RenderLayer layer, Image image, float x, float y, float alpha)
+	{
+		if(alpha <= 0) {
+			return;
+		}
+		
+		if(size == images.length) {
+			grow();
+		}
+		
+		images[size] = image;
+		positions[size * 2] = x;
+		positions[size * 2 + 1] = y;
+		alphas[size] = alpha;
+		entryLayers[size] = layer.ordinal();
+		size++;
+	}
+	
+	/**
+	 * Draws all the sprites in the batch and empties it
+	 * @param g The graphics the batch is drawn on, its color is restored afterwards
+	 */
+	public void flush(Graphics g)
+	{
+		sortByLayer();
+		
+		SGL gl = Renderer.get();
+		Image runImage = null;
+		Texture runTexture = null;
+		float runAlpha = 1;
+		
+		runCount = 0;
+		
+		for(int i = 0; i < size; i++) {
+			int index = order[i];
+			Image image = images[index];
+			
+			if(image.getTexture() != runTexture) {
+				if(runImage != null) {
+					runImage.endUse();
+				}
+				
+				// Binds the texture and the color white
+				runImage = image;
+				runTexture = image.getTexture();
+				runImage.startUse();
+				runAlpha = 1;
+				runCount++;
+			}
+			
+			if(alphas[index] != runAlpha) {
+				runAlpha = alphas[index];
+				gl.glColor4f(1, 1, 1, runAlpha);
+			}
+			
+			image.drawEmbedded(positions[index * 2], positions[index * 2 + 1], image.getWidth(), image.getHeight());
+			images[index] = null;
+		}
+		
+		if(runImage != null) {
+			runImage.endUse();
+		}
+		
+		size = 0;
+		
+		g.setColor(g.getColor());
+	}
+	
+	/**
+	 * Orders the entries by layer with a counting sort, which keeps the order of entries on the same layer
+	 */
+	private void sortByLayer()
+	{
+		for(int i = 0; i < layerStarts.length; i++) {
+			layerStarts[i] = 0;
+		}
+		
+		for(int i = 0; i < size; i++) {
+			layerStarts[entryLayers[i] + 1]++;
+		}
+		
+		for(int i = 1; i < layerStarts.length; i++) {
+			layerStarts[i] += layerStarts[i - 1];
+		}
+		
+		for(int i = 0; i < size; i++) {
+			order[layerStarts[entryLayers[i]]++] = i;
+		}
+	}
+	
+	/**
+	 * Doubles the capacity of the batch
+	 */
+	private void grow()
+	{
+		int capacity = Math.max(16, images.length * 2);
+		
+		Image[] newImages = new Image[capacity];
+		float[] newPositions = new float[capacity * 2];
+		float[] newAlphas = new float[capacity];
+		int[] newEntryLayers = new int[capacity];
+		
+		System.arraycopy(images, 0, newImages, 0, size);
+		System.arraycopy(positions, 0, newPositions, 0, size * 2);
+		System.arraycopy(alphas, 0, newAlphas, 0, size);
+		System.arraycopy(entryLayers, 0, newEntryLayers, 0, size);
+		
+		images = newImages;
+		positions = newPositions;
+		alphas = newAlphas;
+		entryLayers = newEntryLayers;
+		order = new int[capacity];
+	}
+	
+}
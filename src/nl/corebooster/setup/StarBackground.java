@@ -1,7 +1,6 @@
 package nl.corebooster.setup;
 
 import java.util.HashSet;
-import java.util.Random;
 
 import org.newdawn.slick.Graphics;
 import org.newdawn.slick.SlickException;
@@ -40,11 +39,9 @@ public class StarBackground {
 	 */
 	private void addSprite(String spriteName, String filename, int amount) throws SlickException
 	{
-		Random rand = new Random();
-		
 		for(int i = 0; i < amount; i++) {
-			int x = rand.nextInt(screenWidth);
-			int y = rand.nextInt(screenHeight);
+			int x = GameRandom.nextInt(screenWidth);
+			int y = GameRandom.nextInt(screenHeight);
 			
 			Sprite sprite = new Sprite(spriteName, "sprites", filename, false, x, y);
 			stars.add(sprite);
@@ -56,11 +53,9 @@ public class StarBackground {
 	 */
 	public void animateStars()
 	{
-		Random rand = new Random();
-		
 		// For every star
 		for(Sprite s : stars) {
-			int x = rand.nextInt(screenWidth);
+			int x = GameRandom.nextInt(screenWidth);
 			int y = s.getY();
 			
 			if(y >= screenHeight) {
@@ -0,0 +1,245 @@
+package nl.corebooster.setup;
+
+import java.util.ArrayList;
+
+import org.newdawn.slick.Color;
+import org.newdawn.slick.Graphics;
+import org.newdawn.slick.Image;
+import org.newdawn.slick.SlickException;
+import org.newdawn.slick.util.Log;
+
+/**
+ * Caches the parts of a scene that don't move in an offscreen image: the background and the sprites that aren't animated.
+ * The image is composited once and drawn as a single sprite every frame, it's only composited again when an entity changes.
+ * An entity only goes into the image when no entity drawn before it that stays outside overlaps it, so the drawing order is kept.
+ * Without offscreen buffers every entity is drawn as before.
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class StaticLayer {
+	
+	private static boolean isSupported = true;
+	
+	private int width;
+	private int height;
+	private Image image;
+	
+	// The entities and their state when the image was composited, to find out if it's still valid
+	private Sprite background;
+	private SceneEntity[] entities;
+	private RenderLayer[] layers;
+	private boolean[] isCached;
+	private int[] entityX;
+	private int[] entityY;
+	private Image[] entityImages;
+	private float[] entityAlphas;
+	private float backgroundAlpha;
+	private int compositeCount;
+	
+	/**
+	 * Initializes a new static layer, the image is composited when it's drawn for the first time
+	 * @param width The width of the scene
+	 * @param height The height of the scene
+	 */
+	public StaticLayer(int width, int height)
+	{
+		this.width = width;
+		this.height = height;
+		entities = new SceneEntity[0];
+		compositeCount = 0;
+	}
+	
+	/**
+	 * Returns how many times the image has been composited, a layer that's composited every frame doesn't save anything
+	 * @return The amount of times the image has been composited
+	 */
+	public int getCompositeCount()
+	{
+		return compositeCount;
+	}
+	
+	/**
+	 * Adds the background and the entities of a scene to a sprite batch. The cached entities are drawn as a part of the image,
+	 * on the background layer, the other entities are added on their own layer.
+	 * @param g The graphics the scene is drawn on
+	 * @param batch The sprite batch to draw with
+	 * @param background The background of the scene
+	 * @param scene The entities of the scene
+	 */
+	public void render(Graphics g, SpriteBatch batch, Sprite background, SceneEntities scene)
+	{
+		ArrayList<SceneEntity> sceneEntities = scene.getDrawOrder();
+		
+		if(isSupported && !isValid(background, sceneEntities)) {
+			composite(background, scene);
+			
+			// The batch draws straight to OpenGL, so the screen has to be the target again
+			Graphics.setCurrent(g);
+		}
+		
+		if(image == null) {
+			background.drawSprite(batch, RenderLayer.BACKGROUND);
+			
+			for(int i = 0; i < sceneEntities.size(); i++) {
+				sceneEntities.get(i).drawSprite(batch, scene.getLayer(sceneEntities.get(i)));
+			}
+			
+			return;
+		}
+		
+		batch.draw(RenderLayer.BACKGROUND, image, 0, 0, 1);
+		
+		for(int i = 0; i < entities.length; i++) {
+			if(!isCached[i]) {
+				entities[i].drawSprite(batch, layers[i]);
+			}
+		}
+	}
+	
+	/**
+	 * Releases the image, it's composited again when the layer is drawn the next time
+	 */
+	public void release()
+	{
+		if(image != null) {
+			TextureRegistry.unregister(image.getTexture());
+			
+			try {
+				image.destroy();
+			}
+			catch(SlickException e) {
+				Log.warn("Unable to release the static layer: " + e.getMessage());
+			}
+			
+			image = null;
+		}
+	}
+	
+	/**
+	 * Returns true if the image still shows the background and the entities as they are now
+	 * @param background The background of the scene
+	 * @param sceneEntities The entities of the scene in draw order
+	 * @return Whether or not the image is valid, true/false
+	 */
+	private boolean isValid(Sprite background, ArrayList<SceneEntity> sceneEntities)
+	{
+		if(image == null || background != this.background || background.getImage().getAlpha() != backgroundAlpha || sceneEntities.size() != entities.length) {
+			return false;
+		}
+		
+		for(int i = 0; i < entities.length; i++) {
+			SceneEntity entity = sceneEntities.get(i);
+			
+			if(entity != entities[i] || entity.getX() != entityX[i] || entity.getY() != entityY[i]) {
+				return false;
+			}
+			
+			if(isCached[i]) {
+				Image entityImage = ((Sprite) entity).getImage();
+				
+				if(entityImage != entityImages[i] || entityImage.getAlpha() != entityAlphas[i]) {
+					return false;
+				}
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Composites the background and the entities that can be cached into the image
+	 * @param background The background of the scene
+	 * @param scene The entities of the scene
+	 */
+	private void composite(Sprite background, SceneEntities scene)
+	{
+		ArrayList<SceneEntity> sceneEntities = scene.getDrawOrder();
+		int count = sceneEntities.size();
+		
+		this.background = background;
+		backgroundAlpha = background.getImage().getAlpha();
+		entities = sceneEntities.toArray(new SceneEntity[count]);
+		layers = new RenderLayer[count];
+		isCached = new boolean[count];
+		entityX = new int[count];
+		entityY = new int[count];
+		entityImages = new Image[count];
+		entityAlphas = new float[count];
+		
+		for(int i = 0; i < count; i++) {
+			SceneEntity entity = entities[i];
+			
+			layers[i] = scene.getLayer(entity);
+			entityX[i] = entity.getX();
+			entityY[i] = entity.getY();
+			isCached[i] = entity instanceof Sprite && !overlapsUncached(i);
+			
+			if(isCached[i]) {
+				entityImages[i] = ((Sprite) entity).getImage();
+				entityAlphas[i] = entityImages[i].getAlpha();
+			}
+		}
+		
+		try {
+			if(image == null) {
+				image = new Image(width, height);
+				TextureRegistry.register("static layer", image.getTexture());
+			}
+			
+			Graphics g = image.getGraphics();
+			
+			g.clear();
+			g.drawImage(background.getImage(), background.getX(), background.getY());
+			
+			for(int i = 0; i < count; i++) {
+				if(isCached[i]) {
+					g.drawImage(entityImages[i], entityX[i], entityY[i]);
+				}
+			}
+			
+			// Blending halves the alpha under translucent edges, the layer covers the screen so it's made opaque again
+			g.setDrawMode(Graphics.MODE_ALPHA_MAP);
+			g.setColor(Color.white);
+			g.fillRect(0, 0, width, height);
+			g.setDrawMode(Graphics.MODE_NORMAL);
+			
+			g.flush();
+			compositeCount++;
+		}
+		catch(SlickException e) {
+			Log.warn("Offscreen buffers aren't available, the static layer isn't cached: " + e.getMessage());
+			
+			isSupported = false;
+			release();
+		}
+	}
+	
+	/**
+	 * Returns true if an entity overlaps an entity before it that isn't cached, it has to be drawn over that entity
+	 * @param index The index of the entity
+	 * @return Whether or not the entity overlaps an uncached entity drawn before it, true/false
+	 */
+	private boolean overlapsUncached(int index)
+	{
+		for(int i = 0; i < index; i++) {
+			if(!isCached[i] && overlaps(entities[i], entities[index])) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Returns true if the bounds of two entities overlap
+	 * @param first The first entity
+	 * @param second The second entity
+	 * @return Whether or not the entities overlap, true/false
+	 */
+	private static boolean overlaps(SceneEntity first, SceneEntity second)
+	{
+		return first.getX() < second.getX() + second.getWidth() && second.getX() < first.getX() + first.getWidth()
+				&& first.getY() < second.getY() + second.getHeight() && second.getY() < first.getY() + first.getHeight();
+	}
+	
+}
@@ -0,0 +1,127 @@
+package nl.corebooster.setup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.lwjgl.BufferUtils;
+import org.newdawn.slick.Image;
+import org.newdawn.slick.opengl.ImageData;
+import org.newdawn.slick.opengl.InternalTextureLoader;
+import org.newdawn.slick.opengl.Texture;
+import org.newdawn.slick.opengl.renderer.Renderer;
+import org.newdawn.slick.opengl.renderer.SGL;
+
+/**
+ * Describes a single texture that small images are packed into, so drawing them doesn't need a texture bind per image.
+ * Images are placed next to each other on horizontal shelves, a new shelf is started when the current one is full.
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class TextureAtlas {
+	
+	private static final int padding = 1;
+	
+	private int size;
+	private Texture texture;
+	private Image image;
+	private int shelfX, shelfY, shelfHeight;
+	
+	/**
+	 * Creates a new empty atlas
+	 * @param size The width and height of the atlas texture
+	 * @throws IOException Indicates a failure to create the texture
+	 */
+	public TextureAtlas(int size) throws IOException
+	{
+		this.size = size;
+		
+		texture = InternalTextureLoader.get().createTexture(size, size, SGL.GL_LINEAR);
+		image = new Image(texture);
+		
+		shelfX = 0;
+		shelfY = 0;
+		shelfHeight = 0;
+	}
+	
+	/**
+	 * Returns the texture of the atlas
+	 * @return The texture
+	 */
+	public Texture getTexture()
+	{
+		return texture;
+	}
+	
+	/**
+	 * Packs an image into the atlas
+	 * @param imageData The decoded image
+	 * @return The region of the atlas holding the image, null if the atlas is full
+	 */
+	public Image add(ImageData imageData)
+	{
+		int width = imageData.getWidth();
+		int height = imageData.getHeight();
+		int x = shelfX;
+		int y = shelfY;
+		int nextShelfHeight = shelfHeight;
+		
+		// Start a new shelf below the current one
+		if(x + width > size) {
+			x = 0;
+			y = shelfY + shelfHeight + padding;
+			nextShelfHeight = 0;
+		}
+		
+		if(x + width > size || y + height > size) {
+			return null;
+		}
+		
+		upload(imageData, x, y);
+		
+		shelfX = x + width + padding;
+		shelfY = y;
+		shelfHeight = Math.max(nextShelfHeight, height);
+		
+		return image.getSubImage(x, y, width, height);
+	}
+	
+	/**
+	 * Copies the pixels of an image into the atlas texture
+	 * @param imageData The decoded image
+	 * @param x The x-position in the atlas
+	 * @param y The y-position in the atlas
+	 */
+	private void upload(ImageData imageData, int x, int y)
+	{
+		int width = imageData.getWidth();
+		int height = imageData.getHeight();
+		int components = imageData.getDepth() / 8;
+		int rowLength = imageData.getTexWidth() * components;
+		ByteBuffer source = imageData.getImageBufferData();
+		ByteBuffer pixels = BufferUtils.createByteBuffer(width * height * 4);
+		
+		// The decoded image is padded to a power of two and can be RGB, the upload is tightly packed RGBA
+		for(int row = 0; row < height; row++) {
+			for(int column = 0; column < width; column++) {
+				int index = row * rowLength + column * components;
+				
+				pixels.put(source.get(index));
+				pixels.put(source.get(index + 1));
+				pixels.put(source.get(index + 2));
+				
+				if(components == 4) {
+					pixels.put(source.get(index + 3));
+				}
+				else {
+					pixels.put((byte) 255);
+				}
+			}
+		}
+		
+		pixels.flip();
+		
+		texture.bind();
+		Renderer.get().glTexSubImage2D(SGL.GL_TEXTURE_2D, 0, x, y, width, height, SGL.GL_RGBA, SGL.GL_UNSIGNED_BYTE, pixels);
+	}
+	
+}
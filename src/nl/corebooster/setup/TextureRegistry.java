@@ -0,0 +1,148 @@
+package nl.corebooster.setup;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import nl.corebooster.scenes.GameScene;
+
+import org.newdawn.slick.opengl.Texture;
+
+/**
+ * Keeps track of the textures the game has uploaded and how much memory they take. A texture takes the memory of its
+ * full size, including the padding to a power of two, and every texel takes 4 bytes, also without an alpha channel,
+ * because the textures are stored as RGBA.
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class TextureRegistry {
+	
+	private static final int bytesPerTexel = 4;
+	
+	private static LinkedHashMap<Texture, String> textures = new LinkedHashMap<Texture, String>();
+	
+	/**
+	 * Registers an uploaded texture
+	 * @param name The name to report the texture with, for example the location of its image
+	 * @param texture The texture
+	 */
+	public static void register(String name, Texture texture)
+	{
+		textures.put(texture, name);
+	}
+	
+	/**
+	 * Removes a released texture from the registry
+	 * @param texture The texture
+	 */
+	public static void unregister(Texture texture)
+	{
+		textures.remove(texture);
+	}
+	
+	/**
+	 * Returns the amount of registered textures
+	 * @return The amount of textures
+	 */
+	public static int size()
+	{
+		return textures.size();
+	}
+	
+	/**
+	 * Returns the amount of memory a texture takes
+	 * @param texture The texture
+	 * @return The amount of bytes
+	 */
+	public static long getBytes(Texture texture)
+	{
+		return (long) texture.getTextureWidth() * texture.getTextureHeight() * bytesPerTexel;
+	}
+	
+	/**
+	 * Returns the amount of memory a texture spends on padding its image to the size of the texture
+	 * @param texture The texture
+	 * @return The amount of bytes
+	 */
+	public static long getPaddingBytes(Texture texture)
+	{
+		return getBytes(texture) - (long) texture.getImageWidth() * texture.getImageHeight() * bytesPerTexel;
+	}
+	
+	/**
+	 * Returns the amount of memory a set of textures takes, every texture is counted once
+	 * @param textures The textures
+	 * @return The amount of bytes
+	 */
+	public static long getBytes(Set<Texture> textures)
+	{
+		long bytes = 0;
+		
+		for(Texture texture : textures) {
+			bytes += getBytes(texture);
+		}
+		
+		return bytes;
+	}
+	
+	/**
+	 * Returns the amount of memory all the registered textures take
+	 * @return The amount of bytes
+	 */
+	public static long getTotalBytes()
+	{
+		return getBytes(textures.keySet());
+	}
+	
+	/**
+	 * Returns a report of the memory every registered texture and every scene takes. Textures shared by scenes,
+	 * like the atlases, are counted in every scene using them.
+	 * @param scenes The scenes to report
+	 * @return The report, one line per texture and per scene
+	 */
+	public static String getReport(Collection<GameScene> scenes)
+	{
+		StringBuilder report = new StringBuilder();
+		long paddingBytes = 0;
+		
+		for(Map.Entry<Texture, String> entry : textures.entrySet()) {
+			Texture texture = entry.getKey();
+			
+			report.append(entry.getValue()).append(": ")
+					.append(texture.getImageWidth()).append('x').append(texture.getImageHeight()).append(" in ")
+					.append(texture.getTextureWidth()).append('x').append(texture.getTextureHeight()).append(", ")
+					.append(toKilobytes(getBytes(texture))).append(" KB\n");
+			
+			paddingBytes += getPaddingBytes(texture);
+		}
+		
+		for(GameScene scene : scenes) {
+			Set<Texture> sceneTextures = Collections.newSetFromMap(new IdentityHashMap<Texture, Boolean>());
+			scene.collectTextures(sceneTextures);
+			
+			report.append("Scene ").append(scene.getSceneName()).append(": ")
+					.append(sceneTextures.size()).append(" textures, ")
+					.append(toKilobytes(getBytes(sceneTextures))).append(" KB\n");
+		}
+		
+		report.append("Total: ").append(textures.size()).append(" textures, ")
+				.append(toKilobytes(getTotalBytes())).append(" KB, of which ")
+				.append(toKilobytes(paddingBytes)).append(" KB padding");
+		
+		return report.toString();
+	}
+	
+	/**
+	 * Converts an amount of bytes to kilobytes, rounded down
+	 * @param bytes The amount of bytes
+	 * @return The amount of kilobytes
+	 */
+	private static long toKilobytes(long bytes)
+	{
+		return bytes / 1024;
+	}
+	
+}
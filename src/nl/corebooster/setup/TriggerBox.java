@@ -1,6 +1,5 @@
 package nl.corebooster.setup;
 
-import org.newdawn.slick.Graphics;
 import org.newdawn.slick.geom.Rectangle;
 
 /**
@@ -162,17 +161,14 @@ public class TriggerBox {
 	}
 	
 	/**
-	 * Draws the trigger box on the screen
-	 * @param g The graphics to draw the trigger box on
+	 * Moves the trigger box to the given position, keeping its margin
 	 * @param x The new x-position of the trigger box
 	 * @param y The new y-position of the trigger box
 	 */
-	public void drawBox(Graphics g, int x, int y) 
+	public void setPosition(int x, int y)
 	{
 		box.setX(x - boxMargin);
 		box.setY(y - boxMargin);
-		g.setColor(null);
-		g.draw(box);
 	}
 	
 	/**
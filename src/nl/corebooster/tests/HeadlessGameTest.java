@@ -0,0 +1,137 @@
+package nl.corebooster.tests;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+
+import nl.corebooster.setup.Game;
+import nl.corebooster.setup.HeadlessGame;
+import nl.corebooster.setup.InputReplayer;
+import nl.corebooster.setup.InputState;
+import nl.corebooster.setup.Player;
+
+import org.junit.Test;
+import org.newdawn.slick.Input;
+
+/**
+ * Test class for the HeadlessGame class
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class HeadlessGameTest {
+	
+	private static final int maxSteps = 1000;
+	
+	/**
+	 * Runs steps with the given input until the player is in the given scene
+	 * @param headless The headless game
+	 * @param input The state of the keys, replaced by the recorded input in a replay
+	 * @param sceneName The name of the scene
+	 * @return The amount of steps it took
+	 */
+	private int tickUntilScene(HeadlessGame headless, InputState input, String sceneName) throws Exception {
+		Game game = headless.getGame();
+		int steps = 0;
+		
+		while(steps < maxSteps && (!game.isPlaying() || !game.getCurrentScene().getSceneName().equals(sceneName))) {
+			headless.tick(input);
+			steps++;
+		}
+		
+		return steps;
+	}
+	
+	/**
+	 * Skips the loading scene and the intro, then moves the player to a position in another scene
+	 * @param headless The headless game
+	 * @param input The state of the keys, replaced by the recorded input in a replay
+	 * @param sceneName The name of the scene
+	 * @param x The x-position of the player
+	 * @param y The y-position of the player
+	 * @return The player in the scene
+	 */
+	private Player enterScene(HeadlessGame headless, InputState input, String sceneName, int x, int y) throws Exception {
+		Game game = headless.getGame();
+		
+		input.setKeyDown(Input.KEY_SPACE, true);
+		tickUntilScene(headless, input, "ice");
+		input.setKeyDown(Input.KEY_SPACE, false);
+		
+		game.getCurrentScene().setNextScene(sceneName);
+		tickUntilScene(headless, input, sceneName);
+		
+		Player player = game.getCurrentScene().getPlayer();
+		player.setX(x);
+		player.setY(y);
+		
+		return player;
+	}
+	
+	@Test
+	public void testTrapdoorSwitchesScene() throws Exception {
+		HeadlessGame headless = new HeadlessGame(1);
+		InputState input = new InputState();
+		
+		// Walks up onto the trapdoor, the scene switches after its animation has played
+		enterScene(headless, input, "headquarters", 870, 140);
+		input.setKeyDown(Input.KEY_UP, true);
+		
+		assertTrue(tickUntilScene(headless, input, "basement_1") < maxSteps);
+	}
+	
+	@Test
+	public void testSpaceCakeReplay() throws Exception {
+		File file = File.createTempFile("recording", ".bin");
+		HeadlessGame headless = new HeadlessGame(3);
+		InputState input = new InputState();
+		headless.getGame().startRecording(file.getPath());
+		
+		// Walks left onto the space cake, above the bush
+		Player player = enterScene(headless, input, "outside_headquarters", 260, 10);
+		input.setKeyDown(Input.KEY_LEFT, true);
+		
+		for(int i = 0; i < 8; i++) {
+			headless.tick(input);
+		}
+		
+		input.setKeyDown(Input.KEY_LEFT, false);
+		
+		// Eats it and takes a slow step
+		input.setKeyDown(Input.KEY_1, true);
+		input.setKeyDown(Input.KEY_SPACE, true);
+		headless.tick(input);
+		input.setKeyDown(Input.KEY_1, false);
+		input.setKeyDown(Input.KEY_SPACE, false);
+		
+		int x = player.getX();
+		input.setKeyDown(Input.KEY_RIGHT, true);
+		headless.tick(input);
+		input.setKeyDown(Input.KEY_RIGHT, false);
+		assertEquals(2, player.getX() - x);
+		
+		// The effect wears off after 20 seconds of simulation steps
+		for(int i = 0; i < 400; i++) {
+			headless.tick(input);
+		}
+		
+		x = player.getX();
+		input.setKeyDown(Input.KEY_RIGHT, true);
+		headless.tick(input);
+		assertEquals(5, player.getX() - x);
+		
+		headless.getGame().getRecorder().save(file.getPath());
+		
+		// The replay eats the cake at the same step and ends in the same place
+		HeadlessGame replay = new HeadlessGame(new InputReplayer(file.getPath()));
+		enterScene(replay, new InputState(), "outside_headquarters", 260, 10);
+		
+		while(!replay.getGame().isReplayFinished()) {
+			replay.tick();
+		}
+		
+		file.delete();
+		
+		assertEquals(headless.getPlayerPosition(), replay.getPlayerPosition());
+	}
+	
+}
@@ -0,0 +1,96 @@
+package nl.corebooster.tests;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+
+import nl.corebooster.setup.InputRecorder;
+import nl.corebooster.setup.InputReplayer;
+import nl.corebooster.setup.InputState;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.newdawn.slick.Input;
+
+/**
+ * Test class for the InputRecorder and InputReplayer classes
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class InputRecorderTest {
+	
+	private File file;
+	
+	@Before
+	public void setUp() throws Exception {
+		file = File.createTempFile("recording", ".bin");
+	}
+	
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+	
+	@Test
+	public void testReplay() throws Exception {
+		InputRecorder recorder = new InputRecorder(42);
+		InputState input = new InputState();
+		
+		// Holds right for three steps, then presses space
+		input.setKeyDown(Input.KEY_RIGHT, true);
+		recorder.record(input);
+		input.isKeyPressed(Input.KEY_RIGHT);
+		recorder.record(input);
+		recorder.record(input);
+		input.setKeyDown(Input.KEY_RIGHT, false);
+		input.setKeyDown(Input.KEY_SPACE, true);
+		recorder.record(input);
+		recorder.save(file.getPath());
+		
+		InputReplayer replayer = new InputReplayer(file.getPath());
+		InputState replayed = new InputState();
+		
+		assertEquals(42, replayer.getSeed());
+		assertEquals(4, replayer.getStepCount());
+		
+		replayer.next(replayed);
+		assertEquals(true, replayed.isKeyDown(Input.KEY_RIGHT));
+		assertEquals(true, replayed.isKeyPressed(Input.KEY_RIGHT));
+		
+		replayer.next(replayed);
+		replayer.next(replayed);
+		assertEquals(true, replayed.isKeyDown(Input.KEY_RIGHT));
+		assertEquals(false, replayed.isKeyPressed(Input.KEY_RIGHT));
+		
+		replayer.next(replayed);
+		assertEquals(false, replayed.isKeyDown(Input.KEY_RIGHT));
+		assertEquals(true, replayed.isKeyPressed(Input.KEY_SPACE));
+		assertEquals(false, replayer.hasNext());
+	}
+	
+	@Test
+	public void testRunsAreMerged() throws Exception {
+		InputRecorder recorder = new InputRecorder(1);
+		InputState input = new InputState();
+		
+		input.setKeyDown(Input.KEY_UP, true);
+		input.isKeyPressed(Input.KEY_UP);
+		
+		for(int i = 0; i < 1000; i++) {
+			recorder.record(input);
+		}
+		
+		recorder.save(file.getPath());
+		
+		// The header and a single run
+		assertEquals(32, file.length());
+		assertEquals(1000, new InputReplayer(file.getPath()).getStepCount());
+	}
+	
+	@Test(expected = java.io.IOException.class)
+	public void testNotARecording() throws Exception {
+		new InputReplayer(new File("data/scenes/ice.xml").getPath());
+	}
+	
+}
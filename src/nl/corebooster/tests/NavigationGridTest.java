@@ -0,0 +1,77 @@
+package nl.corebooster.tests;
+
+import static org.junit.Assert.*;
+
+import nl.corebooster.setup.CollisionBox;
+import nl.corebooster.setup.NavigationGrid;
+import nl.corebooster.setup.SpatialGrid;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.newdawn.slick.util.pathfinding.JumpPointPathFinder;
+import org.newdawn.slick.util.pathfinding.Path;
+
+/**
+ * Test class for the NavigationGrid class
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class NavigationGridTest {
+	
+	private NavigationGrid navigationGrid;
+	
+	@Before
+	public void setUp() throws Exception {
+		SpatialGrid<CollisionBox> collisionGrid = new SpatialGrid<CollisionBox>(960, 540, 96);
+		
+		// A wall across the scene with a gap of two tiles on the right
+		CollisionBox wall = new CollisionBox(0, 256, 896, 32);
+		collisionGrid.add(wall, wall.getShape());
+		
+		navigationGrid = new NavigationGrid(collisionGrid, 960, 540, 32);
+	}
+	
+	@Test
+	public void testSize() {
+		assertEquals(30, navigationGrid.getWidthInTiles());
+		assertEquals(16, navigationGrid.getHeightInTiles());
+	}
+	
+	@Test
+	public void testIsFree() {
+		assertEquals(true, navigationGrid.isFree(0, 0, 2, 2));
+		assertEquals(false, navigationGrid.isFree(10, 8, 1, 1));
+		assertEquals(true, navigationGrid.isFree(28, 8, 2, 1));
+	}
+	
+	@Test
+	public void testTouchingBoxDoesNotBlock() {
+		assertEquals(true, navigationGrid.isFree(0, 7, 1, 1));
+		assertEquals(true, navigationGrid.isFree(0, 9, 1, 1));
+	}
+	
+	@Test
+	public void testIsFreeOutsideGrid() {
+		assertEquals(false, navigationGrid.isFree(-1, 0, 1, 1));
+		assertEquals(false, navigationGrid.isFree(29, 0, 2, 1));
+	}
+	
+	@Test
+	public void testPathThroughGap() {
+		JumpPointPathFinder pathFinder = new JumpPointPathFinder(navigationGrid, 480, false);
+		Path path = pathFinder.findPath(null, 0, 0, 0, 15);
+		
+		assertNotNull(path);
+		
+		boolean passesGap = false;
+		
+		for(int i = 0; i < path.getLength(); i++) {
+			if(path.getY(i) == 8) {
+				passesGap = path.getX(i) >= 28;
+			}
+		}
+		
+		assertEquals(true, passesGap);
+	}
+	
+}
@@ -0,0 +1,69 @@
+package nl.corebooster.tests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+
+import nl.corebooster.scenes.GameScene;
+import nl.corebooster.setup.Assets;
+import nl.corebooster.setup.GameRandom;
+import nl.corebooster.setup.Player;
+import nl.corebooster.setup.SceneEntity;
+import nl.corebooster.setup.SceneRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for the SceneRegistry class
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class SceneRegistryTest {
+	
+	private SceneRegistry scenes;
+	
+	@Before
+	public void setUp() {
+		Assets.setHeadless();
+		GameRandom.setSeed(5);
+		
+		scenes = new SceneRegistry(Long.MAX_VALUE);
+		scenes.register("basement_1", 864, 80);
+	}
+	
+	/**
+	 * Returns the name and position of every entity of a scene
+	 * @param scene The scene
+	 * @return One description per entity
+	 */
+	private ArrayList<String> describeEntities(GameScene scene) {
+		ArrayList<String> descriptions = new ArrayList<String>();
+		
+		for(SceneEntity entity : scene.getEntities()) {
+			descriptions.add(entity.getSpriteName() + " (" + entity.getX() + ", " + entity.getY() + ")");
+		}
+		
+		return descriptions;
+	}
+	
+	@Test
+	public void testUnloadedSceneIsRebuiltTheSame() throws Exception {
+		GameScene scene = scenes.getScene("basement_1");
+		ArrayList<String> entities = describeEntities(scene);
+		scene.getPlayer().setX(500);
+		scene.getPlayer().setY(300);
+		
+		assertTrue(scenes.unload("basement_1"));
+		assertFalse(scenes.isResident("basement_1"));
+		
+		GameScene rebuiltScene = scenes.getScene("basement_1");
+		Player player = rebuiltScene.getPlayer();
+		
+		assertTrue(scene != rebuiltScene);
+		assertEquals(entities, describeEntities(rebuiltScene));
+		assertEquals(500, player.getX());
+		assertEquals(300, player.getY());
+	}
+	
+}
@@ -0,0 +1,110 @@
+package nl.corebooster.tests;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+
+import nl.corebooster.setup.SpatialGrid;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.newdawn.slick.geom.Rectangle;
+
+/**
+ * Test class for the SpatialGrid class
+ * @author Raymon de Looff, Thijs Clowting, Richard Weug
+ * @version 1.0
+ */
+public class SpatialGridTest {
+	
+	private SpatialGrid<String> spatialGrid;
+	private Rectangle shelf;
+	private Rectangle wall;
+	
+	@Before
+	public void setUp() throws Exception {
+		spatialGrid = new SpatialGrid<String>(960, 540, 96);
+		
+		shelf = new Rectangle(192, 156, 96, 96);
+		wall = new Rectangle(0, 0, 960, 60);
+		
+		spatialGrid.add("shelf", shelf);
+		spatialGrid.add("wall", wall);
+	}
+	
+	@Test
+	public void testIsOverlapping() {
+		Rectangle box = new Rectangle(250, 200, 64, 64);
+		
+		assertEquals(true, spatialGrid.isOverlapping(box));
+	}
+	
+	@Test
+	public void testIsNotOverlapping() {
+		Rectangle box = new Rectangle(500, 300, 64, 64);
+		
+		assertEquals(false, spatialGrid.isOverlapping(box));
+	}
+	
+	@Test
+	public void testIsOverlappingOutsideGrid() {
+		Rectangle box = new Rectangle(-50, -50, 64, 64);
+		
+		assertEquals(true, spatialGrid.isOverlapping(box));
+	}
+	
+	@Test
+	public void testGetFirstOverlapping() {
+		Rectangle box = new Rectangle(200, 30, 64, 200);
+		
+		assertEquals("shelf", spatialGrid.getFirstOverlapping(box));
+	}
+	
+	@Test
+	public void testGetOverlapping() {
+		Rectangle box = new Rectangle(0, 0, 960, 540);
+		ArrayList<String> result = new ArrayList<String>();
+		
+		spatialGrid.getOverlapping(box, result);
+		
+		assertEquals(2, result.size());
+	}
+	
+	@Test
+	public void testRemove() {
+		Rectangle box = new Rectangle(250, 200, 64, 64);
+		
+		spatialGrid.remove("shelf");
+		
+		assertEquals(false, spatialGrid.isOverlapping(box));
+		assertEquals(1, spatialGrid.size());
+	}
+	
+	@Test
+	public void testUpdate() {
+		Rectangle box = new Rectangle(700, 400, 64, 64);
+		
+		// Moves the shelf to the bottom right of the scene
+		shelf.setX(672);
+		shelf.setY(444);
+		spatialGrid.update("shelf");
+		
+		assertEquals(true, spatialGrid.isOverlapping(box));
+	}
+	
+	@Test
+	public void testGetOverlappingInOrder() {
+		Rectangle box = new Rectangle(0, 0, 960, 540);
+		ArrayList<String> result = new ArrayList<String>();
+		
+		// The floor is added last but spans every cell, it still comes back in the order it was added
+		spatialGrid.add("floor", new Rectangle(0, 0, 960, 540));
+		spatialGrid.getOverlappingInOrder(box, result);
+		
+		assertEquals(3, result.size());
+		assertEquals("shelf", result.get(0));
+		assertEquals("wall", result.get(1));
+		assertEquals("floor", result.get(2));
+	}
+	
+}